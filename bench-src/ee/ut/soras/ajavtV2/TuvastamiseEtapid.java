@@ -0,0 +1,69 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2;
+
+import java.util.List;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MustriSobitamiseKontekst;
+
+/**
+ *   Ligip&auml;&auml;s <code>AjaTuvastaja</code> yksikutele tuvastamisetappidele (vt
+ *  <code>AjaTuvastaja.tuvastaAjavaljendidSonades</code>) kiiruse m&otilde;&otilde;tmiseks. Etappe
+ *  tuleb rakendada samas j&auml;rjekorras, nagu seda teeb tuvastaja ise; reeglid peavad olema
+ *  eelnevalt laetud (<code>AjaTuvastaja.laeReeglidVajadusel()</code>).
+ *  <p>
+ *  Klass kuulub m&otilde;&otilde;tmiste l&auml;htekoodi hulka (<tt>bench-src</tt>) ega j&otilde;ua
+ *  distributsiooni.
+ *
+ *  @author Siim Orasmaa
+ */
+public class TuvastamiseEtapid {
+
+	/**
+	 *   Etapp 2: ajav&auml;ljendikandidaatide eraldamine fraasimustrite j&auml;rgi.
+	 */
+	public static void eraldaKandidaadid(AjaTuvastaja tuvastaja, List<AjavtSona> sonad) throws Exception {
+		MustriSobitamiseKontekst kontekst =
+			new MustriSobitamiseKontekst( (tuvastaja.getMudel()).getMudeliTahised(), null );
+		tuvastaja.eraldaAjavaljendiKandidaadid(sonad, kontekst);
+	}
+
+	/**
+	 *   Etapp 3: ylekatete lahendamine ja negatiivsete mustrite rakendamine.
+	 */
+	public static void lahendaYlekatted(AjaTuvastaja tuvastaja, List<AjavtSona> sonad) {
+		tuvastaja.lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad);
+	}
+
+	/**
+	 *   Etapp 4: k&otilde;rvutiseisvate kandidaatide liitmine fraasideks.
+	 */
+	public static void liidaFraasid(AjaTuvastaja tuvastaja, List<AjavtSona> sonad) throws Exception {
+		tuvastaja.liidaKorvutiseisvadAjavaljendiFraasid2(sonad);
+	}
+
+	/**
+	 *   Etapp 5: ajavahemike eraldamine.
+	 */
+	public static void eraldaVahemikud(AjaTuvastaja tuvastaja, List<AjavtSona> sonad) {
+		tuvastaja.eraldaAjavahemikudJaLiidaFraasiks(sonad);
+	}
+
+}
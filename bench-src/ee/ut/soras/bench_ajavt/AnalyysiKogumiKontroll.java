@@ -0,0 +1,367 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.bench_ajavt;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ee.ut.soras.ajavtV2.AjaTuvastaja;
+import ee.ut.soras.ajavtV2.JarelTootlus;
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.wrappers.EstyhmmWrapper;
+import ee.ut.soras.wrappers.erind.EstYhmmErind;
+import ee.ut.soras.wrappers.impl.EstyhmmWrapperImpl;
+import ee.ut.soras.wrappers.impl.EstyhmmWrapperPoolImpl;
+
+/**
+ *   Analysaatorite kogumi (<code>EstyhmmWrapperPoolImpl</code>) kontroll: morf analysaatori
+ *  asemel kasutatakse tynki <tt>t3mesta-tynk.sh</tt>, mis v&otilde;tab analyysid korpuse
+ *  failist <tt>laused.t3mesta</tt> ning mille k&auml;itumist (suremine, vastamata j&auml;&auml;mine,
+ *  v&auml;ljundi puhverdamine) saab lippudega m&auml;&auml;rata. Kontrollitakse, et
+ *  <ul>
+ *    <li> eraldaja-protokolliga saadud analyysid (ka l6imede vahel jagatult ning tuvastaja
+ *         v&auml;ljundis) on samad, mis iga dokumendi jaoks uue protsessiga (<code>EstyhmmWrapperImpl</code>);
+ *    <li> vastuse aegumisel protsess taask&auml;ivitatakse ja p&auml;ringut proovitakse veel yhe korra;
+ *    <li> surnud protsess taask&auml;ivitatakse ja p&auml;ringut proovitakse vaid yhe korra;
+ *    <li> <code>kontrolliTervist()</code> k&auml;ivitab protsessid ning taask&auml;ivitab surnud protsessi;
+ *    <li> v&auml;ljundit puhverdav analysaator avastatakse soojendusp&auml;ringul kohe.
+ *  </ul>
+ *  Tynk on <tt>sh</tt>/<tt>awk</tt> skript, seega vajab kontroll Unix-laadset keskkonda.
+ *  <p>
+ *  Kasutamine (vt ka ant-i eesm&auml;rk <tt>check-pool</tt>):
+ *  <pre>
+ *     java ee.ut.soras.bench_ajavt.AnalyysiKogumiKontroll [-r reeglid.xml] [-korpus kaust] [-tynk skript]
+ *  </pre>
+ *  Kui m&otilde;ni kontroll eba&otilde;nnestub, l&otilde;petab programm koodiga 1.
+ *
+ *  @author Siim Orasmaa
+ */
+public class AnalyysiKogumiKontroll {
+
+	private static final String KONEHETK = "2010-06-15T12:00";
+
+	/** Vastuse aegumine (ms) aegumise kontrollis. */
+	private static final long AEGUMINE = 500L;
+
+	private final String kask;
+	private final List<String> dokumendid;
+	private final String reegliFail;
+
+	private int kontrolle = 0;
+	private int vigu      = 0;
+
+	AnalyysiKogumiKontroll(String tynk, String korpuseKaust, String reegliFail) throws Exception {
+		File leksikon   = new File(korpuseKaust, "laused.t3mesta");
+		this.kask       = "sh " + tynk + " -leksikon " + leksikon.getPath();
+		this.dokumendid = looDokumendid( leksikon );
+		this.reegliFail = reegliFail;
+	}
+
+	/**
+	 *   Moodustab t3mesta failist analyysitavad dokumendid: s6nad liidetakse tekstiks ning
+	 *  iga kolme lause j&auml;rel alustatakse uut dokumenti.
+	 */
+	private static List<String> looDokumendid(File leksikon) throws Exception {
+		List<String> dokumendid = new ArrayList<String>();
+		StringBuilder dokument = new StringBuilder();
+		int lauseid = 0;
+		for (String rida : Files.readAllLines( leksikon.toPath(), StandardCharsets.UTF_8 )) {
+			int tyhik = rida.indexOf("    ");
+			if (tyhik < 1){
+				continue;
+			}
+			String sona = rida.substring(0, tyhik);
+			if (dokument.length() > 0 && !sona.matches("[.,!?:;]")){
+				dokument.append(' ');
+			}
+			dokument.append(sona);
+			if (sona.matches("[.!?]") && ++lauseid % 3 == 0){
+				dokumendid.add( dokument.toString() );
+				dokument.setLength(0);
+			}
+		}
+		if (dokument.length() > 0){
+			dokumendid.add( dokument.toString() );
+		}
+		return dokumendid;
+	}
+
+	//==============================================================================
+	//   	K o n t r o l l i d
+	//==============================================================================
+
+	/**
+	 *   Eraldaja-protokoll: kogumi vastused (j&auml;rjest ning l6imede vahel jagatult) on samad,
+	 *  mis iga dokumendi jaoks uue protsessiga; protsesse k&auml;ivitatakse vaid kogumi suuruse
+	 *  jagu.
+	 */
+	void kontrolliEraldajaProtokolli() throws Exception {
+		System.out.println(" Eraldaja-protokoll:");
+		EstyhmmWrapper yksikud = new EstyhmmWrapperImpl( this.kask, "UTF-8" );
+		final List<String> oodatud = new ArrayList<String>();
+		for (String dokument : this.dokumendid) {
+			oodatud.add( yksikud.process(dokument) );
+		}
+		File logi = looLogi();
+		final EstyhmmWrapperPoolImpl kogum =
+				new EstyhmmWrapperPoolImpl( this.kask + " -logi " + logi.getPath(), "UTF-8", 2 );
+		try {
+			for (int i = 0; i < this.dokumendid.size(); i++) {
+				vordle( "dokument "+(i+1), oodatud.get(i), kogum.process( this.dokumendid.get(i) ) );
+			}
+			vordle( "tyhi dokument", "", kogum.process("") );
+			ExecutorService taitja = Executors.newFixedThreadPool(4);
+			try {
+				List<Future<String>> vastused = new ArrayList<Future<String>>();
+				for (int korrus = 0; korrus < 3; korrus++) {
+					for (final String dokument : this.dokumendid) {
+						vastused.add( taitja.submit( new Callable<String>() {
+							public String call() throws Exception {
+								return kogum.process( dokument );
+							}
+						}) );
+					}
+				}
+				int erinevaid = 0;
+				for (int i = 0; i < vastused.size(); i++) {
+					if (!(oodatud.get(i % oodatud.size())).equals( (vastused.get(i)).get() )){
+						erinevaid++;
+					}
+				}
+				kontrolli( "l6imede vahel jagatud p2ringud ("+vastused.size()+"): "+erinevaid+" erinevat",
+						erinevaid == 0 );
+			} finally {
+				taitja.shutdown();
+			}
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 2)", loeKaivitused(logi) == 2 );
+			// Sama tulemus ka tuvastaja v2ljundis
+			String [] konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg( KONEHETK );
+			String tekst = (this.dokumendid).get(0);
+			vordle( "tuvastaja v2ljund", tuvasta(yksikud, konehetk, tekst), tuvasta(kogum, konehetk, tekst) );
+		} finally {
+			kogum.close();
+		}
+	}
+
+	/**
+	 *   Vastuse aegumine: vastamata j&auml;&auml;nud protsess taask&auml;ivitatakse, p&auml;ringut
+	 *  proovitakse veel yhe korra ning j&auml;rgmine p&auml;ring saab vastuse juba uuelt protsessilt.
+	 */
+	void kontrolliAegumist() throws Exception {
+		System.out.println(" Vastuse aegumine:");
+		File logi = looLogi();
+		EstyhmmWrapperPoolImpl kogum =
+				new EstyhmmWrapperPoolImpl( this.kask + " -logi " + logi.getPath() + " -jaa_toppama JAA_TOPPAMA", "UTF-8", 1 );
+		kogum.setVastuseAegumine( AEGUMINE );
+		try {
+			long algus = System.currentTimeMillis();
+			kontrolliErindit( "aeguv p2ring", kogum, "Eelmisel JAA_TOPPAMA n2dalal ." );
+			long kestus = System.currentTimeMillis() - algus;
+			kontrolli( "aeguv p2ring kestis "+kestus+" ms (2 katset x "+AEGUMINE+" ms)",
+					kestus >= 2 * AEGUMINE && kestus < 10 * AEGUMINE );
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 3)", loeKaivitused(logi) == 3 );
+			String dokument = (this.dokumendid).get(0);
+			vordle( "p2ring p2rast aegumist", (new EstyhmmWrapperImpl( this.kask, "UTF-8" )).process(dokument),
+					kogum.process(dokument) );
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 3)", loeKaivitused(logi) == 3 );
+		} finally {
+			kogum.close();
+		}
+	}
+
+	/**
+	 *   Surnud protsess: kui protsess sureb p&auml;ringu ajal yhe korra, saab p&auml;ring vastuse
+	 *  uuelt protsessilt; kui ka uus protsess sureb, visatakse erind (rohkem katseid ei tehta).
+	 */
+	void kontrolliSurma() throws Exception {
+		System.out.println(" Surnud protsess:");
+		String tekst = "Eelmisel SURE n2dalal .";
+		File lipp = File.createTempFile("ajavt-tynk-", ".lipp");
+		lipp.delete();
+		File logi = looLogi();
+		EstyhmmWrapperPoolImpl kogum = new EstyhmmWrapperPoolImpl( this.kask + " -logi " + logi.getPath() +
+				" -sure SURE -sure_korra " + lipp.getPath(), "UTF-8", 1 );
+		try {
+			vordle( "yhe korra surev protsess", (new EstyhmmWrapperImpl( this.kask, "UTF-8" )).process(tekst),
+					kogum.process(tekst) );
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 2)", loeKaivitused(logi) == 2 );
+		} finally {
+			kogum.close();
+			lipp.delete();
+		}
+		logi = looLogi();
+		kogum = new EstyhmmWrapperPoolImpl( this.kask + " -logi " + logi.getPath() + " -sure SURE", "UTF-8", 1 );
+		try {
+			kontrolliErindit( "alati surev protsess", kogum, tekst );
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 3)", loeKaivitused(logi) == 3 );
+			String dokument = (this.dokumendid).get(0);
+			vordle( "p2ring p2rast surma", (new EstyhmmWrapperImpl( this.kask, "UTF-8" )).process(dokument),
+					kogum.process(dokument) );
+		} finally {
+			kogum.close();
+		}
+	}
+
+	/**
+	 *   Tervisekontroll: k&auml;ivitab veel k&auml;ivitamata protsessid (taask&auml;ivitusi ei loeta)
+	 *  ning taask&auml;ivitab v&auml;ljastpoolt tapetud protsessi.
+	 */
+	void kontrolliTervist() throws Exception {
+		System.out.println(" Tervisekontroll:");
+		File logi = looLogi();
+		EstyhmmWrapperPoolImpl kogum = new EstyhmmWrapperPoolImpl( this.kask + " -logi " + logi.getPath(), "UTF-8", 2 );
+		try {
+			int taaskaivitatud = kogum.kontrolliTervist();
+			kontrolli( "soojendamisel taask2ivitatud: "+taaskaivitatud+" (oodatud 0)", taaskaivitatud == 0 );
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 2)", loeKaivitused(logi) == 2 );
+			String pid = ((Files.readAllLines( logi.toPath() )).get(0)).split(" ")[1];
+			(new ProcessBuilder("kill", "-9", pid)).start().waitFor();
+			Thread.sleep(200);
+			taaskaivitatud = kogum.kontrolliTervist();
+			kontrolli( "p2rast protsessi "+pid+" tapmist taask2ivitatud: "+taaskaivitatud+" (oodatud 1)",
+					taaskaivitatud == 1 );
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 3)", loeKaivitused(logi) == 3 );
+			String dokument = (this.dokumendid).get(0);
+			vordle( "p2ring p2rast tervisekontrolli", (new EstyhmmWrapperImpl( this.kask, "UTF-8" )).process(dokument),
+					kogum.process(dokument) );
+		} finally {
+			kogum.close();
+		}
+	}
+
+	/**
+	 *   V&auml;ljundit puhverdav analysaator: soojendusp&auml;ring aegub k&auml;ivitamise ajal
+	 *  (<code>vastuseAegumine</code> ootamata) ning ka j&auml;rgmised p&auml;ringud l&otilde;petatakse
+	 *  kohe.
+	 */
+	void kontrolliPuhverdamist() throws Exception {
+		System.out.println(" V2ljundit puhverdav analysaator:");
+		File logi = looLogi();
+		EstyhmmWrapperPoolImpl kogum =
+				new EstyhmmWrapperPoolImpl( this.kask + " -logi " + logi.getPath() + " -puhverda", "UTF-8", 1 );
+		kogum.setKaivitusAegumine( 2 * AEGUMINE );
+		try {
+			long algus = System.currentTimeMillis();
+			String teade = null;
+			try {
+				kogum.kontrolliTervist();
+			} catch (EstYhmmErind e) {
+				teade = e.getMessage();
+			}
+			long kestus = System.currentTimeMillis() - algus;
+			kontrolli( "soojendusp2ringu erind ("+kestus+" ms): "+teade,
+					teade != null && teade.contains("buffers its output") && kestus < kogum.getVastuseAegumine() );
+			algus = System.currentTimeMillis();
+			kontrolliErindit( "p2ring p2rast soojendust", kogum, (this.dokumendid).get(0) );
+			kestus = System.currentTimeMillis() - algus;
+			kontrolli( "p2ring l6petati "+kestus+" ms j2rel", kestus < AEGUMINE );
+			kontrolli( "k2ivitatud protsesse: "+loeKaivitused(logi)+" (oodatud 1)", loeKaivitused(logi) == 1 );
+		} finally {
+			kogum.close();
+		}
+	}
+
+	//==============================================================================
+	//   	A b i m e e t o d i d
+	//==============================================================================
+
+	private String tuvasta(EstyhmmWrapper wrapper, String [] konehetk, String tekst) throws Exception {
+		AjaTuvastaja tuvastaja = new AjaTuvastaja();
+		tuvastaja.setReegliFail( this.reegliFail );
+		tuvastaja.setWrapper( wrapper );
+		List<AjavtSona> sonad = tuvastaja.tuvastaAjavaljendidTekstis( konehetk, tekst, null, false );
+		return JarelTootlus.eraldamiseTulemusPretty( sonad, tekst, false, JarelTootlus.formatAsCreationTime(konehetk) );
+	}
+
+	private void kontrolliErindit(String nimi, EstyhmmWrapper wrapper, String tekst) throws Exception {
+		String teade = null;
+		try {
+			wrapper.process(tekst);
+		} catch (EstYhmmErind e) {
+			teade = e.getMessage();
+		}
+		kontrolli( nimi+": "+((teade != null) ? ("erind '"+teade+"'") : ("erindit ei visatud")), teade != null );
+	}
+
+	private void vordle(String nimi, String oodatud, String saadud){
+		kontrolli( nimi, oodatud.equals(saadud) );
+		if (!oodatud.equals(saadud)){
+			System.out.println("      oodatud: "+oodatud.replace("\n", "\\n"));
+			System.out.println("      saadud:  "+saadud.replace("\n", "\\n"));
+		}
+	}
+
+	private void kontrolli(String nimi, boolean korras){
+		kontrolle++;
+		if (!korras){
+			vigu++;
+		}
+		System.out.println("   "+((korras) ? ("OK   ") : ("VIGA ")) + nimi);
+	}
+
+	private static File looLogi() throws Exception {
+		File logi = File.createTempFile("ajavt-tynk-", ".log");
+		logi.deleteOnExit();
+		return logi;
+	}
+
+	private static int loeKaivitused(File logi) throws Exception {
+		return (Files.readAllLines( logi.toPath() )).size();
+	}
+
+	//==============================================================================
+	//   	K 2 i v i t a m i n e    k 2 s u r e a l t
+	//==============================================================================
+
+	public static void main(String[] args) throws Exception {
+		String reegliFail   = "res" + File.separator + "reeglid.xml";
+		String korpuseKaust = "bench-src" + File.separator + "korpus";
+		String tynk         = "bench-src" + File.separator + "t3mesta-tynk.sh";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-r") && i + 1 < args.length){
+				reegliFail = args[++i];
+			} else if (args[i].equals("-korpus") && i + 1 < args.length){
+				korpuseKaust = args[++i];
+			} else if (args[i].equals("-tynk") && i + 1 < args.length){
+				tynk = args[++i];
+			} else {
+				System.err.println("Tundmatu argument: "+args[i]);
+				System.err.println("Kasutus: AnalyysiKogumiKontroll [-r reeglid.xml] [-korpus kaust] [-tynk skript]");
+				System.exit(1);
+			}
+		}
+		AnalyysiKogumiKontroll kontroll = new AnalyysiKogumiKontroll(tynk, korpuseKaust, reegliFail);
+		kontroll.kontrolliEraldajaProtokolli();
+		kontroll.kontrolliAegumist();
+		kontroll.kontrolliSurma();
+		kontroll.kontrolliTervist();
+		kontroll.kontrolliPuhverdamist();
+		System.out.println(" Kokku: "+kontroll.kontrolle+" kontrolli, "+kontroll.vigu+" eba6nnestus");
+		System.exit( (kontroll.vigu > 0) ? (1) : (0) );
+	}
+
+}
@@ -0,0 +1,238 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.bench_ajavt;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import ee.ut.soras.ajavtV2.AjaTuvastaja;
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
+
+/**
+ *   Ankrukandidaatide eelfiltri kontroll: ankrute otsimisel j&auml;etakse vahele kandidaadid,
+ *  mille granulaarsuste mask (<code>AjavaljendiKandidaat.leiaGranulaarsusteMask()</code>) ei
+ *  kattu ankurdamisoperatsiooni n&otilde;utud granulaarsustega
+ *  (<code>leiaAnkruN6utudGranulaarsusteMask()</code>). Kontrollitakse, et
+ *  <ul>
+ *    <li> korpuse (<tt>laused.t3olp</tt> ning <tt>laused.json</tt>) k&otilde;igi kandidaadipaaride
+ *         korral, mil <code>sobibAnkruKandidaadiks</code> on t&otilde;ene, eelfilter kandidaati
+ *         vahele ei j&auml;ta;
+ *    <li> k&otilde;igi granulaarsuste lubamisel (<tt>semField="*"</tt>) leitakse ankruks ka
+ *         granulaarsuseta kandidaat (<i>"... vaatavad n&uuml;&uuml;d ... Kuus kuud varem ..."</i>:
+ *         ankruks on PRESENT_REF, mitte eelnev kuup&auml;ev).
+ *  </ul>
+ *  Kasutamine (vt ka ant-i eesm&auml;rk <tt>check-anchors</tt>):
+ *  <pre>
+ *     java ee.ut.soras.bench_ajavt.AnkruOtsinguKontroll [-r reeglid.xml] [-korpus kaust]
+ *  </pre>
+ *  Kui m&otilde;ni kontroll eba&otilde;nnestub, l&otilde;petab programm koodiga 1.
+ *
+ *  @author Siim Orasmaa
+ */
+public class AnkruOtsinguKontroll {
+
+	private static final String KONEHETK = "2014-05-12T10:00";
+
+	/**
+	 *   "Eile &ouml;eldi, et vaatavad n&uuml;&uuml;d asja &uuml;le. Kuus kuud varem oli olukord teine."
+	 */
+	private static final String KOIK_GRANULAARSUSED_T3OLP =
+		"<s>\n"+
+		"Eile    eile+0 //_D_ //\n"+
+		"\u00F6eldi    \u00FCtle+ti //_V_ ti, //\n"+
+		",    , //_Z_ //\n"+
+		"et    et+0 //_J_ //\n"+
+		"vaatavad    vaata+vad //_V_ vad, //\n"+
+		"n\u00FC\u00FCd    n\u00FC\u00FCd+0 //_D_ //\n"+
+		"asja    asi+0 //_S_ sg p, //\n"+
+		"\u00FCle    \u00FCle+0 //_D_ //\n"+
+		".    . //_Z_ //\n"+
+		"</s>\n"+
+		"<s>\n"+
+		"Kuus    kuus+0 //_N_ sg n, //\n"+
+		"kuud    kuu+d //_S_ sg p, //\n"+
+		"varem    varem+0 //_D_ //\n"+
+		"oli    ole+i //_V_ s, //\n"+
+		"olukord    olu_kord+0 //_S_ sg n, //\n"+
+		"teine    teine+0 //_O_ sg n, //\n"+
+		".    . //_Z_ //\n"+
+		"</s>\n";
+
+	private final String [] konehetk;
+	private final AjaTuvastaja tuvastaja;
+
+	private int kontrolle = 0;
+	private int vigu      = 0;
+
+	AnkruOtsinguKontroll(String reegliFail) throws Exception {
+		this.konehetk  = ReferentsAjaParsija.looSonePohjalReferentsAeg( KONEHETK );
+		this.tuvastaja = new AjaTuvastaja();
+		(this.tuvastaja).setReegliFail( reegliFail );
+		(this.tuvastaja).laeReeglidVajadusel();
+	}
+
+	//==============================================================================
+	//   	K o n t r o l l i d
+	//==============================================================================
+
+	/**
+	 *   Eelfilter ei j&auml;ta vahele yhtki kandidaati, millega <code>sobibAnkruKandidaadiks</code>
+	 *  n&otilde;ustuks (m&otilde;lemas otsingusuunas).
+	 */
+	void kontrolliEelfiltrit(String nimi, List<AjavtSona> sonad){
+		List<AjavaljendiKandidaat> kandidaadid = leiaKandidaadid( sonad );
+		int sobivaid = 0;
+		int granulaarsuseta = 0;
+		int valesti = 0;
+		for (AjavaljendiKandidaat ajavk : kandidaadid) {
+			int n6utudMask = ajavk.leiaAnkruN6utudGranulaarsusteMask();
+			for (AjavaljendiKandidaat ankur : kandidaadid) {
+				if (ankur == ajavk){
+					continue;
+				}
+				for (int suund : new int [] { -1, 1 }) {
+					if (ajavk.sobibAnkruKandidaadiks(ankur, suund, false)){
+						int mask = ankur.leiaGranulaarsusteMask();
+						sobivaid++;
+						if (mask == 0){
+							granulaarsuseta++;
+						}
+						if (n6utudMask != -1 && (mask & n6utudMask) == 0){
+							valesti++;
+						}
+					}
+				}
+			}
+		}
+		kontrolli( nimi+": "+kandidaadid.size()+" kandidaati, "+sobivaid+" sobivat paari ("+
+		           granulaarsuseta+" granulaarsuseta ankruga), eelfilter j2tab vahele "+valesti,
+		           valesti == 0 );
+	}
+
+	/**
+	 *   K&otilde;igi granulaarsuste lubamisel ankurdatakse <i>"Kuus kuud varem"</i> granulaarsuseta
+	 *  kandidaadi <i>"n&uuml;&uuml;d"</i> kylge, mitte kaugema <i>"Eile"</i> kylge.
+	 */
+	void kontrolliKoikiGranulaarsusi() throws Exception {
+		List<AjavtSona> sonad =
+				(this.tuvastaja).tuvastaAjavaljendidT3OLP( konehetk, KOIK_GRANULAARSUSED_T3OLP, false, false );
+		AjavaljendiKandidaat ajavk = null;
+		for (AjavaljendiKandidaat kandidaat : leiaKandidaadid( sonad )) {
+			if ("Kuus".equals( ((kandidaat.getFraas()).get(0)).getAlgSona() )){
+				ajavk = kandidaat;
+			}
+		}
+		kontrolli( "'Kuus kuud varem' eraldati", ajavk != null );
+		if (ajavk != null){
+			kontrolli( "'Kuus kuud varem' lubab k6iki granulaarsuseid (mask -1)",
+			           ajavk.leiaAnkruN6utudGranulaarsusteMask() == -1 );
+			AjavaljendiKandidaat ankur = ajavk.getAnkurdatudKandidaat();
+			String ankruTekst = (ankur != null) ? (fraasiTekst( ankur )) : (null);
+			kontrolli( "'Kuus kuud varem' ankur: "+ankruTekst+" (oodatud 'n\u00FC\u00FCd')",
+			           "n\u00FC\u00FCd".equals( ankruTekst ) );
+			if (ankur != null){
+				kontrolli( "ankru granulaarsuste mask: "+ankur.leiaGranulaarsusteMask()+" (oodatud 0)",
+				           ankur.leiaGranulaarsusteMask() == 0 );
+			}
+		}
+		kontrolliEelfiltrit( "k6ik granulaarsused", sonad );
+	}
+
+	//==============================================================================
+	//   	A b i m e e t o d i d
+	//==============================================================================
+
+	/**
+	 *   S6nadega seotud mustri poolt eraldatud kandidaadid (iga kandidaat yks kord, tekstis
+	 *  esinemise j&auml;rjekorras).
+	 */
+	private static List<AjavaljendiKandidaat> leiaKandidaadid(List<AjavtSona> sonad){
+		IdentityHashMap<AjavaljendiKandidaat, Boolean> nahtud =
+				new IdentityHashMap<AjavaljendiKandidaat, Boolean>();
+		List<AjavaljendiKandidaat> kandidaadid = new ArrayList<AjavaljendiKandidaat>();
+		for (AjavtSona sona : sonad) {
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				for (AjavaljendiKandidaat kandidaat : sona.getAjavaljendiKandidaadid()) {
+					if (kandidaat.getAste() == AjavaljendiKandidaat.ASTE.MUSTRI_POOLT_ERALDATUD &&
+							nahtud.put(kandidaat, Boolean.TRUE) == null){
+						kandidaadid.add( kandidaat );
+					}
+				}
+			}
+		}
+		return kandidaadid;
+	}
+
+	private static String fraasiTekst(AjavaljendiKandidaat kandidaat){
+		StringBuilder tekst = new StringBuilder();
+		for (AjavtSona sona : kandidaat.getFraas()) {
+			if (tekst.length() > 0){
+				tekst.append(' ');
+			}
+			tekst.append( sona.getAlgSona() );
+		}
+		return tekst.toString();
+	}
+
+	private void kontrolli(String nimi, boolean korras){
+		kontrolle++;
+		if (!korras){
+			vigu++;
+		}
+		System.out.println("   "+((korras) ? ("OK   ") : ("VIGA ")) + nimi);
+	}
+
+	//==============================================================================
+	//   	K 2 i v i t a m i n e    k 2 s u r e a l t
+	//==============================================================================
+
+	public static void main(String[] args) throws Exception {
+		String reegliFail   = "res" + File.separator + "reeglid.xml";
+		String korpuseKaust = "bench-src" + File.separator + "korpus";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-r") && i + 1 < args.length){
+				reegliFail = args[++i];
+			} else if (args[i].equals("-korpus") && i + 1 < args.length){
+				korpuseKaust = args[++i];
+			} else {
+				System.err.println("Tundmatu argument: "+args[i]);
+				System.err.println("Kasutus: AnkruOtsinguKontroll [-r reeglid.xml] [-korpus kaust]");
+				System.exit(1);
+			}
+		}
+		String t3olp = new String( Files.readAllBytes( (new File(korpuseKaust, "laused.t3olp")).toPath() ), "UTF-8" );
+		String json  = new String( Files.readAllBytes( (new File(korpuseKaust, "laused.json")).toPath() ), "UTF-8" );
+		AnkruOtsinguKontroll kontroll = new AnkruOtsinguKontroll(reegliFail);
+		kontroll.kontrolliKoikiGranulaarsusi();
+		kontroll.kontrolliEelfiltrit( "t3olp",
+				(kontroll.tuvastaja).tuvastaAjavaljendidT3OLP( kontroll.konehetk, t3olp, false, false ) );
+		kontroll.kontrolliEelfiltrit( "json",
+				(kontroll.tuvastaja).tuvastaAjavaljendidVabamorfJSON( kontroll.konehetk,
+						VabaMorfJSONLint.loe( json ), false, false ) );
+		System.out.println(" Kokku: "+kontroll.kontrolle+" kontrolli, "+kontroll.vigu+" eba6nnestus");
+		System.exit( (kontroll.vigu > 0) ? (1) : (0) );
+	}
+
+}
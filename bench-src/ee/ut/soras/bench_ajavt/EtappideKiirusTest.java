@@ -0,0 +1,753 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.bench_ajavt;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+import ee.ut.soras.ajavtV2.AjaTuvastaja;
+import ee.ut.soras.ajavtV2.EelTootlus;
+import ee.ut.soras.ajavtV2.JarelTootlus;
+import ee.ut.soras.ajavtV2.TuvastamiseEtapid;
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.mudel.FraasiMustriFilter;
+import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustriOsadeIndeks;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustristSoltuv;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaPunkt;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.NormaliseerimisteVahemalu;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.ReferentsAeg;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.SemLeidmiseAbimeetodid;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.SemLeidmiseMudel;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.SemLeidmiseMudelImpl3;
+import ee.ut.soras.ajavtV2.util.MustridXMLFailist;
+import ee.ut.soras.ajavtV2.util.ReegliKomplekt;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
+
+/**
+ *   Ajavt t&ouml;&ouml;voo etappide kiiruse m&otilde;&otilde;tmine: reeglite laadimine,
+ *  eeltootlus (t3-mesta, t3-olp ja vabamorfi JSON sisend), tuvastamise etapid (kandidaatide
+ *  eraldamine, ylekatete lahendamine, fraaside liitmine, vahemike eraldamine, semantika
+ *  leidmine), k&otilde;ik <code>JarelTootlus</code> v&auml;ljundformaadid ning reeglite
+ *  mustrikitsenduste kontrollimine (kompileeritud bitihulgad vs. s&otilde;nep&otilde;hine kontroll)
+ *  ning kalendriv&auml;ljade kaupa liikumine (suletud kujul vs. samm-sammult, vt ka
+ *  {@link KalendriArvutusteKontroll}).
+ *  <p>
+ *  Iga m&otilde;&otilde;tmine koosneb soojendus- ja m&otilde;&otilde;tmisiteratsioonidest; iteratsioon
+ *  kestab etteantud aja ning selle tulemuseks on keskmine operatsiooni kestus (ms/op).
+ *  Operatsioonieelne ettevalmistus (nt eelnevate etappide rakendamine) aega ei l&auml;he.
+ *  Tulemused kirjutatakse soovi korral JMH JSON formaadis faili, nii et neid saab
+ *  v&otilde;rrelda tavaliste JMH t&ouml;&ouml;riistadega.
+ *  <p>
+ *  Kasutamine (vt ka ant-i eesm&auml;rk <tt>benchmark</tt>):
+ *  <pre>
+ *     java ee.ut.soras.bench_ajavt.EtappideKiirusTest [-r reeglid.xml] [-korpus kaust]
+ *          [-warmup n] [-iter n] [-time ms] [-filter regexp] [-out tulemused.json]
+ *  </pre>
+ *  Korpuse kaustas peavad olema failid <tt>laused.t3mesta</tt>, <tt>laused.t3olp</tt> ning
+ *  <tt>laused.json</tt> (sama tekst erinevates sisendformaatides).
+ *
+ *  @author Siim Orasmaa
+ */
+public class EtappideKiirusTest {
+
+	private static final String KONEHETK = "2010-06-15T12:00";
+
+	/**
+	 *   Yks m&otilde;&otilde;detav operatsioon.
+	 */
+	static abstract class Mootmine {
+
+		final String nimi;
+
+		Mootmine(String nimi){
+			this.nimi = nimi;
+		}
+
+		/**
+		 *   Enne iga operatsiooni tehtav ettevalmistus, mille aega ei m&otilde;&otilde;deta.
+		 */
+		void ettevalmistus() throws Exception {
+		}
+
+		/**
+		 *   M&otilde;&otilde;detav operatsioon; tagastatud tulemus "neelatakse" (vt
+		 *  {@link EtappideKiirusTest#neela(Object)}), et JIT kompilaator ei saaks
+		 *  operatsiooni v&auml;lja optimeerida.
+		 */
+		abstract Object kaivita() throws Exception;
+	}
+
+	/**
+	 *   Yhe m&otilde;&otilde;tmise tulemus: iga m&otilde;&otilde;tmisiteratsiooni keskmine
+	 *  operatsiooni kestus millisekundites.
+	 */
+	static class Tulemus {
+
+		final String nimi;
+		final double [] iteratsioonid;
+		final long operatsioone;
+
+		Tulemus(String nimi, double [] iteratsioonid, long operatsioone){
+			this.nimi          = nimi;
+			this.iteratsioonid = iteratsioonid;
+			this.operatsioone  = operatsioone;
+		}
+
+		double keskmine(){
+			double summa = 0.0;
+			for (double d : iteratsioonid){
+				summa += d;
+			}
+			return summa / iteratsioonid.length;
+		}
+
+		/**
+		 *   Keskmise 99.9% usaldusvahemiku poollaius (nagu JMH-s); yhe iteratsiooni korral
+		 *  <code>NaN</code>.
+		 */
+		double viga(){
+			int n = iteratsioonid.length;
+			if (n < 2){
+				return Double.NaN;
+			}
+			double keskmine = keskmine();
+			double ruutudeSumma = 0.0;
+			for (double d : iteratsioonid){
+				ruutudeSumma += (d - keskmine) * (d - keskmine);
+			}
+			double standardHalve = Math.sqrt( ruutudeSumma / (n - 1) );
+			return studentT999(n - 1) * standardHalve / Math.sqrt(n);
+		}
+
+		double protsentiil(double p){
+			double [] sorditud = Arrays.copyOf(iteratsioonid, iteratsioonid.length);
+			Arrays.sort(sorditud);
+			if (p <= 0.0){
+				return sorditud[0];
+			}
+			int i = (int) Math.ceil( (p / 100.0) * sorditud.length ) - 1;
+			return sorditud[ Math.max(0, Math.min(sorditud.length - 1, i)) ];
+		}
+	}
+
+	/**
+	 *   Studenti t-jaotuse kahepoolse 99.9% usaldusvahemiku kriitilised v&auml;&auml;rtused
+	 *  vabadusastmetele 1..30.
+	 */
+	private static final double [] STUDENT_T_999 = {
+		636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+		  4.437,  4.318,  4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+		  3.819,  3.792,  3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+	};
+
+	private static double studentT999(int vabadusastmeid){
+		if (vabadusastmeid <= STUDENT_T_999.length){
+			return STUDENT_T_999[vabadusastmeid - 1];
+		}
+		// Suurematel vabadusastmetel piisab ligikaudsest l2hendist
+		return 3.291 + 10.65 / vabadusastmeid;
+	}
+
+	/**
+	 *   "Must auk": operatsioonide tulemused kirjutatakse siia, et neid ei saaks arvutamata
+	 *  j&auml;tta.
+	 */
+	private static volatile Object auk = null;
+
+	private static volatile int aukHash = 0;
+
+	static void neela(Object tulemus){
+		auk = tulemus;
+		if (tulemus != null){
+			aukHash ^= System.identityHashCode(tulemus);
+		}
+	}
+
+	//==============================================================================
+	//   	M 6 6 t m i s t e    l o o m i n e
+	//==============================================================================
+
+	private final String reegliFail;
+	private final String t3mesta;
+	private final String t3olp;
+	private final String json;
+	private final String tekst;
+	private final String [] konehetk;
+	private final AjaTuvastaja tuvastaja;
+
+	EtappideKiirusTest(String reegliFail, String korpuseKaust) throws Exception {
+		this.reegliFail = reegliFail;
+		this.t3mesta    = loeFail( new File(korpuseKaust, "laused.t3mesta") );
+		this.t3olp      = loeFail( new File(korpuseKaust, "laused.t3olp") );
+		this.json       = loeFail( new File(korpuseKaust, "laused.json") );
+		this.tekst      = taastaTekst( this.t3mesta );
+		this.konehetk   = ReferentsAjaParsija.looSonePohjalReferentsAeg( KONEHETK );
+		this.tuvastaja  = new AjaTuvastaja();
+		(this.tuvastaja).setReegliFail( reegliFail );
+		(this.tuvastaja).laeReeglidVajadusel();
+	}
+
+	List<Mootmine> looMootmised() throws Exception {
+		List<Mootmine> mootmised = new ArrayList<Mootmine>();
+		// --------------------------------------------------------------------
+		//   1) Reeglite laadimine
+		// --------------------------------------------------------------------
+		mootmised.add( new Mootmine("reeglid.xmlParsimine") {
+			Object kaivita() throws Exception {
+				return (new MustridXMLFailist()).parsiReegliKomplekt( reegliFail );
+			}
+		});
+		final File komplektiFail = new File(reegliFail + ReegliKomplekt.FAILI_LAIEND);
+		if (komplektiFail.isFile()){
+			mootmised.add( new Mootmine("reeglid.komplektiLugemine") {
+				Object kaivita() throws Exception {
+					return ReegliKomplekt.loe( komplektiFail.getPath(), null );
+				}
+			});
+		}
+		// --------------------------------------------------------------------
+		//   2) Eeltootlus
+		// --------------------------------------------------------------------
+		mootmised.add( new Mootmine("eeltootlus.t3mesta") {
+			Object kaivita() throws Exception {
+				return EelTootlus.eeltootlus( t3mesta );
+			}
+		});
+		mootmised.add( new Mootmine("eeltootlus.t3olp") {
+			Object kaivita() throws Exception {
+				return EelTootlus.eeltootlusT3OLP( t3olp );
+			}
+		});
+		mootmised.add( new Mootmine("eeltootlus.json") {
+			Object kaivita() throws Exception {
+				return EelTootlus.eeltootlusJSON( json );
+			}
+		});
+		// --------------------------------------------------------------------
+		//   3) Tuvastamise etapid: iga etapi ettevalmistuseks rakendatakse
+		//      k6ik eelnevad etapid
+		// --------------------------------------------------------------------
+		String [] etapid = { "eraldaKandidaadid", "lahendaYlekatted", "liidaFraasid",
+		                     "eraldaVahemikud", "leiaSemantika" };
+		for (int i = 0; i < etapid.length; i++) {
+			final int etapp = i;
+			mootmised.add( new Mootmine("tuvastamine." + etapid[i]) {
+				private List<AjavtSona> sonad = null;
+				void ettevalmistus() throws Exception {
+					sonad = EelTootlus.eeltootlusJSON( json );
+					for (int j = 0; j < etapp; j++) {
+						rakendaEtapp( j, sonad );
+					}
+				}
+				Object kaivita() throws Exception {
+					rakendaEtapp( etapp, sonad );
+					return sonad;
+				}
+			});
+		}
+		// Semantika leidmine dokumentidevahelise normaliseerimise vahem2luga (p2rast 
+		// esimest kordust on kontekstist s6ltumatute kandidaatide lahendused vahem2lus)
+		final SemLeidmiseMudel vahemaluga = new SemLeidmiseMudelImpl3( new NormaliseerimisteVahemalu(4096) );
+		mootmised.add( new Mootmine("tuvastamine.leiaSemantika.vahemaluga") {
+			private List<AjavtSona> sonad = null;
+			void ettevalmistus() throws Exception {
+				sonad = EelTootlus.eeltootlusJSON( json );
+				for (int j = 0; j < 4; j++) {
+					rakendaEtapp( j, sonad );
+				}
+			}
+			Object kaivita() throws Exception {
+				vahemaluga.leiaSemantika( sonad, ReferentsAeg.anna( konehetk ) );
+				return sonad;
+			}
+		});
+		// --------------------------------------------------------------------
+		//   4) Jareltootlus: k6ik v2ljundformaadid
+		// --------------------------------------------------------------------
+		final AjaPunkt creationTime = JarelTootlus.formatAsCreationTime( konehetk );
+		final List<AjavtSona> tekstiSonad =
+				tuvastaja.tuvastaAjavaljendidTekstis( konehetk, tekst, t3mesta, false );
+		final List<AjavtSona> t3olpSonad =
+				tuvastaja.tuvastaAjavaljendidT3OLP( konehetk, t3olp, false, false );
+		final VabaMorfJSONLint jsonLint = VabaMorfJSONLint.loe( json );
+		final List<AjavtSona> jsonSonad =
+				tuvastaja.tuvastaAjavaljendidVabamorfJSON( konehetk, jsonLint, false, false );
+		mootmised.add( new Mootmine("jareltootlus.debug") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusDebug( tekstiSonad, tekst, false, creationTime );
+			}
+		});
+		mootmised.add( new Mootmine("jareltootlus.pretty") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusPretty( tekstiSonad, tekst, false, creationTime );
+			}
+		});
+		mootmised.add( new Mootmine("jareltootlus.ainultValjendid") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusAinultValjendid( tekstiSonad, tekst, false, creationTime );
+			}
+		});
+		mootmised.add( new Mootmine("jareltootlus.paisktabelid") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusAinultValjendidPaistabelitena( tekstiSonad, tekst, false, creationTime );
+			}
+		});
+		mootmised.add( new Mootmine("jareltootlus.prettyT3OLP") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusPrettyT3OLP( t3olpSonad, creationTime, false );
+			}
+		});
+		mootmised.add( new Mootmine("jareltootlus.t3olpEraldiReal") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusT3OLPEraldiReal( t3olp, t3olpSonad, creationTime, false, false );
+			}
+		});
+		mootmised.add( new Mootmine("jareltootlus.vabamorfJSON") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusVabaMorfiJSON( jsonLint, jsonSonad, creationTime, false, false );
+			}
+		});
+		mootmised.add( new Mootmine("jareltootlus.igaSonaEraldiReal") {
+			Object kaivita() throws Exception {
+				return JarelTootlus.eraldamiseTulemusIgaSonaEraldiRealDebug( jsonSonad, creationTime );
+			}
+		});
+		// --------------------------------------------------------------------
+		//   5) Kogu t88voog JSON sisendist JSON v2ljundini
+		// --------------------------------------------------------------------
+		mootmised.add( new Mootmine("tervik.json") {
+			Object kaivita() throws Exception {
+				VabaMorfJSONLint lint = VabaMorfJSONLint.loe( json );
+				List<AjavtSona> sonad = tuvastaja.tuvastaAjavaljendidVabamorfJSON( konehetk, lint, false, false );
+				return JarelTootlus.eraldamiseTulemusVabaMorfiJSON( lint, sonad, creationTime, false, false );
+			}
+		});
+		// --------------------------------------------------------------------
+		//   6) Mustrikitsenduste (seotudMustriOsa) kontrollimine: k6igi reeglite
+		//      k6ik kitsendused; v6rdluseks kitsenduste s6nep6hine kontrollimine 
+		//      (nagu enne nende kompileerimist)
+		// --------------------------------------------------------------------
+		final List<MustristSoltuv> kitsendused = new ArrayList<MustristSoltuv>();
+		final List<long []> bitihulgad = new ArrayList<long []>();
+		final List<HashMap<String, List<AjavtSona>>> mallideTabelid = new ArrayList<HashMap<String, List<AjavtSona>>>();
+		final List<HashMap<String, String>> osadeTabelid = new ArrayList<HashMap<String, String>>();
+		looMustriKitsendusteSisendid( kitsendused, bitihulgad, mallideTabelid, osadeTabelid );
+		mootmised.add( new Mootmine("mustrikitsendused.sonedega") {
+			Object kaivita() throws Exception {
+				int rahuldatud = 0;
+				for (int i = 0; i < kitsendused.size(); i++) {
+					if (leiaSonedega( (kitsendused.get(i)).getSeotudMustriOsa(), 
+							mallideTabelid.get(i), osadeTabelid.get(i) ) != null){
+						rahuldatud++;
+					}
+				}
+				return Integer.valueOf(rahuldatud);
+			}
+		});
+		mootmised.add( new Mootmine("mustrikitsendused.bitihulgaga") {
+			Object kaivita() throws Exception {
+				int rahuldatud = 0;
+				for (int i = 0; i < kitsendused.size(); i++) {
+					if ((kitsendused.get(i)).leiaPositiivseltRahuldatudMustriosad( bitihulgad.get(i) ) != null){
+						rahuldatud++;
+					}
+				}
+				return Integer.valueOf(rahuldatud);
+			}
+		});
+		// --------------------------------------------------------------------
+		//   SEEK operatsioonid (n2dalap2ev, n2dal, kuu, aasta) aasta igal p2eval:
+		//      samm-sammult (nagu enne suletud kujule viimist) vs. suletud kujul
+		// --------------------------------------------------------------------
+		final LocalDateTime [] ajad = new LocalDateTime [366];
+		for (int i = 0; i < ajad.length; i++) {
+			ajad[i] = (new LocalDateTime(2012, 1, 1, 12, 0)).plusDays(i);
+		}
+		mootmised.add( new Mootmine("kalender.sammhaaval") {
+			Object kaivita() throws Exception {
+				long summa = 0;
+				for (LocalDateTime aeg : ajad) {
+					for (int d = -3; d <= 3; d += 2) {
+						boolean excl = (d > 0);
+						summa += (KalendriArvutusteKontroll.otsiSammhaaval(aeg, KalendriArvutusteKontroll.NADALAPAEV, d, "5", excl)).getDayOfYear();
+						summa += (KalendriArvutusteKontroll.otsiSammhaaval(aeg, KalendriArvutusteKontroll.NADAL, d, null, excl)).getDayOfYear();
+						summa += (KalendriArvutusteKontroll.otsiSammhaaval(aeg, KalendriArvutusteKontroll.KUU, d, "3", excl)).getDayOfYear();
+						summa += (KalendriArvutusteKontroll.otsiSammhaaval(aeg, KalendriArvutusteKontroll.AASTA, d, null, excl)).getDayOfYear();
+					}
+				}
+				return Long.valueOf(summa);
+			}
+		});
+		mootmised.add( new Mootmine("kalender.suletudKujul") {
+			Object kaivita() throws Exception {
+				long summa = 0;
+				for (LocalDateTime aeg : ajad) {
+					LocalDate kuupaev = aeg.toLocalDate();
+					for (int d = -3; d <= 3; d += 2) {
+						boolean excl = (d > 0);
+						int dir = (d > 0) ? (1) : (-1);
+						int nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(kuupaev.getDayOfWeek() - 1, 7, 4, 4, d, excl);
+						summa += (kuupaev.plusDays(nihe)).getDayOfYear();
+						nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(kuupaev.getDayOfWeek() - 1, 7, 0, 6, d, excl);
+						summa += (kuupaev.plusDays(nihe)).getDayOfYear();
+						nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(kuupaev.getMonthOfYear() - 1, 12, 2, 2, d, excl);
+						summa += (SemLeidmiseAbimeetodid.liiguKuudeKaupa(kuupaev, nihe, dir, excl)).getDayOfYear();
+						nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(kuupaev.getMonthOfYear() - 1, 12, 0, 11, d, excl);
+						summa += (SemLeidmiseAbimeetodid.liiguKuudeKaupa(kuupaev, nihe, dir, excl)).getDayOfYear();
+					}
+				}
+				return Long.valueOf(summa);
+			}
+		});
+		return mootmised;
+	}
+	
+	/**
+	 *   Kogub tuvastaja reeglitest k&otilde;ik semantikadefinitsioonide ja mustritahiste 
+	 *  mustrikitsendused ning loob igale kitsendusele rahuldatud mustriosade sisendi: 
+	 *  rahuldatud on reegli paarisindeksiga s&otilde;namallid ning k&otilde;ik kitsenduses 
+	 *  viidatud s&otilde;naklassid (nii saab osa kitsendusi rahuldatud, osa mitte).
+	 *  Sisend luuakse nii bitihulgana kui ka paisktabelitena.
+	 */
+	private void looMustriKitsendusteSisendid(List<MustristSoltuv> kitsendused,
+	                                          List<long []> bitihulgad,
+	                                          List<HashMap<String, List<AjavtSona>>> mallideTabelid,
+	                                          List<HashMap<String, String>> osadeTabelid){
+		for (TuvastamisReegel reegel : tuvastaja.getReeglid()) {
+			if (reegel.getFraasiMustriFiltrid() == null){
+				continue;
+			}
+			List<MustristSoltuv> reegliKitsendused = new ArrayList<MustristSoltuv>();
+			for (FraasiMustriFilter filter : reegel.getFraasiMustriFiltrid()) {
+				if (filter.getSemDefinitsioonid() != null){
+					reegliKitsendused.addAll( filter.getSemDefinitsioonid() );
+				}
+				if (filter.getMustriTahised() != null){
+					reegliKitsendused.addAll( filter.getMustriTahised() );
+				}
+			}
+			int mallideArv = ((reegel.getFraasiMuster()).getSonaMallid()).size();
+			for (MustristSoltuv kitsendus : reegliKitsendused) {
+				if (kitsendus.getSeotudMustriOsa() == null){
+					continue;
+				}
+				MustriOsadeIndeks indeks = reegel.getMustriOsadeIndeks();
+				long [] hulk = indeks.looHulk();
+				HashMap<String, List<AjavtSona>> mallid = new HashMap<String, List<AjavtSona>>();
+				HashMap<String, String> osad = new HashMap<String, String>();
+				for (int i = 0; i < mallideArv; i += 2) {
+					MustriOsadeIndeks.lisa(hulk, i);
+					mallid.put(String.valueOf(i), new ArrayList<AjavtSona>());
+				}
+				StringTokenizer st = new StringTokenizer( kitsendus.getSeotudMustriOsa() );
+				while (st.hasMoreTokens()) {
+					String nimi = (st.nextToken()).replaceAll("[\\(\\)\\^]", "");
+					if (nimi.length() > 0 && !Character.isDigit(nimi.charAt(0))){
+						indeks.lisa(hulk, nimi);
+						osad.put(nimi, "1");
+					}
+				}
+				kitsendused.add( kitsendus );
+				bitihulgad.add( hulk );
+				mallideTabelid.add( mallid );
+				osadeTabelid.add( osad );
+			}
+		}
+	}
+	
+	/**
+	 *   Mustrikitsenduse s&otilde;nep&otilde;hine kontrollimine (kitsendus parsitakse igal 
+	 *  kontrollimisel uuesti), nagu <code>MustristSoltuv.leiaPositiivseltRahuldatudMustriosad</code>
+	 *  enne kitsenduste kompileerimist. Kasutusel v&otilde;rdlusalusena.
+	 */
+	private static List<String> leiaSonedega(String seotudMustriOsa,
+	                                         HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid,
+	                                         HashMap<String, String> rahuldatudMustriosad){
+		StringTokenizer st = new StringTokenizer(seotudMustriOsa);
+		List<String> muster = new ArrayList<String>( st.countTokens() );
+		while (st.hasMoreTokens()){
+			muster.add( st.nextToken() );
+		}
+		List<String> positiivseltRahuldatudMustriOsad = new ArrayList<String>();
+		String esileToodudMustriOsa = null;
+		for (int i = 0; i < muster.size(); i++) {
+			String mustriElement = muster.get(i);
+			boolean esileToodud = (mustriElement.startsWith("(") && mustriElement.endsWith(")"));
+			if (esileToodud){
+				mustriElement = mustriElement.replace("(", "");
+				mustriElement = mustriElement.replace(")", "");
+			}
+			if (mustriElement.startsWith("^")){
+				mustriElement = mustriElement.replace("^", "");
+				if (rahuldatudMustriosad.containsKey(mustriElement) || 
+						malliRahuldavadAlamFraasid.containsKey(mustriElement)){
+					return null;
+				}
+			} else {
+				if (!rahuldatudMustriosad.containsKey(mustriElement) && 
+						!malliRahuldavadAlamFraasid.containsKey(mustriElement)){
+					return null;
+				}
+				positiivseltRahuldatudMustriOsad.add(mustriElement);
+				if (esileToodud){ esileToodudMustriOsa = mustriElement; }
+			}
+		}
+		if (esileToodudMustriOsa != null){
+			positiivseltRahuldatudMustriOsad.clear();
+			positiivseltRahuldatudMustriOsad.add(esileToodudMustriOsa);
+		}
+		return (!positiivseltRahuldatudMustriOsad.isEmpty()) ? (positiivseltRahuldatudMustriOsad) : (null);
+	}
+
+	/**
+	 *   Rakendab s&otilde;nadele tuvastamise etapi j&auml;rjekorranumbriga <code>etapp</code> (vt
+	 *  <code>AjaTuvastaja.tuvastaAjavaljendidSonades</code>).
+	 */
+	private void rakendaEtapp(int etapp, List<AjavtSona> sonad) throws Exception {
+		switch (etapp) {
+			case 0:
+				TuvastamiseEtapid.eraldaKandidaadid( tuvastaja, sonad );
+				break;
+			case 1:
+				TuvastamiseEtapid.lahendaYlekatted( tuvastaja, sonad );
+				break;
+			case 2:
+				TuvastamiseEtapid.liidaFraasid( tuvastaja, sonad );
+				break;
+			case 3:
+				TuvastamiseEtapid.eraldaVahemikud( tuvastaja, sonad );
+				break;
+			default:
+				(tuvastaja.getMudel()).leiaSemantika( sonad, ReferentsAeg.anna( konehetk ) );
+				break;
+		}
+	}
+
+	//==============================================================================
+	//   	M 6 6 t m i n e
+	//==============================================================================
+
+	static Tulemus mooda(Mootmine mootmine, int soojendusi, int iteratsioone, long iteratsiooniAegMs) throws Exception {
+		long iteratsiooniAegNs = iteratsiooniAegMs * 1000000L;
+		double [] tulemused = new double [iteratsioone];
+		long operatsioone = 0;
+		for (int i = -soojendusi; i < iteratsioone; i++) {
+			long moodetud = 0L;
+			long op = 0L;
+			long algus = System.nanoTime();
+			do {
+				mootmine.ettevalmistus();
+				long t0 = System.nanoTime();
+				neela( mootmine.kaivita() );
+				moodetud += System.nanoTime() - t0;
+				op++;
+			} while (System.nanoTime() - algus < iteratsiooniAegNs);
+			if (i >= 0){
+				tulemused[i] = (moodetud / 1000000.0) / op;
+				operatsioone += op;
+			}
+		}
+		return new Tulemus(mootmine.nimi, tulemused, operatsioone);
+	}
+
+	//==============================================================================
+	//   	T u l e m u s t e    v 2 l j a s t a m i n e
+	//==============================================================================
+
+	private static final double [] PROTSENTIILID = { 0.0, 50.0, 90.0, 95.0, 99.0, 100.0 };
+
+	/**
+	 *   Kirjutab tulemused JMH JSON formaadis (<tt>-rf json</tt>) faili <code>failiNimi</code>.
+	 */
+	static void kirjutaJSON(String failiNimi, List<Tulemus> tulemused, int soojendusi, int iteratsioone,
+	                        long iteratsiooniAegMs, Map<String, String> parameetrid) throws Exception {
+		Map<String, Object> seaded = new HashMap<String, Object>();
+		seaded.put(JsonGenerator.PRETTY_PRINTING, true);
+		JsonGeneratorFactory tehas = Json.createGeneratorFactory( seaded );
+		Writer valjund = new OutputStreamWriter( new FileOutputStream(failiNimi), "UTF-8" );
+		try {
+			JsonGenerator gen = tehas.createGenerator( valjund );
+			gen.writeStartArray();
+			for (Tulemus tulemus : tulemused) {
+				gen.writeStartObject();
+				gen.write("jmhVersion", "-");
+				gen.write("benchmark", EtappideKiirusTest.class.getName() + "." + tulemus.nimi);
+				gen.write("mode", "avgt");
+				gen.write("threads", 1);
+				gen.write("forks", 1);
+				gen.write("jvm", System.getProperty("java.home"));
+				gen.write("jdkVersion", System.getProperty("java.version"));
+				gen.write("vmName", System.getProperty("java.vm.name"));
+				gen.write("warmupIterations", soojendusi);
+				gen.write("warmupTime", iteratsiooniAegMs + " ms");
+				gen.write("measurementIterations", iteratsioone);
+				gen.write("measurementTime", iteratsiooniAegMs + " ms");
+				gen.writeStartObject("params");
+				for (String voti : parameetrid.keySet()) {
+					gen.write(voti, parameetrid.get(voti));
+				}
+				gen.writeEnd();
+				gen.writeStartObject("primaryMetric");
+				double skoor = tulemus.keskmine();
+				double viga  = tulemus.viga();
+				gen.write("score", skoor);
+				if (Double.isNaN(viga)){
+					gen.write("scoreError", "NaN");
+					gen.writeStartArray("scoreConfidence").write("NaN").write("NaN").writeEnd();
+				} else {
+					gen.write("scoreError", viga);
+					gen.writeStartArray("scoreConfidence").write(skoor - viga).write(skoor + viga).writeEnd();
+				}
+				gen.writeStartObject("scorePercentiles");
+				for (double p : PROTSENTIILID) {
+					gen.write(String.valueOf(p), tulemus.protsentiil(p));
+				}
+				gen.writeEnd();
+				gen.write("scoreUnit", "ms/op");
+				gen.writeStartArray("rawData");
+				gen.writeStartArray();
+				for (double d : tulemus.iteratsioonid) {
+					gen.write(d);
+				}
+				gen.writeEnd();
+				gen.writeEnd();
+				gen.writeEnd();
+				gen.writeStartObject("secondaryMetrics");
+				gen.writeEnd();
+				gen.writeEnd();
+			}
+			gen.writeEnd();
+			gen.close();
+		} finally {
+			valjund.close();
+		}
+	}
+
+	//==============================================================================
+	//   	A b i m e e t o d i d
+	//==============================================================================
+
+	private static String loeFail(File fail) throws Exception {
+		return new String( Files.readAllBytes( fail.toPath() ), "UTF-8" );
+	}
+
+	/**
+	 *   Taastab t3-mesta sisendist (iga s&otilde;na eraldi real koos analyysidega)
+	 *  l&auml;hteteksti: s&otilde;nad tyhikutega eraldatult.
+	 */
+	private static String taastaTekst(String t3mesta){
+		StringBuilder tekst = new StringBuilder();
+		StringTokenizer read = new StringTokenizer(t3mesta, "\r\n");
+		while (read.hasMoreTokens()) {
+			String rida = read.nextToken();
+			int lopp = rida.indexOf("    ");
+			String sona = (lopp > -1) ? (rida.substring(0, lopp)) : (rida.trim());
+			if (sona.length() > 0){
+				if (tekst.length() > 0){
+					tekst.append(' ');
+				}
+				tekst.append(sona);
+			}
+		}
+		return tekst.toString();
+	}
+
+	//==============================================================================
+	//   	K 2 i v i t a m i n e    k 2 s u r e a l t
+	//==============================================================================
+
+	public static void main(String[] args) throws Exception {
+		String reegliFail   = "res" + File.separator + "reeglid.xml";
+		String korpuseKaust = "bench-src" + File.separator + "korpus";
+		String filter       = ".*";
+		String valjundFail  = null;
+		int soojendusi      = 3;
+		int iteratsioone    = 5;
+		long iteratsiooniAeg = 1000;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-r") && i + 1 < args.length){
+				reegliFail = args[++i];
+			} else if (args[i].equals("-korpus") && i + 1 < args.length){
+				korpuseKaust = args[++i];
+			} else if (args[i].equals("-warmup") && i + 1 < args.length){
+				soojendusi = Integer.parseInt( args[++i] );
+			} else if (args[i].equals("-iter") && i + 1 < args.length){
+				iteratsioone = Integer.parseInt( args[++i] );
+			} else if (args[i].equals("-time") && i + 1 < args.length){
+				iteratsiooniAeg = Long.parseLong( args[++i] );
+			} else if (args[i].equals("-filter") && i + 1 < args.length){
+				filter = args[++i];
+			} else if (args[i].equals("-out") && i + 1 < args.length){
+				valjundFail = args[++i];
+			} else {
+				System.err.println("Tundmatu argument: "+args[i]);
+				System.err.println("Kasutus: EtappideKiirusTest [-r reeglid.xml] [-korpus kaust] [-warmup n] "+
+				                   "[-iter n] [-time ms] [-filter regexp] [-out tulemused.json]");
+				System.exit(1);
+			}
+		}
+		if (iteratsioone < 1){
+			iteratsioone = 1;
+		}
+		EtappideKiirusTest test = new EtappideKiirusTest(reegliFail, korpuseKaust);
+		List<Tulemus> tulemused = new ArrayList<Tulemus>();
+		System.out.println(" Ajavt "+AjaTuvastaja.getVersioon()+"; korpus: "+korpuseKaust+
+		                   " ("+(test.tekst).length()+" m2rki); "+soojendusi+" x "+iteratsioone+
+		                   " iteratsiooni a "+iteratsiooniAeg+" ms");
+		System.out.println();
+		for (Mootmine mootmine : test.looMootmised()) {
+			if (!(mootmine.nimi).matches(filter)){
+				continue;
+			}
+			System.gc();
+			Tulemus tulemus = mooda(mootmine, soojendusi, iteratsioone, iteratsiooniAeg);
+			tulemused.add( tulemus );
+			System.out.println( String.format("  %-32s %12.4f +- %10.4f ms/op   (%d op)",
+					tulemus.nimi, tulemus.keskmine(), tulemus.viga(), tulemus.operatsioone) );
+		}
+		if (valjundFail != null){
+			Map<String, String> parameetrid = new HashMap<String, String>();
+			parameetrid.put("korpus", korpuseKaust);
+			parameetrid.put("reeglid", reegliFail);
+			parameetrid.put("ajavt", AjaTuvastaja.getVersioon());
+			kirjutaJSON(valjundFail, tulemused, soojendusi, iteratsioone, iteratsiooniAeg, parameetrid);
+			System.out.println();
+			System.out.println(" Tulemused kirjutati faili "+valjundFail);
+		}
+	}
+
+}
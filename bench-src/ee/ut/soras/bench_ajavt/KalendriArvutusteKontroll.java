@@ -0,0 +1,463 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.bench_ajavt;
+
+import java.util.Random;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+import org.joda.time.LocalTime;
+
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.Granulaarsus;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.SemLeidmiseAbimeetodid;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.TimeMLDateTimePoint;
+
+/**
+ *   Kalendriarvutuste kontroll: v&otilde;rdleb suletud kujul arvutatavaid SEEK, Baldwini akna
+ *  ja n-inda alamosa leidmise operatsioone (<code>TimeMLDateTimePoint</code>,
+ *  <code>SemLeidmiseAbimeetodid</code>) samm-sammult liikuvate arvutustega, mis on
+ *  siin s&auml;ilitatud kujul, nagu need olid enne suletud kujule viimist.
+ *  <p>
+ *  K&otilde;iki v&auml;lju, otsitud v&auml;&auml;rtusi ja suundi kontrollitakse iga p&auml;eva
+ *  korral vahemikus 1996 kuni 2032 (sh sajandivahetuse liigaasta); lisaks kontrollitakse
+ *  juhuslikke juhtumeid aastatest 1300 kuni 9999.
+ *  <p>
+ *  Kasutamine (vt ka ant-i eesm&auml;rk <tt>check-calendar</tt>):
+ *  <pre>
+ *     java ee.ut.soras.bench_ajavt.KalendriArvutusteKontroll [-juhuslikke n] [-seeme s]
+ *  </pre>
+ *  Kui m&otilde;ni tulemus erineb, l&otilde;petab programm koodiga 1.
+ *
+ *  @author Siim Orasmaa
+ */
+public class KalendriArvutusteKontroll {
+
+	private static final int NAIDATAVAID_ERINEVUSI = 20;
+
+	private long kontrolle   = 0;
+	private long erinevusi   = 0;
+
+	//==============================================================================
+	//   	S a m m - s a m m u l t    a r v u t u s e d
+	//==============================================================================
+
+	/**
+	 *   Yks ajas liikumise samm ning sammu j&auml;rel kontrollitav v&auml;&auml;rtus
+	 *  (n&auml;dalap&auml;ev, kuu, aastaaeg vms).
+	 */
+	static abstract class Samm {
+		abstract LocalDateTime astu(LocalDateTime aeg, int dir);
+		abstract String vaartus(LocalDateTime aeg);
+	}
+
+	/**
+	 *   SEEK operatsioon samm-sammult (nagu <code>TimeMLDateTimePoint.seekField</code> enne
+	 *  suletud kujule viimist): liigutakse sammu kaupa, j&auml;etakse vahele k&auml;esoleva
+	 *  v&auml;&auml;rtusega sammud (kui <tt>excludingCurrent</tt>) ning loendatakse sammud,
+	 *  mille v&auml;&auml;rtus on <tt>otsitud</tt> (<tt>null</tt> korral suvaline).
+	 */
+	static LocalDateTime otsiSammhaaval(LocalDateTime aeg, Samm samm, int direction, String otsitud, boolean excludingCurrent){
+		int dir = (direction > 0) ? (1) : (-1);
+		LocalDateTime ajaFookus = aeg;
+		String algne = (excludingCurrent) ? (samm.vaartus(ajaFookus)) : (null);
+		if (!excludingCurrent){
+			ajaFookus = samm.astu(ajaFookus, -dir);
+		}
+		int count = 0;
+		while (true){
+			ajaFookus = samm.astu(ajaFookus, dir);
+			String uus = samm.vaartus(ajaFookus);
+			if (algne != null){
+				if (algne.equals(uus)){
+					continue;
+				} else {
+					algne = null;
+				}
+			}
+			if (otsitud == null || otsitud.equals(uus)){
+				algne = uus;
+				count++;
+				if (count == Math.abs(direction)){
+					break;
+				}
+			}
+		}
+		return ajaFookus;
+	}
+
+	static final Samm NADALAPAEV = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusDays(dir); }
+		String vaartus(LocalDateTime aeg){ return String.valueOf(aeg.getDayOfWeek()); }
+	};
+	static final Samm NADAL = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusDays(dir); }
+		String vaartus(LocalDateTime aeg){ return String.valueOf(aeg.getWeekOfWeekyear()); }
+	};
+	static final Samm KUU = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusMonths(dir); }
+		String vaartus(LocalDateTime aeg){ return String.valueOf(aeg.getMonthOfYear()); }
+	};
+	static final Samm AASTA = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusMonths(dir); }
+		String vaartus(LocalDateTime aeg){ return String.valueOf(aeg.getYear()); }
+	};
+	static final Samm SAJANDI_AASTA = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusYears(dir); }
+		String vaartus(LocalDateTime aeg){ return String.valueOf(aeg.getYearOfCentury()); }
+	};
+	static final Samm SAJAND = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusYears(10 * dir); }
+		String vaartus(LocalDateTime aeg){ return String.valueOf(aeg.getCenturyOfEra()); }
+	};
+	static final Samm PAEVAOSA = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusHours(dir); }
+		String vaartus(LocalDateTime aeg){ return SemLeidmiseAbimeetodid.getPartOfDay(aeg.toLocalTime()); }
+	};
+	static final Samm TOOPAEV = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusDays(dir); }
+		String vaartus(LocalDateTime aeg){ return SemLeidmiseAbimeetodid.getWordDayOrWeekend(aeg.toLocalDate()); }
+	};
+	static final Samm AASTAAEG = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusMonths(dir); }
+		String vaartus(LocalDateTime aeg){ return SemLeidmiseAbimeetodid.getSeason(aeg.toLocalDate()); }
+	};
+	static final Samm KVARTAL = new Samm() {
+		LocalDateTime astu(LocalDateTime aeg, int dir){ return aeg.plusMonths(dir); }
+		String vaartus(LocalDateTime aeg){ return SemLeidmiseAbimeetodid.getQuarterOfYear(aeg.toLocalDate()); }
+	};
+
+	/**
+	 *   Baldwini aken samm-sammult (nagu <code>SemLeidmiseAbimeetodid.applyBaldwinWindow</code>
+	 *  enne suletud kujule viimist).
+	 */
+	static LocalDateTime baldwiniAkenSammhaaval(Granulaarsus field, LocalDateTime currentDateTime, int soughtValue){
+		if (field == Granulaarsus.DAY_OF_WEEK){
+			int currentDayOfWeek = currentDateTime.getDayOfWeek();
+			int addToCurrent = 0;
+			while (addToCurrent > -4){
+				if (currentDayOfWeek == soughtValue){
+					return currentDateTime.plusDays(addToCurrent);
+				}
+				currentDayOfWeek--;
+				if (currentDayOfWeek < DateTimeConstants.MONDAY){
+					currentDayOfWeek = DateTimeConstants.SUNDAY;
+				}
+				addToCurrent--;
+			}
+			currentDayOfWeek = currentDateTime.getDayOfWeek();
+			addToCurrent = 0;
+			while (addToCurrent < 4){
+				if (currentDayOfWeek == soughtValue){
+					return currentDateTime.plusDays(addToCurrent);
+				}
+				currentDayOfWeek++;
+				if (currentDayOfWeek > DateTimeConstants.SUNDAY){
+					currentDayOfWeek = DateTimeConstants.MONDAY;
+				}
+				addToCurrent++;
+			}
+		}
+		if (field == Granulaarsus.MONTH){
+			int currentMonth = currentDateTime.getMonthOfYear();
+			int addToCurrent = 0;
+			while (addToCurrent > -6){
+				if (currentMonth == soughtValue){
+					return currentDateTime.plusMonths(addToCurrent);
+				}
+				currentMonth--;
+				if (currentMonth < DateTimeConstants.JANUARY){
+					currentMonth = DateTimeConstants.DECEMBER;
+				}
+				addToCurrent--;
+			}
+			currentMonth = currentDateTime.getMonthOfYear();
+			addToCurrent = 0;
+			while (addToCurrent < 6){
+				if (currentMonth == soughtValue){
+					return currentDateTime.plusMonths(addToCurrent);
+				}
+				currentMonth++;
+				if (currentMonth > DateTimeConstants.DECEMBER){
+					currentMonth = DateTimeConstants.JANUARY;
+				}
+				addToCurrent++;
+			}
+			return currentDateTime.withMonthOfYear(soughtValue);
+		}
+		if (field == Granulaarsus.YEAR_OF_CENTURY){
+			if (soughtValue == 0){
+				soughtValue = 100;
+			}
+			int currentYear = currentDateTime.getYearOfCentury();
+			int addToCurrent = 0;
+			while (addToCurrent > -49){
+				if (currentYear == soughtValue){
+					return currentDateTime.plusYears(addToCurrent);
+				}
+				currentYear--;
+				if (currentYear < 1){
+					currentYear = 100;
+				}
+				addToCurrent--;
+			}
+			currentYear = currentDateTime.getYearOfCentury();
+			addToCurrent = 0;
+			while (addToCurrent < 49){
+				if (currentYear == soughtValue){
+					return currentDateTime.plusYears(addToCurrent);
+				}
+				currentYear++;
+				if (currentYear > 100){
+					currentYear = 1;
+				}
+				addToCurrent++;
+			}
+			return currentDateTime.withYearOfCentury(soughtValue);
+		}
+		return currentDateTime;
+	}
+
+	/**
+	 *   Aastaaegade ja kvartalite Baldwini aken samm-sammult.
+	 */
+	static LocalDateTime baldwiniAkenSammhaaval(Samm samm, LocalDateTime currentDateTime, String soughtValue){
+		LocalDateTime movingFocus = currentDateTime;
+		int addToCurrent = 0;
+		while (addToCurrent > -4){
+			if ((samm.vaartus(movingFocus)).equals(soughtValue)){
+				return currentDateTime.plusMonths(addToCurrent);
+			}
+			movingFocus = movingFocus.plusMonths(-1);
+			addToCurrent--;
+		}
+		movingFocus = currentDateTime;
+		addToCurrent = 0;
+		while (addToCurrent < 4){
+			if ((samm.vaartus(movingFocus)).equals(soughtValue)){
+				return currentDateTime.plusMonths(addToCurrent);
+			}
+			movingFocus = movingFocus.plusMonths(1);
+			addToCurrent++;
+		}
+		return (samm == AASTAAEG) ? (SemLeidmiseAbimeetodid.setMiddleOfSeason(currentDateTime, soughtValue)) :
+		                            (SemLeidmiseAbimeetodid.setMiddleOfQuarterOfYear(currentDateTime, soughtValue));
+	}
+
+	/**
+	 *   Kuu n-inda n&auml;dalap&auml;eva/n&auml;dala leidmine samm-sammult (nagu
+	 *  <code>SemLeidmiseAbimeetodid.findNthSubpartOfGranularity</code> enne suletud kujule viimist).
+	 */
+	static LocalDateTime leiaNesSammhaaval(Granulaarsus subField, int soughtValueOfSubField, int n, LocalDateTime currentDateTime){
+		LocalDateTime newDate = null;
+		if (n > 0){
+			newDate = currentDateTime.withDayOfMonth(1);
+			while (newDate.getDayOfWeek() != soughtValueOfSubField){
+				newDate = newDate.plusDays(1);
+			}
+		} else if (n < 0){
+			newDate = currentDateTime.withDayOfMonth( currentDateTime.dayOfMonth().getMaximumValue() );
+			while (newDate.getDayOfWeek() != soughtValueOfSubField){
+				newDate = newDate.minusDays(1);
+			}
+		} else {
+			return null;
+		}
+		int currentMonth = newDate.getMonthOfYear();
+		newDate = (n > 0) ? (newDate.plusDays( (n - 1) * 7 )) : (newDate.minusDays( ((n*(-1)) - 1) * 7 ));
+		if (subField == Granulaarsus.DAY_OF_WEEK && currentMonth != newDate.getMonthOfYear()){
+			return null;
+		}
+		return newDate;
+	}
+
+	//==============================================================================
+	//   	K o n t r o l l i m i n e
+	//==============================================================================
+
+	private void vordle(String kirjeldus, Object oodatud, Object saadud){
+		kontrolle++;
+		if (oodatud == null ? saadud != null : !oodatud.equals(saadud)){
+			erinevusi++;
+			if (erinevusi <= NAIDATAVAID_ERINEVUSI){
+				System.out.println("  ERINEB: "+kirjeldus+"  samm-sammult: "+oodatud+"  suletud kujul: "+saadud);
+			}
+		}
+	}
+
+	private void kontrolliOtsingut(LocalDateTime aeg, Granulaarsus field, Samm samm, int direction, int soughtValue, boolean excludingCurrent){
+		TimeMLDateTimePoint punkt = new TimeMLDateTimePoint(aeg);
+		punkt.seekField(field, direction, soughtValue, excludingCurrent);
+		// 0 t2hendab suvalist v22rtust (v.a sajandi aasta korral)
+		boolean suvaline = (soughtValue == 0 && field != Granulaarsus.YEAR_OF_CENTURY);
+		LocalDateTime oodatud = otsiSammhaaval(aeg, samm, direction,
+				(suvaline) ? (null) : (String.valueOf(soughtValue)), excludingCurrent);
+		vordle("seekField("+field+", "+direction+", "+soughtValue+", "+excludingCurrent+") @ "+aeg,
+				oodatud, punkt.getAsLocalDateTime());
+	}
+
+	private void kontrolliOtsingut(LocalDateTime aeg, Granulaarsus field, Samm samm, int direction, String soughtValue, boolean excludingCurrent){
+		TimeMLDateTimePoint punkt = new TimeMLDateTimePoint(aeg);
+		punkt.seekField(field, direction, soughtValue, excludingCurrent);
+		LocalDateTime oodatud = otsiSammhaaval(aeg, samm, direction, soughtValue, excludingCurrent);
+		if (samm == AASTAAEG && oodatud.getMonthOfYear() == DateTimeConstants.DECEMBER){
+			oodatud = oodatud.plusMonths(1);
+		}
+		vordle("seekField("+field+", "+direction+", "+soughtValue+", "+excludingCurrent+") @ "+aeg,
+				oodatud, punkt.getAsLocalDateTime());
+	}
+
+	private void kontrolliBaldwiniAkent(LocalDateTime aeg, Granulaarsus field, int soughtValue){
+		Object oodatud = null;
+		Object saadud  = null;
+		try {
+			oodatud = baldwiniAkenSammhaaval(field, aeg, soughtValue);
+		} catch (Exception e) {
+			oodatud = e.getClass().getName();
+		}
+		try {
+			saadud = SemLeidmiseAbimeetodid.applyBaldwinWindow(field, aeg, soughtValue);
+		} catch (Exception e) {
+			saadud = e.getClass().getName();
+		}
+		vordle("applyBaldwinWindow("+field+", "+soughtValue+") @ "+aeg, oodatud, saadud);
+	}
+
+	/**
+	 *   Kontrollib k&otilde;iki operatsioone, v&auml;lju, otsitud v&auml;&auml;rtusi ja suundi
+	 *  (<tt>|direction| &lt;= maxSuund</tt>) ajahetke <tt>aeg</tt> korral. Kui
+	 *  <tt>juhuslik != null</tt>, kontrollitakse iga operatsiooni korral ainult yhte juhuslikku
+	 *  v&auml;&auml;rtust ja suunda.
+	 */
+	private void kontrolli(LocalDateTime aeg, int maxSuund, Random juhuslik){
+		for (int d = -maxSuund; d <= maxSuund; d++) {
+			if (d == 0){
+				continue;
+			}
+			int direction = (juhuslik != null) ? (juhuslikSuund(juhuslik, maxSuund)) : (d);
+			for (int e = 0; e < 2; e++) {
+				boolean excl = (e == 0);
+				for (int s = DateTimeConstants.MONDAY; s <= DateTimeConstants.SUNDAY; s++) {
+					kontrolliOtsingut(aeg, Granulaarsus.DAY_OF_WEEK, NADALAPAEV, direction, s, excl);
+				}
+				kontrolliOtsingut(aeg, Granulaarsus.WEEK_OF_YEAR, NADAL, direction, 0, excl);
+				for (int s = 0; s <= DateTimeConstants.DECEMBER; s++) {
+					kontrolliOtsingut(aeg, Granulaarsus.MONTH, KUU, direction, s, excl);
+				}
+				kontrolliOtsingut(aeg, Granulaarsus.YEAR, AASTA, direction, 0, excl);
+				int yoc = aeg.getYearOfCentury();
+				int [] sajandiAastad = (juhuslik != null) ?
+						(new int [] { juhuslik.nextInt(100) }) :
+						(new int [] { 0, 1, 49, 50, 99, yoc, (yoc + 1) % 100, (yoc + 99) % 100 });
+				for (int s : sajandiAastad) {
+					kontrolliOtsingut(aeg, Granulaarsus.YEAR_OF_CENTURY, SAJANDI_AASTA, direction, s, excl);
+				}
+				kontrolliOtsingut(aeg, Granulaarsus.CENTURY_OF_ERA, SAJAND, direction, 0, excl);
+				for (String s : new String [] { "NI", "MO", "AF", "EV" }) {
+					kontrolliOtsingut(aeg, Granulaarsus.TIME, PAEVAOSA, direction, s, excl);
+				}
+				for (String s : new String [] { "WD", "WE" }) {
+					kontrolliOtsingut(aeg, Granulaarsus.DAY_OF_WEEK, TOOPAEV, direction, s, excl);
+				}
+				for (String s : new String [] { "WI", "SP", "SU", "FA" }) {
+					kontrolliOtsingut(aeg, Granulaarsus.MONTH, AASTAAEG, direction, s, excl);
+				}
+				for (String s : new String [] { "Q1", "Q2", "Q3", "Q4" }) {
+					kontrolliOtsingut(aeg, Granulaarsus.MONTH, KVARTAL, direction, s, excl);
+				}
+			}
+			if (juhuslik != null){
+				break;
+			}
+		}
+		for (int s = DateTimeConstants.MONDAY; s <= DateTimeConstants.SUNDAY; s++) {
+			kontrolliBaldwiniAkent(aeg, Granulaarsus.DAY_OF_WEEK, s);
+			for (int n = -6; n <= 6; n++) {
+				vordle("findNthSubpartOfGranularity(DAY_OF_WEEK, "+s+", "+n+") @ "+aeg,
+					leiaNesSammhaaval(Granulaarsus.DAY_OF_WEEK, s, n, aeg),
+					SemLeidmiseAbimeetodid.findNthSubpartOfGranularity(Granulaarsus.MONTH, Granulaarsus.DAY_OF_WEEK, s, n, aeg));
+				vordle("findNthSubpartOfGranularity(WEEK_OF_YEAR, "+s+", "+n+") @ "+aeg,
+					leiaNesSammhaaval(Granulaarsus.WEEK_OF_YEAR, s, n, aeg),
+					SemLeidmiseAbimeetodid.findNthSubpartOfGranularity(Granulaarsus.MONTH, Granulaarsus.WEEK_OF_YEAR, s, n, aeg));
+			}
+		}
+		for (int s = DateTimeConstants.JANUARY; s <= DateTimeConstants.DECEMBER; s++) {
+			kontrolliBaldwiniAkent(aeg, Granulaarsus.MONTH, s);
+		}
+		for (int s = 0; s <= 99; s++) {
+			kontrolliBaldwiniAkent(aeg, Granulaarsus.YEAR_OF_CENTURY, s);
+		}
+		for (String s : new String [] { "WI", "SP", "SU", "FA" }) {
+			vordle("applyBaldwinWindow(MONTH, "+s+") @ "+aeg, baldwiniAkenSammhaaval(AASTAAEG, aeg, s),
+					SemLeidmiseAbimeetodid.applyBaldwinWindow(Granulaarsus.MONTH, aeg, s));
+		}
+		for (String s : new String [] { "Q1", "Q2", "Q3", "Q4" }) {
+			vordle("applyBaldwinWindow(MONTH, "+s+") @ "+aeg, baldwiniAkenSammhaaval(KVARTAL, aeg, s),
+					SemLeidmiseAbimeetodid.applyBaldwinWindow(Granulaarsus.MONTH, aeg, s));
+		}
+	}
+
+	private static int juhuslikSuund(Random juhuslik, int maxSuund){
+		int suund = 1 + juhuslik.nextInt(maxSuund);
+		return (juhuslik.nextBoolean()) ? (suund) : (-suund);
+	}
+
+	//==============================================================================
+	//   	K 2 i v i t a m i n e    k 2 s u r e a l t
+	//==============================================================================
+
+	public static void main(String[] args) throws Exception {
+		int juhuslikke = 50000;
+		long seeme     = 2010L;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-juhuslikke") && i + 1 < args.length){
+				juhuslikke = Integer.parseInt( args[++i] );
+			} else if (args[i].equals("-seeme") && i + 1 < args.length){
+				seeme = Long.parseLong( args[++i] );
+			} else {
+				System.err.println("Tundmatu argument: "+args[i]);
+				System.err.println("Kasutus: KalendriArvutusteKontroll [-juhuslikke n] [-seeme s]");
+				System.exit(1);
+			}
+		}
+		KalendriArvutusteKontroll kontroll = new KalendriArvutusteKontroll();
+		// 1) K6ik p2evad vahemikus 1996 - 2032, k6ik otsitud v22rtused ja suunad kuni 3-ni
+		LocalDateTime aeg = new LocalDateTime(1996, 1, 1, 0, 30);
+		LocalDate lopp    = new LocalDate(2032, 12, 31);
+		int paev = 0;
+		while (!(aeg.toLocalDate()).isAfter(lopp)){
+			kontroll.kontrolli( aeg.withHourOfDay( (paev * 7) % 24 ), 3, null );
+			aeg = aeg.plusDays(1);
+			paev++;
+		}
+		System.out.println(" P2evad 1996 - 2032: "+paev+" p2eva, "+kontroll.kontrolle+" kontrolli");
+		// 2) Juhuslikud ajahetked aastatest 1300 - 9999 ning suunad kuni 12-ni
+		Random juhuslik = new Random(seeme);
+		for (int i = 0; i < juhuslikke; i++) {
+			LocalDate kuupaev = new LocalDate(1300, 1, 1).plusDays( juhuslik.nextInt(8700 * 365) );
+			kontroll.kontrolli( kuupaev.toLocalDateTime( new LocalTime(juhuslik.nextInt(24), 30) ),
+					12, juhuslik );
+		}
+		System.out.println(" Kokku: "+kontroll.kontrolle+" kontrolli, "+kontroll.erinevusi+" erinevust");
+		if (kontroll.erinevusi > 0){
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.bench_ajavt;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import ee.ut.soras.ajavtV2.AjaTuvastaja;
+import ee.ut.soras.ajavtV2.JarelTootlus;
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaPunkt;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
+
+/**
+ *   Fraasimustrite sobitajate kontroll: t&ouml;&ouml;tleb korpuse (<tt>laused.t3olp</tt> ning
+ *  <tt>laused.json</tt>) nii reeglip&otilde;histe fraasimustri-automaatidega (<tt>-matcher fsm</tt>)
+ *  kui ka k&otilde;igi reeglite yhise automaadiga (<tt>-matcher automaton</tt>) ning v&otilde;rdleb
+ *  v&auml;ljundeid (nii t&auml;ielikus kui ka puhtas TimeML-i kujus).
+ *  <p>
+ *  Kasutamine (vt ka ant-i eesm&auml;rk <tt>check-matchers</tt>):
+ *  <pre>
+ *     java ee.ut.soras.bench_ajavt.MustriteSobitajateKontroll [-r reeglid.xml] [-korpus kaust]
+ *  </pre>
+ *  Kui m&otilde;ni v&auml;ljund erineb, l&otilde;petab programm koodiga 1.
+ *
+ *  @author Siim Orasmaa
+ */
+public class MustriteSobitajateKontroll {
+
+	private static final String KONEHETK = "2010-06-15T12:00";
+
+	private static final int NAIDATAVAID_ERINEVUSI = 20;
+
+	private final String [] konehetk;
+	private final AjaPunkt creationTime;
+	private final AjaTuvastaja fsm;
+	private final AjaTuvastaja automaat;
+
+	private int kontrolle = 0;
+	private int erinevusi = 0;
+
+	MustriteSobitajateKontroll(String reegliFail) throws Exception {
+		this.konehetk     = ReferentsAjaParsija.looSonePohjalReferentsAeg( KONEHETK );
+		this.creationTime = JarelTootlus.formatAsCreationTime( this.konehetk );
+		this.fsm          = looTuvastaja( reegliFail, false );
+		this.automaat     = looTuvastaja( reegliFail, true );
+	}
+
+	private static AjaTuvastaja looTuvastaja(String reegliFail, boolean kasutaAutomaati) throws Exception {
+		AjaTuvastaja tuvastaja = new AjaTuvastaja();
+		tuvastaja.setKasutaMustriteAutomaati( kasutaAutomaati );
+		tuvastaja.setReegliFail( reegliFail );
+		tuvastaja.laeReeglidVajadusel();
+		return tuvastaja;
+	}
+
+	//==============================================================================
+	//   	V 6 r d l e m i n e
+	//==============================================================================
+
+	void kontrolliT3OLP(String t3olp, boolean puhasTimeML) throws Exception {
+		List<AjavtSona> fsmSonad =
+				(this.fsm).tuvastaAjavaljendidT3OLP( konehetk, t3olp, puhasTimeML, false );
+		List<AjavtSona> automaadiSonad =
+				(this.automaat).tuvastaAjavaljendidT3OLP( konehetk, t3olp, puhasTimeML, false );
+		vordle( "t3olp"+((puhasTimeML) ? (" (TimeML)") : ("")),
+				JarelTootlus.eraldamiseTulemusT3OLPEraldiReal( t3olp, fsmSonad, creationTime, puhasTimeML, false ),
+				JarelTootlus.eraldamiseTulemusT3OLPEraldiReal( t3olp, automaadiSonad, creationTime, puhasTimeML, false ) );
+	}
+
+	void kontrolliJSON(String json, boolean puhasTimeML) throws Exception {
+		List<AjavtSona> fsmSonad =
+				(this.fsm).tuvastaAjavaljendidVabamorfJSON( konehetk, VabaMorfJSONLint.loe( json ), puhasTimeML, false );
+		List<AjavtSona> automaadiSonad =
+				(this.automaat).tuvastaAjavaljendidVabamorfJSON( konehetk, VabaMorfJSONLint.loe( json ), puhasTimeML, false );
+		vordle( "json"+((puhasTimeML) ? (" (TimeML)") : ("")),
+				JarelTootlus.eraldamiseTulemusVabaMorfiJSON( json, fsmSonad, creationTime, puhasTimeML, true ),
+				JarelTootlus.eraldamiseTulemusVabaMorfiJSON( json, automaadiSonad, creationTime, puhasTimeML, true ) );
+	}
+
+	/**
+	 *   V&otilde;rdleb v&auml;ljundeid rea kaupa ning kuvab kuni <tt>NAIDATAVAID_ERINEVUSI</tt>
+	 *  erinevat rida.
+	 */
+	private void vordle(String nimi, String fsmValjund, String automaadiValjund){
+		String [] fsmRead      = fsmValjund.split("\r?\n", -1);
+		String [] automaadiRead = automaadiValjund.split("\r?\n", -1);
+		int ridu = Math.max(fsmRead.length, automaadiRead.length);
+		int erinevaid = 0;
+		for (int i = 0; i < ridu; i++) {
+			String fsmRida       = (i < fsmRead.length) ? (fsmRead[i]) : ("");
+			String automaadiRida = (i < automaadiRead.length) ? (automaadiRead[i]) : ("");
+			if (!fsmRida.equals(automaadiRida)){
+				if (erinevusi + erinevaid < NAIDATAVAID_ERINEVUSI){
+					System.out.println("   "+nimi+", rida "+(i+1)+":");
+					System.out.println("      fsm:       "+fsmRida);
+					System.out.println("      automaton: "+automaadiRida);
+				}
+				erinevaid++;
+			}
+		}
+		kontrolle++;
+		erinevusi += erinevaid;
+		System.out.println(" "+nimi+": "+ridu+" rida, "+erinevaid+" erinevat");
+	}
+
+	//==============================================================================
+	//   	K 2 i v i t a m i n e    k 2 s u r e a l t
+	//==============================================================================
+
+	public static void main(String[] args) throws Exception {
+		String reegliFail   = "res" + File.separator + "reeglid.xml";
+		String korpuseKaust = "bench-src" + File.separator + "korpus";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-r") && i + 1 < args.length){
+				reegliFail = args[++i];
+			} else if (args[i].equals("-korpus") && i + 1 < args.length){
+				korpuseKaust = args[++i];
+			} else {
+				System.err.println("Tundmatu argument: "+args[i]);
+				System.err.println("Kasutus: MustriteSobitajateKontroll [-r reeglid.xml] [-korpus kaust]");
+				System.exit(1);
+			}
+		}
+		String t3olp = new String( Files.readAllBytes( (new File(korpuseKaust, "laused.t3olp")).toPath() ), "UTF-8" );
+		String json  = new String( Files.readAllBytes( (new File(korpuseKaust, "laused.json")).toPath() ), "UTF-8" );
+		MustriteSobitajateKontroll kontroll = new MustriteSobitajateKontroll(reegliFail);
+		for (boolean puhasTimeML : new boolean [] { false, true }) {
+			kontroll.kontrolliT3OLP( t3olp, puhasTimeML );
+			kontroll.kontrolliJSON( json, puhasTimeML );
+		}
+		System.out.println(" Kokku: "+kontroll.kontrolle+" v2ljundit, "+kontroll.erinevusi+" erinevat rida");
+		if (kontroll.erinevusi > 0){
+			System.exit(1);
+		}
+	}
+
+}
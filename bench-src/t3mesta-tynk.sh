@@ -0,0 +1,125 @@
+#!/bin/sh
+#  Ajavt: Temporal Expression Tagger for Estonian
+#  Copyright (C) 2009-2015  University of Tartu
+#
+#  T3mesta tynk: asendab analysaatorite kogumi kontrollis (vt
+#  ee.ut.soras.bench_ajavt.AnalyysiKogumiKontroll) morf analysaatorit t3mesta.
+#  Loeb standardsisendist ridu ning kirjutab iga rea iga s6ne kohta v2ljundisse
+#  t3mesta formaadis analyysirea; analyys v6etakse leksikonist (t3mesta
+#  formaadis fail, nt korpus/laused.t3mesta), selle puudumisel kasutatakse
+#  vaikeanalyysi. Iga sisendrea v2ljund kirjutatakse kohe voogu (nagu
+#  analysaator, mida kogum eeldab), kui pole antud lippu -puhverda.
+#
+#  Kasutamine:
+#     t3mesta-tynk.sh [-leksikon <fail>] [-logi <fail>] [-sure <s6na>]
+#                     [-sure_korra <lipufail>] [-jaa_toppama <s6na>] [-puhverda]
+#
+#     -leksikon <fail>       -- t3mesta formaadis fail, millest analyysid v6etakse;
+#     -logi <fail>           -- iga k2ivitamise korral lisatakse faili rida
+#                               "start <pid>";
+#     -sure <s6na>           -- protsess l6petab t88 (koodiga 3), kui sisendis on <s6na>;
+#     -sure_korra <lipufail> -- nagu -sure, kuid vaid siis, kui <lipufail>-i veel pole
+#                               (fail luuakse); vajab ka lippu -sure;
+#     -jaa_toppama <s6na>    -- protsess j22b vastamata ootama, kui sisendis on <s6na>;
+#     -puhverda              -- v2ljundit ei kirjutata voogu enne sisendi l6ppu (nagu
+#                               analysaator, mis ei tyhjenda v2ljundpuhvrit iga rea j2rel).
+
+LEKSIKON=""
+LOGI=""
+SURE=""
+SURE_KORRA=""
+JAA_TOPPAMA=""
+PUHVERDA=0
+while [ $# -gt 0 ]; do
+	case "$1" in
+		-leksikon)    LEKSIKON="$2"; shift ;;
+		-logi)        LOGI="$2"; shift ;;
+		-sure)        SURE="$2"; shift ;;
+		-sure_korra)  SURE_KORRA="$2"; shift ;;
+		-jaa_toppama) JAA_TOPPAMA="$2"; shift ;;
+		-puhverda)    PUHVERDA=1 ;;
+	esac
+	shift
+done
+
+if [ -n "$LOGI" ]; then
+	echo "start $$" >> "$LOGI"
+fi
+
+# mawk loeb torust vaikimisi suurte plokkide kaupa; -W interactive paneb ta ridahaaval lugema
+AWK_LIPUD=""
+if awk -W version 2>/dev/null | grep -q mawk; then
+	AWK_LIPUD="-W interactive"
+fi
+
+exec awk $AWK_LIPUD -v leksikon="$LEKSIKON" -v sure="$SURE" -v sure_korra="$SURE_KORRA" \
+         -v jaa_toppama="$JAA_TOPPAMA" -v puhverda="$PUHVERDA" '
+BEGIN {
+	if (leksikon != "") {
+		while ((getline rida < leksikon) > 0) {
+			n = index(rida, "    ")
+			if (n > 1 && !((substr(rida, 1, n - 1)) in analyysid)) {
+				analyysid[substr(rida, 1, n - 1)] = rida
+			}
+		}
+		close(leksikon)
+	}
+}
+function analyys(s6ne) {
+	if (s6ne in analyysid) {
+		return analyysid[s6ne]
+	}
+	if (s6ne ~ /^[.,!?:;]$/) {
+		return s6ne "    " s6ne " //_Z_ //"
+	}
+	if (s6ne ~ /^[0-9]+$/) {
+		return s6ne "    " s6ne "+0 //_N_ ?, //"
+	}
+	return s6ne "    " s6ne "+0 //_S_ sg n, //"
+}
+function valjasta(rida) {
+	if (puhverda == 0) {
+		print rida
+	} else {
+		puhver = puhver rida "\n"
+	}
+}
+function sureb() {
+	if (sure_korra == "") {
+		return 1
+	}
+	if ((getline olemas < sure_korra) >= 0) {
+		close(sure_korra)
+		return 0
+	}
+	printf "" > sure_korra
+	close(sure_korra)
+	return 1
+}
+{
+	for (i = 1; i <= NF; i++) {
+		s6ne = $i
+		if (sure != "" && s6ne == sure && sureb()) {
+			exit 3
+		}
+		if (jaa_toppama != "" && s6ne == jaa_toppama) {
+			system("sleep 60 >/dev/null 2>&1 </dev/null")
+		}
+		lopp = ""
+		if (length(s6ne) > 1 && s6ne ~ /[.,!?:;]$/) {
+			lopp = substr(s6ne, length(s6ne))
+			s6ne = substr(s6ne, 1, length(s6ne) - 1)
+		}
+		valjasta(analyys(s6ne))
+		if (lopp != "") {
+			valjasta(analyys(lopp))
+		}
+	}
+	if (puhverda == 0) {
+		fflush()
+	}
+}
+END {
+	printf "%s", puhver
+}
+'
@@ -20,35 +20,63 @@ package ee.ut.soras.ajavtV2;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import ee.ut.soras.ajavtV2.mudel.AjavtDokument;
 import ee.ut.soras.ajavtV2.mudel.AjavtSona;
 import ee.ut.soras.ajavtV2.mudel.FraasisPaiknemiseKoht;
+import ee.ut.soras.ajavtV2.mudel.ReegliteIndeks;
 import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat.ASTE;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.LiitumisReegel;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.PotentsLiidetavateKandidaatideJada;
-import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.SemLeidmiseMudel;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.NormaliseerimisteVahemalu;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.ReferentsAeg;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.SemLeidmiseMudelImpl3;
-import ee.ut.soras.ajavtV2.mudel.sonamallid.MallileVastavus;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.FraasiMuster;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MallideTulemusteVahemalu;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MustriteAutomaat;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MustriSobitamiseKontekst;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.NegatiivneMuster;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaKlass;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaMall;
 import ee.ut.soras.ajavtV2.util.LogiPidaja;
 import ee.ut.soras.ajavtV2.util.MustridXMLFailist;
+import ee.ut.soras.ajavtV2.util.ReegliKomplekt;
+import ee.ut.soras.ajavtV2.util.ReegliProfiilija;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.ajavtV2.util.TuvastamiseKuulaja;
+import ee.ut.soras.ajavtV2.util.TuvastamiseKuulaja.ETAPP;
+import ee.ut.soras.ajavtV2.util.TuvastamiseKuulaja.LOENDUR;
 import ee.ut.soras.wrappers.EstyhmmWrapper;
 import ee.ut.soras.wrappers.impl.EstyhmmWrapperImpl;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
 
 /**
  *    Ajav&auml;ljendite tuvastaja peamoodul (n&ouml; tuvastamismoodul). Koondab endas ajav&auml;ljendite
@@ -77,6 +105,11 @@ import ee.ut.soras.wrappers.impl.EstyhmmWrapperImpl;
  *      <li><code>JarelTootlus.joondaAlgseTekstiga</code> - joondab saadud tulemused algse tekstiga; </li>
  *      <li><code>JarelTootlus.eraldamiseTulemusPretty</code> - kuvab l6pliku tulemuse (m2rgendatud tekst); </li>
  *  </ol>
+ *  <p>
+ *  P2rast reeglite sisselugemist on tuvastaja reeglistik (<code>sonaKlassid</code>, <code>reeglid</code>, 
+ *  <code>liitumisReeglid</code>) muutumatu ning k6ik dokumendi t88tlemisel muutuv olek hoitakse 
+ *  v2ljakutsep6hises {@link MustriSobitamiseKontekst}-is. Seega v6ib yks <code>AjaTuvastaja</code> 
+ *  teenindada mitut samaaegset <code>tuvastaAjavaljendid*</code> v2ljakutset erinevatest l6imedest.
  * 
  *   @author Siim Orasmaa
  *   
@@ -97,16 +130,102 @@ public class AjaTuvastaja {
 	//   	S o n a k l a s s i d    j a   t u v a s t a m i s r e e g l i d 
 	//==============================================================================
 
-	private HashMap<String, SonaKlass> sonaKlassid = null;
-	private List<TuvastamisReegel>         reeglid = null;
-	private List<LiitumisReegel>   liitumisReeglid = null;
-	private SemLeidmiseMudel                 mudel = new SemLeidmiseMudelImpl3();
+	private volatile Map<String, SonaKlass>    sonaKlassid = null;
+	private volatile List<TuvastamisReegel>        reeglid = null;
+	private volatile List<LiitumisReegel>  liitumisReeglid = null;
+	private volatile ReegliteIndeks         reegliteIndeks = null;
+	
+	/**
+	 *   Kas reeglite sisselugemisel kompileeritakse fraasimustrid yhiseks, yhiseid algusosi
+	 *  jagavaks automaadiks ({@link MustriteAutomaat}) v6i kasutatakse iga mustri jaoks 
+	 *  eraldi automaati (vaikimisi)? Tulemus on m6lemal juhul sama.
+	 */
+	private volatile boolean      kasutaMustriteAutomaati = false;
+	
+	/**
+	 *   Fraasimustrite yhine automaat (kui see on kompileeritud, vt <code>kasutaMustriteAutomaati</code>);
+	 *  kasutatakse vaid koos reeglite indeksiga.
+	 */
+	private volatile MustriteAutomaat     mustriteAutomaat = null;
+	
+	/**
+	 *   S6namallide kontrollimise statistika yle k6igi t88deldud dokumentide: mitu korda
+	 *  leiti tulemus s6na kohta meelde j2etud tulemuste seast ning mitu korda tuli mall 
+	 *  s6naga tegelikult sobitada (vt <code>MustriSobitamiseKontekst.kontrolliMallileVastavust</code>). 
+	 */
+	private final AtomicLong  mallideKontrolliTabamused   = new AtomicLong();
+	private final AtomicLong  mallideKontrolliMoodalasked = new AtomicLong();
+	private final AtomicLong  mallideVahemaluTabamused    = new AtomicLong();
+	
+	/**
+	 *   Dokumentide (ja l6imede) vahel jagatud s6namallide kontrollimise tulemuste vahem2lu 
+	 *  (vt {@link MallideTulemusteVahemalu}) ning selle mahutavus (s6nakujude arv); mahutavuse 
+	 *  0 korral (vaikimisi) vahem2lu ei kasutata. Vahem2lu luuakse uuesti iga kord, kui 
+	 *  reeglid v6i mahutavus muutuvad.
+	 */
+	private volatile MallideTulemusteVahemalu  mallideVahemalu = null;
+	private volatile int              mallideVahemaluMahutavus = 0;
+	private volatile SemLeidmiseMudel                mudel = new SemLeidmiseMudelImpl3();
+	
+	/**
+	 *   Dokumentide (ja l6imede) vahel jagatud normaliseerimise tulemuste vahem2lu (vt 
+	 *  {@link NormaliseerimisteVahemalu}) ning selle mahutavus (tulemuste arv); mahutavuse 0 korral
+	 *  (vaikimisi) vahem2lu ei kasutata. Vahem2lu v6tmed ei s6ltu reeglitest, seega reeglite 
+	 *  muutumisel seda uuesti ei looda.
+	 */
+	private volatile NormaliseerimisteVahemalu normaliseerimisteVahemalu = null;
+	
+	//==============================================================================
+	//   	D o k u m e n d i    k i l d u d e    p a r a l l e e l n e    t 8 8 t l u s
+	//==============================================================================
+	
+	/**
+	 *   Vaikimisi killu minimaalne suurus (s6nades); dokumente, milles on alla kahe killu 
+	 *  jagu s6nu, ei jagata.
+	 */
+	public static final int VAIKIMISI_KILLU_MIN_SONU = 2000;
+	
+	/**
+	 *   Kontekstilausete arv kummalgi pool killu tuuma (vt {@link #eraldaKandidaadidKildudes}).
+	 */
+	public static final int KILLU_KONTEKSTI_LAUSEID = 2;
+	
+	/**
+	 *   T2itja, mille l6imedes eraldatakse suure dokumendi ajav2ljendikandidaadid kildude 
+	 *  (j2rjestikuste lausete) kaupa paralleelselt; <code>null</code> korral (vaikimisi)
+	 *  t88deldakse iga dokument tervikuna yhes l6imes.
+	 */
+	private volatile ForkJoinPool kildudeTaitja = null;
+	private volatile int          killuMinSonu  = VAIKIMISI_KILLU_MIN_SONU;
+	
+	//==============================================================================
+	//   	M 6 6 d i k u d
+	//==============================================================================
+	
+	/**
+	 *   Etappide kestuste, loendurite ja reeglite tabamuste kuulaja (vt {@link TuvastamiseKuulaja});
+	 *  <code>null</code> korral (vaikimisi) m66tmisi ei tehta.
+	 */
+	private volatile TuvastamiseKuulaja kuulaja = null;
+	
+	/**
+	 *   Reeglite profiilija (vt {@link ReegliProfiilija}); <code>null</code> korral (vaikimisi)
+	 *  reeglite profiili ei koguta.
+	 */
+	private volatile ReegliProfiilija profiilija = null;
+	
+	private static final ThreadMXBean LOIMED = ManagementFactory.getThreadMXBean();
 	
 	//==============================================================================
 	//   	                 e s t y h m m - w r a p p e r 
 	//==============================================================================
 	
-	private EstyhmmWrapper wrapper;
+	private volatile EstyhmmWrapper wrapper;
+
+	/**
+	 *   Vaikimisi morf analysaatori k&auml;sk (kui wrapper'it pole m&auml;&auml;ratud, vt {@link #setWrapper}).
+	 */
+	public static final String VAIKIMISI_ANALYSAATOR = "t3mesta -Y -cio utf8 +1";
 
 	//==============================================================================
 	//==============================================================================
@@ -143,9 +262,7 @@ public class AjaTuvastaja {
 		// --------------------------------------------------------------------
 		//   *) Laeme failist ajavaljendite tuvastamise reeglid
 		// --------------------------------------------------------------------
-		if (this.sonaKlassid == null || this.reeglid == null){
-			this.uuendaReegleid(reegliFail, false);
-		}
+		this.laeReeglidVajadusel(false);
 		
 		// --------------------------------------------------------------------
 		//   *) Sooritame estyhmm abil sisendteksti morf analyysi (vajadusel)
@@ -153,12 +270,12 @@ public class AjaTuvastaja {
 		// --------------------------------------------------------------------
 		List<AjavtSona> sonad = null;
 		if (morfAnalyysitudSisendTekst == null){
-			if (this.wrapper == null){
-				this.wrapper = new EstyhmmWrapperImpl( "t3mesta -Y -cio utf8 +1", "UTF-8" );
-			}
+			EstyhmmWrapper wrapper = this.annaWrapper();
 			try {
 				long startTime = System.currentTimeMillis();
-				sonad = EelTootlus.eeltootlusValiseMorfAnalyysiga( this.wrapper, sisendTekst );
+				long [] etapiAlgus = this.alustaEtappi();
+				sonad = EelTootlus.eeltootlusValiseMorfAnalyysiga( wrapper, sisendTekst );
+				this.lopetaEtapp(ETAPP.EELTOOTLUS, etapiAlgus);
 				long endTime   = System.currentTimeMillis();
 				preprocessingTime = endTime - startTime;
 		 	} catch (Exception e) {
@@ -166,34 +283,18 @@ public class AjaTuvastaja {
 		 	}	
 		} else {
 			long startTime = System.currentTimeMillis();
+			long [] etapiAlgus = this.alustaEtappi();
 			sonad = EelTootlus.eeltootlus( morfAnalyysitudSisendTekst );
+			this.lopetaEtapp(ETAPP.EELTOOTLUS, etapiAlgus);
 			long endTime   = System.currentTimeMillis();
 			preprocessingTime = endTime - startTime;
 		}
 	 	
 	 	long startTime = System.currentTimeMillis();
-		// --------------------------------------------------------------------
-		//   *) Konfigureerime semantika lahendamise mudeli
-		//     (st, milliseid semantikadefinitsioone eraldamisel ja
-		//      normaliseerimisel arvestatakse ja milliseid mitte)
-		// --------------------------------------------------------------------
-		if (this.mudel != null){
-			TuvastamisReegel.setSemanticsModel( (this.mudel).getMudeliTahised() );
-		} else {
-			throw new Exception("Arvutusmudel maaramata!");
-		}
-	 	
 		// --------------------------------------------------------------------
 		//   *) Asume ajavaljendeid tuvastama
 		// --------------------------------------------------------------------
-		this.eraldaAjavaljendiKandidaadid(sonad);
-		this.lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad);		
-		//this.liidaKorvutiseisvadAjavaljendiFraasid(sonad);
-		this.liidaKorvutiseisvadAjavaljendiFraasid2(sonad);
-		this.eraldaAjavahemikudJaLiidaFraasiks(sonad);
-		
-		//this.koondaRinnastusSeosesOlevadAjavYhtseSemantikaAlla(sonad);
-		(this.mudel).leiaSemantika(sonad, konehetk);
+		this.tuvastaAjavaljendidSonades(sonad, konehetk, null);
 
 		// --------------------------------------------------------------------
 		//   *) Joondame tulemuse esialgse tekstiga
@@ -248,45 +349,26 @@ public class AjaTuvastaja {
 		// --------------------------------------------------------------------
 		//   *) Laeme failist ajavaljendite tuvastamise reeglid
 		// --------------------------------------------------------------------
-		if (this.sonaKlassid == null || this.reeglid == null){
-			this.uuendaReegleid(reegliFail, false);
-		}
+		this.laeReeglidVajadusel(false);
 		
 		// --------------------------------------------------------------------
 		//   *) Sooritame estyhmm abil sisendteksti morf analyysi (vajadusel)
 		//   *) Paigutame morf analyysi tulemused andmemudelisse
 		// --------------------------------------------------------------------
 		List<AjavtSona> sonad = null;
+		long [] etapiAlgus = this.alustaEtappi();
 		if (morfAnalyysitudSisendTekst == null){
-			if (this.wrapper == null){
-				this.wrapper = new EstyhmmWrapperImpl( "t3mesta -Y -cio utf8 +1", "UTF-8" );
-			}
-			sonad = EelTootlus.eeltootlusValiseMorfAnalyysiga( this.wrapper, sisendTekst );
+			EstyhmmWrapper wrapper = this.annaWrapper();
+			sonad = EelTootlus.eeltootlusValiseMorfAnalyysiga( wrapper, sisendTekst );
 		} else {
 			sonad = EelTootlus.eeltootlus( morfAnalyysitudSisendTekst );
 		}
+		this.lopetaEtapp(ETAPP.EELTOOTLUS, etapiAlgus);
 	 	
-		// --------------------------------------------------------------------
-		//   *) Konfigureerime semantika lahendamise mudeli
-		//     (st, milliseid semantikadefinitsioone eraldamisel ja
-		//      normaliseerimisel arvestatakse ja milliseid mitte)
-		// --------------------------------------------------------------------
-		if (this.mudel != null){
-			TuvastamisReegel.setSemanticsModel( (this.mudel).getMudeliTahised() );
-		} else {
-			throw new Exception("Arvutusmudel maaramata!");
-		}
-		
 		// --------------------------------------------------------------------
 		//   *) Asume ajavaljendeid tuvastama
 		// --------------------------------------------------------------------
-		this.eraldaAjavaljendiKandidaadid(sonad);
-		this.lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad);		
-		//this.liidaKorvutiseisvadAjavaljendiFraasid(sonad);
-		this.liidaKorvutiseisvadAjavaljendiFraasid2(sonad);
-		this.eraldaAjavahemikudJaLiidaFraasiks(sonad);
-		
-		(this.mudel).leiaSemantika(sonad, konehetk);
+		this.tuvastaAjavaljendidSonades(sonad, konehetk, null);
 
 		// --------------------------------------------------------------------
 		//   *) Joondame tulemuse esialgse tekstiga
@@ -343,6 +425,221 @@ public class AjaTuvastaja {
 				sonad, sisendTekst, allowOnlyPureTimeML, JarelTootlus.formatAsCreationTime(konehetk));
 	}
 	
+	//==============================================================================
+	//==============================================================================
+	//    T u v a s t a m i n e  ( e e l t 8 8 d e l d u d    s 6 n a d )
+	//==============================================================================
+	//==============================================================================
+	
+	/**
+	 *   Tuvastab eelt88deldud s6nadest (vt <code>EelTootlus</code>) ajav2ljendid: eraldab 
+	 *   ajav2ljendikandidaadid, lahendab nendevahelised ylekatted, liidab k6rvutiseisvad 
+	 *   kandidaadid fraasideks ja vahemikeks ning leiab nende semantika. Tulemus seotakse 
+	 *   s6nadega <tt>sonad</tt>; TID v22rtuste parandamine ja teksti joondamine j22vad
+	 *   v2ljakutsuja hooleks.
+	 */
+	void tuvastaAjavaljendidSonades(List<AjavtSona> sonad, String [] konehetk, LogiPidaja debugLogi) throws Exception {
+		// --------------------------------------------------------------------
+		//   *) Konfigureerime semantika lahendamise mudeli
+		//     (st, milliseid semantikadefinitsioone eraldamisel ja
+		//      normaliseerimisel arvestatakse ja milliseid mitte)
+		// --------------------------------------------------------------------
+		SemLeidmiseMudel mudel = this.mudel;
+		if (mudel == null){
+			throw new Exception("Arvutusmudel maaramata!");
+		}
+		TuvastamiseKuulaja kuulaja = this.kuulaja;
+		if (kuulaja != null){
+			kuulaja.loendurSuurenes(LOENDUR.DOKUMENTE, 1);
+			kuulaja.loendurSuurenes(LOENDUR.SONU, sonad.size());
+		}
+		
+		// --------------------------------------------------------------------
+		//   *) Asume ajavaljendeid tuvastama: suure dokumendi korral (kui 
+		//      kildude t2itja on m22ratud) eraldame kandidaadid kildude kaupa 
+		//      paralleelselt, muidu tervikuna
+		// --------------------------------------------------------------------
+		ForkJoinPool kildudeTaitja = this.kildudeTaitja;
+		boolean eraldatud = false;
+		if (kildudeTaitja != null && debugLogi == null && sonad.size() >= 2 * this.killuMinSonu){
+			eraldatud = this.eraldaKandidaadidKildudes(sonad, mudel, kildudeTaitja);
+		}
+		if (!eraldatud){
+			MustriSobitamiseKontekst kontekst = new MustriSobitamiseKontekst( mudel.getMudeliTahised(), debugLogi );
+			this.eraldaJaLiidaKandidaadid(sonad, kontekst);
+		}
+		
+		// Semantika leidmine (sh lausetevaheline ankurdamine) toimub alati kogu dokumendil
+		long [] etapiAlgus = this.alustaEtappi();
+		mudel.leiaSemantika(sonad, ReferentsAeg.anna(konehetk));
+		this.lopetaEtapp(ETAPP.SEMANTIKA_LEIDMINE, etapiAlgus);
+		if (kuulaja != null){
+			kuulaja.loendurSuurenes(LOENDUR.SEM_OPERATSIOONE, loeSemOperatsioonid(sonad));
+		}
+	}
+	
+	/**
+	 *   Ajav2ljendikandidaatide eraldamise etapid (kuni semantika leidmiseni) s6nadel 
+	 *   <tt>sonad</tt>. Kuulaja olemasolul m66detakse iga etapi kestus ning kandidaatide
+	 *   arvu muutus (vt {@link #teataKandidaatideMuutusest}).
+	 */
+	private void eraldaJaLiidaKandidaadid(List<AjavtSona> sonad, MustriSobitamiseKontekst kontekst) throws Exception {
+		TuvastamiseKuulaja kuulaja = this.kuulaja;
+		ReegliProfiilija profiilija = this.profiilija;
+		if (profiilija != null){
+			kontekst.kogeProfiili();
+		}
+		if (kuulaja == null){
+			this.eraldaAjavaljendiKandidaadid(sonad, kontekst);
+			this.lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad, kontekst);		
+			//this.liidaKorvutiseisvadAjavaljendiFraasid(sonad);
+			this.liidaKorvutiseisvadAjavaljendiFraasid2(sonad);
+			this.eraldaAjavahemikudJaLiidaFraasiks(sonad);
+			if (profiilija != null){
+				profiilija.lisaProfiil( kontekst.getProfiil(), kontekst.getReegliTabamused() );
+			}
+			return;
+		}
+		kontekst.kogeReegliTabamusi();
+		int [] kandidaate = loeKandidaadid(sonad);
+		long [] etapiAlgus = this.alustaEtappi();
+		this.eraldaAjavaljendiKandidaadid(sonad, kontekst);
+		this.lopetaEtapp(ETAPP.KANDIDAATIDE_ERALDAMINE, etapiAlgus);
+		kandidaate = teataKandidaatideMuutusest(kuulaja, sonad, kandidaate);
+		
+		etapiAlgus = this.alustaEtappi();
+		this.lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad, kontekst);
+		this.lopetaEtapp(ETAPP.YLEKATETE_LAHENDAMINE, etapiAlgus);
+		kandidaate = teataKandidaatideMuutusest(kuulaja, sonad, kandidaate);
+		
+		etapiAlgus = this.alustaEtappi();
+		int jadasid = this.liidaKorvutiseisvadAjavaljendiFraasid2(sonad);
+		this.lopetaEtapp(ETAPP.FRAASIDE_LIITMINE, etapiAlgus);
+		kuulaja.loendurSuurenes(LOENDUR.LIIDETAVATE_JADASID, jadasid);
+		kandidaate = teataKandidaatideMuutusest(kuulaja, sonad, kandidaate);
+		
+		etapiAlgus = this.alustaEtappi();
+		this.eraldaAjavahemikudJaLiidaFraasiks(sonad);
+		this.lopetaEtapp(ETAPP.VAHEMIKE_ERALDAMINE, etapiAlgus);
+		teataKandidaatideMuutusest(kuulaja, sonad, kandidaate);
+		
+		for (Map.Entry<String, long []> tabamus : (kontekst.getReegliTabamused()).entrySet()) {
+			kuulaja.reegelRakendus(tabamus.getKey(), (tabamus.getValue())[0]);
+		}
+		if (profiilija != null){
+			profiilija.lisaProfiil( kontekst.getProfiil(), kontekst.getReegliTabamused() );
+		}
+	}
+	
+	/**
+	 *   Eraldab dokumendi s6nades <tt>sonad</tt> ajav2ljendikandidaadid (etapid kuni semantika 
+	 *   leidmiseni, vt {@link #eraldaJaLiidaKandidaadid}) kildude kaupa paralleelselt, t2itjas 
+	 *   <tt>taitja</tt>. 
+	 *   <p>
+	 *   Dokument jagatakse lausepiiridelt (<code>onLauseLopp()</code>) j2rjestikusteks killuks,
+	 *   igaytes v2hemalt <code>killuMinSonu</code> s6na. Iga killu jaoks moodustatakse aken:
+	 *   killu enda s6nad (<i>tuum</i>) ning kummalegi poole {@link #KILLU_KONTEKSTI_LAUSEID} 
+	 *   lauset konteksti, mis on tuuma s6nadest erinevalt <i>koopiad</i> (vt 
+	 *   <code>AjavtSona(AjavtSona)</code>). Nii muudab iga l6im vaid oma killu s6nu ning 
+	 *   kontekstis leitud kandidaadid j22vad koopiate kylge. 
+	 *   <p>
+	 *   Kui m6ne killu tuuma kandidaat ulatub konteksti (st fraas v6i vahemik yletab killu
+	 *   piiri), ei pruugi tulemus kattuda dokumendi tervikuna t88tlemise tulemusega: siis
+	 *   eemaldatakse s6nadelt k6ik kandidaadid ning tagastatakse <code>false</code> (eraldamine
+	 *   tuleb teha tervikuna). Edu korral tagastatakse <code>true</code>.
+	 */
+	private boolean eraldaKandidaadidKildudes(final List<AjavtSona> sonad, 
+	                                          final SemLeidmiseMudel mudel, 
+	                                          ForkJoinPool taitja) throws Exception {
+		// 1) Leiame lausete algused (viimane element on dokumendi l6pp)
+		List<Integer> lauseAlgused = new ArrayList<Integer>();
+		lauseAlgused.add(0);
+		for (int i = 0; i < sonad.size() - 1; i++) {
+			if ((sonad.get(i)).onLauseLopp()){
+				lauseAlgused.add(i + 1);
+			}
+		}
+		lauseAlgused.add(sonad.size());
+		int lauseid = lauseAlgused.size() - 1;
+		// 2) Jagame laused killuks: iga l6ime kohta v2hemalt 4 killu, kuid mitte alla killuMinSonu s6na
+		int killuSuurus = Math.max(this.killuMinSonu, sonad.size() / (4 * taitja.getParallelism()));
+		List<Callable<Boolean>> tood = new ArrayList<Callable<Boolean>>();
+		int killuAlgus = 0;
+		for (int l = 1; l <= lauseid; l++) {
+			if (l == lauseid || lauseAlgused.get(l) - lauseAlgused.get(killuAlgus) >= killuSuurus){
+				final int aknaAlgus  = lauseAlgused.get( Math.max(0, killuAlgus - KILLU_KONTEKSTI_LAUSEID) );
+				final int tuumaAlgus = lauseAlgused.get( killuAlgus );
+				final int tuumaLopp  = lauseAlgused.get( l );
+				final int aknaLopp   = lauseAlgused.get( Math.min(lauseid, l + KILLU_KONTEKSTI_LAUSEID) );
+				tood.add( new Callable<Boolean>() {
+					public Boolean call() throws Exception {
+						return eraldaKandidaadidKillus(sonad, aknaAlgus, tuumaAlgus, tuumaLopp, aknaLopp, mudel);
+					}
+				});
+				killuAlgus = l;
+			}
+		}
+		if (tood.size() < 2){
+			return false;
+		}
+		// 3) T88tleme killud paralleelselt ning ootame k6igi l6puni
+		boolean piiridPuutumata = true;
+		Exception viga = null;
+		for (Future<Boolean> too : taitja.invokeAll(tood)) {
+			try {
+				piiridPuutumata &= too.get();
+			} catch (ExecutionException e) {
+				if (viga == null){
+					viga = (e.getCause() instanceof Exception) ? 
+							((Exception) e.getCause()) : (new Exception(e.getCause()));
+				}
+			}
+		}
+		if (viga != null || !piiridPuutumata){
+			for (AjavtSona sona : sonad) {
+				sona.eemaldaKoikAjavaljendiKandidaadid();
+			}
+			if (viga != null){
+				throw viga;
+			}
+		}
+		return piiridPuutumata;
+	}
+	
+	/**
+	 *   Eraldab ajav2ljendikandidaadid yhes killus (vt {@link #eraldaKandidaadidKildudes}): 
+	 *   s6nad <tt>[tuumaAlgus, tuumaLopp)</tt> on killu tuum, <tt>[aknaAlgus, aknaLopp)</tt> 
+	 *   kogu aken. Tagastab <code>false</code>, kui m6ni tuuma kandidaat ulatub konteksti.
+	 */
+	private boolean eraldaKandidaadidKillus(List<AjavtSona> sonad, int aknaAlgus, int tuumaAlgus,
+	                                        int tuumaLopp, int aknaLopp, SemLeidmiseMudel mudel) throws Exception {
+		List<AjavtSona> aken = new ArrayList<AjavtSona>(aknaLopp - aknaAlgus);
+		Set<AjavtSona> kontekstiSonad = Collections.newSetFromMap( new IdentityHashMap<AjavtSona, Boolean>() );
+		for (int i = aknaAlgus; i < aknaLopp; i++) {
+			AjavtSona sona = sonad.get(i);
+			if (i < tuumaAlgus || i >= tuumaLopp){
+				sona = new AjavtSona(sona);
+				kontekstiSonad.add(sona);
+			}
+			aken.add(sona);
+		}
+		this.eraldaJaLiidaKandidaadid(aken, new MustriSobitamiseKontekst( mudel.getMudeliTahised(), null ));
+		// Kontrollime, et tuuma kandidaadid ei ulatuks konteksti
+		for (int i = tuumaAlgus - aknaAlgus; i < tuumaLopp - aknaAlgus; i++) {
+			AjavtSona sona = aken.get(i);
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				for (AjavaljendiKandidaat kandidaat : sona.getAjavaljendiKandidaadid()) {
+					for (AjavtSona fraasiSona : kandidaat.getFraas()) {
+						if (kontekstiSonad.contains(fraasiSona)){
+							return false;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+	
 	//==============================================================================
 	//==============================================================================
 	//    T u v a s t a m i n e  ( t 3 - o l p )
@@ -364,19 +661,13 @@ public class AjaTuvastaja {
 		// --------------------------------------------------------------------
 		//   *) Laeme failist ajavaljendite tuvastamise reeglid
 		// --------------------------------------------------------------------
-		if (this.sonaKlassid == null || this.reeglid == null){
-			this.uuendaReegleid(reegliFail, true);
-		} else {
-			if (this.logi != null){
-				kuvaSonaKlassidJaReeglid(this.logi);
-			}
-		}
+		this.laeReeglidVajadusel(true);
 		
+		LogiPidaja debugLogi = null;
 		if (debug){
-			LogiPidaja logi = new LogiPidaja(true);
-			logi.setKirjutaLogiValjundisse(true);
-			logi.setKirjutaLogiFaili(false);
-			SemantikaDefinitsioon.logi = logi;
+			debugLogi = new LogiPidaja(true);
+			debugLogi.setKirjutaLogiValjundisse(true);
+			debugLogi.setKirjutaLogiFaili(false);
 		}
 		
 		// --------------------------------------------------------------------
@@ -384,30 +675,14 @@ public class AjaTuvastaja {
 		//   *) Paigutame morf analyysi tulemused andmemudelisse
 		// --------------------------------------------------------------------
 		List<AjavtSona> sonad = null;
+		long [] etapiAlgus = this.alustaEtappi();
 		sonad = EelTootlus.eeltootlusT3OLP( sisendT3OLP );
+		this.lopetaEtapp(ETAPP.EELTOOTLUS, etapiAlgus);
 
-		// --------------------------------------------------------------------
-		//   *) Konfigureerime semantika lahendamise mudeli
-		//     (st, milliseid semantikadefinitsioone eraldamisel ja
-		//      normaliseerimisel arvestatakse ja milliseid mitte)
-		// --------------------------------------------------------------------
-		if (this.mudel != null){
-			TuvastamisReegel.setSemanticsModel( (this.mudel).getMudeliTahised() );
-		} else {
-			throw new Exception("Arvutusmudel maaramata!");
-		}
-		
 		// --------------------------------------------------------------------
 		//   *) Asume ajavaljendeid tuvastama
 		// --------------------------------------------------------------------
-
-		this.eraldaAjavaljendiKandidaadid(sonad);
-		this.lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad);		
-		//this.liidaKorvutiseisvadAjavaljendiFraasid(sonad);
-		this.liidaKorvutiseisvadAjavaljendiFraasid2(sonad);
-		this.eraldaAjavahemikudJaLiidaFraasiks(sonad);
-		
-		(this.mudel).leiaSemantika(sonad, konehetk);
+		this.tuvastaAjavaljendidSonades(sonad, konehetk, debugLogi);
 		
 		// --------------------------------------------------------------------
 		//   *) Joondame tulemuse esialgse tekstiga
@@ -452,22 +727,30 @@ public class AjaTuvastaja {
 			                                                String sisendJSON,
 			                                      boolean allowOnlyPureTimeML,
 	                                                            boolean debug) throws Exception {
+		return this.tuvastaAjavaljendidVabamorfJSON(konehetk, VabaMorfJSONLint.loe(sisendJSON), 
+		                                            allowOnlyPureTimeML, debug);
+	}
+	
+	/**
+	 *   Tuvastab ajaväljendid juba parsitud vabamorfi JSON sisendi syndmuste lindil (vt 
+	 *   {@link VabaMorfJSONLint}). Sama lindi p6hjal saab hiljem kirjutada ka v2ljundi (vt 
+	 *   <code>JarelTootlus.eraldamiseTulemusVabaMorfiJSON</code>), ilma et sisendit peaks
+	 *   uuesti parsima.
+	 */
+	public List<AjavtSona> tuvastaAjavaljendidVabamorfJSON(String [] konehetk, 
+			                                                VabaMorfJSONLint sisendJSON,
+			                                      boolean allowOnlyPureTimeML,
+	                                                            boolean debug) throws Exception {
 		// --------------------------------------------------------------------
 		//   *) Laeme failist ajavaljendite tuvastamise reeglid
 		// --------------------------------------------------------------------
-		if (this.sonaKlassid == null || this.reeglid == null){
-			this.uuendaReegleid(reegliFail, true);
-		} else {
-			if (this.logi != null){
-				kuvaSonaKlassidJaReeglid(this.logi);
-			}
-		}
+		this.laeReeglidVajadusel(true);
 		
+		LogiPidaja debugLogi = null;
 		if (debug){
-			LogiPidaja logi = new LogiPidaja(true);
-			logi.setKirjutaLogiValjundisse(true);
-			logi.setKirjutaLogiFaili(false);
-			SemantikaDefinitsioon.logi = logi;
+			debugLogi = new LogiPidaja(true);
+			debugLogi.setKirjutaLogiValjundisse(true);
+			debugLogi.setKirjutaLogiFaili(false);
 		}
 		
 		// --------------------------------------------------------------------
@@ -475,30 +758,14 @@ public class AjaTuvastaja {
 		//   *) Paigutame morf analyysi tulemused andmemudelisse
 		// --------------------------------------------------------------------
 		List<AjavtSona> sonad = null;
+		long [] etapiAlgus = this.alustaEtappi();
 		sonad = EelTootlus.eeltootlusJSON( sisendJSON );
-		
-		// --------------------------------------------------------------------
-		//   *) Konfigureerime semantika lahendamise mudeli
-		//     (st, milliseid semantikadefinitsioone eraldamisel ja
-		//      normaliseerimisel arvestatakse ja milliseid mitte)
-		// --------------------------------------------------------------------
-		if (this.mudel != null){
-			TuvastamisReegel.setSemanticsModel( (this.mudel).getMudeliTahised() );
-		} else {
-			throw new Exception("Arvutusmudel maaramata!");
-		}
+		this.lopetaEtapp(ETAPP.EELTOOTLUS, etapiAlgus);
 		
 		// --------------------------------------------------------------------
 		//   *) Asume ajavaljendeid tuvastama
 		// --------------------------------------------------------------------
-
-		this.eraldaAjavaljendiKandidaadid(sonad);
-		this.lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad);		
-		//this.liidaKorvutiseisvadAjavaljendiFraasid(sonad);
-		this.liidaKorvutiseisvadAjavaljendiFraasid2(sonad);
-		this.eraldaAjavahemikudJaLiidaFraasiks(sonad);
-		
-		(this.mudel).leiaSemantika(sonad, konehetk);
+		this.tuvastaAjavaljendidSonades(sonad, konehetk, debugLogi);
 		
 		// --------------------------------------------------------------------
 		//   *) Joondame tulemuse esialgse tekstiga
@@ -520,19 +787,171 @@ public class AjaTuvastaja {
             							  		    String sisendJSON,
             									    boolean allowOnlyPureTimeML,
             									    boolean debug) throws Exception {
-		String konehetk [] = Main.prooviLuuaJSONsisendiP6hjalRefAeg(sisendJSON);
+		// Sisend parsitakse vaid yks kord: nii referentsaja leidmine, tuvastamine kui ka
+		// v2ljundi kirjutamine kasutavad sama syndmuste linti
+		VabaMorfJSONLint lint = VabaMorfJSONLint.loe(sisendJSON);
+		String konehetk [] = (lint.getDCT() != null) ? (ReferentsAjaParsija.looSonePohjalReferentsAeg(lint.getDCT())) : (null);
 		if (konehetk == null){
-			konehetk = Main.looSonePohjalReferentsAeg(konehetkStr);
+			konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg(konehetkStr);
 		}
 		if (konehetk == null){
-			konehetk = Main.looSonePohjalReferentsAeg(null);
+			konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg(null);
 		}
 		List<AjavtSona> tulemAjavtSonad = 
-				this.tuvastaAjavaljendidVabamorfJSON(konehetk, sisendJSON, allowOnlyPureTimeML, debug);
-		return JarelTootlus.eraldamiseTulemusVabaMorfiJSON(sisendJSON, tulemAjavtSonad, 
+				this.tuvastaAjavaljendidVabamorfJSON(konehetk, lint, allowOnlyPureTimeML, debug);
+		return JarelTootlus.eraldamiseTulemusVabaMorfiJSON(lint, tulemAjavtSonad, 
 			   JarelTootlus.formatAsCreationTime(konehetk), allowOnlyPureTimeML, false);
 	}
 	
+	//==============================================================================
+	//    T u v a s t a m i n e  ( d o k u m e n t i d e    p a k k )
+	//==============================================================================
+	
+	/**
+	 *   Tuvastab ajav2ljendid yhes dokumendis, valides t88tlusviisi dokumendi formaadi 
+	 *   j2rgi (<tt>text</tt>, <tt>t3olp</tt> v6i <tt>json</tt>). Kui dokumendil pole 
+	 *   referentsaega, v6etakse see JSON sisendi korral sisendi syndmuste lindist (v6ti "dct"), 
+	 *   selle puudumisel kasutatakse dokumendi vaikimisi referentsaega (vt 
+	 *   <code>AjavtDokument.getVaikimisiKonehetk()</code>) ning viimaks hetkeaega. Tulemus (ning <code>looValjund == true</code> korral ka
+	 *   formaadile vastav v2ljund, vt <code>JarelTootlus.eraldamiseTulemusFormaadis</code>)
+	 *   salvestatakse dokumenti.
+	 */
+	public void tuvastaAjavaljendidDokumendis(AjavtDokument dokument, 
+	                                          boolean allowOnlyPureTimeML, 
+	                                          boolean looValjund) throws Exception {
+		String formaat   = dokument.getFormaat();
+		String sisend    = dokument.getSisend();
+		String konehetk [] = dokument.getKonehetk();
+		// JSON sisend parsitakse vaid yks kord (vt VabaMorfJSONLint)
+		VabaMorfJSONLint lint = (formaat.equalsIgnoreCase("json")) ? (VabaMorfJSONLint.loe(sisend)) : (null);
+		if (konehetk == null && lint != null && lint.getDCT() != null){
+			konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg(lint.getDCT());
+		}
+		if (konehetk == null){
+			konehetk = dokument.getVaikimisiKonehetk();
+		}
+		if (konehetk == null){
+			konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg(null);
+		}
+		dokument.setKonehetk(konehetk);
+		List<AjavtSona> tulemAjavtSonad = null;
+		if ( formaat.equalsIgnoreCase("text") ){
+			tulemAjavtSonad = this.tuvastaAjavaljendidTekstis(konehetk, sisend, null, allowOnlyPureTimeML);
+		} else if ( formaat.equalsIgnoreCase("t3olp") ){
+			tulemAjavtSonad = this.tuvastaAjavaljendidT3OLP(konehetk, sisend, allowOnlyPureTimeML, false);
+		} else if ( formaat.equalsIgnoreCase("json") ){
+			tulemAjavtSonad = this.tuvastaAjavaljendidVabamorfJSON(konehetk, lint, allowOnlyPureTimeML, false);
+		} else {
+			throw new Exception("Tundmatu sisendi formaat: "+formaat);
+		}
+		dokument.setTulemus(tulemAjavtSonad);
+		if (looValjund){
+			if (lint != null){
+				dokument.setValjund( JarelTootlus.eraldamiseTulemusVabaMorfiJSON(lint, tulemAjavtSonad, 
+						JarelTootlus.formatAsCreationTime(konehetk), allowOnlyPureTimeML, false) );
+			} else {
+				dokument.setValjund( JarelTootlus.eraldamiseTulemusFormaadis(formaat, sisend, 
+						tulemAjavtSonad, konehetk, allowOnlyPureTimeML, false) );
+			}
+		}
+	}
+	
+	/**
+	 *   Tuvastab ajav2ljendid dokumentide jadas <code>dokumendid</code>, t88deldes 
+	 *   dokumente paralleelselt t2itjas <code>taitja</code> (nt <code>ForkJoinPool</code>).
+	 *   Tagastab iteraatori, mis annab t88deldud dokumendid sisendiga samas j2rjekorras;
+	 *   korraga on t88s (v6i ootab v2ljastamist) kuni <code>maxPooleli</code> dokumenti,
+	 *   seega ei loeta sisendit ette rohkem, kui tulemusi j6utakse tarbida.
+	 *   <p>
+	 *   Iga dokumendi t88tlemisel tekkinud viga salvestatakse dokumenti (vt 
+	 *   <code>AjavtDokument.getViga()</code>) ning teiste dokumentide t88tlust see ei 
+	 *   m6juta. T2itja sulgemine j22b v2ljakutsuja hooleks.
+	 */
+	public Iterator<AjavtDokument> tuvastaAjavaljendidDokumentides(Iterator<AjavtDokument> dokumendid,
+	                                                                ExecutorService taitja,
+	                                                                int maxPooleli,
+	                                                                boolean allowOnlyPureTimeML,
+	                                                                boolean looValjund) throws Exception {
+		// Laeme reeglid enne paralleelse t88 algust
+		this.laeReeglidVajadusel(false);
+		return new JarjestatudTulemused(dokumendid, taitja, Math.max(1, maxPooleli), allowOnlyPureTimeML, looValjund);
+	}
+	
+	/**
+	 *   Iteraator, mis esitab dokumendid t2itjale t88tlemiseks ning v2ljastab neid 
+	 *   sisendi j2rjekorras. 
+	 */
+	private class JarjestatudTulemused implements Iterator<AjavtDokument> {
+		private final Iterator<AjavtDokument> sisend;
+		private final ExecutorService taitja;
+		private final int maxPooleli;
+		private final boolean allowOnlyPureTimeML;
+		private final boolean looValjund;
+		private final ArrayDeque<AjavtDokument>         pooleliDokumendid = new ArrayDeque<AjavtDokument>();
+		private final ArrayDeque<Future<AjavtDokument>> pooleliTood       = new ArrayDeque<Future<AjavtDokument>>();
+		
+		JarjestatudTulemused(Iterator<AjavtDokument> sisend, ExecutorService taitja, int maxPooleli,
+		                     boolean allowOnlyPureTimeML, boolean looValjund){
+			this.sisend     = sisend;
+			this.taitja     = taitja;
+			this.maxPooleli = maxPooleli;
+			this.allowOnlyPureTimeML = allowOnlyPureTimeML;
+			this.looValjund = looValjund;
+		}
+		
+		/**
+		 *   Esitab t2itjale uusi dokumente, kuni pooleliolevaid on <code>maxPooleli</code>.
+		 */
+		private void taidaJarjekord(){
+			while ((this.pooleliTood).size() < this.maxPooleli && (this.sisend).hasNext()){
+				final AjavtDokument dokument = (this.sisend).next();
+				Future<AjavtDokument> too = (this.taitja).submit( new Callable<AjavtDokument>() {
+					public AjavtDokument call() {
+						try {
+							tuvastaAjavaljendidDokumendis(dokument, allowOnlyPureTimeML, looValjund);
+						} catch (Exception e) {
+							dokument.setViga(e);
+						}
+						return dokument;
+					}
+				});
+				(this.pooleliDokumendid).add(dokument);
+				(this.pooleliTood).add(too);
+			}
+		}
+		
+		public boolean hasNext() {
+			taidaJarjekord();
+			return !(this.pooleliTood).isEmpty();
+		}
+		
+		public AjavtDokument next() {
+			if (!hasNext()){
+				throw new NoSuchElementException();
+			}
+			AjavtDokument dokument    = (this.pooleliDokumendid).poll();
+			Future<AjavtDokument> too = (this.pooleliTood).poll();
+			// Hoiame t2itja t88ga koormatuna ka selle dokumendi ootamise ajal
+			taidaJarjekord();
+			try {
+				too.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				too.cancel(true);
+				dokument.setViga(e);
+			} catch (ExecutionException e) {
+				// Mitte-Exception t2iteaegne viga (nt StackOverflowError)
+				dokument.setViga( (e.getCause() instanceof Exception) ? 
+						((Exception) e.getCause()) : (new Exception(e.getCause())) );
+			}
+			return dokument;
+		}
+		
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+	
 	//==============================================================================	
 	//==============================================================================
 	//   	A l a m e t a p i d
@@ -540,12 +959,52 @@ public class AjaTuvastaja {
 	//==============================================================================	
 
 	/**
-	 *  1.1) Reeglite uuendamine XML-failist.
+	 *  1.0) Reeglite laadimine failist <code>reegliFail</code>, kui neid pole veel laetud.
+	 *  Kui reeglid on juba olemas ja <code>kuvaDebug == true</code>, kuvatakse need logisse.
 	 */
-	public void uuendaReegleid(String reegliFailiNimi, boolean kuvaDebug) throws ParserConfigurationException, SAXException, IOException{
+	private synchronized void laeReeglidVajadusel(boolean kuvaDebug) throws ParserConfigurationException, SAXException, IOException{
+		if (this.sonaKlassid == null || this.reeglid == null){
+			this.uuendaReegleid(reegliFail, kuvaDebug);
+		} else if (kuvaDebug){
+			kuvaSonaKlassidJaReeglid(this.logi);
+		}
+	}
+	
+	/**
+	 *  1.0) Reeglite laadimine failist <code>reegliFail</code>, kui neid pole veel laetud
+	 *  (nt enne paralleelse t88tluse algust).
+	 */
+	public void laeReeglidVajadusel() throws ParserConfigurationException, SAXException, IOException{
+		this.laeReeglidVajadusel(false);
+	}
+	
+	/**
+	 *  1.1) Reeglite uuendamine XML-failist. 
+	 *  <p>
+	 *  Kui XML-faili k&otilde;rval on sellest loodud ning XML-faili praegusele sisule vastav
+	 *  reeglikomplekt (<tt>reegliFailiNimi + ".bundle"</tt>, vt {@link ReegliKomplekt}), 
+	 *  taastatakse reeglid sealt, XML-i parsimata. Samuti v&otilde;ib <code>reegliFailiNimi</code>
+	 *  viidata otse reeglikomplekti failile.
+	 */
+	public synchronized void uuendaReegleid(String reegliFailiNimi, boolean kuvaDebug) throws ParserConfigurationException, SAXException, IOException{
 		MustridXMLFailist mustriLugeja = new MustridXMLFailist();
-		// 1) Parsime XML-reeglifailist sonaklassid ja reeglid
-		mustriLugeja.votaMustridXMLFailist(reegliFailiNimi, this);
+		mustriLugeja.setKasutaMustriteAutomaati( this.kasutaMustriteAutomaati );
+		// 1) Parsime XML-reeglifailist sonaklassid ja reeglid (v6i taastame need reeglikomplektist)
+		ReegliKomplekt komplekt = null;
+		if (reegliFailiNimi.endsWith( ReegliKomplekt.FAILI_LAIEND )){
+			try {
+				komplekt = ReegliKomplekt.loe(reegliFailiNimi, null);
+			} catch (Exception e) {
+				throw new IOException("Reeglikomplekti "+reegliFailiNimi+" lugemine eba6nnestus: "+e.getMessage(), e);
+			}
+		} else {
+			komplekt = ReegliKomplekt.leiaXMLFailiKomplekt(reegliFailiNimi);
+		}
+		if (komplekt != null){
+			mustriLugeja.rakendaReegliKomplekt(komplekt, this);
+		} else {
+			mustriLugeja.votaMustridXMLFailist(reegliFailiNimi, this);
+		}
 		
 		// 2) Debug: kuvame sisu
 		if (kuvaDebug) { kuvaSonaKlassidJaReeglid(this.logi); }
@@ -556,9 +1015,10 @@ public class AjaTuvastaja {
 	 * 
 	 * @param reegliFailiNimi
 	 */
-	public void uuendaReegleidFromInputStream(InputStream in, boolean kuvaDebug) throws ParserConfigurationException, SAXException, IOException{
+	public synchronized void uuendaReegleidFromInputStream(InputStream in, boolean kuvaDebug) throws ParserConfigurationException, SAXException, IOException{
 		if (in != null) {
 			MustridXMLFailist mustriLugeja = new MustridXMLFailist();
+			mustriLugeja.setKasutaMustriteAutomaati( this.kasutaMustriteAutomaati );
 			// 1) Parsime XML-reeglifailist sonaklassid ja reeglid
 			mustriLugeja.votaMustridXMLSisendvoost(in, this);
 			
@@ -575,37 +1035,95 @@ public class AjaTuvastaja {
 	 *   <p>
 	 *   Loob nn MUSTER-tyypi ajavaljendikandidaadid (ASTE == MUSTRI_POOLT_ERALDATUD).
 	 */
-	private void eraldaAjavaljendiKandidaadid(List<AjavtSona> sonad) throws Exception {
+	void eraldaAjavaljendiKandidaadid(List<AjavtSona> sonad, MustriSobitamiseKontekst kontekst) throws Exception {
+		// Indeksi olemasolul kasutame indekseeritud reegleid (reeglid ja indeks on alati koosk6las)
+		ReegliteIndeks indeks = this.reegliteIndeks;
+		List<TuvastamisReegel> reeglid = (indeks != null) ? (indeks.getReeglid()) : (this.reeglid);
+		// Jagatud vahem2lu kasutame vaid siis, kui see on loodud samade reeglite jaoks
+		MallideTulemusteVahemalu vahemalu = this.mallideVahemalu;
+		if (vahemalu != null && vahemalu.getReeglid() == reeglid){
+			kontekst.setVahemalu( vahemalu );
+		}
+		// Yhise automaadi olemasolul sobitame k6iki mustreid korraga
+		MustriteAutomaat automaat = this.mustriteAutomaat;
+		if (automaat != null && automaat.getReeglid() != reeglid){
+			automaat = null;
+		}
+		// Profiili kogumisel m66dame iga reegli fraasimustri kontrollimise aja
+		boolean profileeri = kontekst.kasKogubProfiili();
+		// Reeglid, millel on pooleliolev sobitamine
+		BitSet aktiivsedReeglid = new BitSet( reeglid.size() );
+		// Reeglid, mis v6ivad alata teksti/lause l6pu dummy s6nast
+		BitSet dummySonastAlgavadReeglid = 
+			(indeks != null) ? (indeks.leiaVoimalikultAlgavadReeglid( new AjavtSona("*"), null )) : (null);
 		// ----------------------------------------------------------------
 		//   Kaime kogu teksti sona-sonahaaval labi: leiame arvsonafraasid
 		//  ning margistame esialgsed ajavaljendifraasid...
 		// ----------------------------------------------------------------
 		for (int i = 0; i < sonad.size(); i++) {
 			AjavtSona sona = sonad.get(i);
-			// Sonaklassid, mille sobivust antud sonaga on juba kontrollitud (esimene kuni viimane s6na)
-			HashMap<String, MallileVastavus> kontrollitudSonaKlassid = new HashMap<String, MallileVastavus>(sonaKlassid.size());
+			// NB! S6namallide (sh s6naklasside) sobivuse kontrolli tulemused j2etakse iga s6na 
+			// kohta meelde kontekstis, vt MustriSobitamiseKontekst.kontrolliMallileVastavust
 			
 			// Kas oleme j6udnud viimase s6nani tekstis?
 			boolean onViimaneSona = (i == sonad.size() - 1);
-			// Sonaklassid, mille sobivust antud sonaga on juba kontrollitud (teksti/lause l6pp, dummy s6na)			
-			HashMap<String, MallileVastavus> kontrollitudDummySonaKlassid = 
-				(onViimaneSona || sona.onLauseLopp()) ? (new HashMap<String, MallileVastavus>(sonaKlassid.size())) : (null);
+			
+			// ------------------------------------------------------------
+			//  Yhise automaadi korral kontrollime s6na k6igi mustritega 
+			//  korraga; lause l6pus suletakse pooleliolevad eraldamised
+			// ------------------------------------------------------------
+			if (automaat != null){
+				automaat.kontrolliSonaVastavust(sona, 
+						(indeks != null) ? (indeks.leiaVoimalikultAlgavadReeglid(sona, kontekst)) : (null),
+						(onViimaneSona || sona.onLauseLopp()), dummySonastAlgavadReeglid, kontekst);
+				continue;
+			}
 				
 			// ------------------------------------------------------------
-			//  Kontrollime sona sobimist k6igi reeglite fraasimustritesse
+			//  Leiame reeglid, mida on vaja kontrollida: pooleliolevad ning
+			//  need, mis v6ivad antud s6nast alata (indeksi puudumisel k6ik)
+			// ------------------------------------------------------------
+			BitSet kontrollitavadReeglid = null;
+			if (indeks != null){
+				kontrollitavadReeglid = indeks.leiaVoimalikultAlgavadReeglid(sona, kontekst);
+				kontrollitavadReeglid.or( aktiivsedReeglid );
+				if (onViimaneSona || sona.onLauseLopp()){
+					kontrollitavadReeglid.or( dummySonastAlgavadReeglid );
+				}
+			} else {
+				kontrollitavadReeglid = new BitSet( reeglid.size() );
+				kontrollitavadReeglid.set( 0, reeglid.size() );
+			}
 			// ------------------------------------------------------------
-			for (TuvastamisReegel reegel : reeglid) {
-				(reegel.getFraasiMuster()).kontrolliMustrileVastavust(sona, kontrollitudSonaKlassid);
+			//  Kontrollime sona sobimist reeglite fraasimustritesse
+			// ------------------------------------------------------------
+			for (int r = kontrollitavadReeglid.nextSetBit(0); r >= 0; r = kontrollitavadReeglid.nextSetBit(r+1)) {
+				FraasiMuster fraasiMuster = (reeglid.get(r)).getFraasiMuster();
+				long algus = (profileeri) ? (System.nanoTime()) : (0L);
+				fraasiMuster.kontrolliMustrileVastavust(sona, kontekst);
 				// ---------------------------------------------------------------------
 				//  Kui on tegu viimase s6naga tekstis v6i lausel6puga, sulgeme 
 				//  poolelioleva eraldamise
 				// ---------------------------------------------------------------------
 				if (onViimaneSona || sona.onLauseLopp()){
 					AjavtSona dummyWord = new AjavtSona("*");
-					(reegel.getFraasiMuster()).kontrolliMustrileVastavust( dummyWord, kontrollitudDummySonaKlassid );
+					fraasiMuster.kontrolliMustrileVastavust( dummyWord, kontekst );
+				}
+				if (profileeri){
+					kontekst.lisaProfiili(reeglid.get(r), System.nanoTime() - algus, false);
 				}
+				aktiivsedReeglid.set( r, kontekst.kasMustrilLeidubOlek(fraasiMuster) );
 			}
 		}
+		// Kogume s6namallide kontrollimise statistika
+		(this.mallideKontrolliTabamused).addAndGet( kontekst.getTulemusteTabamusi() );
+		(this.mallideKontrolliMoodalasked).addAndGet( kontekst.getTulemusteMoodalaskmisi() );
+		(this.mallideVahemaluTabamused).addAndGet( kontekst.getVahemaluTabamusi() );
+		if (kontekst.getLogi() != null){
+			(kontekst.getLogi()).println( "S6namallide kontroll: "+kontekst.getTulemusteTabamusi()+" tabamust, "+
+										  kontekst.getVahemaluTabamusi()+" tabamust jagatud vahem2lust, "+
+										  kontekst.getTulemusteMoodalaskmisi()+" m66dalaskmist" );
+		}
 	}
 	
 	/**
@@ -620,7 +1138,17 @@ public class AjaTuvastaja {
 	 *  v6i t2ielikult negatiivsete mustrite all.
 	 *  <p>
 	 */
-	private void lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(List<AjavtSona> sonad){
+	void lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(List<AjavtSona> sonad){
+		lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(sonad, null);
+	}
+	
+	/**
+	 *  3) Nagu {@link #lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(List)}; kui kontekstis
+	 *  <code>kontekst</code> kogutakse reeglite profiili, lisatakse sinna negatiivsete mustrite
+	 *  rakendamine.
+	 */
+	void lahendaYlekattedAjavaljenditeVahelJaRakendaNegMustreid(List<AjavtSona> sonad, MustriSobitamiseKontekst kontekst){
+		boolean profileeri = (kontekst != null && kontekst.kasKogubProfiili());
 		for (int i = 0; i < sonad.size(); i++) {
 			AjavtSona sona = sonad.get(i);
 			// 1) Eemaldame ylekattuvad ajavaljendikandidaadid
@@ -641,8 +1169,12 @@ public class AjaTuvastaja {
 							for (TuvastamisReegel tuvastamisReegel : ajavaljendiKandidaat.getTuvastamisReeglid()) {
 								if (tuvastamisReegel.getNegMustrid() != null){
 									for (NegatiivneMuster negatiivneMuster : tuvastamisReegel.getNegMustrid()) {
-										negatiivneMuster.
+										long algus = (profileeri) ? (System.nanoTime()) : (0L);
+										boolean sobitus = negatiivneMuster.
 											kontrolliNegatiivsetMustritJaVajaduselEemaldaAjav(sonad, i, ajavaljendiKandidaat);
+										if (profileeri){
+											kontekst.lisaProfiili(negatiivneMuster, System.nanoTime() - algus, sobitus);
+										}
 									}
 								}
 							}
@@ -668,12 +1200,16 @@ public class AjaTuvastaja {
 	 *  eemaldab yksikud (FRAAS-iks mitteyhendatud) kandidaadid, mis j22vad t2ielikult mingi
 	 *  FRAAS-tyypi kandidaadi sisse;
 	 *  <p>
+	 *  Tagastab genereeritud potentsiaalselt liidetavate kandidaatide jadade arvu (enne
+	 *  filtreerimist).
 	 */
-	private void liidaKorvutiseisvadAjavaljendiFraasid2(List<AjavtSona> sonad) throws Exception {
+	int liidaKorvutiseisvadAjavaljendiFraasid2(List<AjavtSona> sonad) throws Exception {
+		int jadasidGenereeritud = 0;
 		List<PotentsLiidetavateKandidaatideJada> jadad = null;
 		if (this.liitumisReeglid != null){
 			// 1) Genereerime k6ikv6imalikud potentsiaalsed jadad
 			jadad =	PotentsLiidetavateKandidaatideJada.genereeriPotentsJadad( sonad );
+			jadasidGenereeritud = jadad.size();
 			// 2) Filtreerime jadasid liitumisreeglite j2rgi (j2tame alles vaid reeglite j2rgi fraasiks liituvad kandidaadid)
 			if (!jadad.isEmpty()){
 				PotentsLiidetavateKandidaatideJada.filtreeriPotentsJadadsidLiitumisReegliteJargi(jadad, this.liitumisReeglid);					
@@ -733,6 +1269,7 @@ public class AjaTuvastaja {
 		if (jadad != null && !jadad.isEmpty()){
 			jadad.clear();
 		}
+		return jadasidGenereeritud;
 	}
 	
 	//==============================================================================
@@ -791,7 +1328,7 @@ public class AjaTuvastaja {
 	 *     <li> Kontrollime, et v2hemalt yks kahest leitud poolest oleks ajav2ljendikandidaat: kui pole, katkestame;
 	 *   </ul>   
 	 */
-	private void eraldaAjavahemikudJaLiidaFraasiks(List<AjavtSona> sonad){
+	void eraldaAjavahemikudJaLiidaFraasiks(List<AjavtSona> sonad){
 		// Millistelt positsioonidelt oleme juba vahemikud eraldanud
 		HashMap<String, String> addedFromLocation = new HashMap<String, String>();
 		// Murdepunkt fraasis
@@ -1059,6 +1596,115 @@ public class AjaTuvastaja {
 		return addingWasSuccessful;
 	}
 	
+	//==============================================================================
+	//   	M 6 6 d i k u d
+	//==============================================================================
+	
+	/**
+	 *   Alustab etapi m66tmist: tagastab algusaja (nanosekundites) ja l6ime seni eraldatud 
+	 *   m2lu (baitides); kui kuulajat pole, tagastab <code>null</code>.
+	 */
+	long [] alustaEtappi(){
+		if (this.kuulaja == null){
+			return null;
+		}
+		return new long [] { System.nanoTime(), loimeEraldatudBaidid() };
+	}
+	
+	/**
+	 *   L6petab {@link #alustaEtappi()}-ga alustatud etapi m66tmise ning teatab tulemuse 
+	 *   kuulajale.
+	 */
+	void lopetaEtapp(ETAPP etapp, long [] algus){
+		TuvastamiseKuulaja kuulaja = this.kuulaja;
+		if (algus != null && kuulaja != null){
+			long kestus = System.nanoTime() - algus[0];
+			long baite  = loimeEraldatudBaidid();
+			kuulaja.etappLabitud(etapp, kestus, (baite > -1 && algus[1] > -1) ? (baite - algus[1]) : (-1));
+		}
+	}
+	
+	/**
+	 *   Jooksva l6ime poolt seni eraldatud m2lu baitides; -1, kui JVM seda ei m66da.
+	 */
+	private static long loimeEraldatudBaidid(){
+		if (LOIMED instanceof com.sun.management.ThreadMXBean){
+			com.sun.management.ThreadMXBean loimed = (com.sun.management.ThreadMXBean) LOIMED;
+			if (loimed.isThreadAllocatedMemorySupported() && loimed.isThreadAllocatedMemoryEnabled()){
+				return loimed.getThreadAllocatedBytes( (Thread.currentThread()).getId() );
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 *   Loendab s6nadega seotud ajav2ljendikandidaadid (igayht oma esimese s6na juures)
+	 *   astmete (<code>ASTE</code>) kaupa.
+	 */
+	private static int [] loeKandidaadid(List<AjavtSona> sonad){
+		int [] kandidaate = new int [ (ASTE.values()).length ];
+		for (AjavtSona sona : sonad) {
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				List<FraasisPaiknemiseKoht> kohad = sona.getAjavaljendiKandidaatides();
+				List<AjavaljendiKandidaat> kandidaadid = sona.getAjavaljendiKandidaadid();
+				for (int j = 0; j < kohad.size(); j++) {
+					if ((kohad.get(j)).onFraasiAlgus()){
+						kandidaate[ ((kandidaadid.get(j)).getAste()).ordinal() ]++;
+					}
+				}
+			}
+		}
+		return kandidaate;
+	}
+	
+	/**
+	 *   Teatab kuulajale, mitu kandidaati etapi k2igus loodi ja eemaldati: loendatakse 
+	 *   kandidaatide arvu muutust astmete kaupa v6rreldes etapieelse seisuga <tt>enne</tt> 
+	 *   (yhe etapi jooksul sama astmega kandidaate ei looda ega eemaldata korraga). 
+	 *   Tagastab etapij2rgse seisu.
+	 */
+	private static int [] teataKandidaatideMuutusest(TuvastamiseKuulaja kuulaja, List<AjavtSona> sonad, int [] enne){
+		int [] parast = loeKandidaadid(sonad);
+		long loodud     = 0;
+		long eemaldatud = 0;
+		for (int a = 0; a < parast.length; a++) {
+			if (parast[a] > enne[a]){
+				loodud += parast[a] - enne[a];
+			} else {
+				eemaldatud += enne[a] - parast[a];
+			}
+		}
+		if (loodud > 0){
+			kuulaja.loendurSuurenes(LOENDUR.KANDIDAATE_LOODUD, loodud);
+		}
+		if (eemaldatud > 0){
+			kuulaja.loendurSuurenes(LOENDUR.KANDIDAATE_EEMALDATUD, eemaldatud);
+		}
+		return parast;
+	}
+	
+	/**
+	 *   Loendab lahendatud kandidaatide semantikadefinitsioonid (rakendatud semantilised 
+	 *   operatsioonid).
+	 */
+	private static long loeSemOperatsioonid(List<AjavtSona> sonad){
+		long operatsioone = 0;
+		for (AjavtSona sona : sonad) {
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				List<FraasisPaiknemiseKoht> kohad = sona.getAjavaljendiKandidaatides();
+				List<AjavaljendiKandidaat> kandidaadid = sona.getAjavaljendiKandidaadid();
+				for (int j = 0; j < kohad.size(); j++) {
+					AjavaljendiKandidaat kandidaat = kandidaadid.get(j);
+					if ((kohad.get(j)).onFraasiAlgus() && kandidaat.isSemLahendamineLabiviidud() &&
+							kandidaat.getSemantikaEhitusklotsid() != null){
+						operatsioone += (kandidaat.getSemantikaEhitusklotsid()).size();
+					}
+				}
+			}
+		}
+		return operatsioone;
+	}
+	
 	//==============================================================================
 	//   	D e b u g g i n g 
 	//==============================================================================
@@ -1120,28 +1766,223 @@ public class AjaTuvastaja {
 		this.logi = logi;
 	}
 
-	public HashMap<String, SonaKlass> getSonaKlassid() {
+	/**
+	 *  Tagastab sisseloetud s6naklassid (muutumatu vaade). 
+	 */
+	public Map<String, SonaKlass> getSonaKlassid() {
 		return sonaKlassid;
 	}
 	
-	public void setSonaKlassid(HashMap<String, SonaKlass> sonaKlassid) {
-		this.sonaKlassid = sonaKlassid;
+	public void setSonaKlassid(Map<String, SonaKlass> sonaKlassid) {
+		this.sonaKlassid = (sonaKlassid != null) ? (Collections.unmodifiableMap(sonaKlassid)) : (null);
 	}
 	
+	/**
+	 *  Tagastab sisseloetud liitumisreeglid (muutumatu vaade). 
+	 */
 	public List<LiitumisReegel> getLiitumisReeglid() {
 		return liitumisReeglid;
 	}
 
 	public void setLiitumisReeglid(List<LiitumisReegel> liitumisReeglid) {
-		this.liitumisReeglid = liitumisReeglid;
+		this.liitumisReeglid = (liitumisReeglid != null) ? (Collections.unmodifiableList(liitumisReeglid)) : (null);
 	}
 
+	/**
+	 *  Tagastab sisseloetud tuvastamisreeglid (muutumatu vaade). 
+	 */
 	public List<TuvastamisReegel> getReeglid() {
 		return reeglid;
 	}
 	
-	public void setReeglid(List<TuvastamisReegel> reeglid) {
-		this.reeglid = reeglid;
+	public synchronized void setReeglid(List<TuvastamisReegel> reeglid) {
+		this.reegliteIndeks   = null;
+		this.mustriteAutomaat = null;
+		this.reeglid = (reeglid != null) ? (Collections.unmodifiableList(reeglid)) : (null);
+		looMallideVahemalu();
+	}
+
+	/**
+	 *  Seab tuvastamisreeglid koos nende p&otilde;hjal loodud indeksiga (vt {@link ReegliteIndeks}).
+	 *  Indeksi olemasolul kontrollitakse iga s&otilde;na puhul vaid neid reegleid, mis antud
+	 *  s&otilde;nast alata v&otilde;ivad v&otilde;i millel on pooleliolev sobitamine.
+	 */
+	public synchronized void setReeglid(List<TuvastamisReegel> reeglid, ReegliteIndeks indeks) {
+		this.setReeglid(reeglid, indeks, null);
+	}
+
+	/**
+	 *  Seab tuvastamisreeglid koos nende p&otilde;hjal loodud indeksi ning fraasimustrite yhise
+	 *  automaadiga (vt {@link MustriteAutomaat}). Automaati kasutatakse vaid siis, kui see on 
+	 *  loodud samade reeglite jaoks, mis indeks.
+	 */
+	public synchronized void setReeglid(List<TuvastamisReegel> reeglid, ReegliteIndeks indeks, MustriteAutomaat automaat) {
+		this.reegliteIndeks   = null;
+		this.mustriteAutomaat = null;
+		this.reeglid = (reeglid != null) ? (Collections.unmodifiableList(reeglid)) : (null);
+		if (indeks != null && reeglid != null && indeks.getReeglid() == reeglid){
+			this.reegliteIndeks = indeks;
+			if (automaat != null && automaat.getReeglid() == reeglid){
+				this.mustriteAutomaat = automaat;
+			}
+		}
+		looMallideVahemalu();
+	}
+
+	/**
+	 *  Loob jooksvate reeglite jaoks uue (tyhja) s&otilde;namallide tulemuste vahem&auml;lu 
+	 *  v&otilde;i eemaldab selle, kui vahem&auml;lu pole n&otilde;utud. Vana vahem&auml;lu 
+	 *  tulemused uute reeglite korral ei kehti.
+	 */
+	private synchronized void looMallideVahemalu() {
+		List<TuvastamisReegel> jooksvadReeglid = 
+			(this.reegliteIndeks != null) ? ((this.reegliteIndeks).getReeglid()) : (this.reeglid);
+		if (this.mallideVahemaluMahutavus > 0 && jooksvadReeglid != null){
+			this.mallideVahemalu = new MallideTulemusteVahemalu(jooksvadReeglid, this.mallideVahemaluMahutavus);
+		} else {
+			this.mallideVahemalu = null;
+		}
+	}
+
+	public ReegliteIndeks getReegliteIndeks() {
+		return reegliteIndeks;
+	}
+
+	/**
+	 *  Mitu korda on s&otilde;namalli kontrolli tulemus leitud meelde j&auml;etud tulemuste 
+	 *  seast (k&otilde;igi t&ouml;&ouml;deldud dokumentide peale kokku).
+	 */
+	public long getMallideKontrolliTabamused() {
+		return (this.mallideKontrolliTabamused).get();
+	}
+
+	/**
+	 *  Mitu korda on s&otilde;namall tulnud s&otilde;naga tegelikult sobitada (k&otilde;igi 
+	 *  t&ouml;&ouml;deldud dokumentide peale kokku).
+	 */
+	public long getMallideKontrolliMoodalasked() {
+		return (this.mallideKontrolliMoodalasked).get();
+	}
+
+	/**
+	 *  Mitu korda on s&otilde;namalli kontrolli tulemus leitud dokumentide vahel jagatud 
+	 *  vahem&auml;lust (k&otilde;igi t&ouml;&ouml;deldud dokumentide peale kokku).
+	 */
+	public long getMallideVahemaluTabamused() {
+		return (this.mallideVahemaluTabamused).get();
+	}
+
+	public MallideTulemusteVahemalu getMallideVahemalu() {
+		return mallideVahemalu;
+	}
+
+	public int getMallideVahemaluMahutavus() {
+		return mallideVahemaluMahutavus;
+	}
+
+	/**
+	 *  M&auml;&auml;rab dokumentide vahel jagatud s&otilde;namallide tulemuste vahem&auml;lu
+	 *  mahutavuse (erinevate s&otilde;nakujude arvu); 0 l&uuml;litab vahem&auml;lu v&auml;lja.
+	 *  Olemasolevate reeglite korral luuakse kohe uus vahem&auml;lu.
+	 */
+	public synchronized void setMallideVahemaluMahutavus(int mahutavus) {
+		this.mallideVahemaluMahutavus = Math.max(0, mahutavus);
+		looMallideVahemalu();
+	}
+
+	public NormaliseerimisteVahemalu getNormaliseerimisteVahemalu() {
+		return normaliseerimisteVahemalu;
+	}
+
+	public int getNormaliseerimisteVahemaluMahutavus() {
+		NormaliseerimisteVahemalu vahemalu = this.normaliseerimisteVahemalu;
+		return (vahemalu != null) ? (vahemalu.getMahutavus()) : (0);
+	}
+
+	/**
+	 *  Mitu korda on ajav&auml;ljendi normaliseerimise tulemus leitud dokumentide vahel jagatud
+	 *  vahem&auml;lust (alates vahem&auml;lu loomisest).
+	 */
+	public long getNormaliseerimisteVahemaluTabamused() {
+		NormaliseerimisteVahemalu vahemalu = this.normaliseerimisteVahemalu;
+		return (vahemalu != null) ? (vahemalu.getTabamused()) : (0);
+	}
+
+	/**
+	 *  M&auml;&auml;rab dokumentide vahel jagatud normaliseerimise tulemuste vahem&auml;lu
+	 *  mahutavuse (tulemuste arvu) ning loob uue (t&uuml;hja) vahem&auml;lu; 0 l&uuml;litab 
+	 *  vahem&auml;lu v&auml;lja. Vahem&auml;llu j&auml;etakse vaid kontekstist s&otilde;ltumatute 
+	 *  ja ankurdamist mittevajavate ajav&auml;ljendite lahendused; tulemus on sama, mis 
+	 *  vahem&auml;luta.
+	 *  <br><br>
+	 *  Vahem&auml;lu seotakse jooksva mudeliga (mudelit ennast ei asendata); vahem&auml;lu 
+	 *  kasutab vaid {@link SemLeidmiseMudelImpl3}, teiste mudelite (vt {@link #setMudel}) 
+	 *  korral vahem&auml;lu ei rakendu.
+	 */
+	public synchronized void setNormaliseerimisteVahemaluMahutavus(int mahutavus) {
+		NormaliseerimisteVahemalu vahemalu = 
+			(mahutavus > 0) ? (new NormaliseerimisteVahemalu(mahutavus)) : (null);
+		this.normaliseerimisteVahemalu = vahemalu;
+		SemLeidmiseMudel mudel = this.mudel;
+		if (mudel instanceof SemLeidmiseMudelImpl3){
+			((SemLeidmiseMudelImpl3) mudel).setVahemalu( vahemalu );
+		}
+	}
+
+	public TuvastamiseKuulaja getKuulaja() {
+		return kuulaja;
+	}
+
+	/**
+	 *  M&auml;&auml;rab tuvastamise m&otilde;&otilde;dikute kuulaja (nt {@link ee.ut.soras.ajavtV2.util.TuvastamiseStatistika});
+	 *  <code>null</code> l&uuml;litab m&otilde;&otilde;tmised v&auml;lja. Suure dokumendi kildudeks 
+	 *  jagamisel (vt {@link #setKildudeTaitja}) teatatakse kandidaatide eraldamise etapid iga killu
+	 *  kohta eraldi ning loendurites on ka killu kontekstis tehtud t&ouml;&ouml;.
+	 */
+	public void setKuulaja(TuvastamiseKuulaja kuulaja) {
+		this.kuulaja = kuulaja;
+	}
+
+	public ReegliProfiilija getProfiilija() {
+		return profiilija;
+	}
+
+	/**
+	 *  M&auml;&auml;rab reeglite profiilija (vt {@link ReegliProfiilija}); <code>null</code> 
+	 *  l&uuml;litab profiili kogumise v&auml;lja.
+	 */
+	public void setProfiilija(ReegliProfiilija profiilija) {
+		this.profiilija = profiilija;
+	}
+
+	public ForkJoinPool getKildudeTaitja() {
+		return kildudeTaitja;
+	}
+
+	/**
+	 *  M&auml;&auml;rab t&auml;itja, milles eraldatakse suure dokumendi ajav&auml;ljendikandidaadid 
+	 *  kildude kaupa paralleelselt (killu minimaalne suurus on <code>killuMinSonu</code> 
+	 *  s&otilde;na); <code>null</code> l&uuml;litab kildudeks jagamise v&auml;lja. Tulemus on 
+	 *  sama, mis dokumendi tervikuna t&ouml;&ouml;tlemisel. T&auml;itja sulgemine j&auml;&auml;b 
+	 *  v&auml;ljakutsuja hooleks.
+	 */
+	public void setKildudeTaitja(ForkJoinPool kildudeTaitja, int killuMinSonu) {
+		this.killuMinSonu  = Math.max(1, killuMinSonu);
+		this.kildudeTaitja = kildudeTaitja;
+	}
+
+	public boolean isKasutaMustriteAutomaati() {
+		return kasutaMustriteAutomaati;
+	}
+
+	/**
+	 *  M&auml;&auml;rab, kas fraasimustrid kompileeritakse yhiseks automaadiks (vt 
+	 *  {@link MustriteAutomaat}). M&otilde;jub j&auml;rgmisel reeglite sisselugemisel 
+	 *  (<code>uuendaReegleid*</code>). Yhise automaadi korral ei m&otilde;&otilde;deta reeglite
+	 *  profiili kogumisel reeglite kaupa fraasimustrite kontrollimise aega.
+	 */
+	public void setKasutaMustriteAutomaati(boolean kasutaMustriteAutomaati) {
+		this.kasutaMustriteAutomaati = kasutaMustriteAutomaati;
 	}
 	
 	public static String getVersioon() {
@@ -1152,6 +1993,16 @@ public class AjaTuvastaja {
 		return wrapper;
 	}
 
+	/**
+	 *  Tagastab morf analyysiks kasutatava wrapper'i; loob vaikimisi wrapper'i, kui seda veel pole.
+	 */
+	private synchronized EstyhmmWrapper annaWrapper() {
+		if (this.wrapper == null){
+			this.wrapper = new EstyhmmWrapperImpl( VAIKIMISI_ANALYSAATOR, "UTF-8" );
+		}
+		return this.wrapper;
+	}
+
 	public void setWrapper(EstyhmmWrapper wrapper) {
 		this.wrapper = wrapper;
 	}
@@ -1160,6 +2011,11 @@ public class AjaTuvastaja {
 		return mudel;
 	}
 
+	/**
+	 *  M&auml;&auml;rab semantika leidmise mudeli. Antud mudelit kasutatakse sellisena, nagu see on;
+	 *  normaliseerimiste vahem&auml;lu (vt {@link #setNormaliseerimisteVahemaluMahutavus}) 
+	 *  seotakse mudeliga alles j&auml;rgmisel vahem&auml;lu mahutavuse m&auml;&auml;ramisel.
+	 */
 	public void setMudel(SemLeidmiseMudel mudel) {
 		this.mudel = mudel;
 	}
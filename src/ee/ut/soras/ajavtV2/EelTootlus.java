@@ -28,11 +28,11 @@ import java.util.regex.Pattern;
 import ee.ut.soras.ajavtV2.mudel.AjavtSona;
 import ee.ut.soras.ajavtV2.mudel.AjavtSona.GRAMMATILINE_AEG;
 import ee.ut.soras.ajavtV2.util.ArvSonaFraasideTuvastaja;
-import ee.ut.soras.ajavtV2.util.LogiPidaja;
 import ee.ut.soras.ajavtV2.util.TextUtils;
 import ee.ut.soras.wrappers.EstyhmmWrapper;
 import ee.ut.soras.wrappers.impl.T3MestaReader;
 import ee.ut.soras.wrappers.impl.T3OLPReader;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
 import ee.ut.soras.wrappers.impl.VabaMorfJSONReader;
 import ee.ut.soras.wrappers.mudel.MorfAnRida;
 import ee.ut.soras.wrappers.mudel.MorfAnSona;
@@ -57,8 +57,6 @@ import ee.ut.soras.wrappers.mudel.MorfAnSona;
  */
 public class EelTootlus { 
 	
-	public static LogiPidaja logi = null;
-	
 	/** Muster: Potentsiaalne lauselopp, millele jargneb potentsiaalne lausealgus. */	
 	private static Pattern musterLauseLoppLauseAlgus = Pattern.compile("[?!.](\\s+)\\p{Lu}");
 	/** Muster: Komakoht kahe sona vahel; */
@@ -222,31 +220,7 @@ public class EelTootlus {
 		// Eraldame morfoloogiliselt analyysitud tekstis6nad (+ lausem2rgistus)
 		List<MorfAnSona> morfAnalyysitud = T3OLPReader.parseT3OLPtext(inputReader);
 		inputReader.close();
-		// Loome uue listi, kuhu l2hevad tulemused ...
-		List<AjavtSona>  eelt88deldud    = new ArrayList<AjavtSona>( morfAnalyysitud.size() );
-		// V6tame kasutusele uue arvutuvastaja komponendi
-		ArvSonaFraasideTuvastaja arvuTuvastaja = new ArvSonaFraasideTuvastaja( eelt88deldud );
-		List<Object> eelnevaVerbiInfo = new ArrayList<Object>(2);
-		AjavtSona eelmineSona = null;
-		for (int i = 0; i < morfAnalyysitud.size(); i++) {
-			MorfAnSona sona = morfAnalyysitud.get(i);
-			// 1.1) Loome vastava AjaVT sõna (tuvastaja töötlusandmeid sisaldav sõna)
-			lisaUusAjavtSona(eelt88deldud, sona, arvuTuvastaja);
-			eelmineSona = eelt88deldud.get(eelt88deldud.size()-1);
-			// 1.2) Uuendame infot grammatilise aja kohta
-			if (eelmineSona.onVerb()){
-				// verb
-				maaraGrammatilineAeg(eelmineSona, false, eelnevaVerbiInfo);
-			} else if (eelmineSona.onAdjektiivPos()){
-				// omaduss6na (potentsiaalne kesks6na)
-				maaraGrammatilineAeg(eelmineSona, true, eelnevaVerbiInfo);
-			}
-			// Kui s6na j2rel on kindel lausepiir/osalausepiir, läheb eelnevaVerbiInfo tühjendamisele
-			if (eelmineSona != null && (eelmineSona.onOlpKindelPiir() || eelmineSona.onLauseLopp())){
-				eelnevaVerbiInfo.clear();
-			}
-		}
-		return eelt88deldud;
+		return eeltootlusMorfAnalyysist( morfAnalyysitud );
 	}
 	
 	/**
@@ -258,11 +232,31 @@ public class EelTootlus {
 	 *   <li> Tuvastab tekstis arvsonafraasid;
 	 */
 	public static List<AjavtSona> eeltootlusJSON(String sisendJSON) throws Exception {
-		// Moodustame sisendist BufferedReader'i
-		BufferedReader inputReader = new BufferedReader(new StringReader(sisendJSON));
+		return eeltootlusJSON( VabaMorfJSONLint.loe(sisendJSON) );
+	}
+	
+	/**
+	 *   Eeltootluse läbiviimine juba parsitud vabamorfi <code>json</code> sisendi 
+	 *   syndmuste lindil (vt <code>VabaMorfJSONLint</code>); sama, mis 
+	 *   <code>eeltootlusJSON(String)</code>, kuid sisendit uuesti ei parsita.
+	 */
+	public static List<AjavtSona> eeltootlusJSON(VabaMorfJSONLint sisendJSON) throws Exception {
 		// Eraldame morfoloogiliselt analyysitud tekstis6nad (+ lausem2rgistus)
-		List<MorfAnSona> morfAnalyysitud = VabaMorfJSONReader.parseJSONtext(inputReader);
-		inputReader.close();
+		List<MorfAnSona> morfAnalyysitud = VabaMorfJSONReader.parseJSONtext(sisendJSON);
+		return eeltootlusMorfAnalyysist( morfAnalyysitud );
+	}
+	
+	/**
+	 *   Eeltootluse läbiviimine juba morfoloogiliselt analüüsitud sõnadel (vt 
+	 *   <code>T3OLPReader</code> ja <code>VabaMorfJSONReader</code>):
+	 *   <li> Teeb heuristiliselt kindlaks mitmed olulised tunnused (verbide grammatilised ajad jms);
+	 *   <li> Pakendab sonad koos analyysitulemuste/tunnustega klassidesse AjavtSona;
+	 *   <li> Tuvastab tekstis arvsonafraasid;
+	 *   <p>
+	 *   Sisendsõnu (<code>MorfAnSona</code>) ei muudeta, seega võib sama sisendit eeltöödelda 
+	 *   ka mitu korda.
+	 */
+	public static List<AjavtSona> eeltootlusMorfAnalyysist(List<MorfAnSona> morfAnalyysitud) throws Exception {
 		// Loome uue listi, kuhu l2hevad tulemused ...
 		List<AjavtSona>  eelt88deldud    = new ArrayList<AjavtSona>( morfAnalyysitud.size() );
 		// V6tame kasutusele uue arvutuvastaja komponendi
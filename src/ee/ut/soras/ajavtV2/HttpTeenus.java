@@ -0,0 +1,384 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.json.Json;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtDokument;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+
+/**
+ *   JDK sisseehitatud HTTP serveril (<code>com.sun.net.httpserver</code>) p&otilde;hinev
+ *  ajav&auml;ljendite tuvastamise teenus. Reeglid laetakse teenuse k&auml;ivitamisel yhe korra.
+ *  <p>
+ *  Otspunktid:
+ *  <ul>
+ *    <li> <tt>POST /text</tt>, <tt>POST /t3olp</tt>, <tt>POST /json</tt> - p&auml;ringu kehas
+ *         (UTF-8) on vastavas formaadis sisend, vastuses on
+ *         <code>JarelTootlus.eraldamiseTulemusFormaadis</code> tulemus. Referentsaja saab
+ *         anda p&auml;ringu parameetrina <tt>dct</tt> (nt <tt>?dct=2010-06-15T12:00</tt>);
+ *         selle puudumisel kasutatakse JSON sisendi korral sisendi "dct" v&auml;lja,
+ *         seej&auml;rel teenuse vaikimisi referentsaega ning viimaks hetkeaega. Parameeter
+ *         <tt>timeml=true</tt> n&otilde;uab rangelt TimeML-ile vastavat v&auml;ljundit;
+ *    <li> <tt>GET /health</tt> - teenuse olek;
+ *    <li> <tt>GET /metrics</tt> - p&auml;ringute ja s&otilde;namallide kontrollimise statistika
+ *         (JSON).
+ *  </ul>
+ *  P&auml;ringuid t&ouml;&ouml;deldakse piiratud suurusega l&otilde;imekogumis; kui
+ *  pooleliolevaid (t&ouml;&ouml;s v&otilde;i j&auml;rjekorras ootavaid) p&auml;ringuid on juba
+ *  <code>maxPooleli</code>, vastatakse uuele tuvastamisp&auml;ringule kohe koodiga 503 
+ *  (<tt>/health</tt> ja <tt>/metrics</tt> vastavad ka siis). Suurema kui <code>maxParinguBaite</code> kehaga p&auml;ringutele
+ *  vastatakse koodiga 413.
+ *
+ *  @author Siim Orasmaa
+ */
+public class HttpTeenus {
+
+	private final AjaTuvastaja tuvastaja;
+
+	private final InetSocketAddress aadress;
+
+	private final int loimedeArv;
+
+	private final int maxPooleli;
+
+	private final int maxParinguBaite;
+
+	/**
+	 *   Referentsaeg p&auml;ringutele, mis seda ise ei m&auml;&auml;ra (v&otilde;ib olla <code>null</code>).
+	 */
+	private final String [] vaikimisiKonehetk;
+
+	private HttpServer server = null;
+
+	private ThreadPoolExecutor taitja = null;
+
+	/**
+	 *   Vabad kohad pooleliolevate p&auml;ringute jaoks.
+	 */
+	private final Semaphore vabadKohad;
+
+	/**
+	 *   T&otilde;ene, kui jooksvat p&auml;ringut t&ouml;&ouml;deldakse yle koormuse piiri (serveri
+	 *  l&otilde;imes, vt <code>kaivita()</code>); tuvastamisp&auml;ring lykatakse siis tagasi.
+	 */
+	private static final ThreadLocal<Boolean> ylekoormus = new ThreadLocal<Boolean>();
+
+	//==============================================================================
+	//   	S t a t i s t i k a
+	//==============================================================================
+
+	private final AtomicLong paringuid           = new AtomicLong();
+	private final AtomicLong onnestunudParinguid = new AtomicLong();
+	private final AtomicLong vigaseidParinguid   = new AtomicLong();
+	private final AtomicLong tagasiLykatud       = new AtomicLong();
+	private final AtomicLong liigaSuuri          = new AtomicLong();
+	private final AtomicLong sisendBaite         = new AtomicLong();
+	private final AtomicLong tootlemiseAegNs     = new AtomicLong();
+
+	private long kaivitamiseAeg = 0;
+
+	public HttpTeenus(AjaTuvastaja tuvastaja, InetSocketAddress aadress, int loimedeArv,
+					  int maxPooleli, int maxParinguBaite, String [] vaikimisiKonehetk){
+		this.tuvastaja         = tuvastaja;
+		this.aadress           = aadress;
+		this.loimedeArv        = Math.max(1, loimedeArv);
+		this.maxPooleli        = Math.max(1, maxPooleli);
+		this.maxParinguBaite   = Math.max(1, maxParinguBaite);
+		this.vaikimisiKonehetk = vaikimisiKonehetk;
+		this.vabadKohad        = new Semaphore(this.maxPooleli);
+	}
+
+	//==============================================================================
+	//   	K 2 i v i t a m i n e   j a   p e a t a m i n e
+	//==============================================================================
+
+	/**
+	 *   Laeb reeglid ning k&auml;ivitab serveri. Naaseb kohe, p&auml;ringuid teenindatakse
+	 *  taustal kuni <code>peata()</code> v&auml;ljakutseni.
+	 */
+	public synchronized void kaivita() throws Exception {
+		(this.tuvastaja).laeReeglidVajadusel();
+		// Piiratud t2itja: pooleliolevaid vahetusi on kuni maxPooleli (vt vabadKohad), seega 
+		// j2rjekord yle ei t2itu. Yle piiri tulnud vahetus t2idetakse serveri l6imes ning 
+		// tuvastamisp2ringu korral vastatakse sellele kohe koodiga 503.
+		this.taitja = new ThreadPoolExecutor(this.loimedeArv, this.loimedeArv, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(this.maxPooleli));
+		final ThreadPoolExecutor taitjaKogum = this.taitja;
+		Executor piiratudTaitja = new Executor() {
+			public void execute(final Runnable vahetus) {
+				if ((vabadKohad).tryAcquire()){
+					taitjaKogum.execute( new Runnable() {
+						public void run() {
+							try {
+								vahetus.run();
+							} finally {
+								(vabadKohad).release();
+							}
+						}
+					});
+				} else {
+					ylekoormus.set(Boolean.TRUE);
+					try {
+						vahetus.run();
+					} finally {
+						ylekoormus.remove();
+					}
+				}
+			}
+		};
+		this.server = HttpServer.create(this.aadress, 0);
+		(this.server).createContext("/text",    new TuvastamiseKasitleja("text"));
+		(this.server).createContext("/t3olp",   new TuvastamiseKasitleja("t3olp"));
+		(this.server).createContext("/json",    new TuvastamiseKasitleja("json"));
+		(this.server).createContext("/health",  new OlekuKasitleja());
+		(this.server).createContext("/metrics", new StatistikaKasitleja());
+		(this.server).setExecutor(piiratudTaitja);
+		(this.server).start();
+		this.kaivitamiseAeg = System.currentTimeMillis();
+	}
+
+	/**
+	 *   Peatab serveri, oodates pooleliolevate p&auml;ringute l&otilde;ppu kuni
+	 *  <code>viivitusSek</code> sekundit.
+	 */
+	public synchronized void peata(int viivitusSek){
+		if (this.server != null){
+			(this.server).stop(viivitusSek);
+			(this.taitja).shutdown();
+			this.server = null;
+		}
+	}
+
+	/**
+	 *   Aadress, millel server kuulab (kasulik pordi 0 korral).
+	 */
+	public InetSocketAddress getAadress(){
+		return (this.server != null) ? ((this.server).getAddress()) : (this.aadress);
+	}
+
+	//==============================================================================
+	//   	K 2 s i t l e j a d
+	//==============================================================================
+
+	/**
+	 *   Tuvastamisp&auml;ringu k&auml;sitleja: formaat m&auml;&auml;ratakse otspunkti j&auml;rgi.
+	 */
+	private class TuvastamiseKasitleja implements HttpHandler {
+		private final String formaat;
+
+		TuvastamiseKasitleja(String formaat){
+			this.formaat = formaat;
+		}
+
+		public void handle(HttpExchange vahetus) throws IOException {
+			try {
+				if (!(vahetus.getRequestMethod()).equalsIgnoreCase("POST")){
+					(vahetus.getResponseHeaders()).set("Allow", "POST");
+					saadaVastus(vahetus, 405, "Lubatud on vaid POST p2ringud.\n");
+					return;
+				}
+				if (ylekoormus.get() != null){
+					tagasiLykatud.incrementAndGet();
+					(vahetus.getResponseHeaders()).set("Retry-After", "1");
+					saadaVastus(vahetus, 503, "Teenus on hetkel ylekoormatud.\n");
+					return;
+				}
+				tuvasta(vahetus);
+			} finally {
+				vahetus.close();
+			}
+		}
+
+		private void tuvasta(HttpExchange vahetus) throws IOException {
+			paringuid.incrementAndGet();
+			byte [] keha = loeKeha(vahetus);
+			if (keha == null){
+				liigaSuuri.incrementAndGet();
+				saadaVastus(vahetus, 413, "P2ringu keha on suurem kui "+maxParinguBaite+" baiti.\n");
+				return;
+			}
+			sisendBaite.addAndGet(keha.length);
+			Map<String, String> parameetrid = parsiParameetrid( (vahetus.getRequestURI()).getRawQuery() );
+			String sisend = new String(keha, "UTF-8");
+			String [] konehetk = null;
+			if (parameetrid.containsKey("dct")){
+				konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg( parameetrid.get("dct") );
+				if (konehetk == null){
+					vigaseidParinguid.incrementAndGet();
+					saadaVastus(vahetus, 400, "Sobimatu referentsaeg: "+parameetrid.get("dct")+"\n");
+					return;
+				}
+			}
+			boolean allowOnlyPureTimeML = "true".equalsIgnoreCase( parameetrid.get("timeml") );
+			// Sisendi "dct" v6etakse alles t88tlemisel JSON-i syndmuste lindist
+			AjavtDokument dokument = new AjavtDokument(null, this.formaat, sisend, konehetk, vaikimisiKonehetk);
+			long algus = System.nanoTime();
+			try {
+				tuvastaja.tuvastaAjavaljendidDokumendis(dokument, allowOnlyPureTimeML, true);
+			} catch (Throwable t) {
+				dokument.setViga( (t instanceof Exception) ? ((Exception) t) : (new Exception(t)) );
+			}
+			tootlemiseAegNs.addAndGet( System.nanoTime() - algus );
+			if (!dokument.onnestus()){
+				vigaseidParinguid.incrementAndGet();
+				saadaVastus(vahetus, 500, "Viga: "+dokument.getViga()+"\n");
+				return;
+			}
+			onnestunudParinguid.incrementAndGet();
+			(vahetus.getResponseHeaders()).set("Content-Type",
+				((this.formaat).equals("json")) ? ("application/json; charset=utf-8") : ("text/plain; charset=utf-8"));
+			saadaVastus(vahetus, 200, dokument.getValjund());
+		}
+	}
+
+	private class OlekuKasitleja implements HttpHandler {
+		public void handle(HttpExchange vahetus) throws IOException {
+			try {
+				(vahetus.getResponseHeaders()).set("Content-Type", "application/json; charset=utf-8");
+				saadaVastus(vahetus, 200, (Json.createObjectBuilder()).
+						add("status", "ok").
+						add("version", AjaTuvastaja.getVersioon()).
+						add("rules", ((tuvastaja.getReeglid()) != null) ? ((tuvastaja.getReeglid()).size()) : (0)).
+						build().toString() );
+			} finally {
+				vahetus.close();
+			}
+		}
+	}
+
+	private class StatistikaKasitleja implements HttpHandler {
+		public void handle(HttpExchange vahetus) throws IOException {
+			try {
+				(vahetus.getResponseHeaders()).set("Content-Type", "application/json; charset=utf-8");
+				saadaVastus(vahetus, 200, (Json.createObjectBuilder()).
+						add("uptime_ms",          System.currentTimeMillis() - kaivitamiseAeg).
+						add("requests",           paringuid.get()).
+						add("requests_ok",        onnestunudParinguid.get()).
+						add("requests_failed",    vigaseidParinguid.get()).
+						add("requests_rejected",  tagasiLykatud.get()).
+						add("requests_too_large", liigaSuuri.get()).
+						add("requests_in_flight", maxPooleli - vabadKohad.availablePermits()).
+						add("max_in_flight",      maxPooleli).
+						add("threads",            loimedeArv).
+						add("queued_exchanges",   (taitja != null) ? ((taitja.getQueue()).size()) : (0)).
+						add("input_bytes",        sisendBaite.get()).
+						add("processing_ns",      tootlemiseAegNs.get()).
+						add("template_cache_hits",        tuvastaja.getMallideKontrolliTabamused()).
+						add("template_cache_misses",      tuvastaja.getMallideKontrolliMoodalasked()).
+						add("shared_template_cache_hits", tuvastaja.getMallideVahemaluTabamused()).
+						add("shared_normalization_cache_hits", tuvastaja.getNormaliseerimisteVahemaluTabamused()).
+						build().toString() );
+			} finally {
+				vahetus.close();
+			}
+		}
+	}
+
+	//==============================================================================
+	//   	A b i m e e t o d i d
+	//==============================================================================
+
+	/**
+	 *   Loeb p&auml;ringu keha; kui see on suurem kui <code>maxParinguBaite</code>,
+	 *  tagastab <code>null</code>.
+	 */
+	private byte [] loeKeha(HttpExchange vahetus) throws IOException {
+		String pikkus = (vahetus.getRequestHeaders()).getFirst("Content-Length");
+		if (pikkus != null){
+			try {
+				if (Long.parseLong(pikkus.trim()) > this.maxParinguBaite){
+					return null;
+				}
+			} catch (NumberFormatException e) {
+				// loeme keha ja kontrollime suurust lugemise k2igus
+			}
+		}
+		InputStream sisend = vahetus.getRequestBody();
+		ByteArrayOutputStream puhver = new ByteArrayOutputStream( 8192 );
+		byte [] plokk = new byte [8192];
+		int loetud = 0;
+		while ((loetud = sisend.read(plokk)) != -1) {
+			if (puhver.size() + loetud > this.maxParinguBaite){
+				return null;
+			}
+			puhver.write(plokk, 0, loetud);
+		}
+		return puhver.toByteArray();
+	}
+
+	private static Map<String, String> parsiParameetrid(String paring) throws IOException {
+		Map<String, String> parameetrid = new HashMap<String, String>();
+		if (paring != null){
+			for (String paar : paring.split("&")) {
+				int i = paar.indexOf('=');
+				if (i > 0){
+					parameetrid.put( URLDecoder.decode(paar.substring(0, i), "UTF-8"),
+									 URLDecoder.decode(paar.substring(i + 1), "UTF-8") );
+				} else if (paar.length() > 0){
+					parameetrid.put( URLDecoder.decode(paar, "UTF-8"), "" );
+				}
+			}
+		}
+		return parameetrid;
+	}
+
+	private static void saadaVastus(HttpExchange vahetus, int kood, String sisu) throws IOException {
+		byte [] baidid = sisu.getBytes("UTF-8");
+		if (!(vahetus.getResponseHeaders()).containsKey("Content-Type")){
+			(vahetus.getResponseHeaders()).set("Content-Type", "text/plain; charset=utf-8");
+		}
+		vahetus.sendResponseHeaders(kood, baidid.length);
+		OutputStream valjund = vahetus.getResponseBody();
+		valjund.write(baidid);
+		valjund.flush();
+	}
+
+	//==============================================================================
+	//   	G e t t e r s
+	//==============================================================================
+
+	public long getParinguid() {
+		return (this.paringuid).get();
+	}
+
+	public long getTagasiLykatud() {
+		return (this.tagasiLykatud).get();
+	}
+
+}
@@ -0,0 +1,248 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtDokument;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+
+/**
+ *   Pikaajaliselt t&ouml;&ouml;tav teenus, mis loeb sisendvoost JSON-ridade kujul
+ *  p&auml;ringuid, t&ouml;&ouml;tleb neid paralleelselt ning kirjutab vastused
+ *  v&auml;ljundvoogu kohe, kui need valmis saavad (st mitte tingimata p&auml;ringute
+ *  j&auml;rjekorras).
+ *  <p>
+ *  P&auml;ring (yks rida):
+ *  <pre>
+ *     {"id": ..., "dct": "2010-06-15T12:00", "format": "json", "input": ...}
+ *  </pre>
+ *  kus <tt>format</tt> on <tt>text</tt>, <tt>t3olp</tt> v&otilde;i <tt>json</tt> (vaikimisi),
+ *  <tt>input</tt> on sisendtekst s&otilde;nena (<tt>json</tt> formaadi korral v&otilde;ib see
+ *  olla ka vabamorfi JSON objekt) ning <tt>dct</tt> (referentsaeg) ja <tt>id</tt> on
+ *  valikulised. Referentsaja puudumisel kasutatakse JSON sisendi korral sisendi "dct"
+ *  v&auml;lja, seej&auml;rel teenuse vaikimisi referentsaega ning viimaks hetkeaega.
+ *  <p>
+ *  Vastus (yks rida): <tt>{"id": ..., "result": ...}</tt>, kus <tt>result</tt> on
+ *  <code>JarelTootlus.eraldamiseTulemusFormaadis</code> tulemus (<tt>json</tt> formaadi
+ *  korral JSON objektina, muidu s&otilde;nena), v&otilde;i vea korral
+ *  <tt>{"id": ..., "error": "..."}</tt>.
+ *  <p>
+ *  Korraga t&ouml;&ouml;deldakse (v&otilde;i oodatakse v&auml;ljastamist) kuni
+ *  <code>maxPooleli</code> p&auml;ringut; kui see piir on t&auml;is, ei loeta sisendvoost
+ *  uusi ridu enne, kui m&otilde;ni vastus on v&auml;lja kirjutatud. V&auml;ljundvoog
+ *  tyhjendatakse (<code>flush</code>) vaid siis, kui kirjutamist ootavaid vastuseid
+ *  rohkem pole.
+ *
+ *  @author Siim Orasmaa
+ */
+public class JSONRidadeTeenus {
+
+	private final AjaTuvastaja tuvastaja;
+
+	private final int loimedeArv;
+
+	private final int maxPooleli;
+
+	/**
+	 *   Referentsaeg p&auml;ringutele, mis seda ise ei m&auml;&auml;ra (v&otilde;ib olla <code>null</code>).
+	 */
+	private final String [] vaikimisiKonehetk;
+
+	private final boolean allowOnlyPureTimeML;
+
+	/**
+	 *   Kirjutamisl&otilde;imele t&ouml;&ouml; l&otilde;ppemist t&auml;histav vastus.
+	 */
+	private static final String LOPP = new String("");
+
+	public JSONRidadeTeenus(AjaTuvastaja tuvastaja, int loimedeArv, int maxPooleli,
+							String [] vaikimisiKonehetk, boolean allowOnlyPureTimeML){
+		this.tuvastaja           = tuvastaja;
+		this.loimedeArv          = Math.max(1, loimedeArv);
+		this.maxPooleli          = Math.max(1, maxPooleli);
+		this.vaikimisiKonehetk   = vaikimisiKonehetk;
+		this.allowOnlyPureTimeML = allowOnlyPureTimeML;
+	}
+
+	//==============================================================================
+	//   	T e e n i n d a m i n e
+	//==============================================================================
+
+	/**
+	 *   Teenindab p&auml;ringuid voost <code>sisend</code> (UTF-8), kuni see l&otilde;peb,
+	 *  ning kirjutab vastused voogu <code>valjund</code> (UTF-8). Naaseb, kui k&otilde;igile
+	 *  p&auml;ringutele on vastatud.
+	 */
+	public void teeninda(InputStream sisend, OutputStream valjund) throws Exception {
+		final BufferedReader lugeja = new BufferedReader(new InputStreamReader(sisend, "UTF-8"));
+		final Writer kirjutaja = new BufferedWriter(new OutputStreamWriter(valjund, "UTF-8"));
+		final LinkedBlockingQueue<String> vastused = new LinkedBlockingQueue<String>();
+		final Semaphore vabadKohad = new Semaphore(this.maxPooleli);
+		// Laeme reeglid enne p2ringute vastuv6tmist
+		(this.tuvastaja).laeReeglidVajadusel();
+		// Vastuste kirjutamine: eraldi l6im, et t88l6imed ei peaks v2ljundi taga ootama
+		final Exception [] kirjutamiseViga = new Exception[1];
+		Thread kirjutamisLoim = new Thread( new Runnable() {
+			public void run() {
+				try {
+					while (true) {
+						String vastus = vastused.take();
+						if (vastus == LOPP){
+							break;
+						}
+						kirjutaja.write(vastus);
+						kirjutaja.write('\n');
+						vabadKohad.release();
+						if (vastused.isEmpty()){
+							kirjutaja.flush();
+						}
+					}
+					kirjutaja.flush();
+				} catch (Exception e) {
+					kirjutamiseViga[0] = e;
+					// Ei blokeeri lugemist ka siis, kui v2ljundisse kirjutada ei saa
+					vabadKohad.release(Integer.MAX_VALUE / 2);
+				}
+			}
+		}, "ajavt-vastuste-kirjutaja");
+		kirjutamisLoim.start();
+		ExecutorService taitja = Executors.newFixedThreadPool(this.loimedeArv);
+		try {
+			String rida = null;
+			while ((rida = lugeja.readLine()) != null && kirjutamiseViga[0] == null) {
+				if (rida.trim().length() == 0){
+					continue;
+				}
+				vabadKohad.acquire();
+				final String paring = rida;
+				taitja.execute( new Runnable() {
+					public void run() {
+						String vastus = null;
+						try {
+							vastus = vastaParingule(paring);
+						} catch (Throwable t) {
+							vastus = looVeaVastus(JsonValue.NULL, t);
+						}
+						vastused.add(vastus);
+					}
+				});
+			}
+			// Ootame, kuni k6ik vastused on v2lja kirjutatud
+			vabadKohad.acquire(this.maxPooleli);
+		} finally {
+			taitja.shutdown();
+			vastused.add(LOPP);
+			kirjutamisLoim.join();
+		}
+		if (kirjutamiseViga[0] != null){
+			throw kirjutamiseViga[0];
+		}
+	}
+
+	/**
+	 *   T&ouml;&ouml;tleb yhe p&auml;ringu rea ning tagastab vastuse rea.
+	 */
+	public String vastaParingule(String paring){
+		JsonValue id = JsonValue.NULL;
+		try {
+			JsonReader lugeja = Json.createReader(new StringReader(paring));
+			JsonObject paringuObjekt = lugeja.readObject();
+			lugeja.close();
+			if (paringuObjekt.containsKey("id")){
+				id = paringuObjekt.get("id");
+			}
+			AjavtDokument dokument = looDokument(paringuObjekt, id, this.vaikimisiKonehetk);
+			(this.tuvastaja).tuvastaAjavaljendidDokumendis(dokument, this.allowOnlyPureTimeML, true);
+			return looVastus(id, dokument);
+		} catch (Throwable t) {
+			return looVeaVastus(id, t);
+		}
+	}
+
+	//==============================================================================
+	//   	P 2 r i n g u d    j a    v a s t u s e d
+	//==============================================================================
+
+	/**
+	 *   Loob JSON p&auml;ringu objekti p&otilde;hjal t&ouml;&ouml;deldava dokumendi (vt
+	 *  p&auml;ringu kirjeldust klassi dokumentatsioonis).
+	 */
+	static AjavtDokument looDokument(JsonObject paring, JsonValue id, String [] vaikimisiKonehetk) throws Exception {
+		String formaat = paring.getString("format", "json");
+		if (!formaat.matches("(text|t3olp|json)")){
+			throw new Exception("Tundmatu formaat: "+formaat);
+		}
+		JsonValue sisendValue = paring.get("input");
+		if (sisendValue == null){
+			throw new Exception("P2ringus puudub sisend ('input').");
+		}
+		String sisend = (sisendValue.getValueType() == JsonValue.ValueType.STRING) ?
+							(paring.getString("input")) : (sisendValue.toString());
+		String [] konehetk = null;
+		if (paring.containsKey("dct")){
+			konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg( paring.getString("dct") );
+			if (konehetk == null){
+				throw new Exception("Sobimatu referentsaeg: "+paring.getString("dct"));
+			}
+		}
+		// Sisendi "dct" v6etakse alles t88tlemisel JSON-i syndmuste lindist (vt AjaTuvastaja.tuvastaAjavaljendidDokumendis)
+		String idSone = (id.getValueType() == JsonValue.ValueType.STRING) ? (((JsonString)id).getString()) : (id.toString());
+		return new AjavtDokument(idSone, formaat, sisend, konehetk, vaikimisiKonehetk);
+	}
+
+	/**
+	 *   Loob 6nnestunud t&ouml;&ouml;tluse vastuse: JSON formaadi korral lisatakse tulemus
+	 *  (mis on juba JSON) vastusesse muutmata kujul, teiste formaatide korral s&otilde;nena.
+	 */
+	static String looVastus(JsonValue id, AjavtDokument dokument){
+		if ((dokument.getFormaat()).equals("json")){
+			StringBuilder vastus = new StringBuilder( (dokument.getValjund()).length() + 32 );
+			vastus.append("{\"id\":");
+			vastus.append( id.toString() );
+			vastus.append(",\"result\":");
+			vastus.append( dokument.getValjund() );
+			vastus.append("}");
+			return vastus.toString();
+		}
+		return ((Json.createObjectBuilder()).add("id", id).add("result", dokument.getValjund())).build().toString();
+	}
+
+	static String looVeaVastus(JsonValue id, Throwable viga){
+		return ((Json.createObjectBuilder()).add("id", id).add("error", String.valueOf(viga))).build().toString();
+	}
+
+}
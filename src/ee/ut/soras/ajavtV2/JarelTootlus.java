@@ -18,20 +18,16 @@
 package ee.ut.soras.ajavtV2;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
-
-import javax.json.Json;
-import javax.json.stream.JsonGenerator;
-import javax.json.stream.JsonGeneratorFactory;
-import javax.json.stream.JsonParser;
 
 import ee.ut.soras.ajavtV2.mudel.AjavtSona;
 import ee.ut.soras.ajavtV2.mudel.FraasisPaiknemiseKoht;
@@ -40,8 +36,9 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaObjekt;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaObjekt.TYYP;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaPunkt;
-import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.TimeMLDateTimePoint;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.ReferentsAeg;
 import ee.ut.soras.ajavtV2.util.TextUtils;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
 
 /**
  * J&auml;relt&ouml;&ouml;tlus: joondamine morfoloogilise analysaatori v2ljundi ja esialgse teksti vahel
@@ -99,10 +96,57 @@ public class JarelTootlus {
 	 *   t0;
 	 */
 	public static void parandaTIDvaartused(List<AjavtSona> sonad, boolean allowOnlyPureTimeML) {
+		parandaTIDvaartused(sonad, allowOnlyPureTimeML, 1);
+	}
+	
+	/**
+	 *   Sama, mis <code>parandaTIDvaartused(List, boolean)</code>, kuid ajav2ljendite nummerdamist
+	 *   alustatakse TID v22rtusest <code>esimeneID</code>. Tagastab j2rgmise vaba TID v22rtuse
+	 *   (numbri).
+	 */
+	public static int parandaTIDvaartused(List<AjavtSona> sonad, boolean allowOnlyPureTimeML, int esimeneID) {
+		return parandaTIDvaartused(sonad, allowOnlyPureTimeML, esimeneID, 0, null);
+	}
+	
+	/**
+	 *   Sama, mis <code>parandaTIDvaartused(List, boolean, int)</code>, kuid s6nadega enne indeksit
+	 *   <code>algus</code> seotud ajav2ljendeid ei nummerdata: nad saavad TID v22rtuse tabelist
+	 *   <code>kindladTIDid</code> (v6tmed nagu <code>leiaTIDvaartused</code> tulemuses). Kui 
+	 *   ajav2ljendit tabelis pole, asendatakse temale viitavad lingid v22rtusega "??". Tagastab 
+	 *   j2rgmise vaba TID v22rtuse (numbri).
+	 */
+	public static int parandaTIDvaartused(List<AjavtSona> sonad, boolean allowOnlyPureTimeML, int esimeneID,
+	                                      int algus, Map<String, String> kindladTIDid) {
 		HashMap<String, String> oldIDtoNewID = new HashMap<String, String>();
-		// 1) Omistame k6igile ajav2ljenditele uued TID v22rtused
-		int ID = 1;
-		for (int i = 0; i < sonad.size(); i++) {
+		HashMap<String, Integer> nahtudVotmed = new HashMap<String, Integer>();
+		// 0) Eelnevatele ajav2ljenditele omistame etteantud TID v22rtused
+		for (int i = 0; i < algus; i++) {
+			AjavtSona sona = sonad.get(i);
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
+				List<AjavaljendiKandidaat> 				ajavaljendid = sona.getAjavaljendiKandidaadid();
+				for (int j = 0; j < ajavaljendiKandidaatides.size(); j++) {
+					FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(j);
+					AjavaljendiKandidaat ajav = ajavaljendid.get(j);
+					if (ajav.getSemantikaLahendus() != null){
+						if (koht.onFraasiAlgus()){
+							seaKindelTID( ajav.getSemantikaLahendus(), looTIDvoti(ajav, -1, nahtudVotmed), 
+									kindladTIDid, oldIDtoNewID );
+						}
+						if (koht.onFraasiLopp() && (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES() != null){
+							List<AjaObjekt> relatedImplicitTIMEXES = (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES();
+							for (int k = 0; k < relatedImplicitTIMEXES.size(); k++) {
+								seaKindelTID( relatedImplicitTIMEXES.get(k), looTIDvoti(ajav, k, nahtudVotmed), 
+										kindladTIDid, oldIDtoNewID );
+							}
+						}
+					}
+				}
+			}
+		}
+		// 1) Omistame k6igile ylej22nud ajav2ljenditele uued TID v22rtused
+		int ID = esimeneID;
+		for (int i = algus; i < sonad.size(); i++) {
 			AjavtSona sona = sonad.get(i);
 			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
 				List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
@@ -194,12 +238,136 @@ public class JarelTootlus {
 				}  // for
 			}  // if 
 		} // for
+		return ID;
+	}
+	
+	/**
+	 *   Omistab ajav2ljendile <code>ajaObjekt</code> tabelist <code>kindladTIDid</code> v6tme 
+	 *   <code>voti</code> j2rgi leitud TID v22rtuse ning j2tab vana ja uue v22rtuse vastavuse meelde.
+	 */
+	private static void seaKindelTID(AjaObjekt ajaObjekt, String voti, Map<String, String> kindladTIDid,
+	                                 HashMap<String, String> oldIDtoNewID){
+		String oldID = (ajaObjekt.asHashMapOfAttributeValue("")).get("tid");
+		if (oldID != null && !oldID.equals("t0") && kindladTIDid != null && kindladTIDid.containsKey(voti)){
+			String newID = kindladTIDid.get(voti);
+			oldIDtoNewID.put(oldID, newID);
+			ajaObjekt.setTimex3Attribute("tid", newID);
+		}
+	}
+	
+	/**
+	 *   Ajav2ljendi v6ti, mis ei s6ltu TID v22rtustest: fraasi esimese ja viimase s6na positsioon 
+	 *   ning implitsiitse ajav2ljendi korral (<code>implitsiitne &gt;= 0</code>) tema j2rjekorranumber; 
+	 *   sama fraasiga ajav2ljendid eristatakse esinemise j2rjekorra j2rgi (<code>nahtudVotmed</code>).
+	 */
+	private static String looTIDvoti(AjavaljendiKandidaat ajav, int implitsiitne, HashMap<String, Integer> nahtudVotmed){
+		List<AjavtSona> fraas = ajav.getFraas();
+		String voti = (fraas.get(0)).getTokenPosition() + "-" + (fraas.get(fraas.size()-1)).getTokenPosition() + 
+					  ((implitsiitne > -1) ? ("/" + implitsiitne) : (""));
+		Integer nahtud = nahtudVotmed.get(voti);
+		nahtudVotmed.put(voti, (nahtud != null) ? (nahtud + 1) : (1));
+		return (nahtud != null) ? (voti + "#" + nahtud) : (voti);
+	}
+	
+	/**
+	 *   Tagastab s6nadega seotud ajav2ljendite (sh implitsiitsete) TID v22rtused v6tmete j2rgi, mis 
+	 *   ei s6ltu TID v22rtustest endist (fraasi asukoht tekstis); vt 
+	 *   <code>parandaTIDvaartused(List, boolean, int, int, Map)</code>.
+	 */
+	public static HashMap<String, String> leiaTIDvaartused(List<AjavtSona> sonad) {
+		HashMap<String, String> tidid = new HashMap<String, String>();
+		HashMap<String, Integer> nahtudVotmed = new HashMap<String, Integer>();
+		for (AjavtSona sona : sonad) {
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
+				List<AjavaljendiKandidaat> 				ajavaljendid = sona.getAjavaljendiKandidaadid();
+				for (int j = 0; j < ajavaljendiKandidaatides.size(); j++) {
+					FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(j);
+					AjavaljendiKandidaat ajav = ajavaljendid.get(j);
+					if (ajav.getSemantikaLahendus() != null){
+						if (koht.onFraasiAlgus()){
+							String tid = ((ajav.getSemantikaLahendus()).asHashMapOfAttributeValue("")).get("tid");
+							String voti = looTIDvoti(ajav, -1, nahtudVotmed);
+							if (tid != null && !tid.equals("t0")){
+								tidid.put(voti, tid);
+							}
+						}
+						if (koht.onFraasiLopp() && (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES() != null){
+							List<AjaObjekt> relatedImplicitTIMEXES = (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES();
+							for (int k = 0; k < relatedImplicitTIMEXES.size(); k++) {
+								String tid = ((relatedImplicitTIMEXES.get(k)).asHashMapOfAttributeValue("")).get("tid");
+								String voti = looTIDvoti(ajav, k, nahtudVotmed);
+								if (tid != null && !tid.equals("t0")){
+									tidid.put(voti, tid);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return tidid;
+	}
+	
+	/**
+	 *   Loeb kokku, mitu TID v22rtust omistaks <code>parandaTIDvaartused</code> s6nadega 
+	 *   vahemikus <code>[algus, lopp)</code> seotud ajav2ljenditele (sh implitsiitsetele).
+	 */
+	public static int leiaTIDvaartusteArv(List<AjavtSona> sonad, int algus, int lopp) {
+		int arv = 0;
+		for (int i = algus; i < lopp; i++) {
+			AjavtSona sona = sonad.get(i);
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
+				List<AjavaljendiKandidaat> 				ajavaljendid = sona.getAjavaljendiKandidaadid();
+				for (int j = 0; j < ajavaljendiKandidaatides.size(); j++) {
+					FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(j);
+					AjavaljendiKandidaat ajav = ajavaljendid.get(j);
+					if (ajav.getSemantikaLahendus() != null){
+						if (koht.onFraasiAlgus()){
+							String tid = ((ajav.getSemantikaLahendus()).asHashMapOfAttributeValue("")).get("tid");
+							if (tid != null && !tid.equals("t0")){
+								arv++;
+							}
+						}
+						if (koht.onFraasiLopp() && (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES() != null){
+							for (AjaObjekt ajaObjekt : (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES()) {
+								String tid = (ajaObjekt.asHashMapOfAttributeValue("")).get("tid");
+								if (tid != null && !tid.equals("t0")){
+									arv++;
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return arv;
 	}
 	
 	//==============================================================================
 	//   	V a l j u n d i    k o n s t r u e e r i m i n e
 	//==============================================================================
 
+	/**
+	 *   Konstrueerib eraldamise tulemuse sisendi formaadile vastaval kujul (nagu 
+	 *   <code>Main</code> v2ljundisse kirjutamisel): <tt>text</tt> - 
+	 *   <code>eraldamiseTulemusPretty</code>, <tt>t3olp</tt> - 
+	 *   <code>eraldamiseTulemusT3OLPEraldiReal</code>, <tt>json</tt> - 
+	 *   <code>eraldamiseTulemusVabaMorfiJSON</code>. 
+	 */
+	public static String eraldamiseTulemusFormaadis(String formaat, String sisend, List<AjavtSona> sonad, 
+							String [] konehetk, boolean allowOnlyPureTimeML, boolean prettyPrintJson) throws Exception {
+		if ( formaat.equalsIgnoreCase("text") ){
+			return eraldamiseTulemusPretty(sonad, sisend, allowOnlyPureTimeML, formatAsCreationTime(konehetk));
+		} else if ( formaat.equalsIgnoreCase("t3olp") ){
+			return eraldamiseTulemusT3OLPEraldiReal(sisend, sonad, formatAsCreationTime(konehetk), false, false);
+		} else if ( formaat.equalsIgnoreCase("json") ){
+			return eraldamiseTulemusVabaMorfiJSON(sisend, sonad, formatAsCreationTime(konehetk), allowOnlyPureTimeML, prettyPrintJson);
+		}
+		throw new Exception("Tundmatu formaat: "+formaat);
+	}
+
 	//==============================================================================
 	//   	T a v a t e k s t    s i s e n d 
 	//==============================================================================
@@ -338,58 +506,146 @@ public class JarelTootlus {
 	 *     <li> Esialgses tekstis on m&auml;rgendatud ajav&auml;ljendid;
 	 *     <li> V2lja on toodud ainult l6plik m2rgendamise tulemus;     
 	 *   </ul>
+	 *   Vt ka <code>eraldamiseTulemusPretty(..., Writer)</code>, mis kirjutab tulemuse otse 
+	 *   v&auml;ljundvoogu.
 	 */
 	public static String eraldamiseTulemusPretty(List<AjavtSona> sonad, String esialgneTekst, boolean allowOnlyPureTimeML, AjaPunkt creationTime) {
-		StringBuffer sb = new StringBuffer(esialgneTekst);
-		for (int i = sonad.size()-1; i > -1; i--) {
+		StringWriter valjund = new StringWriter( esialgneTekst.length() + (esialgneTekst.length() >> 2) );
+		try {
+			eraldamiseTulemusPretty(sonad, esialgneTekst, allowOnlyPureTimeML, creationTime, valjund);
+		} catch (IOException e) {
+			// StringWriter ei viska IOException'it
+			throw new IllegalStateException(e);
+		}
+		return valjund.toString();
+	}
+	
+	/**
+	 *   Kirjutab v&auml;ljundvoogu <code>valjund</code> esialgse teksti, milles on 
+	 *   m&auml;rgendatud ajav&auml;ljendid (sama tulemus, mis 
+	 *   <code>eraldamiseTulemusPretty(sonad, esialgneTekst, allowOnlyPureTimeML, creationTime)</code>).
+	 *   <p>
+	 *   Tekst ja m&auml;rgendid kirjutatakse yhe l&auml;biminekuga teksti algusest l&otilde;puni, 
+	 *   s&otilde;nade positsioonide (vt <code>joondaAlgseTekstiga</code>) j&auml;rgi; tulemust
+	 *   m&auml;llu ei koostata. Kui positsioonid pole tekstis kasvavas j&auml;rjekorras (nt 
+	 *   joondamine eba&otilde;nnestus), koostatakse tulemus vanal viisil, m&auml;rgendeid teksti 
+	 *   l&otilde;pust alates vahele lisades.
+	 */
+	public static void eraldamiseTulemusPretty(List<AjavtSona> sonad, String esialgneTekst, boolean allowOnlyPureTimeML, 
+											   AjaPunkt creationTime, Writer valjund) throws IOException {
+		if (!kasMargendidOnTekstisJarjekorras(sonad, esialgneTekst.length())){
+			valjund.write( eraldamiseTulemusPrettyLopustAlates(sonad, esialgneTekst, allowOnlyPureTimeML, creationTime) );
+			return;
+		}
+		if (creationTime != null){
+			HashMap<String, String> mapOfAttributesAndValues = (creationTime).asHashMapOfAttributeValue("");
+			valjund.write( doTagHeader(null, mapOfAttributesAndValues, allowOnlyPureTimeML, true) );
+			valjund.write( "\n" );
+		}
+		int kirjutatud = 0;
+		String [] margendid = new String[2];
+		for (int i = 0; i < sonad.size(); i++) {
 			AjavtSona sona = sonad.get(i);
 			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
-				String newPrefix = "";
-				String newSuffix = "";
-				List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
-				List<AjavaljendiKandidaat> 				ajavaljendid = sona.getAjavaljendiKandidaadid();
-				for (int j = 0; j < ajavaljendiKandidaatides.size(); j++) {
-					FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(j);
-					AjavaljendiKandidaat ajav = ajavaljendid.get(j);
-					if (koht.onFraasiAlgus()){
-						if (ajav.getSemantikaLahendus() != null){
-							HashMap<String, String> attribValuePairs = 
-								(allowOnlyPureTimeML) ?
-									(getPurifiedTimeMLAnnotation(ajav.getSemantikaLahendus())) : 
-										((ajav.getSemantikaLahendus()).asHashMapOfAttributeValue(""));
-							if (attribValuePairs != null){
-								newPrefix = doTagHeader( null, attribValuePairs, allowOnlyPureTimeML, false ) + newPrefix;								
-							}
-						}
+				looPrettyMargendid(sona, allowOnlyPureTimeML, margendid);
+				if (-1 < sona.getStartPosition() && -1 < sona.getEndPosition()){
+					valjund.write( esialgneTekst, kirjutatud, sona.getStartPosition() - kirjutatud );
+					valjund.write( margendid[0] );
+					valjund.write( esialgneTekst, sona.getStartPosition(), sona.getEndPosition() + 1 - sona.getStartPosition() );
+					valjund.write( margendid[1] );
+					kirjutatud = sona.getEndPosition() + 1;
+				}
+			}
+		}
+		valjund.write( esialgneTekst, kirjutatud, esialgneTekst.length() - kirjutatud );
+	}
+	
+	/**
+	 *   Kas ajav&auml;ljenditega seotud s&otilde;nade m&auml;rgendite asukohad (s&otilde;na algus
+	 *   ja l&otilde;pp esialgses tekstis) on k&otilde;ik tekstis ning mittekahanevas j&auml;rjekorras?
+	 *   Sel juhul saab m&auml;rgendatud teksti kirjutada yhe l&auml;biminekuga algusest l&otilde;puni.
+	 */
+	private static boolean kasMargendidOnTekstisJarjekorras(List<AjavtSona> sonad, int tekstiPikkus){
+		int eelmine = 0;
+		for (AjavtSona sona : sonad) {
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga() && -1 < sona.getStartPosition() && -1 < sona.getEndPosition()){
+				if (sona.getStartPosition() >= tekstiPikkus || sona.getEndPosition() + 1 > tekstiPikkus ||
+						sona.getStartPosition() < eelmine || sona.getEndPosition() + 1 < sona.getStartPosition()){
+					return false;
+				}
+				eelmine = sona.getEndPosition() + 1;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 *   Koostab s&otilde;na ette (<code>margendid[0]</code>) ja taha (<code>margendid[1]</code>)
+	 *   kirjutatavad ajav&auml;ljendi m&auml;rgendid. 
+	 */
+	private static void looPrettyMargendid(AjavtSona sona, boolean allowOnlyPureTimeML, String [] margendid){
+		String newPrefix = "";
+		String newSuffix = "";
+		List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
+		List<AjavaljendiKandidaat> 				ajavaljendid = sona.getAjavaljendiKandidaadid();
+		for (int j = 0; j < ajavaljendiKandidaatides.size(); j++) {
+			FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(j);
+			AjavaljendiKandidaat ajav = ajavaljendid.get(j);
+			if (koht.onFraasiAlgus()){
+				if (ajav.getSemantikaLahendus() != null){
+					HashMap<String, String> attribValuePairs = 
+						(allowOnlyPureTimeML) ?
+							(getPurifiedTimeMLAnnotation(ajav.getSemantikaLahendus())) : 
+								((ajav.getSemantikaLahendus()).asHashMapOfAttributeValue(""));
+					if (attribValuePairs != null){
+						newPrefix = doTagHeader( null, attribValuePairs, allowOnlyPureTimeML, false ) + newPrefix;								
 					}
-					if (koht.onFraasiLopp()){
-						if (ajav.getSemantikaLahendus() != null){
-							HashMap<String, String> attribValuePairs = 
+				}
+			}
+			if (koht.onFraasiLopp()){
+				if (ajav.getSemantikaLahendus() != null){
+					HashMap<String, String> attribValuePairs = 
+						(allowOnlyPureTimeML) ?
+							(getPurifiedTimeMLAnnotation(ajav.getSemantikaLahendus())) : 
+								((ajav.getSemantikaLahendus()).asHashMapOfAttributeValue(""));
+					if (attribValuePairs != null){
+						newSuffix = newSuffix + doTagFooter( allowOnlyPureTimeML );								
+					}							
+					// Implitsiitsete kuvamine							
+					if ( (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES() != null ){
+						for (AjaObjekt ajaObjekt : (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES()) {
+							HashMap<String, String> mapOfAttributesAndValues =
 								(allowOnlyPureTimeML) ?
-									(getPurifiedTimeMLAnnotation(ajav.getSemantikaLahendus())) : 
-										((ajav.getSemantikaLahendus()).asHashMapOfAttributeValue(""));
-							if (attribValuePairs != null){
-								newSuffix = newSuffix + doTagFooter( allowOnlyPureTimeML );								
-							}							
-							// Implitsiitsete kuvamine							
-							if ( (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES() != null ){
-								for (AjaObjekt ajaObjekt : (ajav.getSemantikaLahendus()).getRelatedImplicitTIMEXES()) {
-									HashMap<String, String> mapOfAttributesAndValues =
-										(allowOnlyPureTimeML) ?
-												(getPurifiedTimeMLAnnotation(ajaObjekt)) : 
-													((ajaObjekt).asHashMapOfAttributeValue(""));
-									if (mapOfAttributesAndValues != null){
-										newSuffix += doTagHeader(null, mapOfAttributesAndValues, allowOnlyPureTimeML, true);
-									}
-								}
+										(getPurifiedTimeMLAnnotation(ajaObjekt)) : 
+											((ajaObjekt).asHashMapOfAttributeValue(""));
+							if (mapOfAttributesAndValues != null){
+								newSuffix += doTagHeader(null, mapOfAttributesAndValues, allowOnlyPureTimeML, true);
 							}
 						}
 					}
 				}
+			}
+		}
+		margendid[0] = newPrefix;
+		margendid[1] = newSuffix;
+	}
+	
+	/**
+	 *   M&auml;rgendatud teksti koostamine m&auml;rgendeid teksti l&otilde;pust alates vahele 
+	 *   lisades (kasutatakse vaid juhul, kui s&otilde;nade positsioonid pole tekstis 
+	 *   j&auml;rjekorras).
+	 */
+	private static String eraldamiseTulemusPrettyLopustAlates(List<AjavtSona> sonad, String esialgneTekst, boolean allowOnlyPureTimeML, AjaPunkt creationTime) {
+		StringBuffer sb = new StringBuffer(esialgneTekst);
+		String [] margendid = new String[2];
+		for (int i = sonad.size()-1; i > -1; i--) {
+			AjavtSona sona = sonad.get(i);
+			if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+				looPrettyMargendid(sona, allowOnlyPureTimeML, margendid);
 				if (sona.getStartPosition() < sb.length() && sona.getEndPosition()+1 <= sb.length()
 						&& -1 < sona.getStartPosition() && -1 < sona.getEndPosition()){
-					sb.insert(sona.getEndPosition() + 1, newSuffix);
-					sb.insert(sona.getStartPosition(), newPrefix);
+					sb.insert(sona.getEndPosition() + 1, margendid[1]);
+					sb.insert(sona.getStartPosition(), margendid[0]);
 				}
 			}
 		}
@@ -858,253 +1114,34 @@ public class JarelTootlus {
 	 */
 	public static String eraldamiseTulemusVabaMorfiJSON(String sisendJSON, List<AjavtSona> sonad, AjaPunkt creationTime, 
 															boolean usePurifiedTimeML, boolean prettyPrint) throws Exception {
-		// JSON-i generaatori loomine
-		StringWriter sw = new StringWriter();
-		Map<String, Object> properties = new HashMap<String, Object>(1);
-		if (prettyPrint){
-	        properties.put(JsonGenerator.PRETTY_PRINTING, true);			
-		}
-        JsonGeneratorFactory jgf = Json.createGeneratorFactory(properties);
-		JsonGenerator jsonGenerator = jgf.createGenerator( sw );
-		// vana JSON-i sisu parser
-		BufferedReader inputReader = new BufferedReader( new StringReader(sisendJSON) );
-		JsonParser parser = Json.createParser( inputReader );
-		
-		// JSON-i v6tmete rada ( k6ige pealmine on vaadeldav v6ti... )
-		Stack<String> jsonKeyPath = new Stack<String>(); 
-		// Viimane event
-		JsonParser.Event lastEvent = null;
-		// Viimasele event'ile vastav v22rtus (kui on)
-		String lastString = "";
-		
-		// jooksva s6na tekstikuju
-		String tokenText = null;
-		
-		// Referentsaeg: teeme kindlaks, kas v2ljundisse tuleb lisada teistsugune, kui oli sisendis
-		String newDCTvalue = null;
-		String konehetkJSONist [] = Main.prooviLuuaJSONsisendiP6hjalRefAeg(sisendJSON);
-		// Kui JSON sisendis polnud referentsaega antud v6i see ei sobinud, paneme uue referentsaja
-		if (konehetkJSONist == null){
-	       HashMap<String, String> mapOfAttributesAndValues = (creationTime).asHashMapOfAttributeValue("");
-	       newDCTvalue = mapOfAttributesAndValues.get("value");
-		}
-		
-		// Loome mappingu tokenPosition'ite ja AjavtSona'de vahel
-		// NB! Kuna yhele sisendi token'ile v6ib vastata mitu systeemisisest token'it, 
-		// siis peame ka m2ppingud tegema listi, mitte yksikusse ajavaljendisse
-		HashMap<Integer, List<AjavtSona>> tokenPosToAjavtSonaMap = new HashMap<Integer, List<AjavtSona>>();
-		for (AjavtSona sona : sonad) {
-			if (sona.getTokenPosition() != -1){
-				int key = sona.getTokenPosition();
-				if (!tokenPosToAjavtSonaMap.containsKey(key)){
-					List<AjavtSona> listOfWords = new ArrayList<AjavtSona>(1);
-					tokenPosToAjavtSonaMap.put(key, listOfWords);
-				}
-				(tokenPosToAjavtSonaMap.get(key)).add(sona);
-			} else {
-				throw new Exception(" Unable to map AjavtSona to tokenposition for "+sona.getAlgSona());
-			}
-		}
-		int currentTokenPosition = 1;
-		while (parser.hasNext()) {
-			   JsonParser.Event event = parser.next();
-			   switch(event) {
-			      case START_ARRAY:
-			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
-			    		  jsonKeyPath.push( lastString );
-			    		  jsonGenerator.writeStartArray( lastString );
-			    	  } else {
-			    		  jsonGenerator.writeStartArray();
-			    	  }
-				      lastEvent = event;
-				      lastString = "";
-			    	  break;
-			      case END_ARRAY:
-				      // ------------------------------------------------------------------
-			    	  //   Sõna-järjendi lõpp: märgime, et viimane sõna lõpetas lause
-				      // ------------------------------------------------------------------
-				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals("words")){
-				    	  
-				      }
-				      lastEvent = event;
-				      lastString = "";
-			    	  jsonKeyPath.pop();
-			    	  jsonGenerator.writeEnd();
-			    	  break;
-			      case START_OBJECT:
-			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
-			    		  jsonGenerator.writeStartObject( lastString );
-			    	  } else {
-			    		  jsonGenerator.writeStartObject();
-			    	  }
-				      // ------------------------------------------------------------------
-			    	  //   Kogu dokumendi algus: lisame kasutatud teksti loomise aja
-				      // ------------------------------------------------------------------			    	  
-			    	  if (jsonKeyPath.empty() && newDCTvalue != null){
-			    		  jsonGenerator.write("dct", newDCTvalue );
-			    	  }
-				      // ------------------------------------------------------------------
-			    	  //   Sõna-objekti algus
-				      // ------------------------------------------------------------------
-			    	  if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals("words")){
-				      }
-				      // ------------------------------------------------------------------
-			    	  //   Analüüs-objekti algus
-				      // ------------------------------------------------------------------
-                      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals("analysis")){
-				      }
-				      lastEvent = event;
-				      lastString = "";
-				      break;
-			      case END_OBJECT:
-				      // ------------------------------------------------------------------
-			    	  //   Sõna-objekti lõpp
-				      // ------------------------------------------------------------------
-				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals( "words")){
-				    	  if (tokenText == null){
-				    		  throw new Exception(" Unable to find text form for a word ...");  
-				    	  }
-				    	  Integer positionKey = Integer.valueOf(currentTokenPosition);
-				    	  if (tokenPosToAjavtSonaMap.containsKey( positionKey )){
-				    		  List<AjavtSona> sonadPositsioonil = tokenPosToAjavtSonaMap.get(positionKey);
-					    	  List<WritableTimexForJSON> associatedTimexes = new ArrayList<WritableTimexForJSON>();
-							  HashMap<String, Integer> addedTimexIDs = new HashMap<String, Integer>();
-				    		  for ( AjavtSona sona : sonadPositsioonil ) {
-									// -------------------------------------------------------------------------------
-									//  Kas tegemist on ajav2ljendiga?
-				    			    //  Korjame kokku k6ik token'iga seotud ajavaljendid
-									// -------------------------------------------------------------------------------
-									if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
-										List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
-										List<AjavaljendiKandidaat> 		    	ajavaljendid = sona.getAjavaljendiKandidaadid();
-										for (int i = 0; i < ajavaljendiKandidaatides.size(); i++) {
-											FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(i);
-											AjavaljendiKandidaat ajav = ajavaljendid.get(i);
-											if (ajav.getSemantikaLahendus() != null){
-												HashMap<String, String> mapOfAttributesAndValues =
-														(usePurifiedTimeML) ?
-																(getPurifiedTimeMLAnnotation((ajav.getSemantikaLahendus()))) : 
-																	(((ajav.getSemantikaLahendus())).asHashMapOfAttributeValue(""));
-												if (mapOfAttributesAndValues != null && mapOfAttributesAndValues.containsKey("tid")){
-													//
-													//   NB! Kui tuvastaja tokeniseering erineb sisendi omast (yhele sisendi
-													//  s6nele vastab mitu tuvastaja s6net ), tekib siin oht, et v2ljastame
-													//  yhe ajav2ljendi mitu korda (mitme tuvastaja s6ne korral); Selle 
-													//  v2ltimiseks j2tame ajavaljendite ID-d meelde ja v2ljastame vaid 
-													//  unikaalse ID-ga ajav2ljendid;
-													//
-													String TID = mapOfAttributesAndValues.get("tid");
-													if (!addedTimexIDs.containsKey(TID)){
-														addedTimexIDs.put( TID, 1 );
-														associatedTimexes.add( new WritableTimexForJSON(ajav, mapOfAttributesAndValues, koht) );
-													}
-												}
-											}
-										}
-									}
-				    		  }
-				    		  // Kirjutame k6ik token'iga seotud ajav2ljendid JSON objektideks
-				    		  if (!associatedTimexes.isEmpty()){
-				    			  jsonGenerator.writeStartArray("timexes");
-				    			  for (WritableTimexForJSON writableJSON : associatedTimexes) {
-				    				  writableJSON.writeAsJSONObject( jsonGenerator, usePurifiedTimeML );
-								  }
-				    			  jsonGenerator.writeEnd();
-				    		  }
-				    	  } else {
-				    		  throw new Exception(" Unable to find AjavtSona associated with the word "+tokenText+" at position "+currentTokenPosition+"...");
-				    	  }
-				    	  currentTokenPosition++;
-				    	  tokenText = null;
-				      }
-				      // ------------------------------------------------------------------
-			    	  //   Analüüsi-objekti lõpp
-				      // ------------------------------------------------------------------
-				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals( "analysis")){
-				      }
-				      lastEvent = event;
-				      lastString = "";
-				      jsonGenerator.writeEnd();
-				      break;
-			      case VALUE_FALSE:
-			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
-						 jsonGenerator.write(lastString, false);
-					  } else {
-					     jsonGenerator.write(false);
-					  }
-				      lastEvent = event;
-				      lastString = "";
-				      break;
-			      case VALUE_NULL:
-			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
-					     jsonGenerator.writeNull(lastString);
-				      } else {
-					     jsonGenerator.writeNull();
-					  }
-				      lastEvent = event;
-				      lastString = "";
-				      break;
-			      case VALUE_TRUE:
-			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
-						 jsonGenerator.write(lastString, true);
-					  } else {
-					     jsonGenerator.write(true);
-					  }
-				      lastEvent = event;
-				      lastString = "";
-				      break;
-			      case KEY_NAME:
-			         lastEvent  = event;
-			         lastString = parser.getString();
-			         break;
-			      case VALUE_STRING:
-			    	  if (newDCTvalue != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME && 
-			    			lastString.equalsIgnoreCase( "dct")){
-			    		  // Kui DCT-le on m22ratud uus v22rtus, siis j2tame vana DCT ymberkirjutamata
-			    		  lastEvent  = event;
-					      lastString = parser.getString();
-					      break;
-			    	  }
-			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
-					      jsonGenerator.write(lastString, parser.getString());
-				      } else {
-				    	  jsonGenerator.write(parser.getString());
-				      }
-				      // ---------------------------------------------------
-				      //   Jätame meelde sõna tekstilise kuju ...
-				      // ---------------------------------------------------
-				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals( "words")){
-					     if (lastString != null && lastString.equals("text")){
-					        tokenText = parser.getString();
-					     }			        	 
-				      }
-				      lastEvent  = event;
-				      lastString = parser.getString();
-				      break;
-			      case VALUE_NUMBER:
-			    	 if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
-				    	 if (parser.isIntegralNumber()){
-				    		 jsonGenerator.write(lastString, parser.getLong());
-				    	 } else {
-				    		 jsonGenerator.write(lastString, parser.getBigDecimal());
-				    	 }
-			    	 } else {
-			    		 if (parser.isIntegralNumber()){
-			    			 jsonGenerator.write(parser.getLong());
-			    		 } else {
-			    			 jsonGenerator.write(parser.getBigDecimal());
-			    		 }
-			    	 }
-			         lastEvent  = event;
-			         lastString = "";
-			         break;
-			   }
-		}
-		jsonGenerator.close();
-		inputReader.close();
+		return eraldamiseTulemusVabaMorfiJSON(VabaMorfJSONLint.loe(sisendJSON), sonad, creationTime, usePurifiedTimeML, prettyPrint);
+	}
+	
+	/**
+	 *   Tagastab v&auml;ljundi, kus JSON kujul vabamorfi v2ljundile on lisatud ajav2ljendim2rgendused;
+	 *   sisendiks on tuvastamisel juba parsitud sisendi syndmuste lint (vt {@link VabaMorfJSONLint}).
+	 */
+	public static String eraldamiseTulemusVabaMorfiJSON(VabaMorfJSONLint sisendJSON, List<AjavtSona> sonad, AjaPunkt creationTime, 
+															boolean usePurifiedTimeML, boolean prettyPrint) throws Exception {
+		StringWriter sw = new StringWriter( sisendJSON.getPikkus() * 12 );
+		eraldamiseTulemusVabaMorfiJSON(sisendJSON, sonad, creationTime, usePurifiedTimeML, prettyPrint, sw);
 		return sw.toString();
 	}
 	
+	/**
+	 *   Kirjutab v&auml;ljundvoogu <code>valjund</code> JSON kujul vabamorfi v2ljundi, millele on 
+	 *   lisatud ajav2ljendim2rgendused. Sisendit uuesti ei parsita: v2ljund koostatakse sisendi 
+	 *   syndmuste lindi (vt {@link VabaMorfJSONLint}) p6hjal, lisades s6nadele "timexes" 
+	 *   objektid ning vajadusel dokumendile uue referentsaja ("dct").
+	 */
+	public static void eraldamiseTulemusVabaMorfiJSON(VabaMorfJSONLint sisendJSON, List<AjavtSona> sonad, AjaPunkt creationTime, 
+														boolean usePurifiedTimeML, boolean prettyPrint, Writer valjund) throws Exception {
+		VabaMorfJSONKirjutaja kirjutaja = 
+			new VabaMorfJSONKirjutaja(valjund, sisendJSON.getDCT(), creationTime, usePurifiedTimeML, prettyPrint);
+		kirjutaja.kirjuta(sisendJSON, sonad);
+		kirjutaja.lopeta();
+	}
+	
 
 	/**
 	 *   Lisame implitsiitsed m2rgendid (kui neid leidub) ning sulgeme avatud ajav2ljendi. 
@@ -1421,10 +1458,15 @@ public class JarelTootlus {
 	 *   saab loodava ajapunkti identifikaatoriks "t0";
 	 */
 	public static AjaPunkt formatAsCreationTime(String [] konehetk){
-		AjaPunkt creationTime = new AjaPunkt( TYYP.POINT, new TimeMLDateTimePoint(konehetk) );
-		if (creationTime.getDateTimePoint() != null){
-			(creationTime.getDateTimePoint()).copyInputFieldsToOpenedFields();  // avame k6ik granulaarsused
-		}
+		return formatAsCreationTime( ReferentsAeg.anna(konehetk) );
+	}
+	
+	/**
+	 *   Vormindab etteantud referentsaja kui dokumendi loomise kuupaeva (k6ik granulaarsused
+	 *   on avatud). Kokkuleppeliselt saab loodava ajapunkti identifikaatoriks "t0";
+	 */
+	public static AjaPunkt formatAsCreationTime(ReferentsAeg konehetk){
+		AjaPunkt creationTime = konehetk.looAvatudAjaPunkt();
 		creationTime.setTimex3Attribute("temporalFunction", null);
 		creationTime.setTimex3Attribute("tid", "t0");
 		creationTime.setTimex3Attribute("functionInDocument", "CREATION_TIME");
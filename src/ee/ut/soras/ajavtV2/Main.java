@@ -19,22 +19,38 @@
 package ee.ut.soras.ajavtV2;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.DataInputStream;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
-import java.util.StringTokenizer;
-import java.util.regex.Matcher;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
-import org.joda.time.LocalDateTime;
+import javax.json.Json;
 
+import ee.ut.soras.ajavtV2.mudel.AjavtDokument;
 import ee.ut.soras.ajavtV2.mudel.AjavtSona;
 import ee.ut.soras.ajavtV2.util.FileUtils;
 import ee.ut.soras.ajavtV2.util.LogiPidaja;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.ajavtV2.util.ReegliProfiilija;
+import ee.ut.soras.ajavtV2.util.TuvastamiseStatistika;
+import ee.ut.soras.wrappers.impl.EstyhmmWrapperImpl;
+import ee.ut.soras.wrappers.impl.EstyhmmWrapperPoolImpl;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
 import ee.ut.soras.wrappers.mudel.MorfAnRida;
 
 /**
@@ -65,8 +81,39 @@ public class Main {
 		System.out.println("                          standardv2ljundisse.");
 		System.out.println("  -in  stdin           -- standardsisendist lugemine (vaikimisi); ");
 		System.out.println("       file <fileName> -- sisend loetakse failist <fileName>;");
+		System.out.println("       dir <dirName>   -- pakktootlus: iga kataloogi <dirName> fail on eraldi");
+		System.out.println("                          dokument (formaadis -format);");
+		System.out.println("       jsonl <fileName> -- pakktootlus: faili <fileName> iga rida on eraldi");
+		System.out.println("                          vabamorfi JSON dokument (oma referentsajaga 'dct');");
 		System.out.println("  -out stdout          -- standardv2ljundisse kirjutamine (vaikimisi);");
 		System.out.println("       file <fileName> -- v2ljund kirjutatakse faili <fileName>;");
+		System.out.println("       dir <dirName>   -- pakktootlusel kirjutatakse iga dokumendi tulemus");
+		System.out.println("                          kataloogi <dirName> sisendfailiga sama nime alla;");
+		System.out.println("  -threads <n>         -- pakktootlusel (ja teenuse rezhiimis) paralleelselt");
+		System.out.println("                          t88tavate l6imede arv (vaikimisi protsessorite arv);");
+		System.out.println("  -server              -- teenuse rezhiim: loeb standardsisendist JSON-ridadena");
+		System.out.println("                          p2ringuid {\"id\":..,\"dct\":..,\"format\":..,\"input\":..},");
+		System.out.println("                          t88tleb neid paralleelselt ja kirjutab vastused ");
+		System.out.println("                          {\"id\":..,\"result\":..} valmimise j2rjekorras");
+		System.out.println("                          standardv2ljundisse;");
+		System.out.println("  -max_pending <n>     -- teenuse rezhiimis korraga pooleliolevate p2ringute");
+		System.out.println("                          arv (vaikimisi 4 * l6imede arv);");
+		System.out.println("  -http [host:]port    -- HTTP teenuse rezhiim: POST /text, /t3olp, /json ");
+		System.out.println("                          (referentsaeg parameetrina ?dct=...), GET /health ");
+		System.out.println("                          ja /metrics; vaikimisi host on localhost;");
+		System.out.println("  -max_request_bytes <n> -- HTTP p2ringu keha maksimaalne suurus ");
+		System.out.println("                          (vaikimisi 10 MB);");
+		System.out.println("  -stream [<n>]        -- JSON sisendi voogt88tlus: sisend t88deldakse ");
+		System.out.println("                          <n> lause (vaikimisi "+VoogTuvastaja.VAIKIMISI_TUUMA_LAUSEID+") kaupa, lisades ");
+		System.out.println("                          kummalegi poole "+VoogTuvastaja.VAIKIMISI_KONTEKSTI_LAUSEID+" lauset konteksti,");
+		System.out.println("                          ning valmis laused kirjutatakse kohe v2ljundisse;");
+		System.out.println("                          (suurte sisendite jaoks: m2lukasutus ei s6ltu ");
+		System.out.println("                          sisendi pikkusest; ainult -in stdin/file);");
+		System.out.println("  -split_doc [<n>]     -- yhe suure dokumendi t88tlemisel eraldatakse ");
+		System.out.println("                          ajav2ljendikandidaadid lausepiiridelt jagatud ");
+		System.out.println("                          kildude (v2hemalt <n> s6na, vaikimisi "+AjaTuvastaja.VAIKIMISI_KILLU_MIN_SONU+") kaupa");
+		System.out.println("                          paralleelselt (-threads l6imes); tulemus on sama,");
+		System.out.println("                          mis tervikuna t88tlemisel;");
 		System.out.println();
 		System.out.println("   NB! Eeldatakse, et sisend on alati UTF-8 kodeeringus, v2ljundisse ");
 		System.out.println("  kirjutatav sisu on samuti alati UTF-8 kodeeringus. ");
@@ -74,10 +121,39 @@ public class Main {
 		System.out.println(" Muud t2psustused:");
 		System.out.println("  -r <rulesFile> -- teistsuguse reeglifaili kasutamine;");
 		System.out.println("                    (vaikimisi on failiks 'reeglid.xml')");
+		System.out.println("                    Kui reeglifaili korval on sellest loodud reeglikomplekt");
+		System.out.println("                    (<rulesFile>.bundle, vt 'ant compile-rules'), loetakse");
+		System.out.println("                    reeglid sealt; v6ib anda ka otse komplekti faili;");
 		System.out.println("  -TimeML        -- v2ljund peaks olema rangelt TimeML-ile");
 		System.out.println("                    vastav (TimeML-i alamosa);");
 		System.out.println("  -unesc_DBS     -- sisendis kahekordsete \\ m2rkide asendamine yhekordsetega;");
 		System.out.println("  -pretty_print  -- JSON-i v2ljastamine ilusti joondatult;");
+		System.out.println("  -matcher fsm       -- fraasimustrite sobitamine, iga muster eraldi ");
+		System.out.println("                        automaadina (vaikimisi);");
+		System.out.println("          automaton  -- fraasimustrite sobitamine k6igi mustrite yhise automaadiga,");
+		System.out.println("                        milles mustrite yhised algusosad on liidetud;");
+		System.out.println("  -word_cache <n>    -- s6namallide kontrolli tulemuste jagamine dokumentide");
+		System.out.println("                        vahel, meelde j2etakse kuni <n> s6nakuju tulemused;");
+		System.out.println("  -norm_cache <n>    -- kontekstist s6ltumatute ajav2ljendite normaliseerimise");
+		System.out.println("                        tulemuste jagamine dokumentide vahel, meelde j2etakse");
+		System.out.println("                        kuni <n> tulemust;");
+		System.out.println("  -stats [<fileName>] -- tuvastamise statistika kogumine: etappide kestused ja");
+		System.out.println("                        eraldatud m2lu, kandidaatide arvud, reeglite tabamused;");
+		System.out.println("                        t88 l6pus kirjutatakse statistika JSON kujul faili");
+		System.out.println("                        <fileName> (vaikimisi standardveavoogu); statistika on");
+		System.out.println("                        kogumise ajal saadaval ka JMX kaudu;");
+		System.out.println("  -profile [<fileName>] -- tuvastamisreeglite profileerimine: t88 l6pus kirjutatakse");
+		System.out.println("                        faili <fileName> (vaikimisi standardveavoogu) kulunud aja");
+		System.out.println("                        j2rgi j2rjestatud fraasimustrid, s6namallid, negatiivsed");
+		System.out.println("                        mustrid ja filtrid (koos reanumbritega reeglifailis) ning");
+		System.out.println("                        reeglid, mis ei eraldanud yhtki kandidaati;");
+		System.out.println("  -analyser \"<cmd>\"  -- morf analysaatori k2sk puhta teksti (-format text)");
+		System.out.println("                        analyysiks (vaikimisi '"+AjaTuvastaja.VAIKIMISI_ANALYSAATOR+"');");
+		System.out.println("  -analyser_pool <n> -- morf analysaatorit ei k2ivitata iga dokumendi jaoks");
+		System.out.println("                        uuesti, vaid hoitakse k2igus <n> pysivat protsessi;");
+		System.out.println("                        protsessid k2ivitatakse programmi alguses ning kui");
+		System.out.println("                        analysaator ei v2ljasta analyysi ridahaaval (puhverdab");
+		System.out.println("                        v2ljundit), l6petatakse t88 kohe veateatega;");
 		System.out.println();
 		System.out.println(" DEBUG lipud:");
 		System.out.println("  -par_debug -- osaline DEBUG valjund (esialgne tekst, kus on m2rgendatud");
@@ -130,6 +206,22 @@ public class Main {
 		boolean unescapeDoubleBackSlashes = false;
 		boolean prettyPrintJson           = false;
 		boolean pyVabamorfProcessing      = false;
+		boolean serverMode                = false;
+		int maxPending                    = -1;
+		String httpAddress                = null;
+		int maxRequestBytes               = 10 * 1024 * 1024;
+		int streamSentences               = -1;
+		int splitDocWords                 = -1;
+		boolean useSharedAutomaton        = false;
+		int wordCacheSize                 = 0;
+		int normCacheSize                 = 0;
+		boolean collectStats              = false;
+		String statsFile                  = null;
+		boolean profileRules              = false;
+		String profileFile                = null;
+		int threads                       = Runtime.getRuntime().availableProcessors();
+		String analyserCmd                = null;
+		int analyserProcesses             = 0;
 		if (args.length > 0){
 			for (int i = 0; i < args.length; i++) {
 				// Ainult "puhta" TimeML-i v2ljastamine (yritame v2hemalt) ...
@@ -157,11 +249,31 @@ public class Main {
 				if (args[i].matches("(?i)(-){1,2}pyvabamorf")){
 					pyVabamorfProcessing = true;
 				}
+				if (args[i].matches("(?i)(-){1,2}server")){
+					serverMode = true;
+				}
+				if (args[i].matches("-max_pending")  &&  i+1<args.length  &&  args[i+1].matches("[1-9][0-9]*")){
+					maxPending = Integer.parseInt(args[i+1]);
+				}
+				if (args[i].matches("-http")  &&  i+1<args.length  &&  args[i+1].matches("([^:]+:)?[0-9]+")){
+					httpAddress = args[i+1];
+				}
+				if (args[i].matches("-max_request_bytes")  &&  i+1<args.length  &&  args[i+1].matches("[1-9][0-9]*")){
+					maxRequestBytes = Integer.parseInt(args[i+1]);
+				}
+				if (args[i].matches("(?i)(-){1,2}stream")){
+					streamSentences = (i+1<args.length && args[i+1].matches("[1-9][0-9]*")) ? 
+							(Integer.parseInt(args[i+1])) : (VoogTuvastaja.VAIKIMISI_TUUMA_LAUSEID);
+				}
+				if (args[i].matches("(?i)(-){1,2}split_doc")){
+					splitDocWords = (i+1<args.length && args[i+1].matches("[1-9][0-9]*")) ? 
+							(Integer.parseInt(args[i+1])) : (AjaTuvastaja.VAIKIMISI_KILLU_MIN_SONU);
+				}
 				// Sisendi allikas
 				if (args[i].matches("-in")  &&  i+1<args.length){
-					if (args[i+1].matches("(stdin|file)")){
+					if (args[i+1].matches("(stdin|file|dir|jsonl)")){
 						inputType = args[i+1];
-						if (inputType.equalsIgnoreCase("file")){
+						if (!inputType.equalsIgnoreCase("stdin")){
 							if (i+2<args.length){
 								inputFile = args[i+2];
 							} else {
@@ -176,9 +288,9 @@ public class Main {
 				}
 				// V2ljundi allikas
 				if (args[i].matches("-out")  &&  i+1<args.length){
-					if (args[i+1].matches("(stdout|file)")){
+					if (args[i+1].matches("(stdout|file|dir)")){
 						outputType = args[i+1];
-						if (outputType.equalsIgnoreCase("file")){
+						if (!outputType.equalsIgnoreCase("stdout")){
 							if (i+2<args.length){
 								outputFile = args[i+2];
 							} else {
@@ -212,13 +324,114 @@ public class Main {
 				if (args[i].matches("(?i)(-){1,2}(pretty_?print)")){
 					prettyPrintJson = true;
 				}
+				// Fraasimustrite sobitamise mootor
+				if (args[i].matches("-matcher")  &&  i+1<args.length  &&  args[i+1].matches("(fsm|automaton)")){
+					useSharedAutomaton = args[i+1].equals("automaton");
+				}
+				// Dokumentidevaheline s6namallide tulemuste vahem2lu
+				if (args[i].matches("-word_cache")  &&  i+1<args.length  &&  args[i+1].matches("[0-9]+")){
+					wordCacheSize = Integer.parseInt(args[i+1]);
+				}
+				// Dokumentidevaheline normaliseerimise tulemuste vahem2lu
+				if (args[i].matches("-norm_cache")  &&  i+1<args.length  &&  args[i+1].matches("[0-9]+")){
+					normCacheSize = Integer.parseInt(args[i+1]);
+				}
+				// Tuvastamise statistika
+				if (args[i].matches("(?i)(-){1,2}stats")){
+					collectStats = true;
+					statsFile = (i+1<args.length && !args[i+1].startsWith("-") && 
+					             !args[i+1].matches("[0-9X]{4}-[0-9X]{2}-[0-9X]{2}T[0-9X]{2}:[0-9X]{2}")) ? (args[i+1]) : (null);
+				}
+				// Tuvastamisreeglite profileerimine
+				if (args[i].matches("(?i)(-){1,2}profile")){
+					profileRules = true;
+					profileFile = (i+1<args.length && !args[i+1].startsWith("-") && 
+					               !args[i+1].matches("[0-9X]{4}-[0-9X]{2}-[0-9X]{2}T[0-9X]{2}:[0-9X]{2}")) ? (args[i+1]) : (null);
+				}
+				// Pakktootluse l6imede arv
+				if (args[i].matches("-threads")  &&  i+1<args.length  &&  args[i+1].matches("[1-9][0-9]*")){
+					threads = Integer.parseInt(args[i+1]);
+				}
+				// Morf analysaatori k2sk ning pysivate protsesside kogum
+				if (args[i].matches("-analyser")  &&  i+1<args.length){
+					analyserCmd = args[i+1];
+				}
+				if (args[i].matches("-analyser_pool")  &&  i+1<args.length  &&  args[i+1].matches("[1-9][0-9]*")){
+					analyserProcesses = Integer.parseInt(args[i+1]);
+				}
 			}
 		}
 		// ==================================================
+		//   *) HTTP teenuse rezhiim
+		// ==================================================
+		if (httpAddress != null){
+			AjaTuvastaja tuvastaja = looTuvastaja(rulesFile, useSharedAutomaton, wordCacheSize, normCacheSize, 
+					collectStats, profileRules, analyserCmd, analyserProcesses);
+			String host = (httpAddress.indexOf(':') > -1) ? (httpAddress.substring(0, httpAddress.lastIndexOf(':'))) : ("localhost");
+			int port    = Integer.parseInt( httpAddress.substring(httpAddress.lastIndexOf(':') + 1) );
+			try {
+				final HttpTeenus teenus = new HttpTeenus(tuvastaja, new InetSocketAddress(host, port), threads, 
+						(maxPending > 0) ? (maxPending) : (4 * threads), maxRequestBytes, referentsAeg);
+				teenus.kaivita();
+				final String teenuseStatistikaFail = statsFile;
+				final String teenuseProfiiliFail = profileFile;
+				final AjaTuvastaja teenuseTuvastaja = tuvastaja;
+				Runtime.getRuntime().addShutdownHook( new Thread() {
+					public void run() {
+						teenus.peata(1);
+						kirjutaStatistika(teenuseTuvastaja, teenuseStatistikaFail);
+						kirjutaProfiil(teenuseTuvastaja, teenuseProfiiliFail);
+					}
+				});
+				System.err.println("Ajavt HTTP teenus kuulab aadressil http://"+host+":"+(teenus.getAadress()).getPort()+"/");
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.exit(-1);
+			}
+			return;
+		}
+		// ==================================================
+		//   *) Teenuse rezhiim: JSON-ridade p2ringud stdin-ist
+		// ==================================================
+		if (serverMode){
+			AjaTuvastaja tuvastaja = looTuvastaja(rulesFile, useSharedAutomaton, wordCacheSize, normCacheSize, 
+					collectStats, profileRules, analyserCmd, analyserProcesses);
+			try {
+				JSONRidadeTeenus teenus = new JSONRidadeTeenus(tuvastaja, threads, 
+						(maxPending > 0) ? (maxPending) : (4 * threads), referentsAeg, allowOnlyPureTimeML);
+				teenus.teeninda(System.in, System.out);
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.exit(-1);
+			}
+			kirjutaStatistika(tuvastaja, statsFile);
+			kirjutaProfiil(tuvastaja, profileFile);
+			System.exit(0);
+		}
+		// ==================================================
+		//   *) Pakktootlus: kataloog v6i JSON-ridade fail
+		// ==================================================
+		if (inputType.equalsIgnoreCase("dir") || inputType.equalsIgnoreCase("jsonl")){
+			AjaTuvastaja tuvastaja = looTuvastaja(rulesFile, useSharedAutomaton, wordCacheSize, normCacheSize, 
+					collectStats, profileRules, analyserCmd, analyserProcesses);
+			boolean koikOnnestusid = false;
+			try {
+				koikOnnestusid = tootleDokumentidePakk(tuvastaja, inputType, inputFile, outputType, outputFile, 
+						format, referentsAeg, allowOnlyPureTimeML, unescapeDoubleBackSlashes, threads);
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.exit(-1);
+			}
+			kirjutaStatistika(tuvastaja, statsFile);
+			kirjutaProfiil(tuvastaja, profileFile);
+			System.exit( (koikOnnestusid) ? (0) : (1) );
+		}
+		// ==================================================
 		//   *) Pyvabamorfi JSON rezhiim
 		// ==================================================s		
 		if (pyVabamorfProcessing){
-			AjaTuvastaja tuvastaja = new AjaTuvastaja();
+			AjaTuvastaja tuvastaja = looTuvastaja(rulesFile, useSharedAutomaton, wordCacheSize, normCacheSize, 
+					collectStats, profileRules, analyserCmd, analyserProcesses);
 			Pattern emptyString = Pattern.compile("^\\s*$");
 			try {
 				if (rulesFile != null){
@@ -246,6 +459,27 @@ public class Main {
 				e.printStackTrace();
 				System.exit(-1);
 			}
+			kirjutaStatistika(tuvastaja, statsFile);
+			kirjutaProfiil(tuvastaja, profileFile);
+			System.exit(0);
+		}
+		// ==================================================
+		//   *) JSON sisendi voogt88tlus
+		// ==================================================
+		if (streamSentences > 0 && format.equalsIgnoreCase("json") && 
+				(inputType.equalsIgnoreCase("stdin") || inputType.equalsIgnoreCase("file"))){
+			AjaTuvastaja tuvastaja = looTuvastaja(rulesFile, useSharedAutomaton, wordCacheSize, normCacheSize, 
+					collectStats, profileRules, analyserCmd, analyserProcesses);
+			try {
+				tootleVoona(tuvastaja, streamSentences, inputType, inputFile, outputType, outputFile, 
+						(referentsAeg != null) ? (referentsAeg) : (looSonePohjalReferentsAeg(null)), 
+						allowOnlyPureTimeML, prettyPrintJson);
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.exit(-1);
+			}
+			kirjutaStatistika(tuvastaja, statsFile);
+			kirjutaProfiil(tuvastaja, profileFile);
 			System.exit(0);
 		}
 		// --------------------------------------------------------------------
@@ -287,24 +521,31 @@ public class Main {
 		if (referentsAeg == null){
 			referentsAeg = looSonePohjalReferentsAeg(null);
 		}
-		AjaTuvastaja tuvastaja = new AjaTuvastaja();
-		if (rulesFile != null){
-			tuvastaja.setReegliFail(rulesFile);
+		AjaTuvastaja tuvastaja = looTuvastaja(rulesFile, useSharedAutomaton, wordCacheSize, normCacheSize, 
+				collectStats, profileRules, analyserCmd, analyserProcesses);
+		if (splitDocWords > 0){
+			tuvastaja.setKildudeTaitja(new ForkJoinPool(threads), splitDocWords);
 		}
 		// T88 tulemus (teksti s6nad, mille kylge on seotud tuvastatud ajav2ljendid)
 		List<AjavtSona> tulemAjavtSonad = null;
+		VabaMorfJSONLint jsonLint = null;
 		try {
 			if ( format.equalsIgnoreCase("text") ){
 				tulemAjavtSonad = tuvastaja.tuvastaAjavaljendidTekstis(referentsAeg, sisendSone, null, allowOnlyPureTimeML);
 			} else if ( format.equalsIgnoreCase("t3olp") ){
 				tulemAjavtSonad = tuvastaja.tuvastaAjavaljendidT3OLP(referentsAeg, sisendSone, allowOnlyPureTimeML, fullDebug);
 			} else if ( format.equalsIgnoreCase("json") ){
-				tulemAjavtSonad = tuvastaja.tuvastaAjavaljendidVabamorfJSON(referentsAeg, sisendSone, allowOnlyPureTimeML, false);
+				// Sisend parsitakse yks kord; sama linti kasutatakse ka v2ljundi kirjutamisel
+				jsonLint = VabaMorfJSONLint.loe(sisendSone);
+				tulemAjavtSonad = tuvastaja.tuvastaAjavaljendidVabamorfJSON(referentsAeg, jsonLint, allowOnlyPureTimeML, false);
 			}	
 		} catch (Exception e) {
 			e.printStackTrace();
 			System.exit(-1);
 		}
+		if (tuvastaja.getKildudeTaitja() != null){
+			(tuvastaja.getKildudeTaitja()).shutdown();
+		}
 		
 		// --------------------------------------------------------------------
 		//   *) V2ljund
@@ -313,35 +554,46 @@ public class Main {
 			if (outputType.equalsIgnoreCase("stdout")){
 				PrintStream ps = new PrintStream(System.out, false, "UTF-8");
 				if ( format.equalsIgnoreCase("text") ){
-					ps.println( 
-							JarelTootlus.eraldamiseTulemusPretty(
-							tulemAjavtSonad, sisendSone, allowOnlyPureTimeML, 
-							JarelTootlus.formatAsCreationTime(referentsAeg)) );				
+					// M2rgendatud tekst kirjutatakse otse v2ljundisse, tervikuna m2llu koostamata
+					Writer kirjutaja = new BufferedWriter(new OutputStreamWriter(ps, "UTF-8"), 1 << 16);
+					JarelTootlus.eraldamiseTulemusPretty(tulemAjavtSonad, sisendSone, 
+							allowOnlyPureTimeML, JarelTootlus.formatAsCreationTime(referentsAeg), kirjutaja);
+					kirjutaja.write( System.getProperty("line.separator") );
+					kirjutaja.flush();
 				} else if ( format.equalsIgnoreCase("t3olp") ){
 					ps.println( JarelTootlus.eraldamiseTulemusT3OLPEraldiReal( 
 								sisendSone, tulemAjavtSonad,
 							    JarelTootlus.formatAsCreationTime(referentsAeg), false, false) );
 				} else if ( format.equalsIgnoreCase("json") ){
-					ps.println( JarelTootlus.eraldamiseTulemusVabaMorfiJSON(
-								sisendSone, tulemAjavtSonad, 
-								JarelTootlus.formatAsCreationTime(referentsAeg), allowOnlyPureTimeML, prettyPrintJson));
+					Writer kirjutaja = new BufferedWriter(new OutputStreamWriter(ps, "UTF-8"), 1 << 16);
+					JarelTootlus.eraldamiseTulemusVabaMorfiJSON(jsonLint, tulemAjavtSonad, 
+							JarelTootlus.formatAsCreationTime(referentsAeg), allowOnlyPureTimeML, prettyPrintJson, kirjutaja);
+					kirjutaja.write( System.getProperty("line.separator") );
+					kirjutaja.flush();
 				}
 				ps.flush();
 				ps.close();
 			} else if (outputType.equalsIgnoreCase("file") && outputFile != null){
 				if ( format.equalsIgnoreCase("text") ){
-					FileUtils.printIntoFile( 
+					Writer kirjutaja = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8"), 1 << 16);
+					try {
 						JarelTootlus.eraldamiseTulemusPretty(tulemAjavtSonad, sisendSone, 
-								allowOnlyPureTimeML, JarelTootlus.formatAsCreationTime(referentsAeg)), 
-									"UTF-8", outputFile);
+								allowOnlyPureTimeML, JarelTootlus.formatAsCreationTime(referentsAeg), kirjutaja);
+					} finally {
+						kirjutaja.close();
+					}
 				} else if ( format.equalsIgnoreCase("t3olp") ){
 					FileUtils.printIntoFile(
 						JarelTootlus.eraldamiseTulemusT3OLPEraldiReal( sisendSone, tulemAjavtSonad, 
 								JarelTootlus.formatAsCreationTime(referentsAeg), false, false), "UTF-8", outputFile);
 				} else if ( format.equalsIgnoreCase("json") ){
-					FileUtils.printIntoFile( JarelTootlus.eraldamiseTulemusVabaMorfiJSON(
-							sisendSone, tulemAjavtSonad, 
-								JarelTootlus.formatAsCreationTime(referentsAeg), allowOnlyPureTimeML, prettyPrintJson), "UTF-8", outputFile);
+					Writer kirjutaja = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8"), 1 << 16);
+					try {
+						JarelTootlus.eraldamiseTulemusVabaMorfiJSON(jsonLint, tulemAjavtSonad, 
+								JarelTootlus.formatAsCreationTime(referentsAeg), allowOnlyPureTimeML, prettyPrintJson, kirjutaja);
+					} finally {
+						kirjutaja.close();
+					}
 				}
 			}
 			// -------------------------
@@ -359,6 +611,8 @@ public class Main {
 			e.printStackTrace();
 			System.exit(-1);
 		}
+		kirjutaStatistika(tuvastaja, statsFile);
+		kirjutaProfiil(tuvastaja, profileFile);
 		//System.out.println( inputType );
 		//System.out.println( inputFile );
 		//System.out.println( outputType );
@@ -367,125 +621,211 @@ public class Main {
 	
 	
 	/**
-	 *    Loob etteantud sisends6ne p6hjal referentsaja: granulaarsuste <i>aasta, kuu, kuupaev,
-	 *    tund, minut</i> vaartuste j2rjendi. Kui sisends6ne ei rahulda regulaaravaldisi 
-	 *    <code>/[0-9X]{4}-[0-9X]{2}-[0-9X]{2}T[0-9X]{2}:[0-9X]{2}/</code> või
-	 *    <code>/[0-9X]{4}-[0-9X]{2}-[0-9X]{2}/</code> , tagastatakse null.
-	 *    Kui sisends6ne on null, luuakse referentsaja j2rjend minuti-t2psusega hetkeaja p6hjal.
-	 *    <br><br> 
-	 *    Tagastatud j2rjendis on granulaarsuste vaartused j2rjekorras 
-	 *    <i>aasta, kuu, kuupaev, tund, minut</i>. 
+	 *    Loob etteantud sisends6ne p6hjal referentsaja; vt 
+	 *    {@link ReferentsAjaParsija#looSonePohjalReferentsAeg(String)}.
 	 */
 	public static String[] looSonePohjalReferentsAeg(String sone){
-		if ( sone != null ){
-			if ( sone.matches("[0-9X]{4}-[0-9X]{2}-[0-9X]{2}T[0-9X]{2}:[0-9X]{2}") ){
-				// 1) Kui sisends6ne vastab etteantud mustrile
-				String[] kalendriValjadeVaartused = new String [5];
-				int j = 0;
-				boolean seenXXXvalues   = false;
-				StringTokenizer tokens1 = new StringTokenizer(sone, "-:T");
-				while (tokens1.hasMoreTokens()) {
-					String s = (String) tokens1.nextToken();
-					if (j < kalendriValjadeVaartused.length){
-						kalendriValjadeVaartused[j] = s;
-					}
-					if (s.matches("X+")){
-						seenXXXvalues = true;
-					} else {
-						if (seenXXXvalues){
-							// Kui on l2bisegi numbrid ja XX-v22rtused, on tegemist mitte-
-							// koosk6lalise  sisendajaga:   parandame   numbrid   XX-ideks
-							kalendriValjadeVaartused[j] = "XX";
+		return ReferentsAjaParsija.looSonePohjalReferentsAeg(sone);
+	}
+	
+	/**
+	 *    Otsib JSON sisends6nest referentsaja v6tme ja v22rtuse; vt 
+	 *    {@link ReferentsAjaParsija#leiaJSONSonestReferentsAeg(String)}.
+	 */
+	public static String[] leiaJSONSonestReferentsAeg(String sone){
+		return ReferentsAjaParsija.leiaJSONSonestReferentsAeg(sone);
+	}
+	
+	/**
+	 *    Pakktootlus: tuvastab ajav2ljendid kataloogi <tt>inputPath</tt> failides (<tt>inputType == "dir"</tt>;
+	 *   iga fail on formaadis <tt>format</tt>) v6i JSON-ridade faili <tt>inputPath</tt> ridades 
+	 *   (<tt>inputType == "jsonl"</tt>; iga rida on vabamorfi JSON dokument), t88deldes dokumente 
+	 *   paralleelselt <tt>threads</tt> l6imes.
+	 *   <br><br>
+	 *   Tulemused kirjutatakse sisendi j2rjekorras: <tt>outputType == "dir"</tt> korral iga dokumendi 
+	 *   tulemus kataloogi <tt>outputPath</tt> eraldi faili (sisendfailiga sama nimi v6i JSON-ridade korral 
+	 *   rea number), muul juhul j2rjest standardv2ljundisse v6i faili (JSON-ridade korral iga tulemus 
+	 *   eraldi real). Eba6nnestunud dokumendi kohta kirjutatakse veateade standardveav2ljundisse ning 
+	 *   JSON-ridade korral v2ljundisse rida kujul <tt>{"id":...,"error":...}</tt>.
+	 *   <br><br>
+	 *   Tagastab <tt>true</tt>, kui k6igi dokumentide t88tlemine 6nnestus.
+	 */
+	private static boolean tootleDokumentidePakk(AjaTuvastaja tuvastaja, 
+												 String inputType, String inputPath, 
+												 String outputType, String outputPath, 
+												 String format, final String [] referentsAeg,
+												 boolean allowOnlyPureTimeML, 
+												 final boolean unescapeDoubleBackSlashes,
+												 int threads) throws Exception {
+		final boolean jsonRead = inputType.equalsIgnoreCase("jsonl");
+		final String dokumentideFormaat = (jsonRead) ? ("json") : (format);
+		Iterator<AjavtDokument> dokumendid = null;
+		if (jsonRead){
+			final BufferedReader lugeja = new BufferedReader(
+					new InputStreamReader(new FileInputStream(inputPath), "UTF-8"));
+			dokumendid = new Iterator<AjavtDokument>() {
+				private String jargmineRida = null;
+				private int reaNr = 0;
+				private boolean sisendLopp = false;
+				public boolean hasNext() {
+					try {
+						while (jargmineRida == null){
+							String rida = (sisendLopp) ? (null) : (lugeja.readLine());
+							if (rida == null){
+								if (!sisendLopp){
+									lugeja.close();
+									sisendLopp = true;
+								}
+								return false;
+							}
+							reaNr++;
+							if (rida.trim().length() > 0){
+								jargmineRida = rida;
+							}
 						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
 					}
-					if (j < kalendriValjadeVaartused.length){
-						j++;
-					}
+					return true;
 				}
-				return kalendriValjadeVaartused;				
-			} else if ( sone.matches("^[0-9X]{4}-[0-9X]{2}-[0-9X]{2}$") ){
-				// 2) Kui sisends6ne vastab etteantud mustrile
-				String[] kalendriValjadeVaartused = new String [5];
-				int j = 0;
-				boolean seenXXXvalues   = false;
-				StringTokenizer tokens2 = new StringTokenizer(sone, "-");
-				while (tokens2.hasMoreTokens()) {
-					String s = (String) tokens2.nextToken();
-					if (j < kalendriValjadeVaartused.length){
-						kalendriValjadeVaartused[j] = s;
+				public AjavtDokument next() {
+					if (!hasNext()){
+						throw new NoSuchElementException();
 					}
-					if (s.matches("X+")){
-						seenXXXvalues = true;
-					} else {
-						if (seenXXXvalues){
-							// Kui on l2bisegi numbrid ja XX-v22rtused, on tegemist mitte-
-							// koosk6lalise  sisendajaga:   parandame   numbrid   XX-ideks
-							kalendriValjadeVaartused[j] = "XX";
+					String sisend = looDokumendiSisend(jargmineRida, unescapeDoubleBackSlashes);
+					jargmineRida = null;
+					return looDokument(String.valueOf(reaNr), dokumentideFormaat, sisend, referentsAeg);
+				}
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		} else {
+			File [] failid = (new File(inputPath)).listFiles();
+			if (failid == null){
+				throw new IOException("Kataloogi "+inputPath+" ei 6nnestunud lugeda.");
+			}
+			Arrays.sort(failid);
+			final Iterator<File> failideIteraator = (Arrays.asList(failid)).iterator();
+			dokumendid = new Iterator<AjavtDokument>() {
+				private File jargmineFail = null;
+				public boolean hasNext() {
+					while (jargmineFail == null && failideIteraator.hasNext()){
+						File fail = failideIteraator.next();
+						if (fail.isFile()){
+							jargmineFail = fail;
 						}
 					}
-					if (j < kalendriValjadeVaartused.length){
-						j++;
+					return (jargmineFail != null);
+				}
+				public AjavtDokument next() {
+					if (!hasNext()){
+						throw new NoSuchElementException();
+					}
+					File fail = jargmineFail;
+					jargmineFail = null;
+					String sisend = null;
+					try {
+						sisend = looDokumendiSisend( readInputFromFile(fail.getPath()), unescapeDoubleBackSlashes );
+					} catch (Exception e) {
+						AjavtDokument dokument = new AjavtDokument(fail.getName(), dokumentideFormaat, null, referentsAeg);
+						dokument.setViga(e);
+						return dokument;
 					}
+					return looDokument(fail.getName(), dokumentideFormaat, sisend, referentsAeg);
 				}
-				// Viimased (kellaaja osa) ongi selle mustri puhul teadmata
-				kalendriValjadeVaartused[3] = "XX";
-				kalendriValjadeVaartused[4] = "XX";
-				return kalendriValjadeVaartused;	
-			}
-			return null;
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+		boolean koikOnnestusid = true;
+		boolean failiValjund = outputType.equalsIgnoreCase("file");
+		PrintStream ps = null;
+		if (!outputType.equalsIgnoreCase("dir")){
+			ps = (failiValjund) ? 
+					(new PrintStream(new FileOutputStream(outputPath), false, "UTF-8")) : 
+					(new PrintStream(System.out, false, "UTF-8"));
 		} else {
-			// 2) Kui sisends6ne puudub v6i ei vasta etteantud mustrile, loome uue
-			// referentsaja, milleks saab hetkeaeg
-			LocalDateTime hetkeAeg = new LocalDateTime();
-			String[] kalendriValjadeVaartused = new String [5];
-			kalendriValjadeVaartused[0] = String.valueOf( hetkeAeg.getYear() );
-			kalendriValjadeVaartused[1] = String.valueOf( hetkeAeg.getMonthOfYear() );
-			kalendriValjadeVaartused[2] = String.valueOf( hetkeAeg.getDayOfMonth() );
-			kalendriValjadeVaartused[3] = String.valueOf( hetkeAeg.getHourOfDay() );
-			kalendriValjadeVaartused[4] = String.valueOf( hetkeAeg.getMinuteOfHour() );
-			for (int i = 1; i < kalendriValjadeVaartused.length; i++) {
-				if (kalendriValjadeVaartused[i].length() == 1){
-					kalendriValjadeVaartused[i] = "0"+kalendriValjadeVaartused[i];
+			(new File(outputPath)).mkdirs();
+		}
+		ForkJoinPool taitja = new ForkJoinPool(threads);
+		try {
+			Iterator<AjavtDokument> tulemused = 
+				tuvastaja.tuvastaAjavaljendidDokumentides(dokumendid, taitja, 4 * threads, allowOnlyPureTimeML, true);
+			while (tulemused.hasNext()) {
+				AjavtDokument dokument = tulemused.next();
+				if (!dokument.onnestus()){
+					koikOnnestusid = false;
+					System.err.println("Viga dokumendi "+dokument.getId()+" t88tlemisel: "+dokument.getViga());
+					if (jsonRead && ps != null){
+						ps.println( (Json.createObjectBuilder().add("id", dokument.getId()).add("error", 
+								String.valueOf(dokument.getViga()))).build().toString() );
+					}
+				} else if (ps != null){
+					ps.println( dokument.getValjund() );
+				} else {
+					FileUtils.printIntoFile( dokument.getValjund(), "UTF-8", 
+							(new File(outputPath, dokument.getId())).getPath() );
+				}
+			}
+		} finally {
+			taitja.shutdown();
+			if (ps != null){
+				ps.flush();
+				// Standardv2ljundit (mille ymber ps on loodud) ei sulge
+				if (failiValjund){
+					ps.close();
 				}
 			}
-			return kalendriValjadeVaartused;
 		}
+		return koikOnnestusid;
 	}
 	
-	
-	static Pattern jsonDCT = Pattern.compile("(?i)\"(dct)\"\\s*:\\s*\"([^\"]+)\"");
+	/**
+	 *    Loob pakktootluse dokumendi; JSON dokumendi korral eelistatakse dokumendis endas antud 
+	 *   referentsaega (v6ti "dct", loetakse t88tlemisel JSON-i syndmuste lindist) k2surealt 
+	 *   antud referentsajale.
+	 */
+	private static AjavtDokument looDokument(String id, String format, String sisend, String [] referentsAeg){
+		return new AjavtDokument(id, format, sisend, null, referentsAeg);
+	}
 	
 	/**
-	 *    Otsib etteantud vabamorfi JSON kujul sisends6nest referentsaega: v6tit "dct",
-	 *    millega on seotud v22rtus-s6ne;
-	 *    <br><br>
-	 *    Kui leiab otsitava, tagastab s6nede massiivi, kus esimene element on v6tme string
-	 *    ja teine element v22rtuse string; vastasel juhul tagastab <tt>null</tt>;
+	 *    Voogt88tlus: loeb vabamorfi JSON sisendi standardsisendist v6i failist <tt>inputPath</tt> ning
+	 *   kirjutab tulemuse standardv2ljundisse v6i faili <tt>outputPath</tt> j2rk-j2rgult, t88deldes 
+	 *   sisendit <tt>tuumaLaused</tt> lause kaupa (vt {@link VoogTuvastaja}).
 	 */
-	public static String[] leiaJSONSonestReferentsAeg(String sone){
-		if ( sone != null  ){
-			Matcher dctMatch = jsonDCT.matcher(sone);
-			if (dctMatch.find()){
-				String key = dctMatch.group(1);
-				String val = dctMatch.group(2);
-				return new String[] {key, val};
+	private static void tootleVoona(AjaTuvastaja tuvastaja, int tuumaLaused,
+									String inputType, String inputPath, 
+									String outputType, String outputPath,
+									String [] referentsAeg, boolean allowOnlyPureTimeML,
+									boolean prettyPrintJson) throws Exception {
+		VoogTuvastaja voogTuvastaja = 
+			new VoogTuvastaja(tuvastaja, VoogTuvastaja.VAIKIMISI_KONTEKSTI_LAUSEID, tuumaLaused);
+		Reader sisend = (inputType.equalsIgnoreCase("file")) ? 
+				(new InputStreamReader(new FileInputStream(inputPath), "UTF-8")) : 
+					(new InputStreamReader(System.in, "UTF-8"));
+		boolean failiValjund = outputType.equalsIgnoreCase("file") && outputPath != null;
+		Writer kirjutaja = new BufferedWriter(
+				new OutputStreamWriter((failiValjund) ? (new FileOutputStream(outputPath)) : (System.out), "UTF-8"), 1 << 16);
+		try {
+			voogTuvastaja.tuvasta(new BufferedReader(sisend, 1 << 16), kirjutaja, referentsAeg, 
+					allowOnlyPureTimeML, prettyPrintJson);
+			if (!failiValjund){
+				kirjutaja.write( System.getProperty("line.separator") );
 			}
+		} finally {
+			sisend.close();
+			kirjutaja.close();
 		}
-		return null;
 	}
 	
-	/**
-	 *    Yritab leida JSON sisendist referentsaja stringi (meetodiga leiaJSONSonestReferentsAeg) ning 
-	 *   luua selle p6hjal uue referentsaja (meetodiga looSonePohjalReferentsAeg). Kui k6ik 6nnestub,
-	 *   tagastab sama tulemuse, mis meetod looSonePohjalReferentsAeg 6nnestumise korral,
-	 *   vastasel juhul tagastab <tt>null</tt>;
-	 */
-	public static String [] prooviLuuaJSONsisendiP6hjalRefAeg(String jsonSisend){
-		String konehetkJSONist [] = Main.leiaJSONSonestReferentsAeg(jsonSisend);
-		if (konehetkJSONist != null){
-			return Main.looSonePohjalReferentsAeg(konehetkJSONist[1]);
+	private static String looDokumendiSisend(String sisendSone, boolean unescapeDoubleBackSlashes){
+		if (unescapeDoubleBackSlashes){
+			return sisendSone.replace("\\\\", "\\");
 		}
-		return null;
+		return sisendSone;
 	}
 	
 	/**
@@ -503,6 +843,132 @@ public class Main {
 		return puhver.toString();
 	}
 
+	/**
+	 *   Loob k&otilde;igi t&ouml;&ouml;rezhiimide jaoks &uuml;htmoodi seadistatud tuvastaja: 
+	 *   fraasimustrite sobitamise mootor (<tt>-matcher</tt>), vahem&auml;lude mahutavused
+	 *   (<tt>-word_cache</tt>, <tt>-norm_cache</tt>), statistika (<tt>-stats</tt>), reeglite 
+	 *   profiilija (<tt>-profile</tt>), morf analysaator (<tt>-analyser</tt>, <tt>-analyser_pool</tt>) 
+	 *   ning reeglifail (<tt>-r</tt>, kui see on antud).
+	 */
+	private static AjaTuvastaja looTuvastaja(String rulesFile, boolean useSharedAutomaton, 
+			int wordCacheSize, int normCacheSize, boolean collectStats, boolean profileRules,
+			String analyserCmd, int analyserProcesses){
+		AjaTuvastaja tuvastaja = new AjaTuvastaja();
+		tuvastaja.setKasutaMustriteAutomaati(useSharedAutomaton);
+		tuvastaja.setMallideVahemaluMahutavus(wordCacheSize);
+		tuvastaja.setNormaliseerimisteVahemaluMahutavus(normCacheSize);
+		lisaStatistika(tuvastaja, collectStats);
+		lisaProfiilija(tuvastaja, profileRules);
+		lisaAnalysaator(tuvastaja, analyserCmd, analyserProcesses);
+		if (rulesFile != null){
+			tuvastaja.setReegliFail(rulesFile);
+		}
+		return tuvastaja;
+	}
+
+	/**
+	 *   Lippude <tt>-analyser</tt> ja <tt>-analyser_pool</tt> korral: m&auml;&auml;rab tuvastajale 
+	 *   morf analysaatori m&auml;hise. Protsesside kogumi (vt {@link EstyhmmWrapperPoolImpl}) 
+	 *   protsessid k&auml;ivitatakse kohe; kui analysaator ei vasta (nt puhverdab v&auml;ljundit), 
+	 *   l&otilde;petatakse t&ouml;&ouml; veateatega. Kogum suletakse programmi l&otilde;pus.
+	 */
+	private static void lisaAnalysaator(AjaTuvastaja tuvastaja, String analyserCmd, int analyserProcesses){
+		String kask = (analyserCmd != null) ? (analyserCmd) : (AjaTuvastaja.VAIKIMISI_ANALYSAATOR);
+		if (analyserProcesses > 0){
+			final EstyhmmWrapperPoolImpl kogum = new EstyhmmWrapperPoolImpl(kask, "UTF-8", analyserProcesses);
+			try {
+				kogum.kontrolliTervist();
+			} catch (Exception e) {
+				kogum.close();
+				System.err.println("Viga: morf analysaatori protsesside k2ivitamine ebaonnestus: "+e.getMessage());
+				System.exit(-1);
+			}
+			Runtime.getRuntime().addShutdownHook( new Thread() {
+				public void run() {
+					kogum.close();
+				}
+			});
+			tuvastaja.setWrapper(kogum);
+		} else if (analyserCmd != null){
+			tuvastaja.setWrapper(new EstyhmmWrapperImpl(kask, "UTF-8"));
+		}
+	}
+
+	/**
+	 *   Lipu <tt>-stats</tt> korral: loob tuvastajale statistika koguja (vt 
+	 *   {@link TuvastamiseStatistika}) ning registreerib selle JMX-is.
+	 */
+	private static void lisaStatistika(AjaTuvastaja tuvastaja, boolean collectStats){
+		if (!collectStats){
+			return;
+		}
+		TuvastamiseStatistika statistika = new TuvastamiseStatistika();
+		try {
+			statistika.registreeriJMX("Ajavt");
+		} catch (Exception e) {
+			System.err.println("Hoiatus: statistika registreerimine JMX-is ebaonnestus: "+e.getMessage());
+		}
+		tuvastaja.setKuulaja(statistika);
+	}
+
+	/**
+	 *   Kirjutab tuvastaja kogutud statistika JSON kujul faili <tt>statsFile</tt> (kui see on 
+	 *   <code>null</code>, siis standardveavoogu); kui statistikat ei kogutud, ei tee midagi.
+	 */
+	private static void kirjutaStatistika(AjaTuvastaja tuvastaja, String statsFile){
+		if (!(tuvastaja.getKuulaja() instanceof TuvastamiseStatistika)){
+			return;
+		}
+		TuvastamiseStatistika statistika = (TuvastamiseStatistika) tuvastaja.getKuulaja();
+		try {
+			Writer kirjutaja = (statsFile != null) ? 
+					(new OutputStreamWriter(new FileOutputStream(statsFile), "UTF-8")) : 
+					(new OutputStreamWriter(System.err, "UTF-8"));
+			statistika.kirjutaJSON(kirjutaja);
+			kirjutaja.write( System.getProperty("line.separator") );
+			kirjutaja.flush();
+			if (statsFile != null){
+				kirjutaja.close();
+			}
+		} catch (Exception e) {
+			System.err.println("Viga: statistika kirjutamine ebaonnestus!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 *   Lipu <tt>-profile</tt> korral: loob tuvastajale reeglite profiilija (vt 
+	 *   {@link ReegliProfiilija}).
+	 */
+	private static void lisaProfiilija(AjaTuvastaja tuvastaja, boolean profileRules){
+		if (profileRules){
+			tuvastaja.setProfiilija(new ReegliProfiilija());
+		}
+	}
+
+	/**
+	 *   Kirjutab tuvastaja reeglite profiili aruande faili <tt>profileFile</tt> (kui see on 
+	 *   <code>null</code>, siis standardveavoogu); kui profiili ei kogutud, ei tee midagi.
+	 */
+	private static void kirjutaProfiil(AjaTuvastaja tuvastaja, String profileFile){
+		ReegliProfiilija profiilija = tuvastaja.getProfiilija();
+		if (profiilija == null){
+			return;
+		}
+		try {
+			Writer kirjutaja = (profileFile != null) ? 
+					(new OutputStreamWriter(new FileOutputStream(profileFile), "UTF-8")) : 
+					(new OutputStreamWriter(System.err, "UTF-8"));
+			profiilija.kirjutaAruanne(kirjutaja, tuvastaja);
+			if (profileFile != null){
+				kirjutaja.close();
+			}
+		} catch (Exception e) {
+			System.err.println("Viga: reeglite profiili kirjutamine ebaonnestus!");
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Loeb sisendi UTF-8 kodeeringus failist
 	 */
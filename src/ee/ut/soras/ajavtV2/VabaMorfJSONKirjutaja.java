@@ -0,0 +1,381 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2;
+
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.mudel.FraasisPaiknemiseKoht;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaPunkt;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
+
+/**
+ *   Vabamorfi JSON v&auml;ljundi kirjutaja: kirjutab sisendi syndmuste lindi (vt 
+ *  {@link VabaMorfJSONLint}) p6hjal v&auml;ljundvoogu vabamorfi JSON-i, lisades s&otilde;nadele 
+ *  "timexes" objektid ning vajadusel dokumendile uue referentsaja ("dct").
+ *  <p>
+ *  Sisendi v&otilde;ib anda kas yhe lindina (vt <code>JarelTootlus.eraldamiseTulemusVabaMorfiJSON</code>)
+ *  v&otilde;i mitme j&auml;rjestikuse l&otilde;iguna (vt <code>VabaMorfJSONVoog</code>): kirjutaja 
+ *  olek (JSON-i v&otilde;tmete rada, jooksva s&otilde;na positsioon jms) s&auml;ilib 
+ *  {@link #kirjuta(VabaMorfJSONLint, List)} v&auml;ljakutsete vahel, seega on tulemus sama, 
+ *  mis k&otilde;igi l&otilde;ikude korraga kirjutamisel. S&otilde;nade positsioonid 
+ *  (<code>AjavtSona.getTokenPosition()</code>) loetakse kogu sisendi algusest.
+ *  <p>
+ *  Kui sisendi referentsaeg pole kirjutaja loomisel veel teada (voogt&ouml;&ouml;tlusel v&otilde;ib
+ *  v&otilde;ti "dct" paikneda p&auml;rast esimesi lauseid), otsustatakse referentsaja kirjutamine
+ *  alles v&otilde;tme "dct" kohtamisel: sobiv sisendi referentsaeg kirjutatakse v&auml;ljundisse
+ *  sealsamas, kus see sisendis oli; kui sisendis see puudus v&otilde;i ei sobinud, lisatakse
+ *  uus referentsaeg dokumendi objekti l&otilde;ppu (mitte algusesse).
+ *
+ *  @author Siim Orasmaa
+ */
+public class VabaMorfJSONKirjutaja {
+
+	private final JsonGenerator jsonGenerator;
+
+	private final boolean usePurifiedTimeML;
+
+	/**
+	 *   Referentsaeg, mis tuleb lisada v&auml;ljundisse (kui sisendis polnud sobivat 
+	 *  referentsaega); vastasel juhul <code>null</code>.
+	 */
+	private String newDCTvalue;
+
+	/**
+	 *   Kas sisendi referentsaeg v&otilde;ib alles j&auml;rgneda? Siis kirjutatakse uus 
+	 *  referentsaeg (kui see j&auml;&auml;b vajalikuks) dokumendi objekti l&otilde;ppu.
+	 */
+	private final boolean dctLopus;
+
+	/**
+	 *   Kas sisendist on juba leitud (mittetyhi) v&otilde;ti "dct"?
+	 */
+	private boolean sisendiDCTleitud = false;
+
+	// JSON-objektide pesastussygavus
+	private int objektiSygavus = 0;
+
+	// JSON-i v6tmete rada ( k6ige pealmine on vaadeldav v6ti... )
+	private final Stack<String> jsonKeyPath = new Stack<String>(); 
+	// Viimane event
+	private JsonParser.Event lastEvent = null;
+	// Viimasele event'ile vastav v22rtus (kui on)
+	private String lastString = "";
+	// jooksva s6na tekstikuju
+	private String tokenText = null;
+	// jooksva s6na positsioon sisendis
+	private int currentTokenPosition = 1;
+
+	/**
+	 *   Loob kirjutaja, mis kirjutab v&auml;ljundvoogu <code>valjund</code>; <code>sisendiDCT</code>
+	 *  on sisendis antud referentsaeg (v&otilde;i <code>null</code>) ning <code>creationTime</code>
+	 *  referentsaeg, mis kirjutatakse v&auml;ljundisse juhul, kui sisendis see puudus v&otilde;i
+	 *  ei sobinud.
+	 */
+	public VabaMorfJSONKirjutaja(Writer valjund, String sisendiDCT, AjaPunkt creationTime, 
+								 boolean usePurifiedTimeML, boolean prettyPrint){
+		this(valjund, sisendiDCT, false, creationTime, usePurifiedTimeML, prettyPrint);
+	}
+
+	/**
+	 *   Nagu {@link #VabaMorfJSONKirjutaja(Writer, String, AjaPunkt, boolean, boolean)}, kuid kui
+	 *  <code>sisendiDCTvoibJargneda</code> on t&otilde;ene ning <code>sisendiDCT</code> on
+	 *  <code>null</code>, v&otilde;ib sisendi referentsaeg alles j&auml;rgnevates l&otilde;ikudes
+	 *  tulla (vt klassi kirjeldust).
+	 */
+	public VabaMorfJSONKirjutaja(Writer valjund, String sisendiDCT, boolean sisendiDCTvoibJargneda, 
+								 AjaPunkt creationTime, boolean usePurifiedTimeML, boolean prettyPrint){
+		// JSON-i generaatori loomine
+		Map<String, Object> properties = new HashMap<String, Object>(1);
+		if (prettyPrint){
+	        properties.put(JsonGenerator.PRETTY_PRINTING, true);			
+		}
+        JsonGeneratorFactory jgf = Json.createGeneratorFactory(properties);
+		this.jsonGenerator = jgf.createGenerator( valjund );
+		this.usePurifiedTimeML = usePurifiedTimeML;
+		// Referentsaeg: teeme kindlaks, kas v2ljundisse tuleb lisada teistsugune, kui oli sisendis
+		String konehetkJSONist [] = 
+			(sisendiDCT != null) ? (ReferentsAjaParsija.looSonePohjalReferentsAeg(sisendiDCT)) : (null);
+		// Kui JSON sisendis polnud referentsaega antud v6i see ei sobinud, paneme uue referentsaja
+		if (konehetkJSONist == null){
+	       HashMap<String, String> mapOfAttributesAndValues = (creationTime).asHashMapOfAttributeValue("");
+	       this.newDCTvalue = mapOfAttributesAndValues.get("value");
+		} else {
+			this.newDCTvalue = null;
+		}
+		this.dctLopus = (sisendiDCT == null && sisendiDCTvoibJargneda);
+	}
+
+	/**
+	 *   Kirjutab v&auml;ljundisse sisendi l&otilde;igu <code>sisendJSON</code>; <code>sonad</code>
+	 *  peab sisaldama (v&auml;hemalt) k&otilde;ik l&otilde;igus olevatele s&otilde;nadele vastavad
+	 *  <code>AjavtSona</code>-d.
+	 */
+	public void kirjuta(VabaMorfJSONLint sisendJSON, List<AjavtSona> sonad) throws Exception {
+		// Loome mappingu tokenPosition'ite ja AjavtSona'de vahel
+		// NB! Kuna yhele sisendi token'ile v6ib vastata mitu systeemisisest token'it, 
+		// siis peame ka m2ppingud tegema listi, mitte yksikusse ajavaljendisse
+		HashMap<Integer, List<AjavtSona>> tokenPosToAjavtSonaMap = new HashMap<Integer, List<AjavtSona>>();
+		for (AjavtSona sona : sonad) {
+			if (sona.getTokenPosition() != -1){
+				int key = sona.getTokenPosition();
+				if (!tokenPosToAjavtSonaMap.containsKey(key)){
+					List<AjavtSona> listOfWords = new ArrayList<AjavtSona>(1);
+					tokenPosToAjavtSonaMap.put(key, listOfWords);
+				}
+				(tokenPosToAjavtSonaMap.get(key)).add(sona);
+			} else {
+				throw new Exception(" Unable to map AjavtSona to tokenposition for "+sona.getAlgSona());
+			}
+		}
+		for (int k = 0; k < sisendJSON.getPikkus(); k++) {
+			   JsonParser.Event event = sisendJSON.getSyndmus(k);
+			   switch(event) {
+			      case START_ARRAY:
+			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
+			    		  jsonKeyPath.push( lastString );
+			    		  jsonGenerator.writeStartArray( lastString );
+			    	  } else {
+			    		  jsonGenerator.writeStartArray();
+			    	  }
+				      lastEvent = event;
+				      lastString = "";
+			    	  break;
+			      case END_ARRAY:
+				      // ------------------------------------------------------------------
+			    	  //   Sõna-järjendi lõpp: märgime, et viimane sõna lõpetas lause
+				      // ------------------------------------------------------------------
+				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals("words")){
+				    	  
+				      }
+				      lastEvent = event;
+				      lastString = "";
+			    	  jsonKeyPath.pop();
+			    	  jsonGenerator.writeEnd();
+			    	  break;
+			      case START_OBJECT:
+			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
+			    		  jsonGenerator.writeStartObject( lastString );
+			    	  } else {
+			    		  jsonGenerator.writeStartObject();
+			    	  }
+				      // ------------------------------------------------------------------
+			    	  //   Kogu dokumendi algus: lisame kasutatud teksti loomise aja
+				      // ------------------------------------------------------------------			    	  
+			    	  if (jsonKeyPath.empty() && newDCTvalue != null && !dctLopus){
+			    		  jsonGenerator.write("dct", newDCTvalue );
+			    	  }
+			    	  objektiSygavus++;
+				      // ------------------------------------------------------------------
+			    	  //   Sõna-objekti algus
+				      // ------------------------------------------------------------------
+			    	  if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals("words")){
+				      }
+				      // ------------------------------------------------------------------
+			    	  //   Analüüs-objekti algus
+				      // ------------------------------------------------------------------
+                      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals("analysis")){
+				      }
+				      lastEvent = event;
+				      lastString = "";
+				      break;
+			      case END_OBJECT:
+				      // ------------------------------------------------------------------
+			    	  //   Sõna-objekti lõpp
+				      // ------------------------------------------------------------------
+				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals( "words")){
+				    	  if (tokenText == null){
+				    		  throw new Exception(" Unable to find text form for a word ...");  
+				    	  }
+				    	  Integer positionKey = Integer.valueOf(currentTokenPosition);
+				    	  if (tokenPosToAjavtSonaMap.containsKey( positionKey )){
+				    		  List<AjavtSona> sonadPositsioonil = tokenPosToAjavtSonaMap.get(positionKey);
+					    	  List<WritableTimexForJSON> associatedTimexes = new ArrayList<WritableTimexForJSON>();
+							  HashMap<String, Integer> addedTimexIDs = new HashMap<String, Integer>();
+				    		  for ( AjavtSona sona : sonadPositsioonil ) {
+									// -------------------------------------------------------------------------------
+									//  Kas tegemist on ajav2ljendiga?
+				    			    //  Korjame kokku k6ik token'iga seotud ajavaljendid
+									// -------------------------------------------------------------------------------
+									if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
+										List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
+										List<AjavaljendiKandidaat> 		    	ajavaljendid = sona.getAjavaljendiKandidaadid();
+										for (int i = 0; i < ajavaljendiKandidaatides.size(); i++) {
+											FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(i);
+											AjavaljendiKandidaat ajav = ajavaljendid.get(i);
+											if (ajav.getSemantikaLahendus() != null){
+												HashMap<String, String> mapOfAttributesAndValues =
+														(usePurifiedTimeML) ?
+																(JarelTootlus.getPurifiedTimeMLAnnotation((ajav.getSemantikaLahendus()))) : 
+																	(((ajav.getSemantikaLahendus())).asHashMapOfAttributeValue(""));
+												if (mapOfAttributesAndValues != null && mapOfAttributesAndValues.containsKey("tid")){
+													//
+													//   NB! Kui tuvastaja tokeniseering erineb sisendi omast (yhele sisendi
+													//  s6nele vastab mitu tuvastaja s6net ), tekib siin oht, et v2ljastame
+													//  yhe ajav2ljendi mitu korda (mitme tuvastaja s6ne korral); Selle 
+													//  v2ltimiseks j2tame ajavaljendite ID-d meelde ja v2ljastame vaid 
+													//  unikaalse ID-ga ajav2ljendid;
+													//
+													String TID = mapOfAttributesAndValues.get("tid");
+													if (!addedTimexIDs.containsKey(TID)){
+														addedTimexIDs.put( TID, 1 );
+														associatedTimexes.add( new WritableTimexForJSON(ajav, mapOfAttributesAndValues, koht) );
+													}
+												}
+											}
+										}
+									}
+				    		  }
+				    		  // Kirjutame k6ik token'iga seotud ajav2ljendid JSON objektideks
+				    		  if (!associatedTimexes.isEmpty()){
+				    			  jsonGenerator.writeStartArray("timexes");
+				    			  for (WritableTimexForJSON writableJSON : associatedTimexes) {
+				    				  writableJSON.writeAsJSONObject( jsonGenerator, usePurifiedTimeML );
+								  }
+				    			  jsonGenerator.writeEnd();
+				    		  }
+				    	  } else {
+				    		  throw new Exception(" Unable to find AjavtSona associated with the word "+tokenText+" at position "+currentTokenPosition+"...");
+				    	  }
+				    	  currentTokenPosition++;
+				    	  tokenText = null;
+				      }
+				      // ------------------------------------------------------------------
+			    	  //   Analüüsi-objekti lõpp
+				      // ------------------------------------------------------------------
+				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals( "analysis")){
+				      }
+				      // ------------------------------------------------------------------
+			    	  //   Kogu dokumendi l6pp: lisame referentsaja, kui see j2i lisamata
+				      // ------------------------------------------------------------------
+				      objektiSygavus--;
+				      if (objektiSygavus == 0 && dctLopus && newDCTvalue != null){
+				    	  jsonGenerator.write("dct", newDCTvalue );
+				      }
+				      lastEvent = event;
+				      lastString = "";
+				      jsonGenerator.writeEnd();
+				      break;
+			      case VALUE_FALSE:
+			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
+						 jsonGenerator.write(lastString, false);
+					  } else {
+					     jsonGenerator.write(false);
+					  }
+				      lastEvent = event;
+				      lastString = "";
+				      break;
+			      case VALUE_NULL:
+			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
+					     jsonGenerator.writeNull(lastString);
+				      } else {
+					     jsonGenerator.writeNull();
+					  }
+				      lastEvent = event;
+				      lastString = "";
+				      break;
+			      case VALUE_TRUE:
+			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
+						 jsonGenerator.write(lastString, true);
+					  } else {
+					     jsonGenerator.write(true);
+					  }
+				      lastEvent = event;
+				      lastString = "";
+				      break;
+			      case KEY_NAME:
+			         lastEvent  = event;
+			         lastString = sisendJSON.getVaartus(k);
+			         break;
+			      case VALUE_STRING:
+			    	  if (dctLopus && !sisendiDCTleitud && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME && 
+			    			lastString.equalsIgnoreCase( "dct") && (sisendJSON.getVaartus(k)).length() > 0){
+			    		  // Esimene sisendi referentsaeg: kui see sobib, j2tame selle (ja edasised) alles
+			    		  sisendiDCTleitud = true;
+			    		  if (ReferentsAjaParsija.looSonePohjalReferentsAeg( sisendJSON.getVaartus(k) ) != null){
+			    			  newDCTvalue = null;
+			    		  }
+			    	  }
+			    	  if (newDCTvalue != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME && 
+			    			lastString.equalsIgnoreCase( "dct")){
+			    		  // Kui DCT-le on m22ratud uus v22rtus, siis j2tame vana DCT ymberkirjutamata
+			    		  lastEvent  = event;
+					      lastString = sisendJSON.getVaartus(k);
+					      break;
+			    	  }
+			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
+					      jsonGenerator.write(lastString, sisendJSON.getVaartus(k));
+				      } else {
+				    	  jsonGenerator.write(sisendJSON.getVaartus(k));
+				      }
+				      // ---------------------------------------------------
+				      //   Jätame meelde sõna tekstilise kuju ...
+				      // ---------------------------------------------------
+				      if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals( "words")){
+					     if (lastString != null && lastString.equals("text")){
+					        tokenText = sisendJSON.getVaartus(k);
+					     }			        	 
+				      }
+				      lastEvent  = event;
+				      lastString = sisendJSON.getVaartus(k);
+				      break;
+			      case VALUE_NUMBER:
+			    	 // NB! Sarnaselt JsonParser.getLong()-ile teisendatakse t2isarv BigDecimal-i kaudu
+			    	 BigDecimal arv = new BigDecimal( sisendJSON.getVaartus(k) );
+			    	 if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
+				    	 if (sisendJSON.kasOnTaisarv(k)){
+				    		 jsonGenerator.write(lastString, arv.longValue());
+				    	 } else {
+				    		 jsonGenerator.write(lastString, arv);
+				    	 }
+			    	 } else {
+			    		 if (sisendJSON.kasOnTaisarv(k)){
+			    			 jsonGenerator.write(arv.longValue());
+			    		 } else {
+			    			 jsonGenerator.write(arv);
+			    		 }
+			    	 }
+			         lastEvent  = event;
+			         lastString = "";
+			         break;
+			   }
+		}
+	}
+
+	/**
+	 *   Tyhjendab v&auml;ljundi puhvri (kuid ei sulge v&auml;ljundvoogu).
+	 */
+	public void lopeta(){
+		(this.jsonGenerator).flush();
+	}
+
+}
@@ -0,0 +1,327 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.util.ReferentsAjaParsija;
+import ee.ut.soras.ajavtV2.util.TuvastamiseKuulaja.ETAPP;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONLint;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONReader;
+import ee.ut.soras.wrappers.impl.VabaMorfJSONVoog;
+import ee.ut.soras.wrappers.mudel.MorfAnSona;
+
+/**
+ *   Vabamorfi JSON sisendi voogt&ouml;&ouml;tlus libiseva lauseaknaga: sisendit ei loeta
+ *  tervikuna m&auml;llu, vaid see t&ouml;&ouml;deldakse lausete kaupa (vt {@link VabaMorfJSONVoog})
+ *  ning valmis laused kirjutatakse v&auml;ljundisse kohe, kui neid j&auml;rgnevad laused enam
+ *  m&otilde;jutada ei saa. M&auml;lukasutus s&otilde;ltub vaid akna suurusest, mitte sisendi
+ *  pikkusest.
+ *  <p>
+ *  T&ouml;&ouml;tlus toimub akende kaupa: akna <i>tuuma</i> moodustavad kuni
+ *  <code>tuumaLaused</code> j&auml;rjestikust lauset, millele lisatakse m&otilde;lemale poole
+ *  <code>kontekstiLaused</code> lauset konteksti. Kogu aknale rakendatakse eelt&ouml;&ouml;tlus,
+ *  kandidaatide eraldamine, ylekatete lahendamine, fraaside liitmine ja semantika leidmine
+ *  (vt <code>AjaTuvastaja.tuvastaAjavaljendidSonades</code>), kuid v&auml;ljundisse kirjutatakse
+ *  vaid tuuma laused; j&auml;rgmise akna tuum algab vahetult eelmise j&auml;rel. Kuna ankurdamine
+ *  otsib ankrut kuni 3 lause kauguselt (vt <code>SemLeidmiseMudelImpl3</code>) ning fraaside
+ *  liitmine vaatab vaid naabers&otilde;nu, on vaikimisi kontekst (4 lauset) piisav, et tuuma
+ *  tulemus langeks kokku kogu dokumendi korraga t&ouml;&ouml;tlemise tulemusega.
+ *  <p>
+ *  TID v&auml;&auml;rtused nummerdatakse l&auml;bi kogu sisendi: akna tuuma esimene ajav&auml;ljend
+ *  saab esimese seni kasutamata numbri, vasakus kontekstis olevad (juba v&auml;ljastatud)
+ *  ajav&auml;ljendid aga samad numbrid, mis neil v&auml;ljastamisel olid (need j&auml;etakse
+ *  v&auml;ljastamisel lausete juurde meelde), seega viitavad ankrulingid (<tt>anchorTimeID</tt>, 
+ *  <tt>beginPoint</tt>, <tt>endPoint</tt>) ka eelmistes akendes v&auml;ljastatud ajav&auml;ljenditele.
+ *  Kui vasaku konteksti uuesti t&ouml;&ouml;tlemisel tekib ajav&auml;ljend, mida v&auml;ljastatud
+ *  ei olnud, saavad temale viitavad lingid v&auml;&auml;rtuse "??".
+ *  <p>
+ *  Erinevused tervikt&ouml;&ouml;tlusest:
+ *  <ul>
+ *    <li> ahelankurdamine (ankurdatav ajav&auml;ljend, mille ankur on omakorda ankurdatud)
+ *         ei ulatu kaugemale kui akna vasak kontekst;</li>
+ *    <li> sisendi referentsaeg ("dct") arvestatakse ajav&auml;ljendite normaliseerimisel vaid
+ *         siis, kui see on sisendis enne esimese akna l&otilde;ppu; v&auml;ljundis s&auml;ilib
+ *         sobiv sisendi "dct" aga alati sealsamas, kus see sisendis oli;</li>
+ *    <li> kui sisendis "dct" puudub v&otilde;i ei sobi ning seda pole enne esimese akna
+ *         l&otilde;ppu, lisatakse kasutatud referentsaeg v&auml;ljundi dokumendi objekti
+ *         l&otilde;ppu (tervikt&ouml;&ouml;tlusel algusesse; vt <code>VabaMorfJSONKirjutaja</code>);</li>
+ *  </ul>
+ *
+ *  @author Siim Orasmaa
+ */
+public class VoogTuvastaja {
+
+	/**
+	 *   Vaikimisi kontekstilausete arv kummalgi pool akna tuuma: ankurdamise raadius (3 lauset)
+	 *  pluss yks lause fraaside liitmiseks ja vahemike eraldamiseks.
+	 */
+	public static final int VAIKIMISI_KONTEKSTI_LAUSEID = 4;
+
+	/**
+	 *   Vaikimisi lausete arv akna tuumas.
+	 */
+	public static final int VAIKIMISI_TUUMA_LAUSEID = 32;
+
+	private final AjaTuvastaja tuvastaja;
+
+	private final int kontekstiLaused;
+
+	private final int tuumaLaused;
+
+	/**
+	 *   Sisendi lause koos morfoloogilise analyysiga.
+	 */
+	private static class Lause {
+		/** Lause syndmuste lint (v&auml;ljundi kirjutamiseks). */
+		VabaMorfJSONLint lint;
+		/** Lause s&otilde;nad; positsioonid loetakse kogu sisendi algusest. */
+		final List<MorfAnSona> morfSonad;
+		/** Lause esimese s&otilde;na positsioon kogu sisendis. */
+		final int algusPositsioon;
+		/** Akna t&ouml;&ouml;tlemisel leitud tulemus (seni, kuni lause on v&auml;ljastamata). */
+		List<AjavtSona> tulemus = null;
+		/** V&auml;ljastatud lause ajav&auml;ljendite TID v&auml;&auml;rtused (vt <code>JarelTootlus.leiaTIDvaartused</code>). */
+		HashMap<String, String> tidid = null;
+
+		Lause(VabaMorfJSONLint lint, int algusPositsioon) throws Exception {
+			this.lint            = lint;
+			this.morfSonad       = VabaMorfJSONReader.parseJSONtext(lint);
+			this.algusPositsioon = algusPositsioon;
+			for (int i = 0; i < (this.morfSonad).size(); i++) {
+				((this.morfSonad).get(i)).setTokenPosition( algusPositsioon + i );
+			}
+		}
+
+		int getLoppPositsioon(){
+			return this.algusPositsioon + (this.morfSonad).size();
+		}
+	}
+
+	//==============================================================================
+	//   	V o o g t 8 8 t l u s e    o l e k
+	//==============================================================================
+
+	/**
+	 *   Loetud, kuid veel v&auml;ljastamata l&otilde;igud (laused ja vahel&otilde;igud) sisendi
+	 *  j&auml;rjekorras.
+	 */
+	private final ArrayDeque<VabaMorfJSONLint> valjastamataLoigud = new ArrayDeque<VabaMorfJSONLint>();
+
+	/**
+	 *   Akna laused: kuni <code>kontekstiLaused</code> viimati v&auml;ljastatud lauset (vasak
+	 *  kontekst), millele j&auml;rgnevad k&otilde;ik loetud, kuid veel v&auml;ljastamata laused.
+	 */
+	private final ArrayList<Lause> laused = new ArrayList<Lause>();
+
+	/**
+	 *   Mitu lauset listi <code>laused</code> alguses on juba v&auml;ljastatud?
+	 */
+	private int valjastatudLauseid = 0;
+
+	/**
+	 *   J&auml;rgmise loetava s&otilde;na positsioon sisendis.
+	 */
+	private int jargminePositsioon = 1;
+
+	/**
+	 *   J&auml;rgmine vaba TID number.
+	 */
+	private int jargmineID = 1;
+
+	private VabaMorfJSONVoog voog = null;
+
+	private VabaMorfJSONKirjutaja kirjutaja = null;
+
+	private Writer valjund = null;
+
+	private String [] konehetk = null;
+
+	private boolean allowOnlyPureTimeML = false;
+
+	private boolean prettyPrint = false;
+
+	public VoogTuvastaja(AjaTuvastaja tuvastaja){
+		this(tuvastaja, VAIKIMISI_KONTEKSTI_LAUSEID, VAIKIMISI_TUUMA_LAUSEID);
+	}
+
+	public VoogTuvastaja(AjaTuvastaja tuvastaja, int kontekstiLaused, int tuumaLaused){
+		this.tuvastaja       = tuvastaja;
+		this.kontekstiLaused = Math.max(0, kontekstiLaused);
+		this.tuumaLaused     = Math.max(1, tuumaLaused);
+	}
+
+	//==============================================================================
+	//   	T 8 8 t l u s
+	//==============================================================================
+
+	/**
+	 *   Loeb sisendist <code>sisend</code> vabamorfi JSON-i, tuvastab selles ajav&auml;ljendid
+	 *  ning kirjutab tulemuse (nagu <code>JarelTootlus.eraldamiseTulemusVabaMorfiJSON</code>)
+	 *  j&auml;rk-j&auml;rgult v&auml;ljundvoogu <code>valjund</code>. Kui referentsaega
+	 *  <code>konehetk</code> pole antud, kasutatakse sisendi "dct" v&auml;lja (kui see on enne
+	 *  esimese akna l&otilde;ppu) v&otilde;i hetkeaega. V&auml;ljundvoogu ei sulgeta.
+	 *  <p>
+	 *  Yhe objekti kaudu t&ouml;&ouml;deldakse korraga vaid yht sisendit.
+	 */
+	public synchronized void tuvasta(Reader sisend, Writer valjund, String [] konehetk,
+	                                 boolean allowOnlyPureTimeML, boolean prettyPrint) throws Exception {
+		(this.tuvastaja).laeReeglidVajadusel();
+		this.voog                = new VabaMorfJSONVoog(sisend);
+		this.valjund             = valjund;
+		this.konehetk            = konehetk;
+		this.allowOnlyPureTimeML = allowOnlyPureTimeML;
+		this.prettyPrint         = prettyPrint;
+		try {
+			VabaMorfJSONLint loik = null;
+			while ((loik = (this.voog).jargmineLoik()) != null) {
+				(this.valjastamataLoigud).add(loik);
+				if (loik.onLause()){
+					Lause lause = new Lause(loik, this.jargminePositsioon);
+					this.jargminePositsioon = lause.getLoppPositsioon();
+					(this.laused).add(lause);
+					// Kui tuuma j2rel on piisavalt paremat konteksti, t88tleme akna
+					if ((this.laused).size() - this.valjastatudLauseid >= this.tuumaLaused + this.kontekstiLaused){
+						this.tootleAken();
+					}
+				}
+			}
+			// Sisendi l6pp: t88tleme ylej22nud laused
+			while ((this.laused).size() > this.valjastatudLauseid){
+				this.tootleAken();
+			}
+			this.alustaKirjutamist();
+			while (!(this.valjastamataLoigud).isEmpty()){
+				(this.kirjutaja).kirjuta( (this.valjastamataLoigud).poll(), new ArrayList<AjavtSona>(0) );
+			}
+			(this.kirjutaja).lopeta();
+		} finally {
+			this.voog      = null;
+			this.kirjutaja = null;
+			this.valjund   = null;
+			(this.laused).clear();
+			(this.valjastamataLoigud).clear();
+			this.valjastatudLauseid = 0;
+			this.jargminePositsioon = 1;
+			this.jargmineID         = 1;
+		}
+	}
+
+	/**
+	 *   T&ouml;&ouml;tleb akna, mille tuum algab esimesest v&auml;ljastamata lausest, ning
+	 *  kirjutab tuuma laused v&auml;ljundisse.
+	 */
+	private void tootleAken() throws Exception {
+		int tuumaAlgus = this.valjastatudLauseid;
+		int tuumaLopp  = Math.min( (this.laused).size(), tuumaAlgus + this.tuumaLaused );
+		int akenLopp   = Math.min( (this.laused).size(), tuumaLopp + this.kontekstiLaused );
+		this.maaraKonehetkVajadusel();
+		// 1) Kogume akna s6nad ning t88tleme need
+		List<MorfAnSona> morfSonad = new ArrayList<MorfAnSona>();
+		for (int i = 0; i < akenLopp; i++) {
+			morfSonad.addAll( ((this.laused).get(i)).morfSonad );
+		}
+		long [] etapiAlgus = (this.tuvastaja).alustaEtappi();
+		List<AjavtSona> sonad = EelTootlus.eeltootlusMorfAnalyysist( morfSonad );
+		(this.tuvastaja).lopetaEtapp(ETAPP.EELTOOTLUS, etapiAlgus);
+		(this.tuvastaja).tuvastaAjavaljendidSonades(sonad, this.konehetk, null);
+		// 2) Leiame tuuma piirid akna s6nade seas
+		int tuumaAlgusPositsioon = ((this.laused).get(tuumaAlgus)).algusPositsioon;
+		int tuumaLoppPositsioon  = ((this.laused).get(tuumaLopp - 1)).getLoppPositsioon();
+		int tuumaAlgusIndeks = 0;
+		while (tuumaAlgusIndeks < sonad.size() && (sonad.get(tuumaAlgusIndeks)).getTokenPosition() < tuumaAlgusPositsioon){
+			tuumaAlgusIndeks++;
+		}
+		int tuumaLoppIndeks = tuumaAlgusIndeks;
+		while (tuumaLoppIndeks < sonad.size() && (sonad.get(tuumaLoppIndeks)).getTokenPosition() < tuumaLoppPositsioon){
+			tuumaLoppIndeks++;
+		}
+		// 3) TID v22rtused: vasaku konteksti ajav2ljendid saavad samad numbrid, mis neil
+		//    v2ljastamisel olid, tuuma ajav2ljendid j2rgmised vabad numbrid
+		HashMap<String, String> kontekstiTIDid = new HashMap<String, String>();
+		for (int i = 0; i < tuumaAlgus; i++) {
+			kontekstiTIDid.putAll( ((this.laused).get(i)).tidid );
+		}
+		JarelTootlus.parandaTIDvaartused(sonad, this.allowOnlyPureTimeML, this.jargmineID, tuumaAlgusIndeks, kontekstiTIDid);
+		this.jargmineID += JarelTootlus.leiaTIDvaartusteArv(sonad, tuumaAlgusIndeks, tuumaLoppIndeks);
+		// 4) Jagame tuuma tulemuse lausetesse
+		int j = tuumaAlgusIndeks;
+		for (int i = tuumaAlgus; i < tuumaLopp; i++) {
+			Lause lause = (this.laused).get(i);
+			int algusIndeks = j;
+			while (j < tuumaLoppIndeks && (sonad.get(j)).getTokenPosition() < lause.getLoppPositsioon()){
+				j++;
+			}
+			lause.tulemus = new ArrayList<AjavtSona>( sonad.subList(algusIndeks, j) );
+			lause.tidid   = JarelTootlus.leiaTIDvaartused( lause.tulemus );
+		}
+		// 5) Kirjutame tuuma laused (ja nendevahelised vahel6igud) v2ljundisse
+		this.alustaKirjutamist();
+		for (int i = tuumaAlgus; i < tuumaLopp; i++) {
+			Lause lause = (this.laused).get(i);
+			VabaMorfJSONLint loik = null;
+			do {
+				loik = (this.valjastamataLoigud).poll();
+				(this.kirjutaja).kirjuta( loik, (loik == lause.lint) ? (lause.tulemus) : (new ArrayList<AjavtSona>(0)) );
+			} while (loik != lause.lint);
+			lause.lint    = null;
+			lause.tulemus = null;
+		}
+		this.valjastatudLauseid = tuumaLopp;
+		// 6) Unustame laused, mis j2rgmise akna vasakusse konteksti ei kuulu
+		int eemaldatavaid = Math.max(0, this.valjastatudLauseid - this.kontekstiLaused);
+		if (eemaldatavaid > 0){
+			((this.laused).subList(0, eemaldatavaid)).clear();
+			this.valjastatudLauseid -= eemaldatavaid;
+		}
+	}
+
+	/**
+	 *   Kui referentsaega pole veel m&auml;&auml;ratud, v&otilde;etakse see seni loetud sisendist 
+	 *  (v&otilde;ti "dct") v&otilde;i kasutatakse hetkeaega. Referentsaeg m&auml;&auml;ratakse 
+	 *  enne esimese akna t&ouml;&ouml;tlemist ning see enam ei muutu.
+	 */
+	private void maaraKonehetkVajadusel(){
+		if (this.konehetk == null && (this.voog).getDCT() != null){
+			this.konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg( (this.voog).getDCT() );
+		}
+		if (this.konehetk == null){
+			this.konehetk = ReferentsAjaParsija.looSonePohjalReferentsAeg(null);
+		}
+	}
+
+	/**
+	 *   Loob v&auml;ljundi kirjutaja (kui seda veel pole). Kuna sisendi "dct" v&otilde;ib alles
+	 *  j&auml;rgneda, otsustab kirjutaja referentsaja kirjutamise selle kohtamisel.
+	 */
+	private void alustaKirjutamist(){
+		if (this.kirjutaja == null){
+			this.maaraKonehetkVajadusel();
+			this.kirjutaja = new VabaMorfJSONKirjutaja(this.valjund, (this.voog).getDCT(), true,
+					JarelTootlus.formatAsCreationTime(this.konehetk), this.allowOnlyPureTimeML, this.prettyPrint);
+		}
+	}
+
+}
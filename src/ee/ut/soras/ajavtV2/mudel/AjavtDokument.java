@@ -0,0 +1,163 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel;
+
+import java.util.List;
+
+/**
+ *  Yks pakktootluses (vt <code>AjaTuvastaja.tuvastaAjavaljendidDokumentides</code>)
+ *  t88deldav dokument: sisend koos oma formaadi ja referentsajaga ning p2rast t88tlust
+ *  ka tulemus (v6i t88tlemisel tekkinud viga).
+ *
+ *  @author Siim Orasmaa
+ */
+public class AjavtDokument {
+
+	/**
+	 *   Dokumendi identifikaator (nt failinimi v6i rea number), ajaviiteks v2ljundis.
+	 */
+	private String id;
+
+	/**
+	 *   Sisendi formaat: <tt>text</tt>, <tt>t3olp</tt> v6i <tt>json</tt> (vabamorfi JSON).
+	 */
+	private String formaat = "json";
+
+	private String sisend;
+
+	/**
+	 *   Referentsaeg (vt <code>ReferentsAjaParsija.looSonePohjalReferentsAeg</code>); kui puudub,
+	 *  v6etakse JSON sisendi korral see sisendi "dct" v2ljast, selle puudumisel kasutatakse
+	 *  vaikimisi referentsaega ning viimaks hetkeaega.
+	 */
+	private String [] konehetk;
+
+	/**
+	 *   Vaikimisi referentsaeg (nt teenuse v6i k2surea oma), mida kasutatakse, kui dokumendil
+	 *  endal (ega JSON sisendis) referentsaega pole; <code>null</code> t2hendab hetkeaega.
+	 */
+	private String [] vaikimisiKonehetk;
+
+	//==============================================================================
+	//   	T 8 8 t l u s e   t u l e m u s
+	//==============================================================================
+
+	/**
+	 *   Teksti s6nad, mille kylge on seotud tuvastatud ajav2ljendid.
+	 */
+	private List<AjavtSona> tulemus;
+
+	/**
+	 *   Tulemus sisendi formaadile vastaval v2ljundkujul (kui seda n6uti).
+	 */
+	private String valjund;
+
+	/**
+	 *   T88tlemisel tekkinud viga; <code>null</code>, kui t88tlus 6nnestus.
+	 */
+	private Exception viga;
+
+	public AjavtDokument(String id, String formaat, String sisend, String [] konehetk){
+		this.id       = id;
+		this.formaat  = formaat;
+		this.sisend   = sisend;
+		this.konehetk = konehetk;
+	}
+
+	public AjavtDokument(String id, String formaat, String sisend, String [] konehetk, String [] vaikimisiKonehetk){
+		this(id, formaat, sisend, konehetk);
+		this.vaikimisiKonehetk = vaikimisiKonehetk;
+	}
+
+	/**
+	 *   Kas dokumendi t88tlemine 6nnestus?
+	 */
+	public boolean onnestus(){
+		return (this.viga == null);
+	}
+
+	//==============================================================================
+	//   	G e t t e r s   &   S e t t e r s
+	//==============================================================================
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getFormaat() {
+		return formaat;
+	}
+
+	public void setFormaat(String formaat) {
+		this.formaat = formaat;
+	}
+
+	public String getSisend() {
+		return sisend;
+	}
+
+	public void setSisend(String sisend) {
+		this.sisend = sisend;
+	}
+
+	public String[] getKonehetk() {
+		return konehetk;
+	}
+
+	public void setKonehetk(String[] konehetk) {
+		this.konehetk = konehetk;
+	}
+
+	public String[] getVaikimisiKonehetk() {
+		return vaikimisiKonehetk;
+	}
+
+	public void setVaikimisiKonehetk(String[] vaikimisiKonehetk) {
+		this.vaikimisiKonehetk = vaikimisiKonehetk;
+	}
+
+	public List<AjavtSona> getTulemus() {
+		return tulemus;
+	}
+
+	public void setTulemus(List<AjavtSona> tulemus) {
+		this.tulemus = tulemus;
+	}
+
+	public String getValjund() {
+		return valjund;
+	}
+
+	public void setValjund(String valjund) {
+		this.valjund = valjund;
+	}
+
+	public Exception getViga() {
+		return viga;
+	}
+
+	public void setViga(Exception viga) {
+		this.viga = viga;
+	}
+
+}
@@ -239,6 +239,34 @@ public class AjavtSona extends MorfAnSona {
             }
        }
     }
+    
+    /**
+     *    Loob etteantud s&otilde;na <code>sona</code> koopia, millel on k&otilde;ik eelt&ouml;&ouml;tluse 
+     *   k&auml;igus m&auml;&auml;ratud tunnused (morf analyys, lausepiirid, positsioonid, arvs&otilde;nafraasid, 
+     *   grammatiline aeg jms), kuid mitte ajav&auml;ljendikandidaate. Kasutatakse dokumendi 
+     *   kildude paralleelsel t&ouml;&ouml;tlemisel killu konteksti loomiseks.
+     */
+    public AjavtSona(AjavtSona sona){
+    	super( sona.getAlgSona() );
+    	for (int i = 0; i < (sona.getAnalyysiTulemused()).size(); i++) {
+			super.lisaAnalyysiRida((sona.getAnalyysiTulemused()).get(i));
+		}
+    	super.setTokenPosition( sona.getTokenPosition() );
+    	super.setOnLauseLopp( sona.onLauseLopp() );
+    	super.setOlpOnKindelPiir( sona.onOlpKindelPiir() );
+    	this.startPosition        = sona.startPosition;
+    	this.endPosition          = sona.endPosition;
+    	this.innerTokenPosition   = sona.innerTokenPosition;
+    	this.atTokenBreakPosition = sona.atTokenBreakPosition;
+    	this.algSonaErisymbolidNormaliseeritud = sona.algSonaErisymbolidNormaliseeritud;
+    	this.algSonaYmbritsevateMarkideta      = sona.algSonaYmbritsevateMarkideta;
+    	this.arvSonaFraasis        = sona.arvSonaFraasis;
+    	this.arvSonaTaisArvVaartus = sona.arvSonaTaisArvVaartus;
+    	this.arvSonaMurdArvVaartus = sona.arvSonaMurdArvVaartus;
+    	this.onPotentsiaalneVahemikuAlgus = sona.onPotentsiaalneVahemikuAlgus;
+    	this.onPotentsiaalneVahemikuLopp  = sona.onPotentsiaalneVahemikuLopp;
+    	this.grammatilineAeg       = sona.grammatilineAeg;
+    }
 
 	//==============================================================================
 	//   	Y l e k a e t u d    k a n d i d a a t i d e   e e m a l d u s 
@@ -279,6 +307,15 @@ public class AjavtSona extends MorfAnSona {
 			}
 		}
 	}
+	/**
+	 *  Eemaldab s6na kyljest k6ik ajavaljendikandidaadid (taastab eelt88tlusj2rgse oleku). 
+	 *  NB! Kandidaatide endi kylge j22vad s6nad alles.
+	 */
+	public void eemaldaKoikAjavaljendiKandidaadid(){
+		this.ajavaljendiKandidaatides = null;
+		this.ajavaljendiKandidaadid   = null;
+	}
+	
 	//==============================================================================
 	//   	Vahemikuga seotud numbrite parsimine 
 	//==============================================================================
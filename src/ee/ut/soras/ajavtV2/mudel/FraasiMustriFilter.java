@@ -18,12 +18,15 @@
 
 package ee.ut.soras.ajavtV2.mudel;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.StringTokenizer;
 
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustriOsaKitsendus;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustriOsadeIndeks;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
 import ee.ut.soras.wrappers.mudel.MorfAnRida;
 
@@ -37,7 +40,8 @@ import ee.ut.soras.wrappers.mudel.MorfAnRida;
  *   
  *  @author Siim Orasmaa
  */
-public class FraasiMustriFilter {
+public class FraasiMustriFilter implements Serializable {
+	private static final long serialVersionUID = 1L;
 	
 	/**
 	 *   Filter morfoloogiliste tunnuste p&otilde;hjal filtreerimiseks. 
@@ -47,7 +51,12 @@ public class FraasiMustriFilter {
 	/**
 	 *   Filter leitud alammustriosa j&auml;rgi filtreerimiseks. 
 	 */
-	private List<String> seotudMustriOsaFilter = null;
+	private String seotudMustriOsaFilter = null;
+	
+	/**
+	 *   Kompileeritud <tt>seotudMustriOsaFilter</tt> (vt {@link #kompileeriMustriOsad(MustriOsadeIndeks)}).
+	 */
+	private MustriOsaKitsendus seotudMustriOsaKitsendus = null;
 	
 	/**
 	 *   Semantikadefinitsioonid, mida kasutatakse ajavaljendi arvutamisel, eeldusel et eraldatud fraasiosa
@@ -85,14 +94,7 @@ public class FraasiMustriFilter {
 				(this.morfFilter).add(morphPart);
 			}
 		}
-		if (seotudMustriOsaFilter != null){
-			StringTokenizer stk = new StringTokenizer(seotudMustriOsaFilter);
-			this.seotudMustriOsaFilter = new ArrayList<String>(stk.countTokens());
-			while (stk.hasMoreElements()) {
-				String s = (String) stk.nextElement();
-				(this.seotudMustriOsaFilter).add(s);
-			}
-		}
+		this.seotudMustriOsaFilter = seotudMustriOsaFilter;
 	}
 
 	//==============================================================================
@@ -102,13 +104,13 @@ public class FraasiMustriFilter {
 	/**
 	 *    Rakendab filtrit eraldamise tulemuste (rahuldatud mustriosad ja neile vastavad
 	 *   alamfraasid) peal. Kui filter 6nnestub edukalt l&auml;bida, tagastab <tt>true</tt>.
+	 *   Rahuldatud mustriosad <tt>rahuldatudMustriosad</tt> on antud bitihulgana (vt
+	 *   {@link MustriOsadeIndeks}).
 	 */
 	private boolean rakendaFiltrit(HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-								  HashMap<String, String> rahuldatudMustriosad){
-		if (this.seotudMustriOsaFilter != null){
-			if (!kasSeotudMustriOsaOnPositiivseltRahuldatud(
-													malliRahuldavadAlamFraasid, 
-													rahuldatudMustriosad)){
+								  long [] rahuldatudMustriosad){
+		if (this.seotudMustriOsaKitsendus != null){
+			if (!(this.seotudMustriOsaKitsendus).kasRahuldatud(rahuldatudMustriosad)){
 				return false;
 			}
 		}
@@ -128,7 +130,7 @@ public class FraasiMustriFilter {
 	 */
 	public List<SemantikaDefinitsioon> rakendaFiltritJaTagastaSonaMallid(
 					HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-					HashMap<String, String> rahuldatudMustriosad){
+					long [] rahuldatudMustriosad){
 		return (this.rakendaFiltrit(malliRahuldavadAlamFraasid, rahuldatudMustriosad))?(this.semDefinitsioonid):(null);
 	}
 
@@ -140,7 +142,7 @@ public class FraasiMustriFilter {
 	 */
 	public List<MustriTahis> rakendaFiltritJaTagastaMustriTahised(
 					HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-					HashMap<String, String> rahuldatudMustriosad){
+					long [] rahuldatudMustriosad){
 		if (this.rakendaFiltrit(malliRahuldavadAlamFraasid, rahuldatudMustriosad)){
 			// 1) Koopia selle filtri alla kuuluvatest tahistest
 			List<MustriTahis> mustriTahisedTagasi = new ArrayList<MustriTahis>(	this.mustriTahised );
@@ -149,7 +151,7 @@ public class FraasiMustriFilter {
 			while(iterator.hasNext()){
 				MustriTahis mustriTahis = iterator.next();
 				List<String> posRahMustriosad = 
-					mustriTahis.leiaPositiivseltRahuldatudMustriosad(malliRahuldavadAlamFraasid, rahuldatudMustriosad);
+					mustriTahis.leiaPositiivseltRahuldatudMustriosad(rahuldatudMustriosad);
 				if (posRahMustriosad == null){
 					iterator.remove();
 				}
@@ -163,31 +165,26 @@ public class FraasiMustriFilter {
 	}
 	
 	/**
-	 *   Testib, kas rahuldatud mustriosad l&auml;hevad l&auml;bi filtri <tt>seotudMustriOsaFilter</tt>.
-	 *   Tagastab <tt>true</tt> l&auml;bimineku korral;
+	 *   Parsib filtri <tt>seotudMustriOsaFilter</tt> ning selle filtri semantikadefinitsioonide ja 
+	 *  mustritahiste mustrikitsendused tuvastamisreegli mustriosade indeksi <tt>indeks</tt> 
+	 *  p&otilde;hjal (vt {@link MustriOsaKitsendus}). Kutsutakse v&auml;lja filtri lisamisel 
+	 *  tuvastamisreeglile.
 	 */
-	private boolean kasSeotudMustriOsaOnPositiivseltRahuldatud(
-					HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-					HashMap<String, String> rahuldatudMustriosad){
-		for (int i = 0; i < (this.seotudMustriOsaFilter).size(); i++) {
-			String mustriElement = (this.seotudMustriOsaFilter).get(i);
-			boolean eitus        = mustriElement.startsWith("^");
-			if (eitus){
-				mustriElement = mustriElement.replace("^", "");
-				// Kontrollime, et antud mustrit EI esinenud - kui esines, on mittesobivus (mismatch)
-				if (rahuldatudMustriosad.containsKey(mustriElement) || 
-						malliRahuldavadAlamFraasid.containsKey(mustriElement)){
-					return false;
-				}
-			} else {
-				// Kontrollime, et antud mustrit esines - kui ei esinenud, on mittesobivus (mismatch)
-				if (!rahuldatudMustriosad.containsKey(mustriElement) && 
-						!malliRahuldavadAlamFraasid.containsKey(mustriElement)){
-					return false;
-				}
+	void kompileeriMustriOsad(MustriOsadeIndeks indeks){
+		if (this.seotudMustriOsaFilter != null){
+			this.seotudMustriOsaKitsendus = 
+				MustriOsaKitsendus.kompileeri(this.seotudMustriOsaFilter, false, indeks);
+		}
+		if (this.semDefinitsioonid != null){
+			for (SemantikaDefinitsioon semDef : this.semDefinitsioonid) {
+				semDef.kompileeriSeotudMustriOsa(indeks);
+			}
+		}
+		if (this.mustriTahised != null){
+			for (MustriTahis mustriTahis : this.mustriTahised) {
+				mustriTahis.kompileeriSeotudMustriOsa(indeks);
 			}
 		}
-		return true;
 	}
 
 	/**
@@ -201,7 +198,7 @@ public class FraasiMustriFilter {
 	 */
 	private boolean kasMorfOsaOnPositiivseltRahuldatud(
 						HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-						HashMap<String, String> rahuldatudMustriosad){
+						long [] rahuldatudMustriosad){
 		for (int i = 0; i < (this.morfFilter).size(); i++) {
 			String morfKirjeldus [] = (this.morfFilter).get(i);
 			String key = String.valueOf(i);
@@ -261,6 +258,14 @@ public class FraasiMustriFilter {
 		return (this.mustriTahised != null && !(this.mustriTahised).isEmpty());
 	}
 	
+	public List<SemantikaDefinitsioon> getSemDefinitsioonid() {
+		return semDefinitsioonid;
+	}
+
+	public List<MustriTahis> getMustriTahised() {
+		return mustriTahised;
+	}
+
 	public void setSemDefinitsioonid(List<SemantikaDefinitsioon> semDefinitsioonid) {
 		this.semDefinitsioonid = semDefinitsioonid;
 	}
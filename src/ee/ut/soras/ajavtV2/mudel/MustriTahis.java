@@ -28,6 +28,7 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustristSoltuv;
  *  @author Siim Orasmaa
  */
 public class MustriTahis extends MustristSoltuv {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 *   Kas selle mustritahise alla kuuluv ajavaljend saab ta kuuluda ainult ajavaljendifraasi kooseisu (<tt>true</tt>)
@@ -0,0 +1,218 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ee.ut.soras.ajavtV2.mudel.sonamallid.AlgVormSonaMall;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.FraasiMuster;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MallileVastavus;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MustriSobitamiseKontekst;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaKlass;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaMall;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaMall.TYYP;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.TavaTekstSonaMall;
+import ee.ut.soras.wrappers.mudel.MorfAnRida;
+
+/**
+ *   Tuvastamisreeglite indeks fraasimustri esimese s&otilde;na j&auml;rgi. V&otilde;imaldab
+ *  iga s&otilde;na puhul kiiresti leida need reeglid, mille fraasimuster v&otilde;ib
+ *  antud s&otilde;nast alata; ylejaanud reeglitest, millel pole ka pooleliolevat
+ *  sobitamist, v&otilde;ib antud s&otilde;na puhul yle h&uuml;pata.
+ *  <p>
+ *  Indekseeritakse iga fraasimustri v&otilde;imalikud alguss&otilde;namallid (vt
+ *  {@link FraasiMuster#getAlgusMallid()}), s&otilde;naklassid lahutatakse nende
+ *  elementideks:
+ *  <ul>
+ *    <li> tavateksti-mallid (<code>TavaTekstSonaMall</code>) - s&otilde;na teksti j&auml;rgi;
+ *    <li> algvormi-mallid (<code>AlgVormSonaMall</code>) - s&otilde;na analyyside lemmade j&auml;rgi
+ *         (s&otilde;naliigi kitsendust indeks ei arvesta);
+ *    <li> ylejaanud mallid (regulaaravaldised, arvs&otilde;nafraasid jms) - mall ise on
+ *         eeltingimuseks: iga erinevat malli kontrollitakse s&otilde;na kohta vaid yks kord,
+ *         tulemus kehtib k&otilde;igi reeglite jaoks, mis sellest mallist alata v&otilde;ivad.
+ *  </ul>
+ *  Indeks on konservatiivne: reegel, mille fraasimuster antud s&otilde;nast alata saab, on
+ *  tulemuses alati olemas (tulemuses v&otilde;ib olla ka reegleid, mille sobitamine siiski
+ *  eba&otilde;nnestub). Indeks on p&auml;rast loomist muutumatu ning l&otilde;imekindel.
+ *
+ * @author Siim Orasmaa
+ */
+public class ReegliteIndeks {
+
+	/**
+	 *   Indekseeritud reeglid (indeksis viidatakse reeglitele nende j&auml;rjekorranumbri kaudu).
+	 */
+	private final List<TuvastamisReegel> reeglid;
+
+	/**
+	 *   Reeglid, mis v&otilde;ivad alata etteantud tekstiga s&otilde;nast. V&otilde;ti on normaliseeritud
+	 *  (vt {@link #normaliseeri(String)}).
+	 */
+	private final Map<String, BitSet> tekstiJargi  = new HashMap<String, BitSet>();
+
+	/**
+	 *   Reeglid, mis v&otilde;ivad alata etteantud lemmaga s&otilde;nast. V&otilde;ti on normaliseeritud.
+	 */
+	private final Map<String, BitSet> lemmaJargi   = new HashMap<String, BitSet>();
+
+	/**
+	 *   S&otilde;namallid, mida tuleb s&otilde;na kohta otse kontrollida, ja neist alata v&otilde;ivad reeglid.
+	 */
+	private final SonaMall [] kontrollitavadMallid;
+	private final BitSet []   kontrollitavateMallideReeglid;
+
+	//==============================================================================
+	//   	I n d e k s i    l o o m i n e
+	//==============================================================================
+
+	public ReegliteIndeks(List<TuvastamisReegel> reeglid){
+		this.reeglid = reeglid;
+		IdentityHashMap<SonaMall, BitSet> mallideReeglid = new IdentityHashMap<SonaMall, BitSet>();
+		List<SonaMall> mallideJarjekord = new ArrayList<SonaMall>();
+		for (int i = 0; i < reeglid.size(); i++) {
+			FraasiMuster muster = (reeglid.get(i)).getFraasiMuster();
+			for (SonaMall mall : muster.getAlgusMallid()) {
+				if (mall.getTyyp() == TYYP.SONAKLASS){
+					for (SonaMall element : ((SonaKlass)mall).getElemendid()) {
+						indekseeriMall(element, i, mallideReeglid, mallideJarjekord);
+					}
+				} else {
+					indekseeriMall(mall, i, mallideReeglid, mallideJarjekord);
+				}
+			}
+		}
+		this.kontrollitavadMallid          = new SonaMall[ mallideJarjekord.size() ];
+		this.kontrollitavateMallideReeglid = new BitSet  [ mallideJarjekord.size() ];
+		for (int i = 0; i < mallideJarjekord.size(); i++) {
+			this.kontrollitavadMallid[i]          = mallideJarjekord.get(i);
+			this.kontrollitavateMallideReeglid[i] = mallideReeglid.get( mallideJarjekord.get(i) );
+		}
+	}
+
+	private void indekseeriMall(SonaMall mall, int reegliIndeks,
+								IdentityHashMap<SonaMall, BitSet> mallideReeglid,
+								List<SonaMall> mallideJarjekord){
+		if (mall.getTyyp() == TYYP.TAVATEKST){
+			lisaVotmele(this.tekstiJargi, ((TavaTekstSonaMall)mall).getTekst(), reegliIndeks);
+		} else if (mall.getTyyp() == TYYP.ALGVORM){
+			// Algvormideta mall ei rahulda yhtki s6na, sellest alata ei saa
+			for (String algvorm : ((AlgVormSonaMall)mall).getAlgvormid()) {
+				lisaVotmele(this.lemmaJargi, algvorm, reegliIndeks);
+			}
+		} else {
+			BitSet mallistAlgavad = mallideReeglid.get(mall);
+			if (mallistAlgavad == null){
+				mallistAlgavad = new BitSet();
+				mallideReeglid.put(mall, mallistAlgavad);
+				mallideJarjekord.add(mall);
+			}
+			mallistAlgavad.set(reegliIndeks);
+		}
+	}
+
+	private void lisaVotmele(Map<String, BitSet> indeks, String voti, int reegliIndeks){
+		String normVoti = normaliseeri(voti);
+		BitSet reeglidVotmel = indeks.get(normVoti);
+		if (reeglidVotmel == null){
+			reeglidVotmel = new BitSet();
+			indeks.put(normVoti, reeglidVotmel);
+		}
+		reeglidVotmel.set(reegliIndeks);
+	}
+
+	/**
+	 *   Normaliseerib s&otilde;ne nii, et <code>a.equalsIgnoreCase(b)</code> korral on ka
+	 *  normaliseeritud kujud v&otilde;rdsed (teisendus tehakse t&auml;hthaaval, nagu
+	 *  <code>String.equalsIgnoreCase</code> puhul).
+	 */
+	private static String normaliseeri(String s){
+		char [] tahed = s.toCharArray();
+		for (int i = 0; i < tahed.length; i++) {
+			tahed[i] = Character.toLowerCase( Character.toUpperCase(tahed[i]) );
+		}
+		return new String(tahed);
+	}
+
+	//==============================================================================
+	//   	P a r i n g u d
+	//==============================================================================
+
+	/**
+	 *   Tagastab reeglid (j&auml;rjekorranumbrite hulgana), mille fraasimuster v&otilde;ib
+	 *  alata s&otilde;nast <code>sona</code>. Tagastatav hulk on uus objekt, mida v&otilde;ib
+	 *  vabalt muuta. Kui <code>kontekst</code> on antud, kontrollitakse mallide vastavust
+	 *  selle kaudu (ja tulemused j&auml;etakse meelde).
+	 */
+	public BitSet leiaVoimalikultAlgavadReeglid(AjavtSona sona, MustriSobitamiseKontekst kontekst){
+		BitSet tulemus = new BitSet( (this.reeglid).size() );
+		BitSet reeglidVotmel = (this.tekstiJargi).get( normaliseeri(sona.getAlgSonaYmbritsevateMarkideta()) );
+		if (reeglidVotmel != null){
+			tulemus.or( reeglidVotmel );
+		}
+		if (!(this.lemmaJargi).isEmpty() && sona.kasLeidusAnalyys() && sona.getAnalyysiTulemused() != null){
+			for (MorfAnRida rida : sona.getAnalyysiTulemused()) {
+				if (rida.getLemmaIlmaVahemarkideta() != null){
+					reeglidVotmel = (this.lemmaJargi).get( normaliseeri(rida.getLemmaIlmaVahemarkideta()) );
+					if (reeglidVotmel != null){
+						tulemus.or( reeglidVotmel );
+					}
+				}
+			}
+		}
+		for (int i = 0; i < (this.kontrollitavadMallid).length; i++) {
+			// Kui k6ik sellest mallist alata v6ivad reeglid on juba tulemuses, pole kontroll vajalik
+			BitSet mallistAlgavad = this.kontrollitavateMallideReeglid[i];
+			if (!kasOnAlamhulk(mallistAlgavad, tulemus)){
+				SonaMall mall = this.kontrollitavadMallid[i];
+				MallileVastavus vastavus = (kontekst != null) ? 
+						(kontekst.kontrolliMallileVastavust(mall, sona)) : (mall.vastabMallile(sona));
+				if (vastavus != MallileVastavus.EI_VASTA){
+					tulemus.or( mallistAlgavad );
+				}
+			}
+		}
+		return tulemus;
+	}
+
+	private static boolean kasOnAlamhulk(BitSet alamhulk, BitSet hulk){
+		for (int i = alamhulk.nextSetBit(0); i >= 0; i = alamhulk.nextSetBit(i+1)) {
+			if (!hulk.get(i)){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//==============================================================================
+	//   	G e t t e r s
+	//==============================================================================
+
+	/**
+	 *   Reeglid, mille p&otilde;hjal indeks loodi.
+	 */
+	public List<TuvastamisReegel> getReeglid() {
+		return reeglid;
+	}
+
+}
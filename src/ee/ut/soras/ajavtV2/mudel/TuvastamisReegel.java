@@ -18,13 +18,16 @@
 
 package ee.ut.soras.ajavtV2.mudel;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustriOsadeIndeks;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.FraasiMuster;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MustriSobitamiseKontekst;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.NegatiivneMuster;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.RegExpSonaMall;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaMall;
@@ -51,12 +54,8 @@ import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija.FORMAT_OF_VALUE;
  *  
  * @author Siim Orasmaa
  */
-public class TuvastamisReegel {
-	
-	/**
-	 *   Kasutatav semantika leidmise mudel.  
-	 */
-	private static String [] semanticsModel = null;
+public class TuvastamisReegel implements Serializable {
+	private static final long serialVersionUID = 1L;
 	
 	/**
 	 *   Sonamallide jarjend ehk fraasimuster. Selle jargi leitakse ajav2ljendeid tekstist yles.
@@ -81,6 +80,13 @@ public class TuvastamisReegel {
 	 */
 	private boolean leidubMustriTahiseid = false;
 	
+	/**
+	 *    Fraasimustri s&otilde;namallide indeksite ning filtrite mustrikitsendustes viidatud 
+	 *   mustriosade identifikaatorid; selle j&auml;rgi esitatakse rahuldatud mustriosad 
+	 *   bitihulgana (<tt>rahuldatudMustriosad</tt>).
+	 */
+	private MustriOsadeIndeks mustriOsadeIndeks = null;
+	
 	//==============================================================================
 	//   	M u s t r i t     r a h u l d a n u d      f r a a s i o s a l e
 	//   v a s t a v a t e    s e m a n t i k a d e f i n i t s i o o n i d e
@@ -98,20 +104,29 @@ public class TuvastamisReegel {
 	 *  Tagastatakse tyhi list juhul, kui t&auml;iendamine ei 6nnestu (nt t&auml;iendamisel n6utud 
 	 *  kontekstitingimused pole rahuldatud) v6i antud tuvastamisreegli alla ei kuulu yhtegi 
 	 *  semantikadefinitsiooni. 
+	 *  <p>
+	 *  Arvesse v6etakse vaid semantikadefinitsioone, mis vastavad kontekstis <tt>kontekst</tt>
+	 *  kasutatavale semantika leidmise mudelile. Profiili kogumisel lisatakse kontekstis 
+	 *  profiili ka filtrite rakendamine.
 	 */
 	public List<SemantikaDefinitsioon> taiendaSonaMallidestSaadudSemDeffe(
 									HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-									HashMap<String, String> rahuldatudMustriosad,
+									long [] rahuldatudMustriosad,
 									List<SemantikaDefinitsioon> semDefidSonaMallidest,
 									HashMap<Integer, String> semDefidSonaMallidestIndeksMustris,
-									List<SonaMall> mustriSonamallid){
+									List<SonaMall> mustriSonamallid,
+									MustriSobitamiseKontekst kontekst){
 		
 		List<SemantikaDefinitsioon> uuedSemDefid = new LinkedList<SemantikaDefinitsioon>();
 		if (this.fraasiMustriFiltrid != null && !this.fraasiMustriFiltrid.isEmpty()){
 			for (FraasiMustriFilter mustriFilter : this.fraasiMustriFiltrid) {
 				// 1) Leiame, kas leitud alamfraasid l2hevad l2bi toodud filtri ...
+				long algus = (kontekst.kasKogubProfiili()) ? (System.nanoTime()) : (0L);
 				List<SemantikaDefinitsioon> semDefid = 
 					mustriFilter.rakendaFiltritJaTagastaSonaMallid(malliRahuldavadAlamFraasid, rahuldatudMustriosad);
+				if (kontekst.kasKogubProfiili()){
+					kontekst.lisaProfiili(mustriFilter, System.nanoTime() - algus, semDefid != null);
+				}
 				// 2) Kui l2ksid l2bi, viime l2bi semantikadefinitsioonide t2iendamise
 				if (semDefid != null){
 					uuedSemDefid.addAll(parsiRahuldatudMustriosaleVastavadSemDefid(
@@ -120,7 +135,8 @@ public class TuvastamisReegel {
 														rahuldatudMustriosad, 
 														semDefidSonaMallidest, 
 														semDefidSonaMallidestIndeksMustris,
-														mustriSonamallid));
+														mustriSonamallid,
+														kontekst.getSemLeidmiseMudel()));
 				}
 			}
 		}
@@ -147,17 +163,18 @@ public class TuvastamisReegel {
 	private List<SemantikaDefinitsioon> parsiRahuldatudMustriosaleVastavadSemDefid(
 									List<SemantikaDefinitsioon> tuvastamisReegliSemDefid,
 									HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-									HashMap<String, String> rahuldatudMustriosad,
+									long [] rahuldatudMustriosad,
 									List<SemantikaDefinitsioon> semDefidSonaMallidest,
 									HashMap<Integer, String> semDefidSonaMallidestIndeksMustris,
-									List<SonaMall> mustriSonamallid){
+									List<SonaMall> mustriSonamallid,
+									String [] semLeidmiseMudel){
 		List<SemantikaDefinitsioon> uuedSemDefid = new ArrayList<SemantikaDefinitsioon>();
 		// ===========================================================================
 		//   Iga tuvastamisreegli alla kuuluva semantikadefinitsiooni korral 
 		// ===========================================================================
 		for (int i = 0; i < tuvastamisReegliSemDefid.size(); i++) {
 			SemantikaDefinitsioon tuvastamisReegliSemDef = tuvastamisReegliSemDefid.get(i);
-			if (tuvastamisReegliSemDef.vastabSemLeidmiseMudelile(TuvastamisReegel.semanticsModel)){
+			if (tuvastamisReegliSemDef.vastabSemLeidmiseMudelile(semLeidmiseMudel)){
 				if (tuvastamisReegliSemDef.getSeotudMustriOsa() != null){
 					// ===========================================================================
 					//   1) Kontrollime, kas ja millised semantikadefinitsiooniga seotud mustri
@@ -165,9 +182,7 @@ public class TuvastamisReegel {
 					//    kasutuselevõtuks on täidetud.
 					// ===========================================================================
 					List<String> rahuldatudAlamOsad = 
-						tuvastamisReegliSemDef.leiaPositiivseltRahuldatudMustriosad(
-								malliRahuldavadAlamFraasid, 
-								rahuldatudMustriosad);
+						tuvastamisReegliSemDef.leiaPositiivseltRahuldatudMustriosad(rahuldatudMustriosad);
 					if (rahuldatudAlamOsad != null && !rahuldatudAlamOsad.isEmpty()){
 						// ===========================================================================
 						//   2) Leiame rahuldatud alamosadega seotud semantikadefinitsioonid.
@@ -300,18 +315,24 @@ public class TuvastamisReegel {
 	//==============================================================================	
 
 	/**
-	 *   Parsib antud tuvastamisreegli kyljest mustritahised ja tagastab need.
+	 *   Parsib antud tuvastamisreegli kyljest mustritahised ja tagastab need. Profiili 
+	 *   kogumisel lisatakse kontekstis <tt>kontekst</tt> profiili ka filtrite rakendamine.
 	 */
 	public List<MustriTahis> parsiRahuldatudMustriosaleVastavadMustriTahised(
 								HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-								HashMap<String, String> rahuldatudMustriosad){
+								long [] rahuldatudMustriosad,
+								MustriSobitamiseKontekst kontekst){
 		List<MustriTahis> mustriTahised = new ArrayList<MustriTahis>();
 		if (this.fraasiMustriFiltrid != null && !this.fraasiMustriFiltrid.isEmpty()){
 			for (int i = 0; i < (this.fraasiMustriFiltrid).size(); i++) {
 				FraasiMustriFilter filter = fraasiMustriFiltrid.get(i);
 				if (filter.leidubMustriTahis()){
+					long algus = (kontekst.kasKogubProfiili()) ? (System.nanoTime()) : (0L);
 					List<MustriTahis> tahised = 
 						filter.rakendaFiltritJaTagastaMustriTahised(malliRahuldavadAlamFraasid, rahuldatudMustriosad);
+					if (kontekst.kasKogubProfiili()){
+						kontekst.lisaProfiili(filter, System.nanoTime() - algus, tahised != null);
+					}
 					if (tahised != null){
 						mustriTahised.addAll(tahised);
 					}
@@ -340,12 +361,22 @@ public class TuvastamisReegel {
 		// Loome kahepoolse seose tuvastamisreegli ja fraasimustri vahele ...
 		fm.setTuvastamisReegel(this);
 		this.fraasiMuster = fm;
+		// Indeks luuakse vaid esimese mustri m22ramisel: kui mustri teostus hiljem v2lja 
+		// vahetatakse, on filtrid juba olemasoleva indeksi j2rgi kompileeritud
+		if (this.mustriOsadeIndeks == null){
+			this.mustriOsadeIndeks = new MustriOsadeIndeks( (fm.getSonaMallid()).size() );
+		}
 	}
 	
+	/**
+	 *   Lisab tuvastamisreeglile filtri ning kompileerib selle mustrikitsendused (vt 
+	 *  {@link #getMustriOsadeIndeks()}). Fraasimuster peab olema eelnevalt m&auml;&auml;ratud.
+	 */
 	public void lisaFraasiMustriFilter(FraasiMustriFilter mustriFilter){
 		if (this.fraasiMustriFiltrid == null){
 			this.fraasiMustriFiltrid = new LinkedList<FraasiMustriFilter>();
 		}
+		mustriFilter.kompileeriMustriOsad( this.mustriOsadeIndeks );
 		if (mustriFilter.leidubMustriTahis()){
 			this.leidubMustriTahiseid = true;
 		}
@@ -359,18 +390,25 @@ public class TuvastamisReegel {
 		return sb.toString();
 	}
 	
-	public static void setSemanticsModel(String [] newModel){
-		semanticsModel = newModel;
+	/**
+	 *  Tagastab tuvastamisreegli mustriosade indeksi, mille j&auml;rgi luuakse rahuldatud 
+	 *  mustriosade bitihulk (vt {@link MustriOsadeIndeks#looHulk()}).
+	 */
+	public MustriOsadeIndeks getMustriOsadeIndeks() {
+		return mustriOsadeIndeks;
 	}
 	
-	public static String [] getSemanticsModel(){
-		return semanticsModel;
-	}
-
 	public List<NegatiivneMuster> getNegMustrid() {
 		return negMustrid;
 	}
 
+	/**
+	 *  Tagastab tuvastamisreegli fraasimustrifiltrid (v&otilde;i <code>null</code>, kui neid pole).
+	 */
+	public List<FraasiMustriFilter> getFraasiMustriFiltrid() {
+		return fraasiMustriFiltrid;
+	}
+
 	public void setNegMustrid(List<NegatiivneMuster> negMustrid) {
 		this.negMustrid = negMustrid;
 	}
@@ -35,6 +35,7 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaKestvus;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaObjekt;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaObjekt.TYYP;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaPunkt;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.ReferentsAeg;
 import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija;
 import ee.ut.soras.ajavtV2.util.TextUtils;
 
@@ -435,7 +436,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 	 *   Igal juhul (vaatamata sellele, kas lahendamine 6nnestus v6i mitte) muudetakse lipp 
 	 *   <tt>semLahendamineLabiviidud</tt> p2rast meetodi v2ljakutset t&otilde;eseks.
 	 */
-	public AjaObjekt lahendaSemantika(AjaObjekt baasAjaobjekt, String [] aegFookuses, String [] mudel){
+	public AjaObjekt lahendaSemantika(AjaObjekt baasAjaobjekt, ReferentsAeg aegFookuses, String [] mudel){
 		if ( this.alamKandidaadid != null && !(this.alamKandidaadid).isEmpty() ){
 			// 1) Kui antud kandidaadil leidub alamkandidaate
 			// ----------------------------------------------------------------------------------
@@ -541,7 +542,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 										objekt = (this.ankurdatudKandidaat).getSemantikaLahendus().clone();
 										anchorTimeID = ((this.ankurdatudKandidaat).getSemantikaLahendus()).getTimex3Attribute("tid");
 										if (objekt instanceof AjaPunkt){
-											aegFookuses = ((AjaPunkt)objekt).getUnderlyingDateTimeAsGranularitiesArray();
+											aegFookuses = ReferentsAeg.looAjaPunktist((AjaPunkt)objekt);
 										}										
 										//
 										//    Heuristik: kui ankruks on ajaintervall, ankurdame ainult intervalli
@@ -554,7 +555,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 											objekt = (relatedExplicitPoint).clone();
 											anchorTimeID = relatedExplicitPoint.getTimex3Attribute("tid");
 											if (objekt instanceof AjaPunkt){
-												aegFookuses = ((AjaPunkt)objekt).getUnderlyingDateTimeAsGranularitiesArray();
+												aegFookuses = ReferentsAeg.looAjaPunktist((AjaPunkt)objekt);
 											}
 										}
 										semDef.sulgeGranulaarsusedVastavaltAnkrule(objekt);
@@ -566,7 +567,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 											objekt = ((ankurdatuYlemkandidaat).getSemantikaLahendus()).clone();
 											anchorTimeID = ((ankurdatuYlemkandidaat).getSemantikaLahendus()).getTimex3Attribute("tid");
 											if (objekt instanceof AjaPunkt){
-												aegFookuses = ((AjaPunkt)objekt).getUnderlyingDateTimeAsGranularitiesArray();
+												aegFookuses = ReferentsAeg.looAjaPunktist((AjaPunkt)objekt);
 											}
 											//
 											//    Heuristik: kui ankruks on ajaintervall, ankurdame ainult intervalli
@@ -579,7 +580,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 												objekt = (relatedExplicitPoint).clone();												
 												anchorTimeID = (relatedExplicitPoint).getTimex3Attribute("tid");
 												if (objekt instanceof AjaPunkt){
-													aegFookuses = ((AjaPunkt)objekt).getUnderlyingDateTimeAsGranularitiesArray();
+													aegFookuses = ReferentsAeg.looAjaPunktist((AjaPunkt)objekt);
 												}
 											}
 											semDef.sulgeGranulaarsusedVastavaltAnkrule(objekt);
@@ -625,7 +626,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 								if ((operatsioon).equals(SemantikaDefinitsioon.OP.CREATE_beginPoint.toString())){
 									// Varjatud/implitsiitse otspunkti loomine
 									if (!semDef.isExplicitPoint()){
-										beginPoint = new AjaPunkt(TYYP.POINT, aegFookuses);
+										beginPoint = aegFookuses.looAjaPunkt();
 										setPoint = 1;										
 									} else {
 									// Nähtava/eksplitsiitse otspunkti loomine										
@@ -638,7 +639,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 								if ((operatsioon).equals(SemantikaDefinitsioon.OP.CREATE_endPoint.toString())){
 									// Varjatud/implitsiitse otspunkti loomine
 									if (!semDef.isExplicitPoint()){
-										endPoint = new AjaPunkt(TYYP.POINT, aegFookuses);
+										endPoint = aegFookuses.looAjaPunkt();
 									} 
 									setPoint = 2;									
 								}								
@@ -692,12 +693,76 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 		return null;
 	}
 	
+	/**
+	 *   Loob selle ajav&auml;ljendikandidaadi normaliseerimise tulemuse v&otilde;tme dokumentidevahelise
+	 *   vahem&auml;lu jaoks (vt {@link ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.NormaliseerimisteVahemalu}).
+	 *   V&otilde;ti koosneb k&otilde;nehetkest <tt>aegFookuses</tt>, l&auml;hima verbi grammatilisest 
+	 *   ajast tulenevast otsimissuunast (ainult siis, kui m6ni semantikadefinitsioon seda kasutab) ning
+	 *   mudelile <tt>mudel</tt> vastavate semantikadefinitsioonide jadast (operatsioon ja selle argumendid).
+	 *   <p>
+	 *   Tagastab <tt>null</tt>, kui lahendus s6ltub ka muust kui v&otilde;tmes olevast: kandidaadil on 
+	 *   ylem- v6i alamkandidaate, m6ni definitsioon on kontekstist s6ltuv, n6uab ankurdamist, loob vahemiku 
+	 *   otspunkte, seab poolituspunkti v6i muudab p2evaosa (p2evaosa lipikut ajaobjekti kloonimisel ei 
+	 *   kopeerita).
+	 */
+	public String looNormaliseerimiseVoti(ReferentsAeg aegFookuses, String [] mudel){
+		if (this.ylemKandidaat != null || (this.alamKandidaadid != null && !(this.alamKandidaadid).isEmpty()) ||
+				this.semantikaEhitusklotsid == null || (this.semantikaEhitusklotsid).isEmpty()){
+			return null;
+		}
+		StringBuilder voti = new StringBuilder();
+		boolean kasutabVerbiAega = false;
+		for (SemantikaDefinitsioon semDef : this.semantikaEhitusklotsid) {
+			if (!semDef.vastabSemLeidmiseMudelile(mudel)){
+				continue;
+			}
+			String op = semDef.getOp();
+			if (semDef.onKontekstistSoltuv() || semDef.onAnkurdamisOperatsioon() || 
+					semDef.getGranulaarsus() == Granulaarsus.TIME || 
+						(op != null && (op.equals(SemantikaDefinitsioon.OP.CREATE_beginPoint.toString()) ||
+										op.equals(SemantikaDefinitsioon.OP.CREATE_endPoint.toString()) ||
+										op.equals(SemantikaDefinitsioon.OP.SET_HALVING_POINT.toString())))){
+				return null;
+			}
+			if (semDef.getDirection() != null && SemDefValjadeParsija.onVerbiAjaSuund(semDef.getDirection())){
+				kasutabVerbiAega = true;
+			}
+			voti.append('\u0001');
+			voti.append(op);
+			voti.append('\u0002');
+			voti.append(semDef.getAttribute());
+			voti.append('\u0002');
+			voti.append(semDef.getGranulaarsus());
+			voti.append('\u0002');
+			voti.append(semDef.getGranulaarsusStr());
+			voti.append('\u0002');
+			voti.append(semDef.getSemValue());
+			voti.append('\u0002');
+			voti.append(semDef.getSemLabel());
+			voti.append('\u0002');
+			voti.append(semDef.getDirection());
+			voti.append('\u0002');
+			voti.append(semDef.isExplicitPoint());
+		}
+		voti.append('\u0003');
+		if (kasutabVerbiAega){
+			voti.append( SemDefValjadeParsija.parseSeekDirectionFromVerb(this.lahimVerb) );
+		}
+		if (aegFookuses != null){
+			for (String valjaVaartus : aegFookuses.getValjad()) {
+				voti.append('\u0000');
+				voti.append(valjaVaartus);
+			}
+		}
+		return voti.toString();
+	}
+	
 	/**
 	 *   Siia on koondatud (veidi) keeruline loogika, mis tiirleb ajavahemiku otspunkti leidmist ja 
 	 *  realiseerimist t2isv22rtusliku ajapunktina. Kui k6ik l2heb positiivse stsenaariumi j2rgi,
 	 *  kinnitatakse t88 tulemusena antud kandidaadi semantika lahenduseks ajavahemik;
 	 */
-	private void leiaAjavahemikuPuuduvOtspunktJaSeoVahemikuga( String [] aegFookuses ){
+	private void leiaAjavahemikuPuuduvOtspunktJaSeoVahemikuga( ReferentsAeg aegFookuses ){
 		// --------------------------------
 		//   behold! the ~spagetti code
 		// --------------------------------
@@ -763,7 +828,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 																if (teineOtsPunkt != null){
 																	// (f) koondame otspunktid ajavahemikuks
 																	if (this.semantikaLahendus == null){
-																		this.semantikaLahendus = new AjaPunkt(TYYP.POINT, aegFookuses);
+																		this.semantikaLahendus = aegFookuses.looAjaPunkt();
 																	}
 																	if (liikumisSuund > 0){
 																		(this.semantikaLahendus).addRelatedExplicitTIMEX((AjaPunkt)teineOtsPunkt);
@@ -805,7 +870,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 	private boolean kasKandidaadiKontekstOnRakendamiseksSobiv(
 						SemantikaDefinitsioon rakendatavDefinitsioon,
 						boolean ankurdamineLabiviidud,
-						String [] aegFookuses){
+						ReferentsAeg aegFookuses){
 		if (rakendatavDefinitsioon.onKontekstistSoltuv()){
 			//
 			//   Semantikadefinitsiooni kontekstiosas v6ib olla mitu paralleelset kontekstin6uet.
@@ -930,7 +995,7 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 				rakendatavDefinitsioon.kasEtteantudKontekstSisaldubSeotudKontekstis(CONTEXT.ANKRU_GRAN);
 			if (kontekstStr != null && aegFookuses != null){
 				boolean ajalineFookusL2bisKontrolli = 
-					SemDefValjadeParsija.fookusaegRahuldabSeotudKontekstiTingimusi(kontekstStr, aegFookuses);
+					SemDefValjadeParsija.fookusaegRahuldabSeotudKontekstiTingimusi(kontekstStr, aegFookuses.getValjad());
 				if (ajalineFookusL2bisKontrolli){
 					rahuldatudKontekste++;
 				} else {
@@ -1838,4 +1903,59 @@ public class AjavaljendiKandidaat implements Comparable<AjavaljendiKandidaat> {
 		return false;
 	}
 	
+	/**
+	 *    Granulaarsuste bitimask (bitt <tt>1 &lt;&lt; Granulaarsus.ordinal()</tt>) selle kandidaadi 
+	 *   nendest semantikadefinitsioonidest, mis pole ankurdamisoperatsioonid - st granulaarsused, 
+	 *   mida {@link #sobibAnkruKandidaadiks} ankrukandidaadi juures kontrollib.
+	 */
+	public int leiaGranulaarsusteMask(){
+		int mask = 0;
+		if (this.semantikaEhitusklotsid != null){
+			for (SemantikaDefinitsioon semDef : this.semantikaEhitusklotsid) {
+				if (!semDef.onAnkurdamisOperatsioon() && semDef.getGranulaarsus() != null){
+					mask |= 1 << (semDef.getGranulaarsus()).ordinal();
+				}
+			}
+		}
+		return mask;
+	}
+	
+	/**
+	 *    Ankurdamisoperatsiooni n6utud granulaarsuste bitimask (vt {@link #leiaGranulaarsusteMask()}),
+	 *   ankrukandidaatide eelfiltreerimiseks: kui mask pole <tt>-1</tt> ning
+	 *   <tt>sobibAnkruKandidaadiks(ankruKandidaat, ...)</tt> on t&otilde;ene, siis on ka
+	 *   <tt>(mask &amp; ankruKandidaat.leiaGranulaarsusteMask()) != 0</tt>.
+	 *   <p>
+	 *   K6igi granulaarsuste lubamisel (<tt>semField="*"</tt>) tagastab <tt>-1</tt>: siis v6ib
+	 *   <tt>sobibAnkruKandidaadiks</tt> n6ustuda ka kandidaadiga, mille granulaarsuste mask on
+	 *   <tt>0</tt> (nt PRESENT_REF), seega maskiga eelfiltreerida ei tohi. Granulaarsusn6uetega
+	 *   ankurdamisoperatsiooni puudumisel tagastab <tt>0</tt> (ykski kandidaat ankruks ei sobi).
+	 */
+	public int leiaAnkruN6utudGranulaarsusteMask(){
+		if (this.semantikaEhitusklotsid != null){
+			for (SemantikaDefinitsioon semDef : this.semantikaEhitusklotsid) {
+				if (semDef.onAnkurdamisOperatsioon() && semDef.getGranulaarsusStr() != null){
+					if ((Granulaarsus.ALL_GRANULARITIES).equals(semDef.getGranulaarsusStr())){
+						return -1;
+					}
+					List<String> n6utudPosGranulaarsused = new LinkedList<String>();
+					SemDefValjadeParsija.parsiN6utudJaKeelatudTunnused(null, 
+																	   semDef.getGranulaarsusStr(), 
+																	   n6utudPosGranulaarsused, 
+																	   null);
+					int mask = 0;
+					for (String granStr : n6utudPosGranulaarsused) {
+						for (Granulaarsus gran : Granulaarsus.values()) {
+							if (granStr.equals( gran.toString() )){
+								mask |= 1 << gran.ordinal();
+							}
+						}
+					}
+					return mask;
+				}
+			}
+		}
+		return 0;
+	}
+	
 }
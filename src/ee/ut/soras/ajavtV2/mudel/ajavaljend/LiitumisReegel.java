@@ -18,6 +18,8 @@
 
 package ee.ut.soras.ajavtV2.mudel.ajavaljend;
 
+import java.io.Serializable;
+
 import ee.ut.soras.ajavtV2.mudel.MustriTahis;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat.ASTE;
 
@@ -28,7 +30,8 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat.ASTE;
  * 
  *  @author Siim Orasmaa
  */
-public class LiitumisReegel {
+public class LiitumisReegel implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 *  Kas mustritahised peavad olema t&auml;pselt selles jarjekorras, nagu need on
@@ -0,0 +1,146 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.ajavaljend;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ *   Kompileeritud mustrikitsendus (<tt>seotudMustriOsa</tt>, nt <tt>^JARGMINE (NADALAPAEV)</tt>):
+ *  mustriosad, mis peavad olema rahuldatud, ja mustriosad, mis ei tohi olla rahuldatud, 
+ *  bitihulkadena (vt {@link MustriOsadeIndeks}). Kitsendus parsitakse reeglite laadimisel 
+ *  yks kord; sobitamisel kontrollitakse seda rahuldatud mustriosade hulga peal 
+ *  bitioperatsioonidega.
+ *
+ *  @author Siim Orasmaa
+ */
+public class MustriOsaKitsendus implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 *   Mustriosad, mis peavad olema rahuldatud.
+	 */
+	private long [] noutud;
+
+	/**
+	 *   Mustriosad, mis ei tohi olla rahuldatud (eitusega <tt>^</tt> elemendid).
+	 */
+	private long [] keelatud;
+	
+	/**
+	 *   Kitsenduse rahuldamisel tagastatavad positiivselt rahuldatud mustriosad (vt
+	 *  {@link MustristSoltuv#leiaPositiivseltRahuldatudMustriosad(long[])}); <tt>null</tt>, 
+	 *  kui positiivseid elemente pole.
+	 */
+	private List<String> positiivseltRahuldatud;
+	
+	private MustriOsaKitsendus(){
+	}
+	
+	/**
+	 *   Parsib mustrikitsenduse <tt>seotudMustriOsa</tt> ning registreerib selles viidatud mustriosad
+	 *  indeksis <tt>indeks</tt>. Kui <tt>esileToodudOsad == true</tt>, k&auml;sitletakse sulgudega
+	 *  ymbritsetud elementi esiletoodud mustriosana (vt <tt>MustristSoltuv</tt>); vastasel
+	 *  juhul on sulud mustriosa nime osa (nagu <tt>FraasiMustriFilter</tt>-is).
+	 */
+	public static MustriOsaKitsendus kompileeri(String seotudMustriOsa, 
+												boolean esileToodudOsad, 
+												MustriOsadeIndeks indeks){
+		List<Integer> noutudID   = new ArrayList<Integer>();
+		List<Integer> keelatudID = new ArrayList<Integer>();
+		List<String> positiivsed = new ArrayList<String>();
+		String esileToodudMustriOsa = null;
+		StringTokenizer st = new StringTokenizer(seotudMustriOsa);
+		while (st.hasMoreTokens()){
+			String mustriElement = st.nextToken();
+			// Kas on tegu "esiletoodud" mustriosaga (sulud ymber)?
+			boolean esileToodud = esileToodudOsad &&
+					(mustriElement.startsWith("(") && mustriElement.endsWith(")"));
+			if (esileToodud){
+				mustriElement = mustriElement.replace("(", "");
+				mustriElement = mustriElement.replace(")", "");
+			}
+			if (mustriElement.startsWith("^")){
+				mustriElement = mustriElement.replace("^", "");
+				keelatudID.add( Integer.valueOf(indeks.lisaMustriOsa(mustriElement)) );
+			} else {
+				noutudID.add( Integer.valueOf(indeks.lisaMustriOsa(mustriElement)) );
+				positiivsed.add(mustriElement);
+				if (esileToodud){ esileToodudMustriOsa = mustriElement; }
+			}
+		}
+		if (esileToodudMustriOsa != null){
+			positiivsed.clear();
+			positiivsed.add(esileToodudMustriOsa);
+		}
+		MustriOsaKitsendus kitsendus = new MustriOsaKitsendus();
+		kitsendus.noutud   = looHulk(noutudID);
+		kitsendus.keelatud = looHulk(keelatudID);
+		kitsendus.positiivseltRahuldatud = 
+			(!positiivsed.isEmpty()) ? (Collections.unmodifiableList(positiivsed)) : (null);
+		return kitsendus;
+	}
+	
+	private static long [] looHulk(List<Integer> identifikaatorid){
+		int suurim = -1;
+		for (Integer id : identifikaatorid) {
+			suurim = Math.max(suurim, id.intValue());
+		}
+		long [] hulk = new long [ MustriOsadeIndeks.pikkus(suurim + 1) ];
+		for (Integer id : identifikaatorid) {
+			MustriOsadeIndeks.lisa(hulk, id.intValue());
+		}
+		return hulk;
+	}
+	
+	//==============================================================================
+	//   	K o n t r o l l i m i n e
+	//==============================================================================
+
+	/**
+	 *   Kas rahuldatud mustriosade hulk <tt>rahuldatud</tt> (loodud sama indeksi 
+	 *  {@link MustriOsadeIndeks#looHulk()} abil) vastab kitsendusele: k&otilde;ik n&otilde;utud 
+	 *  mustriosad on hulgas ning yhtki keelatud mustriosa hulgas pole?
+	 */
+	public boolean kasRahuldatud(long [] rahuldatud){
+		for (int i = 0; i < (this.noutud).length; i++) {
+			if ((this.noutud[i] & ~rahuldatud[i]) != 0L){
+				return false;
+			}
+		}
+		for (int i = 0; i < (this.keelatud).length; i++) {
+			if ((this.keelatud[i] & rahuldatud[i]) != 0L){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 *   Tagastab kitsenduse rahuldamise korral positiivselt rahuldatud mustriosad (muutumatu 
+	 *  list), vastasel juhul <tt>null</tt>.
+	 */
+	public List<String> leiaPositiivseltRahuldatudMustriosad(long [] rahuldatud){
+		return (kasRahuldatud(rahuldatud)) ? (this.positiivseltRahuldatud) : (null);
+	}
+
+}
@@ -0,0 +1,104 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.ajavaljend;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/**
+ *   Tuvastamisreegli mustriosade (<tt>seotudMustriOsa</tt> elementide) t&auml;isarvulised 
+ *  identifikaatorid. Identifikaatorid 0 kuni <tt>mallideArv-1</tt> on reserveeritud mustri 
+ *  s&otilde;namallide indeksitele (mustriosad "0", "1", ...), j&auml;rgmised antakse 
+ *  kitsendustes viidatud s&otilde;naklassinimedele reeglite laadimisel (vt 
+ *  {@link MustriOsaKitsendus#kompileeri(String, boolean, MustriOsadeIndeks)}).
+ *  <p>
+ *  Rahuldatud mustriosade hulka esitatakse bitihulgana (<code>long []</code>), mille 
+ *  bitt <tt>id</tt> n&auml;itab, kas vastav mustriosa leidis rahuldamist. P&auml;rast reeglite 
+ *  laadimist indeksit ei muudeta, seega v&otilde;ib seda kasutada mitmes l6imes korraga.
+ *
+ *  @author Siim Orasmaa
+ */
+public class MustriOsadeIndeks implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 *   Mustriosa nimi &rarr; identifikaator. 
+	 */
+	private HashMap<String, Integer> identifikaatorid = new HashMap<String, Integer>();
+	
+	public MustriOsadeIndeks(int mallideArv) {
+		for (int i = 0; i < mallideArv; i++) {
+			(this.identifikaatorid).put(String.valueOf(i), Integer.valueOf(i));
+		}
+	}
+
+	/**
+	 *   Tagastab mustriosa <tt>nimi</tt> identifikaatori; kui mustriosa veel indeksis
+	 *  pole, antakse talle uus identifikaator. Kasutusel reeglite laadimisel.
+	 */
+	int lisaMustriOsa(String nimi){
+		Integer id = (this.identifikaatorid).get(nimi);
+		if (id == null){
+			id = Integer.valueOf( (this.identifikaatorid).size() );
+			(this.identifikaatorid).put(nimi, id);
+		}
+		return id.intValue();
+	}
+	
+	/**
+	 *   Tagastab mustriosa <tt>nimi</tt> identifikaatori v&otilde;i <tt>-1</tt>, kui yheski 
+	 *  kitsenduses sellele mustriosale ei viidata.
+	 */
+	public int leiaID(String nimi){
+		Integer id = (this.identifikaatorid).get(nimi);
+		return (id != null) ? (id.intValue()) : (-1);
+	}
+	
+	/**
+	 *   Loob tyhja rahuldatud mustriosade hulga, kuhu mahuvad k&otilde;ik indeksi mustriosad.
+	 */
+	public long [] looHulk(){
+		return new long [ pikkus( (this.identifikaatorid).size() ) ];
+	}
+	
+	/**
+	 *   Lisab hulka <tt>hulk</tt> mustriosa <tt>nimi</tt> (kui sellele m&otilde;nes kitsenduses viidatakse).
+	 */
+	public void lisa(long [] hulk, String nimi){
+		int id = leiaID(nimi);
+		if (id > -1){
+			lisa(hulk, id);
+		}
+	}
+	
+	/**
+	 *   Lisab hulka <tt>hulk</tt> mustriosa identifikaatoriga <tt>id</tt> (nt s&otilde;namalli indeksi).
+	 */
+	public static void lisa(long [] hulk, int id){
+		hulk[id >>> 6] |= (1L << id);
+	}
+
+	/**
+	 *   Mitu <code>long</code>-i on vaja <tt>bitte</tt> biti hoidmiseks.
+	 */
+	static int pikkus(int bitte){
+		return Math.max(1, (bitte + 63) >>> 6);
+	}
+	
+}
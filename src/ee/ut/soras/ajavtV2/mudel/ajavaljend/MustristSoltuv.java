@@ -18,12 +18,8 @@
 
 package ee.ut.soras.ajavtV2.mudel.ajavaljend;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.Serializable;
 import java.util.List;
-import java.util.StringTokenizer;
-
-import ee.ut.soras.ajavtV2.mudel.AjavtSona;
 
 /**
  *  Defineeriva komponendi (<tt>SemDef</tt> v6i <tt>MustriTahis</tt>) mustrists6ltuv osa.
@@ -32,7 +28,8 @@ import ee.ut.soras.ajavtV2.mudel.AjavtSona;
  * 
  * @author Siim Orasmaa
  */
-public class MustristSoltuv {
+public class MustristSoltuv implements Serializable {
+	private static final long serialVersionUID = 1L;
 	
 	/**
 	 *   Milline mustriosa (v6ib koosneda rohkem kui yhest alammustrist) kutsub esile
@@ -61,13 +58,18 @@ public class MustristSoltuv {
 	 */
 	protected String seotudMustriOsa;
 	
+	/**
+	 *   Kompileeritud <tt>seotudMustriOsa</tt> (vt {@link #kompileeriSeotudMustriOsa(MustriOsadeIndeks)}).
+	 */
+	protected MustriOsaKitsendus kitsendus;
+	
 	//==============================================================================
 	//   	M u s t r i g a     s o b i t a m i n e
 	//==============================================================================
 	
 	/**
-	 *     Kontrollib, kas <tt>malliRahuldavadAlamFraasid</tt> ja/voi <tt>rahuldatudMustriosad</tt> 
-	 *    vastavad selle komponendi mustrile (<tt>seotudMustriOsa</tt>) ning kui vastavad,
+	 *     Kontrollib, kas rahuldatud mustriosad (<tt>rahuldatudMustriosad</tt>, bitihulk, vt
+	 *    {@link MustriOsadeIndeks}) vastavad selle komponendi mustrile (<tt>seotudMustriOsa</tt>) ning kui vastavad,
 	 *    tagastab j2rjendi positiivselt sobitunud alamosadest. Tagastab <tt>null</tt> kui
 	 *    sobitamine mustriga ei 6nnestunud. Positiivselt sobitunud alamosade all m6eldakse alamosasid,
 	 *    mis olid olemas, kui nende olemasolu mustris n6uti.
@@ -90,54 +92,29 @@ public class MustristSoltuv {
 	 *    </pre>
 	 *    Kui meetod leiab, et rahuldatud on nii IGA kui ka NADALAPAEV sonamall, tagastab ta just viimase,
 	 *    kuna see on sulgudega ymbritsetud.
+	 *    <p>
+	 *    Muster on eelnevalt kompileeritud (vt {@link #kompileeriSeotudMustriOsa(MustriOsadeIndeks)}),
+	 *    kontrollimine on bitioperatsioon ning tagastatav list on muutumatu.
 	 */
-	public List<String> leiaPositiivseltRahuldatudMustriosad(
-							HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid, 
-							HashMap<String, String> rahuldatudMustriosad){
-		if (this.seotudMustriOsa != null){
-			// 1) parsime mustri lahti
-			StringTokenizer st = new StringTokenizer(this.seotudMustriOsa);
-			List<String> muster = new ArrayList<String>( st.countTokens() );
-			while (st.hasMoreTokens()){
-				muster.add( st.nextToken() );
-			}
-			List<String> positiivseltRahuldatudMustriOsad = new ArrayList<String>();
-			String esileToodudMustriOsa = null;
-			// 2) Kontrollime mustrile vastavust
-			for (int i = 0; i < (muster).size(); i++) {
-				String mustriElement = (muster).get(i);
-				// Kas on tegu "esiletoodud" mustriosaga (sulud ymber)?
-				boolean esileToodud = (mustriElement.startsWith("(") && mustriElement.endsWith(")"));
-				if (esileToodud){
-					mustriElement = mustriElement.replace("(", "");
-					mustriElement = mustriElement.replace(")", "");
-				}
-				boolean eitus        = mustriElement.startsWith("^");
-				if (eitus){
-					mustriElement = mustriElement.replace("^", "");
-					// Kontrollime, et antud mustrit EI esinenud - kui esines, on mittesobivus (mismatch)
-					if (rahuldatudMustriosad.containsKey(mustriElement) || 
-							malliRahuldavadAlamFraasid.containsKey(mustriElement)){
-						return null;
-					}
-				} else {
-					// Kontrollime, et antud mustrit esines - kui ei esinenud, on mittesobivus (mismatch)
-					if (!rahuldatudMustriosad.containsKey(mustriElement) && 
-							!malliRahuldavadAlamFraasid.containsKey(mustriElement)){
-						return null;
-					} else {
-						positiivseltRahuldatudMustriOsad.add(mustriElement);
-						if (esileToodud){ esileToodudMustriOsa = mustriElement; }						
-					}
-				}
-			}
-			if (esileToodudMustriOsa != null){
-				positiivseltRahuldatudMustriOsad.clear();
-				positiivseltRahuldatudMustriOsad.add(esileToodudMustriOsa);
-			}
-			return (!positiivseltRahuldatudMustriOsad.isEmpty()) ? (positiivseltRahuldatudMustriOsad) : (null);
+	public List<String> leiaPositiivseltRahuldatudMustriosad(long [] rahuldatudMustriosad){
+		if (this.kitsendus != null){
+			return (this.kitsendus).leiaPositiivseltRahuldatudMustriosad(rahuldatudMustriosad);
 		}
 		return null;
 	}
 	
+	/**
+	 *    Parsib mustrikitsenduse <tt>seotudMustriOsa</tt> (kui see on olemas) tuvastamisreegli 
+	 *   mustriosade indeksi <tt>indeks</tt> p&otilde;hjal. Kutsutakse v&auml;lja reeglite laadimisel.
+	 */
+	public void kompileeriSeotudMustriOsa(MustriOsadeIndeks indeks){
+		if (this.seotudMustriOsa != null){
+			this.kitsendus = MustriOsaKitsendus.kompileeri(this.seotudMustriOsa, true, indeks);
+		}
+	}
+	
+	public String getSeotudMustriOsa() {
+		return seotudMustriOsa;
+	}
+	
 }
@@ -0,0 +1,250 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.ajavaljend;
+
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon.OP;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaObjekt;
+import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija;
+import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija.FORMAT_OF_VALUE;
+
+/**
+ *   {@link SemantikaDefinitsioon}-i kompileeritud (muutumatu) arvutusoperatsioon: operatsioon 
+ *  <code>OP</code> v&auml;&auml;rtusena, <tt>semValue</tt> formaat ning sellest eelnevalt parsitud 
+ *  t&auml;isarv/murdarv, otsimissuund, <code>FIND_NTH_SUBGRAN</code> granulaarsused ning 
+ *  <code>SET_attrib</code> atribuut ja sellele omistatavad v&auml;&auml;rtused. Nii ei pea 
+ *  <code>rakendaArvutusReeglit()</code> s&otilde;nesid v&otilde;rdlema ega parsima.
+ *  <p>
+ *  Luuakse semantikadefinitsiooni esimesel rakendamisel ning unustatakse, kui m&otilde;nda 
+ *  arvutuses osalevat v&auml;lja muudetakse (vt <code>SemantikaDefinitsioon.getOperatsioon()</code>).
+ *  
+ *  @author Siim Orasmaa
+ */
+final class SemOperatsioon {
+	
+	/**
+	 *  <code>SET_attrib</code> poolt muudetav TIMEX3 atribuut.
+	 */
+	static enum ATRIBUUT {
+		TYPE, MOD, VALUE, BEGINPOINT, ENDPOINT, ANCHORTIMEID, TEMPORALFUNCTION, QUANT, FREQ, MUU
+	};
+	
+	/**
+	 *  Operatsioon; <code>null</code>, kui operatsioon puudub v&otilde;i on tundmatu.
+	 */
+	final OP op;
+	
+	/**
+	 *  <tt>semValue</tt> formaat.
+	 */
+	final FORMAT_OF_VALUE formaat;
+	
+	/**
+	 *  Konkreetne t&auml;isarvuline v&auml;&auml;rtus (konstandina v&otilde;i arvuna antud <tt>semValue</tt>,
+	 *  kui <tt>semLabel</tt> puudub); <code>Integer.MIN_VALUE</code>, kui puudub.
+	 */
+	final int taisarv;
+	
+	/**
+	 *  Murdarvuline v&auml;&auml;rtus (kui <tt>semLabel</tt> puudub); <code>Float.MIN_VALUE</code>, kui puudub.
+	 */
+	final float murdarv;
+	
+	/**
+	 *  <code>ADD</code>/<code>SUBTRACT</code> murdarvulisele v&auml;&auml;rtusele vastav periood ja 
+	 *  modifikaator (vt <code>SemDefValjadeParsija.parsiMurdarvulineAjakvantiteetPerioodiks()</code>).
+	 */
+	final Object [] murdarvuPeriood;
+	
+	/**
+	 *  <code>SEEK</code>/<code>SEEK_IN</code> otsitav t&auml;isarvuline v&auml;&auml;rtus (<tt>semLabel</tt>-ist 
+	 *  s&otilde;ltumata); <code>Integer.MIN_VALUE</code>, kui otsitakse lipikut.
+	 */
+	final int otsitavTaisarv;
+	
+	/**
+	 *  Kas otsimissuund tuleb leida l&auml;hima verbi grammatilisest ajast?
+	 */
+	final boolean suundVerbiAjast;
+	
+	/**
+	 *  Arvuna antud otsimissuund (<code>FIND_NTH_SUBGRAN</code> korral alamosa j&auml;rjekorranumber);
+	 *  <code>Integer.MIN_VALUE</code>, kui puudub.
+	 */
+	final int suund;
+	
+	/**
+	 *  <code>BALDWIN_WINDOW</code> v&auml;&auml;rtus.
+	 */
+	final String baldwiniVaartus;
+
+	/**
+	 *  <code>COVER_VAL</code> v&auml;&auml;rtus; <code>Integer.MIN_VALUE</code>, kui puudub.
+	 */
+	final int kinnikatmiseArv;
+	
+	/**
+	 *  <code>FIND_NTH_SUBGRAN</code> granulaarsused (<tt>granulaarsusStr</tt> kujul <tt>ylem:alam</tt>).
+	 */
+	final Granulaarsus ylemGranulaarsus;
+	final Granulaarsus alamGranulaarsus;
+	final boolean leiduvadAlamGranulaarsused;
+	
+	/**
+	 *  <code>SET_attrib</code> atribuut; <code>null</code>, kui atribuut puudub.
+	 */
+	final ATRIBUUT atribuut;
+	
+	/**
+	 *  <code>SET_attrib type</code> korral <tt>semValue</tt> tyybina.
+	 */
+	final AjaObjekt.TYYP tyyp;
+	
+	/**
+	 *  <code>SET_attrib value</code> korral korduvuse (RECURRENCE) ISO perioodina v&auml;&auml;rtus.
+	 */
+	final String korduvuseVaartus;
+	
+	/**
+	 *  <code>SET_attrib freq</code> korral TIMEX3 <tt>freq</tt> v&auml;&auml;rtus.
+	 */
+	final String sagedus;
+	
+	SemOperatsioon(SemantikaDefinitsioon semDef){
+		String semValue        = semDef.getSemValue();
+		Granulaarsus gran      = semDef.getGranulaarsus();
+		String direction       = semDef.getDirection();
+		String attribute       = semDef.getAttribute();
+		// ---- op
+		OP leitudOp = null;
+		if (semDef.getOp() != null){
+			for (OP o : OP.values()) {
+				if ((o.toString()).equals(semDef.getOp())){
+					leitudOp = o;
+					break;
+				}
+			}
+		}
+		this.op = leitudOp;
+		// ---- semValue
+		this.formaat = SemDefValjadeParsija.detectFormatOfValue(semValue);
+		int t = Integer.MIN_VALUE;
+		float f = Float.MIN_VALUE;
+		if (semDef.getSemLabel() == null && semValue != null){
+			if (this.formaat == FORMAT_OF_VALUE.CONSTANT){
+				t = SemDefValjadeParsija.parseValueFromConstant(semValue);
+			} else if (this.formaat == FORMAT_OF_VALUE.INTEGER){
+				t = parsiTaisarv(semValue.replace("+", ""));
+			} else if (this.formaat == FORMAT_OF_VALUE.FRACTION){
+				try {
+					f = Float.parseFloat((semValue.replace("+", "")).replace(",", "."));
+				} catch (NumberFormatException e) {
+				}
+			}
+		}
+		this.taisarv = t;
+		this.murdarv = f;
+		this.murdarvuPeriood = (f != Float.MIN_VALUE && gran != null) ? 
+				(SemDefValjadeParsija.parsiMurdarvulineAjakvantiteetPerioodiks(gran, f)) : (null);
+		// ---- SEEK
+		if (this.formaat == FORMAT_OF_VALUE.CONSTANT){
+			this.otsitavTaisarv = SemDefValjadeParsija.parseValueFromConstant(semValue);
+		} else if (this.formaat == FORMAT_OF_VALUE.INTEGER){
+			this.otsitavTaisarv = parsiTaisarv(semValue.replace("+", ""));
+		} else {
+			this.otsitavTaisarv = Integer.MIN_VALUE;
+		}
+		this.suundVerbiAjast = (direction != null && SemDefValjadeParsija.onVerbiAjaSuund(direction));
+		this.suund = (direction != null && !this.suundVerbiAjast) ? 
+				(parsiTaisarv(direction.replace("+", ""))) : (Integer.MIN_VALUE);
+		// ---- BALDWIN_WINDOW
+		if (this.formaat == FORMAT_OF_VALUE.CONSTANT && 
+				SemDefValjadeParsija.parseValueFromConstant(semValue) != Integer.MIN_VALUE){
+			this.baldwiniVaartus = String.valueOf( SemDefValjadeParsija.parseValueFromConstant(semValue) );
+		} else {
+			this.baldwiniVaartus = semValue;
+		}
+		// ---- COVER_VAL
+		this.kinnikatmiseArv = (semValue != null) ? (parsiTaisarv(semValue.replace("+", ""))) : (Integer.MIN_VALUE);
+		// ---- FIND_NTH_SUBGRAN
+		String granStrings [] = (semDef.getGranulaarsusStr() != null) ? 
+				((semDef.getGranulaarsusStr()).split(":")) : (null);
+		this.leiduvadAlamGranulaarsused = (granStrings != null && granStrings.length > 1);
+		this.ylemGranulaarsus = (this.leiduvadAlamGranulaarsused) ? (Granulaarsus.getGranulaarsus(granStrings[0])) : (null);
+		this.alamGranulaarsus = (this.leiduvadAlamGranulaarsused) ? (Granulaarsus.getGranulaarsus(granStrings[1])) : (null);
+		// ---- SET_attrib
+		ATRIBUUT a = null;
+		if (attribute != null){
+			a = ATRIBUUT.MUU;
+			for (ATRIBUUT atr : ATRIBUUT.values()) {
+				if ((atr.toString()).equalsIgnoreCase(attribute)){
+					a = atr;
+					break;
+				}
+			}
+		}
+		this.atribuut = a;
+		AjaObjekt.TYYP leitudTyyp = null;
+		String korduvus = null;
+		String sagedusStr = null;
+		if (semValue != null){
+			for (AjaObjekt.TYYP ty : AjaObjekt.TYYP.values()) {
+				if ((ty.toString()).equals(semValue)){
+					leitudTyyp = ty;
+				}
+			}
+			if (gran != null && gran.getAsISOdurationElement() != null){
+				String prefiks = (gran.compareByCoarseRank(Granulaarsus.HOUR_OF_DAY) == 1) ? ("P") : ("PT");
+				if (semValue.matches("[0-9]+")){
+					korduvus = prefiks + semValue + gran.getAsISOdurationElement();
+				} else if (semValue.matches("[0-9]+,[0-9]+")) {
+					String [] perioodS6nena = 
+						SemDefValjadeParsija.parsiMurdarvulineAjakvantiteetS6neks(gran, semValue);
+					if (perioodS6nena != null){
+						korduvus = perioodS6nena[0];
+					}
+				}
+			}
+			int sagedusInt = parsiTaisarv(semValue);
+			if (sagedusInt != Integer.MIN_VALUE && sagedusInt > 0){
+				sagedusStr = String.valueOf(sagedusInt);
+				if (gran != null && gran.getAsISOdurationElement() != null){
+					if (gran.compareByCoarseRank(Granulaarsus.HOUR_OF_DAY) == 1){
+						sagedusStr = sagedusStr + gran.getAsISOdurationElement();
+					} else {
+						sagedusStr = "T" + sagedusStr + gran.getAsISOdurationElement();
+					}
+				} else {
+					sagedusStr = sagedusStr + "X";
+				}
+			}
+		}
+		this.tyyp = leitudTyyp;
+		this.korduvuseVaartus = korduvus;
+		this.sagedus = sagedusStr;
+	}
+	
+	private static int parsiTaisarv(String s){
+		try {
+			return Integer.parseInt(s);
+		} catch (NumberFormatException e) {
+			return Integer.MIN_VALUE;
+		}
+	}
+	
+}
@@ -31,7 +31,7 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaKestvus;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaObjekt;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaObjekt.TYYP;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.AjaPunkt;
-import ee.ut.soras.ajavtV2.util.LogiPidaja;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus.ReferentsAeg;
 import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija;
 import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija.FORMAT_OF_VALUE;
 import ee.ut.soras.ajavtV2.util.TextUtils;
@@ -49,9 +49,8 @@ import ee.ut.soras.ajavtV2.util.TextUtils;
  *   @author Siim Orasmaa
  */
 public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable < SemantikaDefinitsioon >{
+	private static final long serialVersionUID = 1L;
 
-	public static LogiPidaja logi;
-	
 	/**
 	 *  Arvutusoperatsioonide nimetused.
 	 */	
@@ -226,6 +225,11 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 	 */
 	private String attribute = null;
 	
+	/**
+	 *    Kompileeritud arvutusoperatsioon (vt {@link #getOperatsioon()}); ei serialiseerita.
+	 */
+	private transient SemOperatsioon operatsioon = null;
+	
 	//==============================================================================
 	//   	S e m a n t i k a   a r v u t a m i n e 
 	//==============================================================================	
@@ -234,16 +238,20 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 	 *   Sooritab selle semantikadefinitsiooni poolt kirjeldatud arvutusoperatsiooni etteantud ajaobjekti 
 	 *  (<tt>alusObjekt</tt>) peal. Voib luua ka uue ajaobjekti, kui operatsioon seda ette naeb. Tagastab 
 	 *  operatsiooni tulemusena muudetud voi loodud ajaobjekti.
+	 *  <p>
+	 *  Operatsioon ja selle argumendid on eelnevalt parsitud (vt {@link #getOperatsioon()}), seega 
+	 *  siin s6nesid ei v6rrelda ega parsita.
 	 */
-	public AjaObjekt rakendaArvutusReeglit(AjaObjekt alusObjekt, String [] aegFookuses, AjavtSona lahimVerb){
+	public AjaObjekt rakendaArvutusReeglit(AjaObjekt alusObjekt, ReferentsAeg aegFookuses, AjavtSona lahimVerb){
 		if (this.op != null){
-			if ((this.op).equals(SemantikaDefinitsioon.OP.CREATE_beginPoint.toString()) && this.isExplicitPoint){
+			SemOperatsioon operatsioon = getOperatsioon();
+			if (operatsioon.op == OP.CREATE_beginPoint && this.isExplicitPoint){
 				// Kui alusobjekt on m22ramata v6i selleks on mitteajapunkt, loome uue 
 				// intervalli eksplitsiitsete punktidena ...
 				if (alusObjekt == null || !(alusObjekt instanceof AjaPunkt)){
-					alusObjekt = new AjaPunkt( AjaObjekt.TYYP.POINT, aegFookuses );
-					AjaPunkt algusPunkt = new AjaPunkt( AjaObjekt.TYYP.POINT, aegFookuses );
-					AjaPunkt loppPunkt  = new AjaPunkt( AjaObjekt.TYYP.POINT, aegFookuses );
+					alusObjekt = aegFookuses.looAjaPunkt();
+					AjaPunkt algusPunkt = aegFookuses.looAjaPunkt();
+					AjaPunkt loppPunkt  = aegFookuses.looAjaPunkt();
 					alusObjekt.addRelatedExplicitTIMEX( algusPunkt );
 					alusObjekt.addRelatedExplicitTIMEX( loppPunkt  );
 				} else if (alusObjekt instanceof AjaPunkt){
@@ -255,327 +263,202 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 				return alusObjekt;
 			}
 			if (alusObjekt == null){
-				alusObjekt = new AjaPunkt( AjaObjekt.TYYP.POINT, aegFookuses );
-			}
-			int   semValueAsInt  = Integer.MIN_VALUE;
-			float semValueAsFrac = Float.MIN_VALUE;
-			// Kas on tegemist konkreetse Value v22rtusega?
-			if (this.semLabel == null && this.semValue != null){
-				// A. Value - parsime selle lahti
-				FORMAT_OF_VALUE formatOfValue = SemDefValjadeParsija.detectFormatOfValue(this.semValue);
-				if (formatOfValue == FORMAT_OF_VALUE.CONSTANT){
-					// proovime konstandi parsimist
-					semValueAsInt = SemDefValjadeParsija.parseValueFromConstant(this.semValue);
-				} else if (formatOfValue == FORMAT_OF_VALUE.INTEGER){
-					// proovime tavalise arvu parsimist
-					try {
-						String withOutPlus = (this.semValue).replace("+", "");
-						semValueAsInt = Integer.parseInt(withOutPlus);
-					} catch (NumberFormatException e) {
-					}
-				} else if (formatOfValue == FORMAT_OF_VALUE.FRACTION){
-					// proovime murdarvu parsimist
-					try {
-						String withOutPlusAndWithPoint = ((this.semValue).replace("+", "")).replace(",", ".");
-						semValueAsFrac = Float.parseFloat(withOutPlusAndWithPoint);
-					} catch (NumberFormatException e) {
-					}
-				}
+				alusObjekt = aegFookuses.looAjaPunkt();
 			}
+			// Konkreetne Value v22rtus (kui see on olemas)
+			int   semValueAsInt  = operatsioon.taisarv;
+			float semValueAsFrac = operatsioon.murdarv;
 			// SET, ADD, SEEK operatsioonid, BALDWIN_WINDOW algoritm, COVER_VAL
-			if (this.granulaarsus != null){
-				if ((this.op).equals(OP.SET.toString())){
-					// ------------- konkreetne Value
-					if (semValueAsInt != Integer.MIN_VALUE){
-						alusObjekt.setField(this.granulaarsus, semValueAsInt);
-					}
-					// ------------- Value-Label ainult				
-					if (this.semLabel != null){
-						alusObjekt.setField(this.granulaarsus, this.semLabel);
-					}
-				}
-				if ((this.op).equals(OP.ADD.toString()) || (this.op).equals(OP.SUBTRACT.toString())){
-					// ------------- konkreetne Value
-					if (semValueAsInt != Integer.MIN_VALUE){
-						if ((this.op).equals(OP.SUBTRACT.toString())){
-							semValueAsInt *= -1;
+			if (this.granulaarsus != null && operatsioon.op != null){
+				switch (operatsioon.op) {
+					case SET:
+						// ------------- konkreetne Value
+						if (semValueAsInt != Integer.MIN_VALUE){
+							alusObjekt.setField(this.granulaarsus, semValueAsInt);
 						}
-						alusObjekt.addToField(this.granulaarsus, semValueAsInt);
-					}
-					// ------------- komakohaga value : parsime lahti kahe granulaarsusega perioodiks
-					if (semValueAsFrac != Float.MIN_VALUE){
-						Object[] perioodJaMOD = 
-							SemDefValjadeParsija.parsiMurdarvulineAjakvantiteetPerioodiks(this.granulaarsus, semValueAsFrac);
-						if (perioodJaMOD != null && perioodJaMOD[0] != null){
-							alusObjekt.addToField(
-									this.granulaarsus, 
-									(Period)perioodJaMOD[0],
-										((this.op).equals(OP.SUBTRACT.toString())) ? (-1) : (1) );
-							if (perioodJaMOD.length == 2){
-								alusObjekt.setTimex3Attribute( "mod", (String)perioodJaMOD[1] );
-							}
+						// ------------- Value-Label ainult				
+						if (this.semLabel != null){
+							alusObjekt.setField(this.granulaarsus, this.semLabel);
 						}
-					}
-					// ------------- ainult kestvuste korral: umbm22rane kestvus					
-					if (semValueAsInt == Integer.MIN_VALUE && (alusObjekt instanceof AjaKestvus) && (this.semValue != null)){
-						((AjaKestvus)alusObjekt).addToField(this.granulaarsus, this.semValue);
-					}
-				}
-				if (this.direction != null){
-					// Tavaline SEEK
-					if ( (this.op).equals(OP.SEEK.toString()) ){
-						// 1) Parsime lahti otsimissuuna					
-						int direction = SemDefValjadeParsija.parseSeekDirection(this.direction, lahimVerb);						
-						if (direction != Integer.MIN_VALUE){
-							int valueToSeekAsInt = Integer.MIN_VALUE;
-							// 2) Parsime lahti otsitava v22rtuse (valueToSeek == semValue)
-							FORMAT_OF_VALUE formatOfValue = SemDefValjadeParsija.detectFormatOfValue(this.semValue);
-							if (formatOfValue == FORMAT_OF_VALUE.CONSTANT){
-								// proovime konstandi parsimist
-								valueToSeekAsInt = SemDefValjadeParsija.parseValueFromConstant(this.semValue);
-							} else if (formatOfValue == FORMAT_OF_VALUE.INTEGER){
-								// proovime tavalise arvu parsimist
-								try {
-									String withOutPlus = (this.semValue).replace("+", "");
-									valueToSeekAsInt = Integer.parseInt(withOutPlus);
-								} catch (NumberFormatException e) {
-								}					
-							}
-							if (valueToSeekAsInt != Integer.MIN_VALUE){
-								// ------------- Otsitav v22rtus on konkreetne t2isarv
-								alusObjekt.seekField(this.granulaarsus, direction, valueToSeekAsInt, true);	
-							} else {
-								// ------------- Otsitav v22rtus on Value-Label
-								alusObjekt.seekField(this.granulaarsus, direction, this.semValue, true);
-							}
-						} else {
-							// Suuna m22ramine eba6nnestus: langeme tagasi SET operatsiooniks ...
-							// ------------- konkreetne Value
-							if (semValueAsInt != Integer.MIN_VALUE){
-								alusObjekt.setField(this.granulaarsus, semValueAsInt);
-								// Hakk: kui on tegemist n2dalap2evaga, "muudame" ka n2dalat, et saada
-								// 6ige formaat (kuup6hine formaat)
-								if (this.granulaarsus == Granulaarsus.DAY_OF_WEEK){
-									alusObjekt.addToField(Granulaarsus.WEEK_OF_YEAR, 0);
+						break;
+					case ADD:
+					case SUBTRACT:
+						// ------------- konkreetne Value
+						if (semValueAsInt != Integer.MIN_VALUE){
+							alusObjekt.addToField(this.granulaarsus, 
+									(operatsioon.op == OP.SUBTRACT) ? (-1 * semValueAsInt) : (semValueAsInt));
+						}
+						// ------------- komakohaga value : parsime lahti kahe granulaarsusega perioodiks
+						if (semValueAsFrac != Float.MIN_VALUE){
+							Object[] perioodJaMOD = operatsioon.murdarvuPeriood;
+							if (perioodJaMOD != null && perioodJaMOD[0] != null){
+								alusObjekt.addToField(
+										this.granulaarsus, 
+										(Period)perioodJaMOD[0],
+											(operatsioon.op == OP.SUBTRACT) ? (-1) : (1) );
+								if (perioodJaMOD.length == 2){
+									alusObjekt.setTimex3Attribute( "mod", (String)perioodJaMOD[1] );
 								}
 							}
-							// ------------- Value-Label ainult				
-							if (this.semLabel != null){
-								alusObjekt.setField(this.granulaarsus, this.semLabel);
-							}
 						}
-					}
-					// Referentsaja hetke mittev2listav SEEK; v6ib suuna v6tta (verbi) grammatilisest ajast;
-					// NB! Kui suuna m22ramine eba6nnestub, "langeb tagasi" SET operatsiooniks
-					if ( (this.op).equals(OP.SEEK_IN.toString()) ){
-						// 1) Parsime lahti otsimissuuna					
-						int seek_dir = SemDefValjadeParsija.parseSeekDirection(this.direction, lahimVerb);
-						if (seek_dir != Integer.MIN_VALUE){
-							int valueToSeekAsInt = Integer.MIN_VALUE;
-							// 2) Parsime lahti otsitava v22rtuse (valueToSeek == semValue)
-							FORMAT_OF_VALUE formatOfValue = SemDefValjadeParsija.detectFormatOfValue(this.semValue);
-							if (formatOfValue == FORMAT_OF_VALUE.CONSTANT){
-								// proovime konstandi parsimist
-								valueToSeekAsInt = SemDefValjadeParsija.parseValueFromConstant(this.semValue);
-							} else if (formatOfValue == FORMAT_OF_VALUE.INTEGER){
-								// proovime tavalise arvu parsimist
-								try {
-									String withOutPlus = (this.semValue).replace("+", "");
-									valueToSeekAsInt = Integer.parseInt(withOutPlus);
-								} catch (NumberFormatException e) {
-								}					
-							}
-							if (valueToSeekAsInt != Integer.MIN_VALUE){
-								// ------------- Otsitav v22rtus on konkreetne t2isarv
-								alusObjekt.seekField(this.granulaarsus, seek_dir, valueToSeekAsInt, false);	
+						// ------------- ainult kestvuste korral: umbm22rane kestvus					
+						if (semValueAsInt == Integer.MIN_VALUE && (alusObjekt instanceof AjaKestvus) && (this.semValue != null)){
+							((AjaKestvus)alusObjekt).addToField(this.granulaarsus, this.semValue);
+						}
+						break;
+					case SEEK:
+					case SEEK_IN:
+						// Tavaline SEEK v2listab referentsaja hetke; SEEK_IN ei v2lista. Suuna v6ib 
+						// v6tta (verbi) grammatilisest ajast; NB! Kui suuna m22ramine eba6nnestub, 
+						// "langeb tagasi" SET operatsiooniks
+						if (this.direction != null){
+							// 1) Otsimissuund
+							int seek_dir = (operatsioon.suundVerbiAjast) ? 
+									(SemDefValjadeParsija.parseSeekDirectionFromVerb(lahimVerb)) : (operatsioon.suund);
+							if (seek_dir != Integer.MIN_VALUE){
+								// 2) Otsitav v22rtus (valueToSeek == semValue)
+								if (operatsioon.otsitavTaisarv != Integer.MIN_VALUE){
+									// ------------- Otsitav v22rtus on konkreetne t2isarv
+									alusObjekt.seekField(this.granulaarsus, seek_dir, operatsioon.otsitavTaisarv, 
+											operatsioon.op == OP.SEEK);	
+								} else {
+									// ------------- Otsitav v22rtus on Value-Label
+									alusObjekt.seekField(this.granulaarsus, seek_dir, this.semValue, 
+											operatsioon.op == OP.SEEK);
+								}
 							} else {
-								// ------------- Otsitav v22rtus on Value-Label
-								alusObjekt.seekField(this.granulaarsus, seek_dir, this.semValue, false);
-							}
-						} else {
-							// Suuna m22ramine eba6nnestus: langeme tagasi SET operatsiooniks ...
-							// ------------- konkreetne Value
-							if (semValueAsInt != Integer.MIN_VALUE){
-								alusObjekt.setField(this.granulaarsus, semValueAsInt);
-								// Hakk: kui on tegemist n2dalap2evaga, "muudame" ka n2dalat, et saada
-								// 6ige formaat (kuup6hine formaat)
-								if (this.granulaarsus == Granulaarsus.DAY_OF_WEEK){
-									alusObjekt.addToField(Granulaarsus.WEEK_OF_YEAR, 0);
+								// Suuna m22ramine eba6nnestus: langeme tagasi SET operatsiooniks ...
+								// ------------- konkreetne Value
+								if (semValueAsInt != Integer.MIN_VALUE){
+									alusObjekt.setField(this.granulaarsus, semValueAsInt);
+									// Hakk: kui on tegemist n2dalap2evaga, "muudame" ka n2dalat, et saada
+									// 6ige formaat (kuup6hine formaat)
+									if (this.granulaarsus == Granulaarsus.DAY_OF_WEEK){
+										alusObjekt.addToField(Granulaarsus.WEEK_OF_YEAR, 0);
+									}
+								}
+								// ------------- Value-Label ainult				
+								if (this.semLabel != null){
+									alusObjekt.setField(this.granulaarsus, this.semLabel);
 								}
-							}
-							// ------------- Value-Label ainult				
-							if (this.semLabel != null){
-								alusObjekt.setField(this.granulaarsus, this.semLabel);
 							}
 						}
-					}
-				}
-				// Yldistatud Baldwini akna konseptsiooni rakendamine 					
-				if ((this.op).equals(OP.BALDWIN_WINDOW.toString())){
-					if (alusObjekt instanceof AjaPunkt){
-						FORMAT_OF_VALUE formatOfValue = SemDefValjadeParsija.detectFormatOfValue(this.semValue);
-						if (formatOfValue == FORMAT_OF_VALUE.CONSTANT){
-							// proovime konstandi parsimist
-							int valueAsInt = SemDefValjadeParsija.parseValueFromConstant(this.semValue);
-							if (valueAsInt != Integer.MIN_VALUE){
-								// ------------- konkreetne Value								
-								((AjaPunkt)alusObjekt).applyBalwinWindow(this.granulaarsus, String.valueOf(valueAsInt));
-							} else {
-								// ------------- Value lipik								
-								((AjaPunkt)alusObjekt).applyBalwinWindow(this.granulaarsus, this.semValue);
-							}
-						} else {
-							// ------------- Value t2isarv
-							((AjaPunkt)alusObjekt).applyBalwinWindow(this.granulaarsus, this.semValue);							
+						break;
+					case BALDWIN_WINDOW:
+						// Yldistatud Baldwini akna konseptsiooni rakendamine 					
+						if (alusObjekt instanceof AjaPunkt){
+							((AjaPunkt)alusObjekt).applyBalwinWindow(this.granulaarsus, operatsioon.baldwiniVaartus);
 						}
-					}
-				}
-				// V22rtuste kinnikatmine
-				if ((this.op).equals( OP.COVER_VAL.toString() )){
-					// Siin tuleb semValue eraldi lahti parsida, kuna v6ib olla, et semLabel on olemas
-					// ning seet6ttu semValue j22nud parsimata (nt aastaaegade korral)
-					try {
-						String withOutPlus = (this.semValue).replace("+", "");
-						semValueAsInt = Integer.parseInt(withOutPlus);
-					} catch (NumberFormatException e) {
-						semValueAsInt = Integer.MIN_VALUE;
-					}
-					// ------------- konkreetne Value
-					if (semValueAsInt != Integer.MIN_VALUE){
-						alusObjekt.closeGranularitiesBelow(this.granulaarsus, semValueAsInt);
-					}
+						break;
+					case COVER_VAL:
+						// V22rtuste kinnikatmine (semValue parsitakse eraldi, kuna v6ib olla, et 
+						// semLabel on olemas ning seet6ttu semValue j22nud parsimata, nt aastaaegade korral)
+						if (operatsioon.kinnikatmiseArv != Integer.MIN_VALUE){
+							alusObjekt.closeGranularitiesBelow(this.granulaarsus, operatsioon.kinnikatmiseArv);
+						}
+						break;
+					default:
+						break;
 				}
 			}
 			// FIND_NTH_SUBGRAN: etteantud granulaarsuse n-inda alamosa leidmine, 
 			// kus alamosa vastab teatud tingimustele ...
-			if ((this.op).equals( (OP.FIND_NTH_SUBGRAN).toString() ) && this.direction != null){
+			if (operatsioon.op == OP.FIND_NTH_SUBGRAN && this.direction != null){
 				if (this.granulaarsusStr != null && semValueAsInt != Integer.MIN_VALUE){
-					String granStrings [] = (this.granulaarsusStr).split(":");
-					if (granStrings.length > 1){
-						// Parsime granulaarsused
-						Granulaarsus superField = Granulaarsus.getGranulaarsus( granStrings[0] );
-						Granulaarsus subField   = Granulaarsus.getGranulaarsus( granStrings[1] );
-						// Parsime arvu alamosa jarjekorranumbri n
-						int n = Integer.MIN_VALUE;
-						String withOutPlus = (this.direction).replace("+", "");
-						try {
-							n = Integer.parseInt( withOutPlus );
-						} catch (NumberFormatException e) {
-						}
+					if (operatsioon.leiduvadAlamGranulaarsused){
+						// alamosa jarjekorranumber n
+						int n = operatsioon.suund;
 						if (n != Integer.MIN_VALUE){
-							((AjaPunkt)alusObjekt).findNthSubpartOfGranularity(superField, subField, semValueAsInt, n);
+							((AjaPunkt)alusObjekt).findNthSubpartOfGranularity(operatsioon.ylemGranulaarsus, 
+									operatsioon.alamGranulaarsus, semValueAsInt, n);
 						}
 					}
 				}
 			}
 			// SET_attrib: TIMEX3 mingi atribuudi muutmine/ylekirjutamine + sellest tulenev lisategevus
-			if ((this.op).equals((OP.SET_attrib).toString()) && this.attribute != null){
+			if (operatsioon.op == OP.SET_attrib && this.attribute != null){
 				if (this.semValue != null){
-					// --------------------       TYPE      ----------------------------------
-					if ((this.attribute).equalsIgnoreCase("type")){
-						// RECURRENCE
-						if ((this.semValue).equals((AjaObjekt.TYYP.RECURRENCE).toString()) &&
-								alusObjekt instanceof AjaPunkt){
-							((AjaPunkt)alusObjekt).setType(TYYP.RECURRENCE);
-						}
-						// TIME
-						if ((this.semValue).equals((AjaObjekt.TYYP.TIME).toString()) &&
-								alusObjekt instanceof AjaPunkt){
-							((AjaPunkt)alusObjekt).setType(TYYP.TIME);
-						}					
-						// DURATION
-						if ((this.semValue).equals((AjaObjekt.TYYP.DURATION).toString())){
-							alusObjekt = new AjaKestvus();
-						}
-					}
-					// --------------------       MOD      ----------------------------------
-					if ((this.attribute).equalsIgnoreCase("mod")){
-						alusObjekt.setTimex3Attribute("mod", this.semValue);
-					}
-					// --------------------      VALUE      ----------------------------------
-					if ((this.attribute).equalsIgnoreCase("value")){
-						if (this.direction == null){
-							alusObjekt.setTimex3Attribute("value", this.semValue);
-						}
-						// ----------------  Ajaline korduvus --------------------------------
-						if (alusObjekt.getType() == TYYP.RECURRENCE){
-							if (this.granulaarsus != null && (this.granulaarsus).getAsISOdurationElement() != null){
-									if ((this.granulaarsus).compareByCoarseRank(Granulaarsus.HOUR_OF_DAY) == 1){
-										if ((this.semValue).matches("[0-9]+")){
-											String newVal = "P" + (this.semValue) + (this.granulaarsus).getAsISOdurationElement();
-											alusObjekt.setTimex3Attribute("value", newVal);
-										} else if ((this.semValue).matches("[0-9]+,[0-9]+")) {
-											String [] perioodS6nena = 
-												SemDefValjadeParsija.parsiMurdarvulineAjakvantiteetS6neks(granulaarsus, this.semValue);
-											if (perioodS6nena != null){
-												alusObjekt.setTimex3Attribute("value", perioodS6nena[0]);
-											}
-										}
-									} else {
-										if ((this.semValue).matches("[0-9]+")){
-											String newVal = "PT" + (this.semValue) + (this.granulaarsus).getAsISOdurationElement();
-											alusObjekt.setTimex3Attribute("value", newVal);
-										} else if ((this.semValue).matches("[0-9]+,[0-9]+")) {
-											String [] perioodS6nena = 
-												SemDefValjadeParsija.parsiMurdarvulineAjakvantiteetS6neks(granulaarsus, this.semValue);
-											if (perioodS6nena != null){
-												alusObjekt.setTimex3Attribute("value", perioodS6nena[0]);
-											}
-										}
-									}
+					switch (operatsioon.atribuut) {
+						// --------------------       TYPE      ----------------------------------
+						case TYPE:
+							if ((operatsioon.tyyp == TYYP.RECURRENCE || operatsioon.tyyp == TYYP.TIME) &&
+									alusObjekt instanceof AjaPunkt){
+								((AjaPunkt)alusObjekt).setType(operatsioon.tyyp);
 							}
-						}
-					}
-					// -----------------   beginPoint, endPoint  -----------------------------
-					// Kestvuse alguspunkti/l6pp-punkti määramine, esialgu pole t2ielikult v2lja ehitatud
-					if (alusObjekt instanceof AjaKestvus){
-						if ((this.attribute).equalsIgnoreCase("beginPoint")){
-							(alusObjekt).setTimex3Attribute("beginPoint", this.semValue);
-						}
-						if ((this.attribute).equalsIgnoreCase("endPoint")){
-							(alusObjekt).setTimex3Attribute("endPoint", this.semValue);
-						}				
-					}
-					// -----------------     anchorTimeID    -----------------------------
-					if ((this.attribute).equalsIgnoreCase("anchorTimeID")){
-						(alusObjekt).setTimex3Attribute("anchorTimeID", this.semValue);
-					}
-					// -----------------     temporalFunction    -------------------------
-					if ((this.attribute).equalsIgnoreCase("temporalFunction")){
-						(alusObjekt).setTimex3Attribute("temporalFunction", this.semValue);
-					}					
-					if (alusObjekt.getType() == TYYP.RECURRENCE){
+							if (operatsioon.tyyp == TYYP.DURATION){
+								alusObjekt = new AjaKestvus();
+							}
+							break;
+						// --------------------       MOD      ----------------------------------
+						case MOD:
+							alusObjekt.setTimex3Attribute("mod", this.semValue);
+							break;
+						// --------------------      VALUE      ----------------------------------
+						case VALUE:
+							if (this.direction == null){
+								alusObjekt.setTimex3Attribute("value", this.semValue);
+							}
+							// ----------------  Ajaline korduvus --------------------------------
+							if (alusObjekt.getType() == TYYP.RECURRENCE && operatsioon.korduvuseVaartus != null){
+								alusObjekt.setTimex3Attribute("value", operatsioon.korduvuseVaartus);
+							}
+							break;
+						// -----------------   beginPoint, endPoint  -----------------------------
+						// Kestvuse alguspunkti/l6pp-punkti määramine, esialgu pole t2ielikult v2lja ehitatud
+						case BEGINPOINT:
+							if (alusObjekt instanceof AjaKestvus){
+								(alusObjekt).setTimex3Attribute("beginPoint", this.semValue);
+							}
+							break;
+						case ENDPOINT:
+							if (alusObjekt instanceof AjaKestvus){
+								(alusObjekt).setTimex3Attribute("endPoint", this.semValue);
+							}
+							break;
+						// -----------------     anchorTimeID    -----------------------------
+						case ANCHORTIMEID:
+							(alusObjekt).setTimex3Attribute("anchorTimeID", this.semValue);
+							break;
+						// -----------------     temporalFunction    -------------------------
+						case TEMPORALFUNCTION:
+							(alusObjekt).setTimex3Attribute("temporalFunction", this.semValue);
+							break;
 						// -----------------        quant      -----------------------------				
-						if ((this.attribute).equalsIgnoreCase("quant")){
-							(alusObjekt).setTimex3Attribute("quant", this.semValue);						
-						}
+						case QUANT:
+							if (alusObjekt.getType() == TYYP.RECURRENCE){
+								(alusObjekt).setTimex3Attribute("quant", this.semValue);
+							}
+							break;
 						// -----------------        freq       -----------------------------
-						if ((this.attribute).equalsIgnoreCase("freq")){
-							try {
-								semValueAsInt = Integer.parseInt(this.semValue);
-								if (semValueAsInt > 0){								
-									String newVal = String.valueOf(semValueAsInt);
-									if (this.granulaarsus != null && (this.granulaarsus).getAsISOdurationElement() != null){
-										if ((this.granulaarsus).compareByCoarseRank(Granulaarsus.HOUR_OF_DAY) == 1){
-											newVal = newVal + (this.granulaarsus).getAsISOdurationElement();
-										} else {
-											newVal = "T" + newVal + (this.granulaarsus).getAsISOdurationElement();
-										}
-									} else {
-										newVal = newVal + "X";
-									}
-									(alusObjekt).setTimex3Attribute("freq", newVal);									
-								}
-							} catch (NumberFormatException e) {
+						case FREQ:
+							if (alusObjekt.getType() == TYYP.RECURRENCE && operatsioon.sagedus != null){
+								(alusObjekt).setTimex3Attribute("freq", operatsioon.sagedus);
 							}
-						}						
-					}					
+							break;
+						default:
+							break;
+					}
 				}
 			}
 		}
 		return alusObjekt;
 	}
 	
+	/**
+	 *   Tagastab selle semantikadefinitsiooni kompileeritud arvutusoperatsiooni. Operatsioon 
+	 *  parsitakse esimesel p&auml;ringul ning unustatakse, kui m&otilde;nda selles osalevat v&auml;lja 
+	 *  (<tt>op</tt>, <tt>semValue</tt>, <tt>semLabel</tt>, <tt>granulaarsus</tt>, <tt>granulaarsusStr</tt>, 
+	 *  <tt>direction</tt>, <tt>attribute</tt>) muudetakse. Kloonid jagavad sama (muutumatut) operatsiooni.
+	 */
+	SemOperatsioon getOperatsioon(){
+		SemOperatsioon operatsioon = this.operatsioon;
+		if (operatsioon == null){
+			operatsioon = new SemOperatsioon(this);
+			this.operatsioon = operatsioon;
+		}
+		return operatsioon;
+	}
+	
 	//==============================================================================
 	//   Yhe  semantikadefinitsiooni  t2iendamine  teise  abil
 	//==============================================================================	
@@ -846,6 +729,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 	public SemantikaDefinitsioon clone() {
 		SemantikaDefinitsioon uusSemDef = new SemantikaDefinitsioon();
 		uusSemDef.seotudMustriOsa = this.seotudMustriOsa;
+		uusSemDef.kitsendus       = this.kitsendus;
 		uusSemDef.seotudKontekst  = this.seotudKontekst;
 		uusSemDef.sonaKlass = this.sonaKlass;		
 		uusSemDef.priority = this.priority;
@@ -860,6 +744,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 		uusSemDef.mudel = this.mudel;
 		uusSemDef.isExplicitPoint = this.isExplicitPoint;
 		uusSemDef.attribute = this.attribute;
+		uusSemDef.operatsioon = this.operatsioon;
 		return uusSemDef;
 	}
 	
@@ -895,7 +780,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 	 */
 	public boolean onSET_attrib(String muudetavAtribuut){
 		return ( this.op != null && 
-					(this.op).equals((SemantikaDefinitsioon.OP.SET_attrib).toString()) &&
+					(getOperatsioon()).op == OP.SET_attrib &&
 						this.attribute != null &&
 							(this.attribute).equalsIgnoreCase(muudetavAtribuut) );
 	}
@@ -916,8 +801,8 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 	 */
 	public boolean onAnkurdamisOperatsioon(){
 		return (this.op != null && 
-					((this.op).equals((OP.ANCHOR_TIMEX).toString()) || 
-					 (this.op).equals((OP.ANCHOR_TIMEX_IN_SENTENCE).toString())	) );
+					((getOperatsioon()).op == OP.ANCHOR_TIMEX || 
+					 (getOperatsioon()).op == OP.ANCHOR_TIMEX_IN_SENTENCE) );
 	}
 	
 	public String getPriority() {
@@ -933,10 +818,6 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 		}
 	}	
 	
-	public String getSeotudMustriOsa() {
-		return seotudMustriOsa;
-	}
-
 	public void setSeotudMustriOsa(String seotudMustriOsa) {
 		this.seotudMustriOsa = seotudMustriOsa;
 	}
@@ -979,6 +860,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 
 	public void setOp(String op) {
 		this.op = op;
+		this.operatsioon = null;
 	}	
 	
 	public String getSemLabel() {
@@ -987,6 +869,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 
 	public void setSemLabel(String semLabel) {
 		this.semLabel = semLabel;
+		this.operatsioon = null;
 	}
 
 	public Granulaarsus getGranulaarsus() {
@@ -995,6 +878,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 
 	public void setGranulaarsus(Granulaarsus granulaarsus) {
 		this.granulaarsus = granulaarsus;
+		this.operatsioon = null;
 	}
 	
 	
@@ -1004,6 +888,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 
 	public void setGranulaarsusStr(String granulaarsusStr) {
 		this.granulaarsusStr = granulaarsusStr;
+		this.operatsioon = null;
 	}
 
 	public String getSonaKlass() {
@@ -1028,6 +913,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 
 	public void setSemValue(String semValue) {
 		this.semValue = semValue;
+		this.operatsioon = null;
 	}
 
 	public String getDirection() {
@@ -1036,6 +922,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 
 	public void setDirection(String direction) {
 		this.direction = direction;
+		this.operatsioon = null;
 	}	
 	
 	public String getMudel() {
@@ -1060,6 +947,7 @@ public class SemantikaDefinitsioon extends MustristSoltuv implements Comparable
 
 	public void setAttribute(String attribute) {
 		this.attribute = attribute;
+		this.operatsioon = null;
 	}	
 	
 	//==============================================================================
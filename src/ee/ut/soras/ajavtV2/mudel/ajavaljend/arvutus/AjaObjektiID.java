@@ -18,6 +18,8 @@
 
 package ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  *  Abstraktne ajaobjekt. 
  *  
@@ -28,9 +30,14 @@ package ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus;
  */
 public class AjaObjektiID {
 	
-	private static int jargmineID = 0;
+	/**
+	 *   Viimati v2ljastatud ID. Loendur on jagatud k6igi samaaegselt t88tlevate dokumentide vahel,
+	 *  seega tagatakse vaid ID-de unikaalsus, mitte j2rjestikulisus dokumendi piires (dokumendi
+	 *  l6plikud ID-d m22ratakse <code>JarelTootlus.parandaTIDvaartused</code> abil).
+	 */
+	private static final AtomicInteger jargmineID = new AtomicInteger(0);
 	
 	public static int annaJargmineVabaID(){
-		return (++jargmineID);
+		return jargmineID.incrementAndGet();
 	}
 }
@@ -102,7 +102,7 @@ public class AjaPunkt implements AjaObjekt {
 		StringBuilder sb = new StringBuilder();
 		if (this.setTIMEX3Attribs == null  || 
 				(this.setTIMEX3Attribs != null && (this.setTIMEX3Attribs).get("value") == null)){
-			sb.append( (this.dateTimePoint).toValueString() );
+			(this.dateTimePoint).toValueString( sb );
 			boolean timeExists = (this.dateTimePoint).hasModifiedTimeFields();
 			// Muudame ka type v22rtust, vastavalt konstrueerimise tulemustele;
 			if (timeExists){
@@ -0,0 +1,171 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *   Dokumentide ja t&ouml;&ouml;l&otilde;imede vahel jagatud ajav&auml;ljendite normaliseerimise
+ *  tulemuste vahem&auml;lu. V&otilde;tmeks on ajav&auml;ljendikandidaadile rakendatavate
+ *  semantikadefinitsioonide jada, l&auml;hima verbi grammatilisest ajast tulenev otsimissuund
+ *  (kui m&otilde;ni definitsioon seda kasutab) ning k&otilde;nehetk; v&otilde;tme loob
+ *  <code>AjavaljendiKandidaat.looNormaliseerimiseVoti()</code>. V&auml;&auml;rtuseks on
+ *  lahendamise tulemusena saadud ajaobjekt.
+ *  <p>
+ *  Vahem&auml;llu j&auml;etakse vaid kontekstist s&otilde;ltumatute, ankurdamist mittevajavate
+ *  lehtkandidaatide lahendused, millega pole seotud vahemiku otspunkte (vt
+ *  <code>looNormaliseerimiseVoti()</code>), st lahendused, mis s&otilde;ltuvad ainult
+ *  v&otilde;tmes olevatest tunnustest. Kuna v&otilde;ti sisaldab definitsioonide sisu (mitte
+ *  reeglite viiteid), ei pea uute reeglite sisselugemisel vahem&auml;lu t&uuml;hjendama.
+ *  <p>
+ *  Vahem&auml;lus hoitakse ajaobjektide koopiaid ning v&auml;ljastatakse alati uus koopia
+ *  (uue TID-ga), seega ei muuda hilisem t&ouml;&ouml;tlus (nt poolitamine v&otilde;i TID-de
+ *  ymbernummerdamine) vahem&auml;lus olevat objekti. Vahem&auml;lu on piiratud mahuga: kirjeid
+ *  hoitakse segmentides, millest igayks eemaldab t&auml;itumisel k&otilde;ige kauem kasutamata
+ *  kirje (LRU).
+ *
+ *  @author Siim Orasmaa
+ */
+public class NormaliseerimisteVahemalu {
+
+	private final Segment [] segmendid;
+
+	private final int mahutavus;
+
+	private final AtomicLong tabamused    = new AtomicLong();
+	private final AtomicLong moodalasked  = new AtomicLong();
+
+	private static final int SEGMENTE = 16;
+
+	/**
+	 *   Yks vahem&auml;lu segment: j&auml;rjestatud kasutamise aja j&auml;rgi, t&auml;itumisel
+	 *  eemaldatakse k&otilde;ige kauem kasutamata kirje.
+	 */
+	@SuppressWarnings("serial")
+	private static class Segment extends LinkedHashMap<String, AjaObjekt> {
+		private final int segmendiMahutavus;
+
+		Segment(int segmendiMahutavus){
+			super(16, 0.75f, true);
+			this.segmendiMahutavus = segmendiMahutavus;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, AjaObjekt> vanim){
+			return size() > this.segmendiMahutavus;
+		}
+	}
+
+	//==============================================================================
+	//   	V a h e m 2 l u    l o o m i n e
+	//==============================================================================
+
+	/**
+	 *   Loob vahem&auml;lu, mis hoiab kuni <code>mahutavus</code> normaliseerimise tulemust.
+	 */
+	public NormaliseerimisteVahemalu(int mahutavus){
+		this.mahutavus = mahutavus;
+		this.segmendid = new Segment [SEGMENTE];
+		int segmendiMahutavus = Math.max(1, (mahutavus + SEGMENTE - 1) / SEGMENTE);
+		for (int i = 0; i < SEGMENTE; i++) {
+			this.segmendid[i] = new Segment( segmendiMahutavus );
+		}
+	}
+
+	//==============================================================================
+	//   	P a r i n g u d
+	//==============================================================================
+
+	/**
+	 *   Tagastab v&otilde;tmele <code>voti</code> vastava lahenduse koopia v&otilde;i
+	 *  <code>null</code>, kui v&otilde;tit vahem&auml;lus pole.
+	 */
+	public AjaObjekt annaLahendus(String voti){
+		Segment segment = annaSegment(voti);
+		AjaObjekt lahendus = null;
+		synchronized (segment) {
+			lahendus = segment.get(voti);
+		}
+		if (lahendus == null){
+			(this.moodalasked).incrementAndGet();
+			return null;
+		}
+		(this.tabamused).incrementAndGet();
+		return lahendus.clone();
+	}
+
+	/**
+	 *   J&auml;tab v&otilde;tmele <code>voti</code> vastava lahenduse <code>lahendus</code> koopia
+	 *  meelde. Lahendusi, millega on seotud eksplitsiitsed v&otilde;i implitsiitsed ajaobjektid,
+	 *  meelde ei j&auml;eta.
+	 */
+	public void lisaLahendus(String voti, AjaObjekt lahendus){
+		if (lahendus == null || lahendus.getRelatedExplicitTIMEXES() != null ||
+				lahendus.getRelatedImplicitTIMEXES() != null){
+			return;
+		}
+		AjaObjekt koopia = lahendus.clone();
+		Segment segment = annaSegment(voti);
+		synchronized (segment) {
+			segment.put(voti, koopia);
+		}
+	}
+
+	private Segment annaSegment(String voti){
+		return this.segmendid[ (voti.hashCode() & 0x7fffffff) % SEGMENTE ];
+	}
+
+	//==============================================================================
+	//   	G e t t e r s
+	//==============================================================================
+
+	public int getMahutavus() {
+		return mahutavus;
+	}
+
+	/**
+	 *   Kirjete arv vahem&auml;lus.
+	 */
+	public int getSuurus() {
+		int suurus = 0;
+		for (Segment segment : this.segmendid) {
+			synchronized (segment) {
+				suurus += segment.size();
+			}
+		}
+		return suurus;
+	}
+
+	/**
+	 *   Mitu korda on lahendus leitud vahem&auml;lust.
+	 */
+	public long getTabamused() {
+		return (this.tabamused).get();
+	}
+
+	/**
+	 *   Mitu korda on lahendust vahem&auml;lust otsitud, kuid seda sealt ei leitud.
+	 */
+	public long getMoodalasked() {
+		return (this.moodalasked).get();
+	}
+
+}
@@ -0,0 +1,165 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *   Semantika leidmisel kasutatav referentsaeg (k&otilde;nehetk v&otilde;i ankurdamisel ankruks
+ *  oleva ajav&auml;ljendi aeg): kalendriv&auml;ljade s&otilde;ned kujul <code>{aasta, kuu, p&auml;ev,
+ *  tund, minut}</code> koos nende p&otilde;hjal <i>yks kord</i> parsitud ajapunktiga. Uued
+ *  ajaobjektid (vt {@link #looAjaPunkt()}) luuakse parsitud ajapunkti kopeerimise teel,
+ *  s&otilde;nesid uuesti ei parsita.
+ *  <p>
+ *  Objekt on muutumatu ning seda v&otilde;ib jagada dokumentide ja l&otilde;imede vahel:
+ *  {@link #anna(String[])} tagastab sama k&otilde;nehetke s&otilde;ne korral sama objekti.
+ *  Maskeeritud v&auml;ljadega (nt <code>XXXX</code>) k&otilde;nehetke ei jagata, kuna nende
+ *  parsimisel v&otilde;etakse puuduvad v&auml;&auml;rtused jooksvast kellaajast.
+ *
+ *  @author Siim Orasmaa
+ */
+public final class ReferentsAeg {
+
+	/**
+	 *   Jagatud referentsajad k&otilde;nehetke s&otilde;ne j&auml;rgi; t&auml;itumisel
+	 *  t&uuml;hjendatakse.
+	 */
+	private static final ConcurrentHashMap<String, ReferentsAeg> JAGATUD =
+			new ConcurrentHashMap<String, ReferentsAeg>();
+
+	private static final int JAGATUD_MAX = 1024;
+
+	/**
+	 *   Kalendriv&auml;ljade s&otilde;ned kujul <code>{aasta, kuu, p&auml;ev, tund, minut}</code>.
+	 */
+	private final String [] valjad;
+
+	/**
+	 *   V&auml;ljade p&otilde;hjal parsitud ajapunkt; seda ei muudeta, ainult kopeeritakse.
+	 */
+	private final TimeMLDateTimePoint punkt;
+
+	/**
+	 *   Dokumendi loomise ajana vormindatud ajapunkt: k&otilde;ik granulaarsused on avatud
+	 *  (vt <code>JarelTootlus.formatAsCreationTime</code>); seda ei muudeta, ainult kopeeritakse.
+	 */
+	private final TimeMLDateTimePoint avatudPunkt;
+
+	/**
+	 *   Loob referentsaja kalendriv&auml;ljade s&otilde;nedest <code>valjad</code> (massiivi ei
+	 *  kopeerita, seda ei tohi hiljem muuta).
+	 */
+	private ReferentsAeg(String [] valjad){
+		this.valjad      = valjad;
+		this.punkt       = new TimeMLDateTimePoint(valjad);
+		this.avatudPunkt = new TimeMLDateTimePoint(this.punkt);
+		(this.avatudPunkt).copyInputFieldsToOpenedFields();
+	}
+
+	//==============================================================================
+	//   	R e f e r e n t s a j a    l o o m i n e
+	//==============================================================================
+
+	/**
+	 *   Tagastab k&otilde;nehetkele <code>konehetk</code> vastava referentsaja; sama s&otilde;nega
+	 *  k&otilde;nehetke korral jagatakse varem loodud objekti. Kui <code>konehetk == null</code>,
+	 *  tagastab <code>null</code>.
+	 */
+	public static ReferentsAeg anna(String [] konehetk){
+		if (konehetk == null){
+			return null;
+		}
+		String voti = looVoti(konehetk);
+		if (voti == null){
+			return new ReferentsAeg( konehetk.clone() );
+		}
+		ReferentsAeg referentsAeg = JAGATUD.get(voti);
+		if (referentsAeg == null){
+			if (JAGATUD.size() >= JAGATUD_MAX){
+				JAGATUD.clear();
+			}
+			referentsAeg = new ReferentsAeg( konehetk.clone() );
+			ReferentsAeg varasem = JAGATUD.putIfAbsent(voti, referentsAeg);
+			if (varasem != null){
+				referentsAeg = varasem;
+			}
+		}
+		return referentsAeg;
+	}
+
+	/**
+	 *   Loob referentsaja ajapunkti <code>ajaPunkt</code> kalendriv&auml;ljade p&otilde;hjal (nt
+	 *  ankurdamisel, kui referentsajaks saab ankruks oleva ajav&auml;ljendi aeg). Ei jagata.
+	 */
+	public static ReferentsAeg looAjaPunktist(AjaPunkt ajaPunkt){
+		return new ReferentsAeg( ajaPunkt.getUnderlyingDateTimeAsGranularitiesArray() );
+	}
+
+	/**
+	 *   Jagamise v&otilde;ti: v&auml;ljade s&otilde;ned j&auml;rjest; maskeeritud v&otilde;i
+	 *  puuduva v&auml;lja korral <code>null</code>.
+	 */
+	private static String looVoti(String [] konehetk){
+		StringBuilder voti = new StringBuilder();
+		for (int i = 0; i < konehetk.length; i++) {
+			String vaartus = konehetk[i];
+			if (vaartus == null || vaartus.indexOf('X') > -1){
+				return null;
+			}
+			if (i > 0){
+				voti.append('|');
+			}
+			voti.append(vaartus);
+		}
+		return voti.toString();
+	}
+
+	//==============================================================================
+	//   	A j a o b j e k t i d e    l o o m i n e
+	//==============================================================================
+
+	/**
+	 *   Loob referentsajale vastava uue ajapunkti (sama, mis
+	 *  <code>new AjaPunkt(TYYP.POINT, getValjad())</code>, kuid s&otilde;nesid ei parsita).
+	 */
+	public AjaPunkt looAjaPunkt(){
+		return new AjaPunkt( AjaObjekt.TYYP.POINT, this.punkt );
+	}
+
+	/**
+	 *   Loob referentsajale vastava uue ajapunkti, mille k&otilde;ik granulaarsused on avatud
+	 *  (dokumendi loomise aja vormindamiseks).
+	 */
+	public AjaPunkt looAvatudAjaPunkt(){
+		return new AjaPunkt( AjaObjekt.TYYP.POINT, this.avatudPunkt );
+	}
+
+	//==============================================================================
+	//   	G e t t e r s
+	//==============================================================================
+
+	/**
+	 *   Kalendriv&auml;ljade s&otilde;ned kujul <code>{aasta, kuu, p&auml;ev, tund, minut}</code>;
+	 *  massiivi ei tohi muuta.
+	 */
+	public String [] getValjad() {
+		return valjad;
+	}
+
+}
@@ -98,63 +98,27 @@ public class SemLeidmiseAbimeetodid {
 		// ---------------------------------		
 		if (field == Granulaarsus.DAY_OF_WEEK && 
 				DateTimeConstants.MONDAY <= soughtValue && soughtValue <= DateTimeConstants.SUNDAY){
-			int currentDayOfWeek = currentDateTime.getDayOfWeek();
-			int addToCurrent = 0;
-			// 1) Vaatame eelnevat 3-e p&auml;eva
-			while (addToCurrent > -4){
-				if (currentDayOfWeek == soughtValue){
-					return currentDateTime.plusDays(addToCurrent);
-				}
-				currentDayOfWeek--;
-				if (currentDayOfWeek < DateTimeConstants.MONDAY){
-					currentDayOfWeek = DateTimeConstants.SUNDAY;
-				}
-				addToCurrent--;
-			}
-			// 2) Vaatame jargnevat 3-e p&auml;eva
-			currentDayOfWeek = currentDateTime.getDayOfWeek();
-			addToCurrent = 0;
-			while (addToCurrent < 4){
-				if (currentDayOfWeek == soughtValue){
-					return currentDateTime.plusDays(addToCurrent);
-				}
-				currentDayOfWeek++;
-				if (currentDayOfWeek > DateTimeConstants.SUNDAY){
-					currentDayOfWeek = DateTimeConstants.MONDAY;
-				}
-				addToCurrent++;
+			// 1) Kas otsitav p&auml;ev on eelneva 3-e p&auml;eva seas?
+			int tagasi = Math.floorMod(currentDateTime.getDayOfWeek() - soughtValue, 7);
+			if (tagasi < 4){
+				return currentDateTime.plusDays(-tagasi);
 			}
+			// 2) Muidu on see j&auml;rgneva 3-e p&auml;eva seas
+			return currentDateTime.plusDays(7 - tagasi);
 		}
 		// ---------------------------------
 		//  MONTH
 		// ---------------------------------
 		if (field == Granulaarsus.MONTH && 
 					DateTimeConstants.JANUARY <= soughtValue && soughtValue <= DateTimeConstants.DECEMBER){
-			int currentMonth = currentDateTime.getMonthOfYear();
-			int addToCurrent = 0;
-			// 1) Vaatame eelnevat 5-e kuud
-			while (addToCurrent > -6){
-				if (currentMonth == soughtValue){
-					return currentDateTime.plusMonths(addToCurrent);
-				}
-				currentMonth--;
-				if (currentMonth < DateTimeConstants.JANUARY){
-					currentMonth = DateTimeConstants.DECEMBER;
-				}
-				addToCurrent--;
+			// 1) Kas otsitav kuu on eelneva 5-e kuu seas?
+			int tagasi = Math.floorMod(currentDateTime.getMonthOfYear() - soughtValue, 12);
+			if (tagasi < 6){
+				return currentDateTime.plusMonths(-tagasi);
 			}
-			// 2) Vaatame jargnevat 5-e kuud
-			currentMonth = currentDateTime.getMonthOfYear();
-			addToCurrent = 0;
-			while (addToCurrent < 6){
-				if (currentMonth == soughtValue){
-					return currentDateTime.plusMonths(addToCurrent);
-				}
-				currentMonth++;
-				if (currentMonth > DateTimeConstants.DECEMBER){
-					currentMonth = DateTimeConstants.JANUARY;
-				}
-				addToCurrent++;
+			// 2) Kas otsitav kuu on jargneva 5-e kuu seas?
+			if (12 - tagasi < 6){
+				return currentDateTime.plusMonths(12 - tagasi);
 			}
 			// Kui otsitav kuu j2i aknast v2lja, k2sitleme seda kui "selle aasta" otsitud kuud
 			return currentDateTime.withMonthOfYear(soughtValue);
@@ -168,30 +132,25 @@ public class SemLeidmiseAbimeetodid {
 				soughtValue = 100;
 			}
 			int currentYear = currentDateTime.getYearOfCentury();
-			int addToCurrent = 0;
+			// Aastaid loendatakse ringiliselt vahemikus 1 kuni 100; sajandi esimene aasta (00) 
+			// ise otsitavaga kunagi ei kattu, ning tagasi liikudes j2rgneb sellele kohe 100 (st
+			// loendamine toimub justkui aastast 01)
 			// 1) Vaatame eelnevat 4-a aastakymmet 
-			while (addToCurrent > -49){
-				if (currentYear == soughtValue){
-					return currentDateTime.plusYears(addToCurrent);
-				}
-				currentYear--;
-				if (currentYear < 1){
-					currentYear = 100;
-				}
-				addToCurrent--;
-			}			
+			int tagasi = (currentYear == 0) ? 
+					(Math.floorMod(1 - soughtValue, 100)) : (Math.floorMod(currentYear - soughtValue, 100));
+			if (currentYear == 0 && tagasi == 0){
+				tagasi = 100;
+			}
+			if (tagasi < 49){
+				return currentDateTime.plusYears(-tagasi);
+			}
 			// 2) Vaatame jargnevat 4-a aastakymmet
-			currentYear = currentDateTime.getYearOfCentury();
-			addToCurrent = 0;
-			while (addToCurrent < 49){
-				if (currentYear == soughtValue){
-					return currentDateTime.plusYears(addToCurrent);
-				}
-				currentYear++;
-				if (currentYear > 100){
-					currentYear = 1;
-				}
-				addToCurrent++;
+			int edasi = Math.floorMod(soughtValue - currentYear, 100);
+			if (currentYear == 0 && edasi == 0){
+				edasi = 100;
+			}
+			if (edasi < 49){
+				return currentDateTime.plusYears(edasi);
 			}
 			// Kui otsitav kuu j2i aknast v2lja, k2sitleme seda kui "selle sajandi" otsitud aastat
 			return currentDateTime.withYearOfCentury(soughtValue);			
@@ -214,27 +173,11 @@ public class SemLeidmiseAbimeetodid {
 		//  SEASONs
 		// ---------------------------------		
 		if (field == Granulaarsus.MONTH && soughtValue != null && soughtValue.matches("(SP|SU|FA|WI)")){
-			LocalDate movingFocus = new LocalDate(currentDateTime);
-			int addToCurrent = 0;
-			// 1) Vaatame eelnevat 4-a kuud
-			while (addToCurrent > -4){
-				String currentSeason = getSeason(movingFocus);
-				if (currentSeason.equals(soughtValue)){
-					return currentDateTime.plusMonths(addToCurrent);
-				}
-				movingFocus = movingFocus.plusMonths(-1);
-				addToCurrent--;
-			}
-			// 2) Vaatame jargnevat 4-a kuud
-			movingFocus = new LocalDate(currentDateTime);
-			addToCurrent = 0;
-			while (addToCurrent < 4){
-				String currentSeason = getSeason(movingFocus);
-				if (currentSeason.equals(soughtValue)){
-					return currentDateTime.plusMonths(addToCurrent);
-				}
-				movingFocus = movingFocus.plusMonths(1);
-				addToCurrent++;
+			// Aastaajad on kuu indeksi (detsember = 0) 3-kuulised plokid
+			int nihe = leiaLahimaPlokiNihe( (currentDateTime.getMonthOfYear()) % 12, 12, 
+					3 * leiaLipikuIndeks(AASTAAJAD, soughtValue), 3, 4 );
+			if (nihe != Integer.MIN_VALUE){
+				return currentDateTime.plusMonths(nihe);
 			}
 			// Kui otsitav aastaaeg j2i aknast v2lja, k2sitleme seda kui "selle aasta" otsitud aastaaega
 			return setMiddleOfSeason(currentDateTime, soughtValue);
@@ -243,27 +186,11 @@ public class SemLeidmiseAbimeetodid {
 		//  QUARTER
 		// ---------------------------------
 		if (field == Granulaarsus.MONTH && soughtValue != null && soughtValue.matches("Q(1|2|3|4)")){
-			LocalDate movingFocus = new LocalDate(currentDateTime);
-			int addToCurrent = 0;
-			// 1) Vaatame eelnevat 4-a kuud
-			while (addToCurrent > -4){
-				String currentSeason = getQuarterOfYear(movingFocus);				
-				if (currentSeason.equals(soughtValue)){
-					return currentDateTime.plusMonths(addToCurrent);
-				}
-				movingFocus = movingFocus.plusMonths(-1);
-				addToCurrent--;
-			}
-			// 2) Vaatame jargnevat 4-a kuud
-			movingFocus = new LocalDate(currentDateTime);
-			addToCurrent = 0;
-			while (addToCurrent < 4){
-				String currentSeason = getQuarterOfYear(movingFocus);				
-				if (currentSeason.equals(soughtValue)){
-					return currentDateTime.plusMonths(addToCurrent);
-				}
-				movingFocus = movingFocus.plusMonths(1);
-				addToCurrent++;
+			// Kvartalid on kuu indeksi (jaanuar = 0) 3-kuulised plokid
+			int nihe = leiaLahimaPlokiNihe( currentDateTime.getMonthOfYear() - 1, 12, 
+					3 * leiaLipikuIndeks(KVARTALID, soughtValue), 3, 4 );
+			if (nihe != Integer.MIN_VALUE){
+				return currentDateTime.plusMonths(nihe);
 			}
 			// Kui otsitav kvartal j2i aknast v2lja, k2sitleme seda kui "selle aasta" otsitud kvartalit
 			return setMiddleOfQuarterOfYear(currentDateTime, soughtValue);
@@ -306,12 +233,10 @@ public class SemLeidmiseAbimeetodid {
 						//
 						// Kerime kaesoleva kuu esimese kuupaeva peale ...
 						LocalDateTime newDate = currentDateTime.withDayOfMonth(1);
-						// Leiame esimese otsitud nadalapaeva
-						while (newDate.getDayOfWeek() != soughtValueOfSubField){
-							newDate = newDate.plusDays(1);
-						}
 						int currentMonth = newDate.getMonthOfYear();
-						newDate = newDate.plusDays( (n - 1) * 7 );
+						// ... ning sealt esimese otsitud nadalapaeva peale ja (n-1) nadalat edasi
+						newDate = newDate.plusDays( Math.floorMod(soughtValueOfSubField - newDate.getDayOfWeek(), 7) + 
+						                            (n - 1) * 7 );
 						if (currentMonth == newDate.getMonthOfYear()){
 							// Kui kuu j2i kindlalt samaks, tagastame leitud nadalapaeva
 							return newDate;
@@ -321,12 +246,10 @@ public class SemLeidmiseAbimeetodid {
 						// Kerime kuu viimase vaartuse peale
 						LocalDateTime newDate = currentDateTime.withDayOfMonth( 
 													currentDateTime.dayOfMonth().getMaximumValue() );
-						// Leiame viimase otsitud nadalapaeva
-						while (newDate.getDayOfWeek() != soughtValueOfSubField){
-							newDate = newDate.minusDays(1);
-						}
 						int currentMonth = newDate.getMonthOfYear();
-						newDate = newDate.minusDays( ((n*(-1)) - 1) * 7 );
+						// ... ning sealt viimase otsitud nadalapaeva peale ja (|n|-1) nadalat tagasi
+						newDate = newDate.minusDays( Math.floorMod(newDate.getDayOfWeek() - soughtValueOfSubField, 7) + 
+						                             ((n*(-1)) - 1) * 7 );
 						if (currentMonth == newDate.getMonthOfYear()){
 							// Kui kuu j2i kindlalt samaks, tagastame leitud nadalapaeva
 							return newDate;
@@ -348,22 +271,18 @@ public class SemLeidmiseAbimeetodid {
 				if (n > 0){
 					// Kerime kaesoleva kuu esimese paeva peale ...
 					LocalDateTime newDate = currentDateTime.withDayOfMonth(1);
-					// Leiame kuu esimese neljapaeva/laupaeva
-					while (newDate.getDayOfWeek() != soughtValueOfSubField){
-						newDate = newDate.plusDays(1);
-					}
-					newDate = newDate.plusDays( (n - 1) * 7 );
+					// ... ning sealt kuu esimese neljapaeva/laupaeva peale
+					newDate = newDate.plusDays( Math.floorMod(soughtValueOfSubField - newDate.getDayOfWeek(), 7) + 
+					                            (n - 1) * 7 );
 					return newDate;
 				} else if (n < 0){
 					// Negatiivsete vaartuste korral otsime lahendust lopust:
 					// Kerime kuu viimase vaartuse peale
 					LocalDateTime newDate = currentDateTime.withDayOfMonth( 
 												currentDateTime.dayOfMonth().getMaximumValue() );
-					// Leiame viimase neljapaeva/laupaeva
-					while (newDate.getDayOfWeek() != soughtValueOfSubField){
-						newDate = newDate.minusDays(1);
-					}
-					newDate = newDate.minusDays( ((n*(-1)) - 1) * 7 );
+					// ... ning sealt viimase neljapaeva/laupaeva peale
+					newDate = newDate.minusDays( Math.floorMod(newDate.getDayOfWeek() - soughtValueOfSubField, 7) + 
+					                             ((n*(-1)) - 1) * 7 );
 					return newDate;
 				}
 			}	
@@ -372,6 +291,150 @@ public class SemLeidmiseAbimeetodid {
 	}
 	
 	
+	//==============================================================================
+	//    Kalendriv2ljade kaupa liikumine (SEEK)
+	//==============================================================================
+	
+	/*
+	 *    SEEK operatsioonid (vt TimeMLDateTimePoint.seekField) liiguvad ajas yhiku (tunni, p2eva,
+	 *   kuu, aasta) kaupa ning loendavad l2bitud plokke, milles kalendriv2li omab otsitud
+	 *   v22rtust (nt n2dalap2ev, n2dal, aastaaeg). Kuna plokid korduvad tsykliliselt, saab 
+	 *   sihtpunkti nihke arvutada otse, ilma yhikute kaupa liikumata.
+	 */
+	
+	static final String [] PAEVAOSAD = { "NI", "MO", "AF", "EV" };
+	static final String [] AASTAAJAD = { "WI", "SP", "SU", "FA" };
+	static final String [] KVARTALID = { "Q1", "Q2", "Q3", "Q4" };
+	
+	/**
+	 *   Tagastab lipiku <tt>lipik</tt> indeksi massiivis <tt>lipikud</tt> v6i -1, kui seda 
+	 *  seal pole.
+	 */
+	static int leiaLipikuIndeks(String [] lipikud, String lipik){
+		for (int i = 0; i < lipikud.length; i++) {
+			if ((lipikud[i]).equals(lipik)){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 *    Leiab, mitu yhikut tuleb positsioonilt <tt>positsioon</tt> suunas <tt>direction</tt> 
+	 *   liikuda, et j6uda <tt>|direction|</tt>-nda ploki <tt>[algus, lopp]</tt> juurde, kui plokk 
+	 *   kordub iga <tt>tsykkel</tt> yhiku tagant. Edasi liikudes j6utakse ploki esimesele, tagasi 
+	 *   liikudes ploki viimasele yhikule.
+	 *   <p>
+	 *   Kui <tt>excludingCurrent == false</tt> ja positsioon asub ise plokis, loetakse k2esolev 
+	 *   plokk esimeseks (ning <tt>|direction| == 1</tt> korral j22dakse paigale); muidu 
+	 *   loendatakse ainult k2esolevale plokile j2rgnevaid (v6i eelnevaid) plokke.
+	 *   <p>
+	 *   Tagastab m2rgiga nihke yhikutes.
+	 */
+	public static int leiaPlokiNihe(int positsioon, int tsykkel, int algus, int lopp, 
+	                                int direction, boolean excludingCurrent){
+		int n = Math.abs(direction);
+		if (!excludingCurrent && algus <= positsioon && positsioon <= lopp){
+			if (n == 1){
+				return 0;
+			}
+			n--;
+		}
+		// Kaugus j2rgmise ploki alguseni (v6i eelmise ploki l6puni); kui positsioon on ise 
+		// ploki alguses (l6pus), on j2rgmine plokk terve tsykli kaugusel
+		int kaugus = (direction > 0) ? 
+				(Math.floorMod(algus - positsioon, tsykkel)) : (Math.floorMod(positsioon - lopp, tsykkel));
+		if (kaugus == 0){
+			kaugus = tsykkel;
+		}
+		kaugus += tsykkel * (n - 1);
+		return (direction > 0) ? (kaugus) : (-kaugus);
+	}
+	
+	/**
+	 *    Baldwini akna abimeetod: leiab nihke, mis viib positsioonilt <tt>positsioon</tt>
+	 *   l2himasse plokki <tt>[algus, algus + pikkus - 1]</tt> (plokk kordub iga <tt>tsykkel</tt>
+	 *   yhiku tagant). Eelistatakse k2esolevat ning seej2rel eelnevat plokki (ploki viimast 
+	 *   yhikut), mis j22b <tt>aken - 1</tt> yhiku kaugusele; alles siis j2rgnevat plokki (ploki
+	 *   esimest yhikut). Kui kumbki plokk aknasse ei j22, tagastab <tt>Integer.MIN_VALUE</tt>.
+	 */
+	public static int leiaLahimaPlokiNihe(int positsioon, int tsykkel, int algus, int pikkus, int aken){
+		int lopp = algus + pikkus - 1;
+		int tagasi = (algus <= positsioon && positsioon <= lopp) ? 
+				(0) : (Math.floorMod(positsioon - lopp, tsykkel));
+		if (tagasi < aken){
+			return -tagasi;
+		}
+		int edasi = Math.floorMod(algus - positsioon, tsykkel);
+		if (edasi < aken){
+			return edasi;
+		}
+		return Integer.MIN_VALUE;
+	}
+	
+	/**
+	 *    Nihutab kuup2eva <tt>kuupaev</tt> <tt>nihe</tt> kuud samamoodi, nagu seda teeks kuu 
+	 *   kaupa liikumine (<tt>plusMonths(dir)</tt> korduvalt): kuu p2ev k2rbitakse k6igi l2bitud 
+	 *   kuude pikkuse j2rgi. Kui <tt>excludingCurrent == false</tt>, alustatakse liikumist yhe 
+	 *   kuu v6rra vastassuunas (vt <tt>TimeMLDateTimePoint.seekField</tt>).
+	 */
+	public static LocalDate liiguKuudeKaupa(LocalDate kuupaev, int nihe, int dir, boolean excludingCurrent){
+		int paev = kuupaev.getDayOfMonth();
+		if (paev > 28){
+			int esimene = (excludingCurrent) ? (dir) : (-dir);
+			int kuu     = kuupaev.getYear() * 12 + kuupaev.getMonthOfYear() - 1;
+			for (int i = Math.min(esimene, nihe); i <= Math.max(esimene, nihe) && paev > 28; i++) {
+				paev = Math.min(paev, kuuPaevadeArv( Math.floorDiv(kuu + i, 12), Math.floorMod(kuu + i, 12) + 1 ));
+			}
+		}
+		LocalDate tulemus = kuupaev.plusMonths(nihe);
+		return (tulemus.getDayOfMonth() > paev) ? (tulemus.withDayOfMonth(paev)) : (tulemus);
+	}
+
+	/**
+	 *    Nihutab kuup2eva <tt>kuupaev</tt> <tt>nihe</tt> aastat samamoodi, nagu seda teeks 
+	 *   aasta (v6i aastakymne) kaupa liikumine: 29. veebruar k2rbitakse esimesel sammul (mis
+	 *   viib alati mitteliigaastasse) 28. veebruariks ning see j22b selliseks.
+	 */
+	public static LocalDate liiguAastateKaupa(LocalDate kuupaev, int nihe){
+		LocalDate tulemus = kuupaev.plusYears(nihe);
+		if (kuupaev.getMonthOfYear() == DateTimeConstants.FEBRUARY && kuupaev.getDayOfMonth() == 29 && 
+				tulemus.getDayOfMonth() == 29){
+			tulemus = tulemus.withDayOfMonth(28);
+		}
+		return tulemus;
+	}
+	
+	/**
+	 *    Leiab, mitu aastat tuleb aastakymne kaupa liikudes aastast <tt>aasta</tt> (sajand 
+	 *   <tt>sajand</tt>) liikuda, et j6uda <tt>|direction|</tt>-ndasse sajandisse (vt 
+	 *   {@link #leiaPlokiNihe(int, int, int, int, int, boolean)}). Eeldab meie ajaarvamise aastaid.
+	 */
+	public static int leiaSajandiNihe(int aasta, int sajand, int direction, boolean excludingCurrent){
+		int n = Math.abs(direction);
+		if (!excludingCurrent){
+			if (n == 1){
+				return 0;
+			}
+			n--;
+		}
+		if (direction > 0){
+			// Esimene aastakymne samm, mis j6uab sajandi (sajand + n) algusesse v6i sellest kaugemale
+			return 10 * (( (sajand + n) * 100 - aasta + 9 ) / 10);
+		} else {
+			// Esimene aastakymne samm, mis j6uab sajandi (sajand - n) l6ppu v6i sellest kaugemale
+			return -10 * (( aasta - ((sajand - n) * 100 + 99) + 9 ) / 10);
+		}
+	}
+	
+	private static int kuuPaevadeArv(int aasta, int kuu){
+		if (kuu == DateTimeConstants.FEBRUARY){
+			return (aasta % 4 == 0 && (aasta % 100 != 0 || aasta % 400 == 0)) ? (29) : (28);
+		}
+		return (kuu == DateTimeConstants.APRIL || kuu == DateTimeConstants.JUNE || 
+				kuu == DateTimeConstants.SEPTEMBER || kuu == DateTimeConstants.NOVEMBER) ? (30) : (31);
+	}
+	
 	//==============================================================================
 	//    Ajalipikute leidmine
 	//==============================================================================
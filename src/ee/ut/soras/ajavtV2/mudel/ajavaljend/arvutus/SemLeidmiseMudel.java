@@ -38,9 +38,9 @@ public interface SemLeidmiseMudel {
 	 * alla tekkima semantikalahendus.
 	 * 
 	 * @param sonad sisendtekst
-	 * @param konehetk k&otilde;nehetk teksti loomisel
+	 * @param konehetk k&otilde;nehetk teksti loomisel (vt {@link ReferentsAeg#anna(String[])})
 	 */
-	void leiaSemantika(List<AjavtSona> sonad, String [] konehetk);
+	void leiaSemantika(List<AjavtSona> sonad, ReferentsAeg konehetk);
 	
 	
 	/**
@@ -18,6 +18,7 @@
 
 package ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import ee.ut.soras.ajavtV2.mudel.AjavtSona;
@@ -72,11 +73,43 @@ import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija;
 public class SemLeidmiseMudelImpl3 implements SemLeidmiseMudel {
 	private final String [] mudeliTahised = {"2" , "2.1", "3"};
 	
+	/**
+	 *   Dokumentide vahel jagatud normaliseerimise tulemuste vahem&auml;lu (vt {@link NormaliseerimisteVahemalu});
+	 *  <code>null</code> korral (vaikimisi) lahendatakse iga kandidaat eraldi.
+	 */
+	private volatile NormaliseerimisteVahemalu vahemalu;
+	
+	public SemLeidmiseMudelImpl3() {
+		this(null);
+	}
+
+	/**
+	 *   Loob mudeli, mis j&auml;tab ankurdamist mittevajavate kandidaatide lahendused meelde
+	 *  vahem&auml;llu <code>vahemalu</code> ning v&otilde;tab need sealt, kui sama v&otilde;tmega 
+	 *  kandidaat on juba (ka m6nes teises dokumendis) lahendatud.
+	 */
+	public SemLeidmiseMudelImpl3(NormaliseerimisteVahemalu vahemalu) {
+		this.vahemalu = vahemalu;
+	}
+
+	public NormaliseerimisteVahemalu getVahemalu() {
+		return vahemalu;
+	}
+
+	/**
+	 *   M&auml;&auml;rab mudelile normaliseerimise tulemuste vahem&auml;lu; <code>null</code> 
+	 *  l&uuml;litab vahem&auml;lu kasutamise v&auml;lja. M&otilde;jub j&auml;rgmisest 
+	 *  <code>leiaSemantika</code> v&auml;ljakutsest.
+	 */
+	public void setVahemalu(NormaliseerimisteVahemalu vahemalu) {
+		this.vahemalu = vahemalu;
+	}
+
 	public String[] getMudeliTahised() {
 		return mudeliTahised;
 	}
 
-	public void leiaSemantika(List<AjavtSona> sonad, String [] konehetk) {
+	public void leiaSemantika(List<AjavtSona> sonad, ReferentsAeg konehetk) {
 		ankurdaAjavaljendid(sonad, konehetk);
 		lahendaAjavaljenditeSemantika(sonad, konehetk);
 	}
@@ -93,7 +126,9 @@ public class SemLeidmiseMudelImpl3 implements SemLeidmiseMudel {
 	 *      <li> Kui ajav2ljend n6uab ankurdamist, seotakse sellega ajav2ljendile l2him teine ajav2ljend;
 	 *   </ul>
 	 */
-	private void ankurdaAjavaljendid(List<AjavtSona> sonad, String [] konehetk){
+	private void ankurdaAjavaljendid(List<AjavtSona> sonad, ReferentsAeg konehetk){
+		// Ankrukandidaatide indeks: luuakse alles siis, kui m6ni kandidaat ankurdamist vajab
+		AnkruIndeks ankruIndeks = null;
 		// 0) Ankurdame verbide & teiste ajav2ljenditega
 		for (int i = 0; i < sonad.size(); i++) {
 			AjavtSona sona = sonad.get(i);
@@ -116,8 +151,11 @@ public class SemLeidmiseMudelImpl3 implements SemLeidmiseMudel {
 						} 
 						// 0.2) Kui vaja, otsime l2hima teise ajav2ljendi, kuhu kylge ankurdada
 						if (ajavaljendiKandidaat.vajabAnkurdamist(mudeliTahised)){
+							if (ankruIndeks == null){
+								ankruIndeks = new AnkruIndeks(sonad);
+							}
 							AjavaljendiKandidaat sobivAnkrukandidaat = 
-								leiaSobivAnkrukandidaatArvestaLausepiire(sonad, i, ajavaljendiKandidaat, 3);
+								leiaSobivAnkrukandidaatArvestaLausepiire(ankruIndeks, i, ajavaljendiKandidaat, 3);
 							ajavaljendiKandidaat.setAnkurdatudKandidaat(sobivAnkrukandidaat);
 						}
 					}
@@ -226,98 +264,194 @@ public class SemLeidmiseMudelImpl3 implements SemLeidmiseMudel {
 	 *    <tt>sentenceRadius</tt> j2rgnevast v6i eelnevast lausest; <br>
 	 *    Teiseks, kui ankurdamiseoperatsiooniks on {@link SemantikaDefinitsioon.OP#ANCHOR_TIMEX_IN_SENTENCE},
 	 *    ei minda ankru otsimisel kaugemale lause l6ppu t2histavatest s6nadest;
+	 *    <p>
+	 *    S6nu ei l2bita: otsingupiirid leitakse indeksi lausel6ppude seast kahendotsinguga ning
+	 *    vaadatakse ainult piiridesse j22vaid indekseeritud kandidaate (l2himast alates, sama
+	 *    j2rjekorraga, mis s6nade l2bimisel). Kandidaate, mille granulaarsused ei saa ankurdamise
+	 *    n6uetele vastata, <tt>sobibAnkruKandidaadiks</tt>-ga ei kontrollita; kui ankurdamine lubab
+	 *    k6iki granulaarsuseid, kontrollitakse ka granulaarsuseta kandidaate (nt PRESENT_REF).
 	 */
-	private AjavaljendiKandidaat leiaSobivAnkrukandidaatArvestaLausepiire( List<AjavtSona> sonad, 
-												                           int i, 
-												                           AjavaljendiKandidaat ajavk,
-												                           int sentenceRadius){
+	private AjavaljendiKandidaat leiaSobivAnkrukandidaatArvestaLausepiire( AnkruIndeks indeks,
+																		   int i, 
+																		   AjavaljendiKandidaat ajavk,
+																		   int sentenceRadius){
 		int minDist = Integer.MAX_VALUE;
 		int suund   = parsiSuundKustTulebAnkruLeidaNingOtsinguKitsendus(ajavk);
 		boolean jaaLausePiiridesse = (suund > 1);
 		if (suund > 1){ suund -= 10; }
+		// Lausepiiridesse j22mise korral peatutakse juba esimesel lausel6pul
+		int lauseid = (jaaLausePiiridesse) ? (0) : (sentenceRadius);
+		int n6utudMask = ajavk.leiaAnkruN6utudGranulaarsusteMask();
+		// K6igi granulaarsuste lubamisel (-1) sobivad ankruks ka granulaarsuseta kandidaadid (mask 0)
+		boolean kontrolliMaske = (n6utudMask != -1);
 		
 		AjavaljendiKandidaat kandidaatInMinDist       = null;
-		int sentencesPassed = 0;
+		int [] lauseLopud = indeks.lauseLopud;
 		//
-		//   1) Otsime tekstis eelnevate kandidaatide seast
+		//   1) Otsime tekstis eelnevate kandidaatide seast: vaatame s6nu kuni (lauseid+1)-nda 
+		//      lausel6puni (see ise v2lja arvatud)
 		//
-		int j = i - 1;
-		boolean lahimLeitud = false;
 		if (suund == 0 || suund == -1){
-			while (j > -1 && !lahimLeitud){
-				AjavtSona sona = sonad.get(j);
-				if (sona.onLauseLopp()){
-					sentencesPassed++;
-				}
-				if (sentenceRadius < sentencesPassed){
-					break;
-				}
-				if (jaaLausePiiridesse && sona.onLauseLopp()){
-					break;
-				}
-				if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
-					List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
-					List<AjavaljendiKandidaat> ajavaljendid = sona.getAjavaljendiKandidaadid();
-					for (int k = 0; k < ajavaljendiKandidaatides.size(); k++) {
-						FraasisPaiknemiseKoht koht     = ajavaljendiKandidaatides.get(k);
-						if (koht == FraasisPaiknemiseKoht.AINUSSONA || 
-								koht == FraasisPaiknemiseKoht.LOPUS){
-							AjavaljendiKandidaat kandidaat = ajavaljendid.get(k);
-							if (kandidaat.getAste() == ASTE.MUSTRI_POOLT_ERALDATUD && 
-										ajavk.sobibAnkruKandidaadiks(kandidaat, -1, false)){
-								kandidaatInMinDist = kandidaat;
-								minDist = i - j;
-								lahimLeitud = true;
-								break;
-							}
-						}
+			int alates = 0;
+			int l = esimeneVahemalt(lauseLopud, i) - 1 - lauseid;
+			if (l > -1){
+				alates = lauseLopud[l] + 1;
+			}
+			int p = esimeneVahemalt(indeks.loppevadPos, i) - 1;
+			otsing:
+			while (p > -1 && (indeks.loppevadPos)[p] >= alates){
+				AjavaljendiKandidaat [] kandidaadid = (indeks.loppevad)[p];
+				int [] maskid = (indeks.loppevadMask)[p];
+				for (int k = 0; k < kandidaadid.length; k++) {
+					if ((!kontrolliMaske || (maskid[k] & n6utudMask) != 0) && 
+							ajavk.sobibAnkruKandidaadiks(kandidaadid[k], -1, false)){
+						kandidaatInMinDist = kandidaadid[k];
+						minDist = i - (indeks.loppevadPos)[p];
+						break otsing;
 					}
 				}
-			    j--;
-			}			
+				p--;
+			}
 		}
 		//
-		//   2) Otsime tekstis jargnevate kandidaatide seast
+		//   2) Otsime tekstis jargnevate kandidaatide seast: vaatame s6nu kuni (sentenceRadius+1)-nda 
+		//      lausel6puni (see ise v2lja arvatud), lausepiiridesse j22mise korral kuni esimese 
+		//      lausel6puni (see ise kaasa arvatud)
 		//
-		j = i + (ajavk.getFraas()).size();
-		lahimLeitud = false;
-		sentencesPassed = 0;
+		int j = i + (ajavk.getFraas()).size();
 		if (suund == 0 || suund == 1){
-			while (j < sonad.size() && !lahimLeitud){
-				AjavtSona sona = sonad.get(j);
-				if (sona.onLauseLopp()){
-					sentencesPassed++;
+			int kuni = Integer.MAX_VALUE;
+			int l = esimeneVahemalt(lauseLopud, j);
+			if (l + sentenceRadius < lauseLopud.length){
+				kuni = lauseLopud[l + sentenceRadius] - 1;
+			}
+			if (jaaLausePiiridesse && l < lauseLopud.length){
+				kuni = Math.min(kuni, lauseLopud[l]);
+			}
+			int p = esimeneVahemalt(indeks.algavadPos, j);
+			otsing:
+			while (p < (indeks.algavadPos).length && (indeks.algavadPos)[p] <= kuni){
+				AjavaljendiKandidaat [] kandidaadid = (indeks.algavad)[p];
+				int [] maskid = (indeks.algavadMask)[p];
+				for (int k = 0; k < kandidaadid.length; k++) {
+					if ((!kontrolliMaske || (maskid[k] & n6utudMask) != 0) && 
+							ajavk.sobibAnkruKandidaadiks(kandidaadid[k], 1, false)){
+						if (((indeks.algavadPos)[p] - i) < minDist){
+							kandidaatInMinDist = kandidaadid[k];
+							minDist = (indeks.algavadPos)[p] - i;
+						}
+						break otsing;
+					}
 				}
-				if (sentenceRadius < sentencesPassed){
-					break;
+				p++;
+			}
+		}
+		return kandidaatInMinDist;
+	}
+	
+	/**
+	 *   Tagastab esimese indeksi massiivis <tt>a</tt> (kasvavas j2rjekorras), mille v22rtus on
+	 *  v2hemalt <tt>v</tt>; kui sellist pole, tagastab <tt>a.length</tt>.
+	 */
+	private static int esimeneVahemalt(int [] a, int v){
+		int lo = 0;
+		int hi = a.length;
+		while (lo < hi){
+			int kesk = (lo + hi) >>> 1;
+			if (a[kesk] < v){
+				lo = kesk + 1;
+			} else {
+				hi = kesk;
+			}
+		}
+		return lo;
+	}
+	
+	/**
+	 *   Dokumendi ankrukandidaatide indeks (luuakse yks kord dokumendi kohta, enne ankurdamist):
+	 *  lausel6ppude positsioonid ning mustri poolt eraldatud kandidaadid s6na positsiooni j2rgi,
+	 *  eraldi s6nas l6ppevad (<tt>AINUSSONA</tt>, <tt>LOPUS</tt>) ja s6nas algavad (<tt>AINUSSONA</tt>, 
+	 *  <tt>ALGUSES</tt>) kandidaadid. Iga positsiooni kandidaadid on s6na kandidaatide j2rjekorras 
+	 *  ning iga kandidaadi juures on selle granulaarsuste mask 
+	 *  (<tt>AjavaljendiKandidaat.leiaGranulaarsusteMask()</tt>).
+	 */
+	private static final class AnkruIndeks {
+		final int [] lauseLopud;
+		final int [] loppevadPos;
+		final AjavaljendiKandidaat [][] loppevad;
+		final int [][] loppevadMask;
+		final int [] algavadPos;
+		final AjavaljendiKandidaat [][] algavad;
+		final int [][] algavadMask;
+		
+		AnkruIndeks(List<AjavtSona> sonad){
+			List<Integer> lopud = new ArrayList<Integer>();
+			List<Integer> lPos = new ArrayList<Integer>();
+			List<AjavaljendiKandidaat []> lKandidaadid = new ArrayList<AjavaljendiKandidaat []>();
+			List<Integer> aPos = new ArrayList<Integer>();
+			List<AjavaljendiKandidaat []> aKandidaadid = new ArrayList<AjavaljendiKandidaat []>();
+			List<AjavaljendiKandidaat> loppevadSonas = new ArrayList<AjavaljendiKandidaat>();
+			List<AjavaljendiKandidaat> algavadSonas  = new ArrayList<AjavaljendiKandidaat>();
+			for (int i = 0; i < sonad.size(); i++) {
+				AjavtSona sona = sonad.get(i);
+				if (sona.onLauseLopp()){
+					lopud.add(i);
 				}
 				if (sona.onSeotudMoneAjavaljendiKandidaadiga()){
 					List<FraasisPaiknemiseKoht> ajavaljendiKandidaatides = sona.getAjavaljendiKandidaatides();
 					List<AjavaljendiKandidaat> ajavaljendid = sona.getAjavaljendiKandidaadid();
+					loppevadSonas.clear();
+					algavadSonas.clear();
 					for (int k = 0; k < ajavaljendiKandidaatides.size(); k++) {
-						FraasisPaiknemiseKoht koht     = ajavaljendiKandidaatides.get(k);
-						if (koht == FraasisPaiknemiseKoht.AINUSSONA || 
-								koht == FraasisPaiknemiseKoht.ALGUSES){
-							AjavaljendiKandidaat kandidaat = ajavaljendid.get(k);
-							if (kandidaat.getAste() == ASTE.MUSTRI_POOLT_ERALDATUD &&
-											ajavk.sobibAnkruKandidaadiks(kandidaat, 1, false)){
-								if ((j - i) < minDist){
-									kandidaatInMinDist = kandidaat;
-									minDist = j - i;
-								}
-								lahimLeitud = true;
-								break;							
-							}
+						FraasisPaiknemiseKoht koht = ajavaljendiKandidaatides.get(k);
+						AjavaljendiKandidaat kandidaat = ajavaljendid.get(k);
+						if (kandidaat.getAste() != ASTE.MUSTRI_POOLT_ERALDATUD){
+							continue;
+						}
+						if (koht == FraasisPaiknemiseKoht.AINUSSONA || koht == FraasisPaiknemiseKoht.LOPUS){
+							loppevadSonas.add(kandidaat);
+						}
+						if (koht == FraasisPaiknemiseKoht.AINUSSONA || koht == FraasisPaiknemiseKoht.ALGUSES){
+							algavadSonas.add(kandidaat);
 						}
 					}
+					if (!loppevadSonas.isEmpty()){
+						lPos.add(i);
+						lKandidaadid.add(loppevadSonas.toArray(new AjavaljendiKandidaat [loppevadSonas.size()]));
+					}
+					if (!algavadSonas.isEmpty()){
+						aPos.add(i);
+						aKandidaadid.add(algavadSonas.toArray(new AjavaljendiKandidaat [algavadSonas.size()]));
+					}
 				}
-				if (jaaLausePiiridesse && sona.onLauseLopp()){
-					break;
-				}			
-			    j++;
-			}			
+			}
+			this.lauseLopud   = taisarvudeks(lopud);
+			this.loppevadPos  = taisarvudeks(lPos);
+			this.loppevad     = lKandidaadid.toArray(new AjavaljendiKandidaat [lKandidaadid.size()][]);
+			this.loppevadMask = maskideks(this.loppevad);
+			this.algavadPos   = taisarvudeks(aPos);
+			this.algavad      = aKandidaadid.toArray(new AjavaljendiKandidaat [aKandidaadid.size()][]);
+			this.algavadMask  = maskideks(this.algavad);
+		}
+		
+		private static int [] taisarvudeks(List<Integer> arvud){
+			int [] massiiv = new int [arvud.size()];
+			for (int i = 0; i < massiiv.length; i++) {
+				massiiv[i] = arvud.get(i);
+			}
+			return massiiv;
+		}
+		
+		private static int [][] maskideks(AjavaljendiKandidaat [][] kandidaadid){
+			int [][] maskid = new int [kandidaadid.length][];
+			for (int i = 0; i < kandidaadid.length; i++) {
+				maskid[i] = new int [kandidaadid[i].length];
+				for (int k = 0; k < kandidaadid[i].length; k++) {
+					maskid[i][k] = (kandidaadid[i][k]).leiaGranulaarsusteMask();
+				}
+			}
+			return maskid;
 		}
-		return kandidaatInMinDist;
 	}
 	
 	//==============================================================================
@@ -343,7 +477,7 @@ public class SemLeidmiseMudelImpl3 implements SemLeidmiseMudel {
 	 *     </ol>
 	 *     <p>
 	 */
-	private void lahendaAjavaljenditeSemantika( List<AjavtSona> sonad, String [] konehetk ){
+	private void lahendaAjavaljenditeSemantika( List<AjavtSona> sonad, ReferentsAeg konehetk ){
 		//  1) Lahendame kandidaadid, mis ei vaja ankurdamist
 		for (int i = 0; i < sonad.size(); i++) {
 			AjavtSona sona = sonad.get(i);
@@ -363,7 +497,12 @@ public class SemLeidmiseMudelImpl3 implements SemLeidmiseMudel {
 								 	!kandidaat.vajabAnkurdamistRek(mudeliTahised)){
 							// Lahendame terve ajavaljendikandidaatide puu, alates leitud lehest
 							AjavaljendiKandidaat k6rgeimYlem = kandidaat.leiaK6igeK6rgemYlemkandidaat();
-							k6rgeimYlem.lahendaSemantika( null, konehetk, mudeliTahised );
+							NormaliseerimisteVahemalu vahemalu = this.vahemalu;
+							if (vahemalu != null){
+								lahendaVahemaluAbil( vahemalu, k6rgeimYlem, konehetk );
+							} else {
+								k6rgeimYlem.lahendaSemantika( null, konehetk, mudeliTahised );
+							}
 						}
 					}
 				}
@@ -420,6 +559,29 @@ public class SemLeidmiseMudelImpl3 implements SemLeidmiseMudel {
 		}
 	}
 	
+	/**
+	 *   Lahendab kandidaadi <code>kandidaat</code> semantika, kasutades vahem&auml;lu: kui kandidaadi
+	 *  normaliseerimise v&otilde;ti (vt <code>AjavaljendiKandidaat.looNormaliseerimiseVoti</code>) 
+	 *  on vahem&auml;lus, saab kandidaat lahenduseks sealt v&otilde;etud koopia; vastasel juhul 
+	 *  lahendatakse kandidaat tavap2raselt ning lahendus j2etakse vahem&auml;llu.
+	 */
+	private void lahendaVahemaluAbil( NormaliseerimisteVahemalu vahemalu, AjavaljendiKandidaat kandidaat, 
+	                                  ReferentsAeg konehetk ){
+		String voti = kandidaat.looNormaliseerimiseVoti( konehetk, mudeliTahised );
+		if (voti == null){
+			kandidaat.lahendaSemantika( null, konehetk, mudeliTahised );
+			return;
+		}
+		AjaObjekt lahendus = vahemalu.annaLahendus( voti );
+		if (lahendus != null){
+			kandidaat.setSemantikaLahendus( lahendus );
+			kandidaat.setSemLahendamineLabiviidud( true );
+		} else {
+			lahendus = kandidaat.lahendaSemantika( null, konehetk, mudeliTahised );
+			vahemalu.lisaLahendus( voti, lahendus );
+		}
+	}
+	
 	/**
 	 *   Parsib ankurdatavalt ajav2ljendikandidaadilt suuna, millelt tuleb tekstis ajav2ljendit otsida, ning
 	 *  otsimise kitsenduse (kas tuleb j22da lause piiridesse v6i mitte). 
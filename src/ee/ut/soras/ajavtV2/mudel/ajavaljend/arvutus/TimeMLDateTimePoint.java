@@ -18,7 +18,6 @@
 
 package ee.ut.soras.ajavtV2.mudel.ajavaljend.arvutus;
 
-import java.util.HashMap;
 import java.util.regex.Pattern;
 
 import org.joda.time.DateTimeConstants;
@@ -96,13 +95,59 @@ public class TimeMLDateTimePoint {
                                                               VALUE_FIELD.DAY,  VALUE_FIELD.HOUR_OR_POD, 
                                                               VALUE_FIELD.MINUTE  };
 	
+	/**
+	 *  String values of VALUE_FIELD-s, stored in an array indexed by the ordinal of the 
+	 *  field, along with a bitmask of fields that are present. Provides the subset of 
+	 *  <code>Map</code> operations used in this class; copying takes a single array copy.
+	 */
+	private static final class FieldValues {
+		
+		private final String [] values;
+		
+		private int present = 0;
+		
+		FieldValues(){
+			this.values = new String [valueFieldsInOrder.length];
+		}
+		
+		FieldValues(FieldValues other){
+			this.values  = (other.values).clone();
+			this.present = other.present;
+		}
+		
+		String get(VALUE_FIELD field){
+			return (this.values)[field.ordinal()];
+		}
+		
+		boolean containsKey(VALUE_FIELD field){
+			return (this.present & (1 << field.ordinal())) != 0;
+		}
+		
+		void put(VALUE_FIELD field, String value){
+			(this.values)[field.ordinal()] = value;
+			this.present |= (1 << field.ordinal());
+		}
+		
+		void remove(VALUE_FIELD field){
+			(this.values)[field.ordinal()] = null;
+			this.present &= ~(1 << field.ordinal());
+		}
+		
+		int size(){
+			return Integer.bitCount(this.present);
+		}
+		
+		boolean isEmpty(){
+			return this.present == 0;
+		}
+	}
+	
 	/**
 	 *  Fields that are masked by X symbols. If a field is both in
 	 *  maskedFields and openedFields, the first one is chosen for
 	 *  final representation;  
 	 */
-	private HashMap<VALUE_FIELD, String> maskedFields = 
-		new HashMap<TimeMLDateTimePoint.VALUE_FIELD, String>();
+	private FieldValues maskedFields = new FieldValues();
 	
 	/**
 	 *  Fields that are opened and should appear in output. Fields
@@ -110,25 +155,22 @@ public class TimeMLDateTimePoint {
 	 *  arithmetic operations. If a field is present both in maskedFields 
 	 *  and openedFields, the first one is preferred.     
 	 */
-	private HashMap<VALUE_FIELD, String> openedFields = 
-		new HashMap<TimeMLDateTimePoint.VALUE_FIELD, String>();
+	private FieldValues openedFields = new FieldValues();
 
 	/**
 	 *  Fields given as initial input in object's constructor. If
 	 *  during the whole normalization process no field is set in 
 	 *  openedFields, these will be displayed.  
 	 */
-	private HashMap<VALUE_FIELD, String> inputFields = 
-		new HashMap<TimeMLDateTimePoint.VALUE_FIELD, String>();
+	private FieldValues inputFields = new FieldValues();
 
 	/**
 	 *  Granularities that have been directly modified by calendar 
 	 *  arithmetic operations. "Direct modification" means that an
 	 *  operation has been called with the granularity as an 
-	 *  argument.
+	 *  argument. Stored as a bitmask indexed by the ordinal of the granularity.
 	 */
-	private HashMap<Granulaarsus, String> modifiedGrans = 
-		new HashMap<Granulaarsus, String>();
+	private int modifiedGrans = 0;
 	
 	//==============================================================================
 	//   	V a r i a b l e s   :    c a l e n d a r   a r i t h m e t i c s
@@ -219,16 +261,13 @@ public class TimeMLDateTimePoint {
 	}
 	
 	public TimeMLDateTimePoint(TimeMLDateTimePoint refDateTime) {
-		if (refDateTime.underlyingTime != null){
-			this.underlyingTime = new LocalTime(refDateTime.underlyingTime);
-		}
-		if (refDateTime.underlyingDate != null){
-			this.underlyingDate = new LocalDate(refDateTime.underlyingDate);
-		}
-		this.inputFields   = new HashMap<TimeMLDateTimePoint.VALUE_FIELD, String>(refDateTime.inputFields);
-		this.maskedFields  = new HashMap<TimeMLDateTimePoint.VALUE_FIELD, String>(refDateTime.maskedFields);
-		this.openedFields  = new HashMap<TimeMLDateTimePoint.VALUE_FIELD, String>(refDateTime.openedFields);
-		this.modifiedGrans = new HashMap<Granulaarsus, String>(refDateTime.modifiedGrans);
+		// LocalTime and LocalDate are immutable, so they can be shared
+		this.underlyingTime = refDateTime.underlyingTime;
+		this.underlyingDate = refDateTime.underlyingDate;
+		this.inputFields   = new FieldValues(refDateTime.inputFields);
+		this.maskedFields  = new FieldValues(refDateTime.maskedFields);
+		this.openedFields  = new FieldValues(refDateTime.openedFields);
+		this.modifiedGrans = refDateTime.modifiedGrans;
 		this.dateModified          = refDateTime.dateModified;
 		this.functionOtherThanSetUsed = refDateTime.functionOtherThanSetUsed;
 	}
@@ -477,16 +516,22 @@ public class TimeMLDateTimePoint {
 	//   S E E K
 	//==================
 
+	/**
+	 *  Seeks in the given direction to the <tt>|direction|</tt>-th moment of time, which satisfies 
+	 *  the constraint <tt>field = soughtValue</tt> (<tt>soughtValue == 0</tt> stands for any value).
+	 *  If <tt>excludingCurrent</tt> is set, the current value of the field is passed first.
+	 *  <br>
+	 *  <br>
+	 *  The target is computed directly (see {@link SemLeidmiseAbimeetodid#leiaPlokiNihe(int, int, int, int, int, boolean)}),
+	 *  the result is the same as when stepping through the calendar one unit at a time.
+	 */
 	public void seekField(Granulaarsus field, int direction, int soughtValue, boolean excludingCurrent){
 		// ---------------------------------
 		//  DAY_OF_MONTH
 		// ---------------------------------
 		if (field == Granulaarsus.DAY_OF_MONTH && direction != 0 && soughtValue == 0){
 			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate);
-			LocalDate nihutatudFookus = ajaFookus.plusDays(1 * dir);
-			ajaFookus = nihutatudFookus;
-			this.underlyingDate = ajaFookus;
+			this.underlyingDate = (this.underlyingDate).plusDays(1 * dir);
 			updateDateRepresentation(Granulaarsus.DAY_OF_MONTH, null, false, ADD_TYPE_OPERATION);
 			functionOtherThanSetUsed = true;
 			this.dateModified = true;
@@ -497,35 +542,11 @@ public class TimeMLDateTimePoint {
 		if (field == Granulaarsus.DAY_OF_WEEK && 
 				soughtValue >= DateTimeConstants.MONDAY && soughtValue <= DateTimeConstants.SUNDAY &&
 					direction != 0){
-			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate);
-			// Algne p2ev ehk p2ev, millest tahame tingimata m66duda
-			int algneNadalapaev = (excludingCurrent) ? (ajaFookus.getDayOfWeek()) : (-1);
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale p2evale				
-				ajaFookus = ajaFookus.plusDays(dir * (-1));
-			}
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusDays(1 * dir);
-				ajaFookus = nihutatudFookus;				
-				int uusNadalapaev = ajaFookus.getDayOfWeek();
-				if (algneNadalapaev != -1){
-					 if (algneNadalapaev == uusNadalapaev){
-						 continue;
-					 } else {
-						 algneNadalapaev = -1;
-					 }
-				}
-				if (uusNadalapaev == soughtValue){
-					algneNadalapaev = uusNadalapaev;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate = ajaFookus;
+			// Iga n2dalap2ev on yhe-p2evane plokk 7-p2evases tsyklis
+			int nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+					(this.underlyingDate).getDayOfWeek() - 1, 7, soughtValue - 1, soughtValue - 1, 
+					direction, excludingCurrent);
+			this.underlyingDate = (this.underlyingDate).plusDays(nihe);
 			updateDateRepresentation(Granulaarsus.DAY_OF_MONTH, null, false, ADD_TYPE_OPERATION);
 			functionOtherThanSetUsed = true;
 			this.dateModified = true;
@@ -534,35 +555,10 @@ public class TimeMLDateTimePoint {
 		//  WEEK OF YEAR
 		// ---------------------------------
 		if (field == Granulaarsus.WEEK_OF_YEAR && soughtValue == 0 && direction != 0){
-			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate( this.underlyingDate ); 
-			// Algne n2dal ehk n2dal, millest tahame m88duda
-			int algneNadal = (excludingCurrent) ? (ajaFookus.getWeekOfWeekyear()) : (-1);
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale p2evale				
-				ajaFookus = ajaFookus.plusDays(dir * (-1));
-			}			
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusDays(1 * dir);
-				ajaFookus = nihutatudFookus;
-				int uusNadal= nihutatudFookus.getWeekOfWeekyear();
-				if (algneNadal != -1){
-					 if (algneNadal == uusNadal){
-						 continue;
-					 } else {
-						 algneNadal = -1;
-					 }
-				}
-				if (soughtValue == 0){
-					algneNadal = uusNadal;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate = ajaFookus;
+			// N2dal on 7-p2evane plokk (esmasp2evast pyhap2evani)
+			int nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+					(this.underlyingDate).getDayOfWeek() - 1, 7, 0, 6, direction, excludingCurrent);
+			this.underlyingDate = (this.underlyingDate).plusDays(nihe);
 			updateDateRepresentation(Granulaarsus.WEEK_OF_YEAR, null, false, ADD_TYPE_OPERATION);
 			functionOtherThanSetUsed = true;
 			this.dateModified = true;
@@ -575,34 +571,14 @@ public class TimeMLDateTimePoint {
 						DateTimeConstants.JANUARY <= soughtValue && soughtValue <= DateTimeConstants.DECEMBER) && 
 					direction != 0){
 			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate); 
-			// Algne kuu ehk kuu, millest tahame m88duda
-			int algneKuu = (excludingCurrent) ? (ajaFookus.getMonthOfYear()) : (-1);
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale kuule		
-				ajaFookus = ajaFookus.plusMonths(dir * (-1));
-			}			
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusMonths(1 * dir);
-				ajaFookus = nihutatudFookus;
-				int uusKuu = nihutatudFookus.getMonthOfYear();
-				if (algneKuu != -1){
-					 if (algneKuu == uusKuu){
-						 continue;
-					 } else {
-						 algneKuu = -1;
-					 }
-				}
-				if (soughtValue == 0 || (soughtValue != 0 && uusKuu == soughtValue)){
-					algneKuu = uusKuu;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate = ajaFookus;
+			// Otsitud kuu on yhe-kuuline plokk 12-kuulises tsyklis; suvalise kuu korral on iga
+			// kuu ise plokk
+			int nihe = (soughtValue == 0) ? 
+					(SemLeidmiseAbimeetodid.leiaPlokiNihe(0, 1, 0, 0, direction, excludingCurrent)) : 
+					(SemLeidmiseAbimeetodid.leiaPlokiNihe(
+							(this.underlyingDate).getMonthOfYear() - 1, 12, soughtValue - 1, soughtValue - 1, 
+							direction, excludingCurrent));
+			this.underlyingDate = SemLeidmiseAbimeetodid.liiguKuudeKaupa(this.underlyingDate, nihe, dir, excludingCurrent);
 			updateDateRepresentation(Granulaarsus.MONTH, null, false, ADD_TYPE_OPERATION);
 			functionOtherThanSetUsed = true;
 			this.dateModified = true;
@@ -612,34 +588,10 @@ public class TimeMLDateTimePoint {
 		// ---------------------------------
 		if (field == Granulaarsus.YEAR && soughtValue == 0 && direction != 0){
 			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate); 
-			// Algne aasta ehk aasta, millest tahame m88duda
-			int algneAasta = ( excludingCurrent ) ? ( ajaFookus.getYear() ) : ( -1 );
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale kuule		
-				ajaFookus = ajaFookus.plusMonths(dir * (-1));
-			}				
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusMonths(1 * dir);
-				ajaFookus = nihutatudFookus;
-				int uusAasta = nihutatudFookus.getYear();
-				if (algneAasta != -1){
-					 if (algneAasta == uusAasta){
-						 continue;
-					 } else {
-						 algneAasta = -1;
-					 }
-				}
-				if (soughtValue == 0){
-					algneAasta = uusAasta;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate = ajaFookus;
+			// Liigume kuude kaupa, aasta on 12-kuuline plokk (jaanuarist detsembrini)
+			int nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+					(this.underlyingDate).getMonthOfYear() - 1, 12, 0, 11, direction, excludingCurrent);
+			this.underlyingDate = SemLeidmiseAbimeetodid.liiguKuudeKaupa(this.underlyingDate, nihe, dir, excludingCurrent);
 			updateDateRepresentation(Granulaarsus.YEAR, null, false, ADD_TYPE_OPERATION);
 			functionOtherThanSetUsed = true;
 			this.dateModified = true;
@@ -655,37 +607,11 @@ public class TimeMLDateTimePoint {
 							getLocalDateTimeFieldExtremum(
 									this.underlyingDate, DateTimeFieldType.yearOfCentury(), true);
 			if (minValue <= soughtValue && soughtValue <= maxValue){
-				int dir = (direction > 0) ? (1) : (-1);
-				LocalDate ajaFookus = new LocalDate(this.underlyingDate);
-				// Algne aasta ehk aasta, millest tahame m88duda
-				int algneAasta = ( excludingCurrent ) ? ( ajaFookus.getYearOfCentury() ) : ( -1 );
-				if (!excludingCurrent){
-					// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale aastale		
-					ajaFookus = ajaFookus.plusYears(dir * (-1));
-				}				
-				int count      = 0;
-				int cycleCount = 0;
-				while( true ){
-					LocalDate nihutatudFookus = ajaFookus.plusYears(1 * dir);
-					cycleCount++;
-					ajaFookus = nihutatudFookus;
-					int uusAasta = nihutatudFookus.getYearOfCentury();
-					if (algneAasta != -1){
-						 if (algneAasta == uusAasta){
-							 continue;
-						 } else {
-							 algneAasta = -1;
-						 }
-					}
-					if (uusAasta == soughtValue){
-						algneAasta = uusAasta;
-						count++;
-						if (count == Math.abs(direction)){
-							break;
-						}
-					}
-				}
-				this.underlyingDate = ajaFookus;
+				// Otsitud aasta on yhe-aastane plokk 100-aastases tsyklis
+				int nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+						(this.underlyingDate).getYearOfCentury(), 100, soughtValue, soughtValue, 
+						direction, excludingCurrent);
+				this.underlyingDate = SemLeidmiseAbimeetodid.liiguAastateKaupa(this.underlyingDate, nihe);
 				updateDateRepresentation(Granulaarsus.YEAR, null, false, ADD_TYPE_OPERATION);
 				functionOtherThanSetUsed = true;
 				this.dateModified = true;
@@ -695,35 +621,11 @@ public class TimeMLDateTimePoint {
 		//   CENTURY_OF_ERA
 		// ---------------------------------
 		if (field == Granulaarsus.CENTURY_OF_ERA && soughtValue == 0 && direction != 0){
-			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate); 
-			// Algne saj ehk sajand, millest tahame m88duda
-			int algneSajand = ( excludingCurrent ) ? ( ajaFookus.getCenturyOfEra() ) : ( Integer.MIN_VALUE );
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale aastale		
-				ajaFookus = ajaFookus.plusYears(dir * (-10));
-			}				
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusYears(10 * dir);
-				ajaFookus = nihutatudFookus;
-				int uusSajand = nihutatudFookus.getCenturyOfEra();
-				if (algneSajand != Integer.MIN_VALUE){
-					 if (algneSajand == uusSajand){
-						 continue;
-					 } else {
-						 algneSajand = Integer.MIN_VALUE;
-					 }
-				}
-				if (soughtValue == 0){
-					algneSajand = uusSajand;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate = ajaFookus;
+			// Liigume aastakymne kaupa
+			int nihe = SemLeidmiseAbimeetodid.leiaSajandiNihe(
+					(this.underlyingDate).getYear(), (this.underlyingDate).getCenturyOfEra(), 
+					direction, excludingCurrent);
+			this.underlyingDate = SemLeidmiseAbimeetodid.liiguAastateKaupa(this.underlyingDate, nihe);
 			updateDateRepresentation(Granulaarsus.CENTURY_OF_ERA, null, false, ADD_TYPE_OPERATION);
 			functionOtherThanSetUsed = true;
 			this.dateModified = true;
@@ -738,36 +640,13 @@ public class TimeMLDateTimePoint {
 		if (field == Granulaarsus.TIME && 
 				soughtValue != null && soughtValue.matches("(NI|MO|AF|EV)") 
 					&& direction != 0){
-			int dir = (direction > 0) ? (1) : (-1);
 			// Loome k2esolevat ajafookust t2ielikult kirjeldava objekti
 			LocalDateTime ajaFookus = getAsLocalDateTime(); 
-			// AlgneMargend ehk p2evaosa, millest peame ennem m66da saama, kuni v6ime uue
-			// v22rtuse omaks v6tta
-			String algneMargend = (excludingCurrent) ? (SemLeidmiseAbimeetodid.getPartOfDay(ajaFookus.toLocalTime())) : (null);
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale tunnile	
-				ajaFookus = ajaFookus.plusHours(dir * (-1));
-			}
-			int count = 0;
-			while( true ){
-				LocalDateTime uusFookus = ajaFookus.plusHours(1*dir);
-				ajaFookus = uusFookus;				
-				String newPartOfDay = SemLeidmiseAbimeetodid.getPartOfDay(uusFookus.toLocalTime());
-				if (algneMargend != null){
-					 if (algneMargend.equals(newPartOfDay)){
-						 continue;
-					 } else {
-						 algneMargend = null;
-					 }
-				}
-				if (newPartOfDay != null && newPartOfDay.equals(soughtValue)){
-					algneMargend = newPartOfDay;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
+			// P2evaosa on 6-tunnine plokk 24-tunnises tsyklis
+			int algus = 6 * SemLeidmiseAbimeetodid.leiaLipikuIndeks(SemLeidmiseAbimeetodid.PAEVAOSAD, soughtValue);
+			int nihe  = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+					ajaFookus.getHourOfDay(), 24, algus, algus + 5, direction, excludingCurrent);
+			ajaFookus = ajaFookus.plusHours(nihe);
 			this.partOfDay = soughtValue;
 			updateTimeRepresentation(Granulaarsus.TIME, soughtValue, true, ADD_TYPE_OPERATION);
 			this.underlyingTime = ajaFookus.toLocalTime();
@@ -779,35 +658,12 @@ public class TimeMLDateTimePoint {
 		// ---------------------------------
 		if (field == Granulaarsus.DAY_OF_WEEK && 
 				soughtValue != null && soughtValue.matches("(WD|WE)") && direction != 0){
-			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate); 
-			// Algne p2ev ehk p2ev, millest tahame tingimata m66duda
-			String algneMargend = (excludingCurrent) ? (SemLeidmiseAbimeetodid.getWordDayOrWeekend(ajaFookus)) : (null);
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale p2evale
-				ajaFookus = ajaFookus.plusDays(dir * (-1));
-			}
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusDays(1 * dir);
-				ajaFookus = nihutatudFookus;
-				String toopaevVoiNadalalopp = SemLeidmiseAbimeetodid.getWordDayOrWeekend(ajaFookus);
-				if (algneMargend != null){
-					 if (algneMargend.equals(toopaevVoiNadalalopp)){
-						 continue;
-					 } else {
-						 algneMargend = null;
-					 }
-				}
-				if (toopaevVoiNadalalopp.equals(soughtValue)){
-					algneMargend = toopaevVoiNadalalopp;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate  = ajaFookus;
+			// T66p2evad (esmasp2evast reedeni) ja n2dalavahetus on plokid 7-p2evases tsyklis
+			boolean toopaev = soughtValue.equals("WD");
+			int nihe = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+					(this.underlyingDate).getDayOfWeek() - 1, 7, (toopaev) ? (0) : (5), (toopaev) ? (4) : (6), 
+					direction, excludingCurrent);
+			this.underlyingDate  = (this.underlyingDate).plusDays(nihe);
 			(this.openedFields).put(VALUE_FIELD.DAY, soughtValue);
 			updateDateRepresentation(Granulaarsus.DAY_OF_WEEK, soughtValue, true, ADD_TYPE_OPERATION);
 			functionOtherThanSetUsed = true;
@@ -819,34 +675,11 @@ public class TimeMLDateTimePoint {
 		if (field == Granulaarsus.MONTH && 
 				soughtValue != null && soughtValue.matches("(SP|SU|FA|WI)") && direction != 0){
 			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate); 
-			// Algne aastaaeg ehk aastaaeg, millest tahame tingimata m66duda
-			String algneMargend = (excludingCurrent) ? (SemLeidmiseAbimeetodid.getSeason(ajaFookus)) : (null);
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale kuule
-				ajaFookus = ajaFookus.plusMonths(dir * (-1));
-			}
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusMonths(1 * dir);
-				ajaFookus = nihutatudFookus;
-				String aastaaeg = SemLeidmiseAbimeetodid.getSeason(ajaFookus);
-				if (algneMargend != null){
-					 if (algneMargend.equals(aastaaeg)){
-						 continue;
-					 } else {
-						 algneMargend = null;
-					 }
-				}
-				if (aastaaeg.equals(soughtValue)){
-					algneMargend = aastaaeg;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate = ajaFookus;
+			// Aastaaeg on 3-kuuline plokk 12-kuulises tsyklis (kuud loeme detsembrist alates)
+			int algus = 3 * SemLeidmiseAbimeetodid.leiaLipikuIndeks(SemLeidmiseAbimeetodid.AASTAAJAD, soughtValue);
+			int nihe  = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+					((this.underlyingDate).getMonthOfYear()) % 12, 12, algus, algus + 2, direction, excludingCurrent);
+			this.underlyingDate = SemLeidmiseAbimeetodid.liiguKuudeKaupa(this.underlyingDate, nihe, dir, excludingCurrent);
 			// Detsembri puhul liigume j2rgmisesse aastasse (st - talve loetakse aasta algusest) ...
 			if ( (this.underlyingDate).getMonthOfYear() == DateTimeConstants.DECEMBER ){
 				this.underlyingDate = (this.underlyingDate).plusMonths(1);
@@ -862,34 +695,11 @@ public class TimeMLDateTimePoint {
 		if (field == Granulaarsus.MONTH && 
 				soughtValue != null && soughtValue.matches("Q(1|2|3|4)") && direction != 0){
 			int dir = (direction > 0) ? (1) : (-1);
-			LocalDate ajaFookus = new LocalDate(this.underlyingDate); 
-			// Algne kvartal ehk kvartal, millest tahame tingimata m66duda
-			String algneMargend = (excludingCurrent) ? (SemLeidmiseAbimeetodid.getQuarterOfYear(ajaFookus)) : (null);
-			if (!excludingCurrent){
-				// V6tame sammu tagasi, et esimene nihe tooks meid t2pselt k2esolevale kuule
-				ajaFookus = ajaFookus.plusMonths(dir * (-1));
-			}
-			int count = 0;
-			while( true ){
-				LocalDate nihutatudFookus = ajaFookus.plusMonths(1 * dir);
-				ajaFookus = nihutatudFookus;
-				String kvartal = SemLeidmiseAbimeetodid.getQuarterOfYear(ajaFookus);
-				if (algneMargend != null){
-					 if (algneMargend.equals(kvartal)){
-						 continue;
-					 } else {
-						 algneMargend = null;
-					 }
-				}
-				if (kvartal.equals(soughtValue)){
-					algneMargend = kvartal;
-					count++;
-					if (count == Math.abs(direction)){
-						break;
-					}
-				}
-			}
-			this.underlyingDate = ajaFookus;
+			// Kvartal on 3-kuuline plokk 12-kuulises tsyklis
+			int algus = 3 * SemLeidmiseAbimeetodid.leiaLipikuIndeks(SemLeidmiseAbimeetodid.KVARTALID, soughtValue);
+			int nihe  = SemLeidmiseAbimeetodid.leiaPlokiNihe(
+					(this.underlyingDate).getMonthOfYear() - 1, 12, algus, algus + 2, direction, excludingCurrent);
+			this.underlyingDate = SemLeidmiseAbimeetodid.liiguKuudeKaupa(this.underlyingDate, nihe, dir, excludingCurrent);
 			String newQuarterVal = SemLeidmiseAbimeetodid.getQuarterOfYear( this.underlyingDate );
 			openedFields.put(VALUE_FIELD.MONTH_OR_WEEK, newQuarterVal );
 			updateDateRepresentation(Granulaarsus.MONTH, newQuarterVal, true, ADD_TYPE_OPERATION);
@@ -999,7 +809,7 @@ public class TimeMLDateTimePoint {
 	private void updateDateRepresentation(Granulaarsus changedGranularity, String label, 
 					boolean skipOverwritingChangedOne, boolean setOrAddOperation){
 		// Memorize modification of the field 
-		(this.modifiedGrans).put(changedGranularity, "1");
+		markModified(changedGranularity);
 		if (label == null){
 			if ((isModified(Granulaarsus.DAY_OF_WEEK) && isModified(Granulaarsus.WEEK_OF_YEAR)) &&
 				(changedGranularity == Granulaarsus.WEEK_OF_YEAR || changedGranularity == Granulaarsus.DAY_OF_WEEK)){
@@ -1113,7 +923,7 @@ public class TimeMLDateTimePoint {
 		if (field == Granulaarsus.TIME && setLabel != null){
 			this.partOfDay = setLabel;
 		}
-		(this.modifiedGrans).put(field, "1");
+		markModified(field);
 		if (setLabel == null){
 			if (!skipOverwritingChangedOne){
 				//
@@ -1607,7 +1417,13 @@ public class TimeMLDateTimePoint {
 	 *   (appears in <code>this.modifiedGrans</code>).
 	 */
 	public boolean isModified(Granulaarsus g){
-		return (this.modifiedGrans).containsKey(g);
+		return g != null && (this.modifiedGrans & (1 << g.ordinal())) != 0;
+	}
+	
+	private void markModified(Granulaarsus g){
+		if (g != null){
+			this.modifiedGrans |= (1 << g.ordinal());
+		}
 	}
 	
 	/**
@@ -1668,14 +1484,24 @@ public class TimeMLDateTimePoint {
 	 *  Generates TimeML-compatible "value" attribute, based on current representation.
 	 */
 	public String toValueString() throws Exception {
-		HashMap<VALUE_FIELD, String> displayableFields = this.openedFields;
-		if (openedFields.size() == 0){
+		StringBuilder sb = new StringBuilder();
+		toValueString(sb);
+		return sb.toString();
+	}
+
+	/**
+	 *  Generates TimeML-compatible "value" attribute, based on current representation, 
+	 *  and appends it to the given builder.
+	 */
+	public void toValueString(StringBuilder sb) throws Exception {
+		FieldValues displayableFields = this.openedFields;
+		if (openedFields.isEmpty()){
 			displayableFields = this.inputFields;
 		}
-		if (displayableFields.size() == 0 && maskedFields.size() == 0){
+		if (displayableFields.isEmpty() && maskedFields.isEmpty()){
 			throw new Exception("No calendaric fields have been set for "+((this.getClass()).getCanonicalName())+" object.");
 		}
-		StringBuilder sb = new StringBuilder();
+		int start = sb.length();
 		// 1) Try to construct full extent date-time string
 		for (int i = 0; i < valueFieldsInOrder.length; i++) {
 			VALUE_FIELD field = valueFieldsInOrder[i];
@@ -1694,7 +1520,7 @@ public class TimeMLDateTimePoint {
 			}
 		}
 		// 2) Try to construct only time string
-		if (sb.length() == 0){
+		if (sb.length() == start){
 			for (int i = 3; i < valueFieldsInOrder.length; i++) {
 				VALUE_FIELD field = valueFieldsInOrder[i];
 				if (maskedFields.containsKey(field)){
@@ -1710,7 +1536,6 @@ public class TimeMLDateTimePoint {
 				}
 			}
 		}
-		return sb.toString();
 	}
 
 	/**
@@ -1808,7 +1633,7 @@ public class TimeMLDateTimePoint {
 	 */
 	public void copyInputFieldsToOpenedFields(){
 		if (inputFields.size() == 5){
-			for (VALUE_FIELD vf : inputFields.keySet()) {
+			for (VALUE_FIELD vf : valueFieldsInOrder) {
 				openedFields.put(vf, inputFields.get(vf));
 			}
 		}
@@ -48,6 +48,7 @@ import ee.ut.soras.wrappers.mudel.MorfAnRida;
  * @author Siim Orasmaa
  */
 public class AlgVormSonaMall extends SonaMalliSemOsa implements SonaMall {
+	private static final long serialVersionUID = 1L;
 
 	private List <String> algvormid;
 	private List <String> sonaliigid;
@@ -127,6 +128,10 @@ public class AlgVormSonaMall extends SonaMalliSemOsa implements SonaMall {
 	}
 
 
+	public List<String> getAlgvormid() {
+		return algvormid;
+	}
+
 	public TYYP getTyyp() {
 		return SonaMall.TYYP.ALGVORM;
 	}
@@ -43,6 +43,7 @@ import ee.ut.soras.wrappers.mudel.MorfAnRida;
  * @author Siim Orasmaa
  */
 public class ArvuEriKujudSonaMall extends SonaMalliSemOsa implements SonaMall {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 *   Arvutyybi kitsendused. V6imalikud arvutyybid: _N_ (tavaline arv), _O_ (j2rgarv), _F_ (murdarv), _R_ (rooma number).
@@ -18,7 +18,6 @@
 
 package ee.ut.soras.ajavtV2.mudel.sonamallid;
 
-import java.util.HashMap;
 import java.util.List;
 
 import ee.ut.soras.ajavtV2.mudel.AjavtSona;
@@ -37,9 +36,14 @@ public interface FraasiMuster {
 	 * j&auml;rjestikku on olnud piisavalt palju positiivseid kontrollimistulemusi
 	 * rahuldamaks kogu mustrit, konstrueeritakse uus ajavaljendikandidaat ning seotakse
 	 * sonadega. 
+	 * <p>
+	 * Sobitamise jooksev olek hoitakse dokumendip&otilde;hises kontekstis (<code>kontekst</code>),
+	 * mist&otilde;ttu v&otilde;ib sama fraasimustrit kasutada mitmes l6imes korraga. Ka s&otilde;namallide
+	 * kontrollimise tulemused j&auml;etakse meelde kontekstis 
+	 * (vt {@link MustriSobitamiseKontekst#kontrolliMallileVastavust(SonaMall, AjavtSona)}).
 	 */
 	public void kontrolliMustrileVastavust(AjavtSona sona,
-			HashMap<String, MallileVastavus> kontrollitudSonaKlassid) throws Exception;
+			MustriSobitamiseKontekst kontekst) throws Exception;
 
 	public String getMustriID();
 
@@ -47,6 +51,13 @@ public interface FraasiMuster {
 
 	public List<SonaMall> getSonaMallid();
 
+	/**
+	 *  Tagastab s&otilde;namallid, millest fraasimustri sobitamine saab alata (st mallid, 
+	 * millele peab vastama mustri esimene s&otilde;na). Kasutusel reeglite indekseerimisel 
+	 * (vt {@link ee.ut.soras.ajavtV2.mudel.ReegliteIndeks}).
+	 */
+	public List<SonaMall> getAlgusMallid();
+
 	public void setTuvastamisReegel(TuvastamisReegel tuvastamisReegel);
 
 	public String toString();
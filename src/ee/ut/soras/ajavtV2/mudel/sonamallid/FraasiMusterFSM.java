@@ -18,11 +18,11 @@
 
 package ee.ut.soras.ajavtV2.mudel.sonamallid;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -32,8 +32,8 @@ import ee.ut.soras.ajavtV2.mudel.MustriTahis;
 import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.Granulaarsus;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustriOsadeIndeks;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
-import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaMall.TYYP;
 import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija;
 import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija.FORMAT_OF_VALUE;
 
@@ -46,7 +46,8 @@ import ee.ut.soras.ajavtV2.util.SemDefValjadeParsija.FORMAT_OF_VALUE;
  * 
  *  @author Siim Orasmaa
  */
-public class FraasiMusterFSM implements FraasiMuster {
+public class FraasiMusterFSM implements FraasiMuster, Serializable {
+	private static final long serialVersionUID = 1L;
 
 	//==============================================================================
 	//   	S t a a t i l i s e d    m u u t u j a d
@@ -69,6 +70,12 @@ public class FraasiMusterFSM implements FraasiMuster {
 	 *  Vaikimisi peaksid olema k6ik sonamallid mitte-&auml;raj&auml;etavad.  
 	 */
 	private List <Boolean> onArajaetav;
+
+	/**
+	 *   Valikulisuse informatsioon iga sonamalli kohta. Valikulise sonamalli v6ib
+	 *  sobitamisel vahele j2tta.
+	 */
+	private List <Boolean> onValikuline;
 	
 	/**
 	 *    Tuvastamisreegel, mille alla antud fraasimuster kuulub. 
@@ -89,13 +96,6 @@ public class FraasiMusterFSM implements FraasiMuster {
 	 */
 	private List<Transition> emptyTransitions = null;
 
-	
-	/**
-	 *    Automaadi jooksvad olekud.
-	 */
-	private List<StateAndPath> currentStates = null;
-	
-	
 	/**
 	 *    Automaadi algolekud. 
 	 */
@@ -122,6 +122,7 @@ public class FraasiMusterFSM implements FraasiMuster {
 		this.mustriID    = mustriID;
 		this.sonaMallid  = sonaMallid;
 		this.onArajaetav = araJaetavus;		
+		this.onValikuline = valikulisus;
 		buildAutomaton(sonaMallid, valikulisus);
 	}
 
@@ -137,7 +138,8 @@ public class FraasiMusterFSM implements FraasiMuster {
 	 *   (<code>requiredMatch == null</code>), on oleku vahetamise ainsaks eelduseks, 
 	 *   et ollakse sobivas l2hteolekus (<code>sourceState</code>). 
 	 */
-	private class Transition {
+	private class Transition implements Serializable {
+		private static final long serialVersionUID = 1L;
 		private int sourceState        = -1;
 		private SonaMall requiredMatch = null;
 		private int targetState        = -1;
@@ -151,26 +153,16 @@ public class FraasiMusterFSM implements FraasiMuster {
 		public int attemptTransition(
 				int source,
 				AjavtSona sona,
-				HashMap<String, MallileVastavus> kontrollitudSonaKlassid){
+				MustriSobitamiseKontekst kontekst){
 			if (source == this.sourceState){
 				SonaMall kontrollitavMall = this.requiredMatch;
 				if (kontrollitavMall == null){
 					// null-siire: alati v6imalik sooritada ...
 					return this.targetState;
 				} else {
-					// mitte-null siire: tuleb kontrollida s6na vastavust mallile
-					MallileVastavus vastavus = MallileVastavus.EI_VASTA;
-					if (kontrollitavMall.getTyyp() == TYYP.SONAKLASS){
-						String klassiNimi = ((SonaKlass)kontrollitavMall).getNimi();
-						if (kontrollitudSonaKlassid.containsKey( klassiNimi )){
-							vastavus = kontrollitudSonaKlassid.get(klassiNimi);
-						} else {
-							vastavus = kontrollitavMall.vastabMallile(sona);
-							kontrollitudSonaKlassid.put(klassiNimi, vastavus);
-						}
-					} else {
-						vastavus = kontrollitavMall.vastabMallile(sona);
-					}
+					// mitte-null siire: tuleb kontrollida s6na vastavust mallile (tulemused 
+					// j2etakse kontekstis iga s6na kohta meelde)
+					MallileVastavus vastavus = kontekst.kontrolliMallileVastavust(kontrollitavMall, sona);
 					if (vastavus == MallileVastavus.VASTAB_LOPLIKULT){
 						// T2ielik vastavus, siirdume uude olekusse
 						return this.targetState;
@@ -193,60 +185,83 @@ public class FraasiMusterFSM implements FraasiMuster {
 	}
 	
 	/**
-	 *    Automaadi olek (<code>state</code>) ning selle olekuni j6udmise k2igus
-	 *    tehtud positiivsed sobitamised (<code>pathOfMatches</code>). Positiivsete
-	 *    sobitamiste alla kuuluvad ainult konkreetselt s6namalle rahuldanud s6nad,
-	 *    tyhisiirete tulemused j22vad siit alt v2lja.
+	 *    Automaadi jooksvad olekud antud dokumendis (hoitakse kontekstis) ning iga oleku
+	 *    sobitamisrada: massiiv, mille <code>i</code>-s element on <code>i</code>-ndat 
+	 *    s6namalli rahuldanud s6nade list (v6i <code>null</code>). Rajas on ainult
+	 *    konkreetselt s6namalle rahuldanud s6nad, tyhisiirete tulemused j22vad siit alt v2lja.
+	 *    <p>
+	 *    Rajamassiivi p2rast loomist ei muudeta, seega jagavad olekud, mille rajad on samad,
+	 *    yhte massiivi; uus massiiv luuakse vaid siis, kui rajale lisandub uue s6namalli list.
+	 *    S6nalisti aga lisatakse s6nu ka p2rast selle jagamist (nagu varem kopeeritud
+	 *    paisktabelite puhul), mist6ttu n2evad samast rajast tyhisiirete kaudu tekkinud olekud 
+	 *    ka hilisemaid samasse listi lisatud s6nu.
+	 *    <p>
+	 *    Puhvreid on kaks: jooksvad olekud ning j2rgmise s6na j2rel kehtivad olekud; need
+	 *    vahetatakse iga s6na j2rel, nii et poolelioleva sobitamise ajal uusi massiive ei looda.
 	 */
-	private class StateAndPath {
-		
-		/** Olek, milleni on automaadi sobitamisel j6utud. */
-		private int state = -1;
-		/** Positiivsed sobitamised, mis on olekuni j6udes tehtud. <br>
-		 *  Kujul: [sonamalli indeks, vastavuses sonad] */
-		private HashMap<String, List<AjavtSona>> pathOfMatches = null;
-		
-		public StateAndPath(int state){
-			this.state = state;			
+	private static class Olekud {
+		private int [] olekud;
+		private List<AjavtSona> [][] rajad;
+		private int arv = 0;
+
+		private int [] jargmisedOlekud;
+		private List<AjavtSona> [][] jargmisedRajad;
+		private int jargmisi = 0;
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Olekud(int mahutavus){
+			this.olekud          = new int [mahutavus];
+			this.rajad           = new List [mahutavus][];
+			this.jargmisedOlekud = new int [mahutavus];
+			this.jargmisedRajad  = new List [mahutavus][];
 		}
-		
-		public StateAndPath(int newState, StateAndPath prevStateAndPath, int sonaMalliIndeks, AjavtSona sona) {
-			this.state = newState;
-			if (prevStateAndPath.pathOfMatches != null){
-				this.pathOfMatches = 
-					new HashMap<String, List<AjavtSona>>(prevStateAndPath.pathOfMatches);				
-			}
-			if (sonaMalliIndeks != -1){
-				this.addToPath(sonaMalliIndeks, sona);				
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		void lisaJargmine(int olek, List<AjavtSona> [] rada){
+			if (this.jargmisi == (this.jargmisedOlekud).length){
+				int [] uuedOlekud = new int [ 2 * this.jargmisi ];
+				List<AjavtSona> [][] uuedRajad = new List [ 2 * this.jargmisi ][];
+				System.arraycopy(this.jargmisedOlekud, 0, uuedOlekud, 0, this.jargmisi);
+				System.arraycopy(this.jargmisedRajad,  0, uuedRajad,  0, this.jargmisi);
+				this.jargmisedOlekud = uuedOlekud;
+				this.jargmisedRajad  = uuedRajad;
 			}
+			this.jargmisedOlekud[this.jargmisi] = olek;
+			this.jargmisedRajad[this.jargmisi]  = rada;
+			this.jargmisi++;
 		}
-		
-		public int getState(){
-			return state;
-		}
-		
-		public void addToPath(Integer key, AjavtSona sona){
-			if (this.pathOfMatches == null){
-				this.pathOfMatches = new HashMap<String, List<AjavtSona>>(); 
-			}
-			String strKey = key.toString();
-			if ((this.pathOfMatches).containsKey(strKey)){
-				if (sona != null){
-					((this.pathOfMatches).get(strKey)).add(sona);					
-				}
-			} else {
-				List<AjavtSona> list = new ArrayList<AjavtSona>();
-				if (sona != null){
-					list.add(sona);
+
+		/**
+		 *   Eemaldab j2rgmiste olekute seast olekud <code>olek</code> (j2rjekorda muutmata).
+		 */
+		void eemaldaJargmine(int olek){
+			int j = 0;
+			for (int i = 0; i < this.jargmisi; i++) {
+				if (this.jargmisedOlekud[i] != olek){
+					this.jargmisedOlekud[j] = this.jargmisedOlekud[i];
+					this.jargmisedRajad[j]  = this.jargmisedRajad[i];
+					j++;
 				}
-				(this.pathOfMatches).put(strKey, list);
 			}
+			Arrays.fill(this.jargmisedRajad, j, this.jargmisi, null);
+			this.jargmisi = j;
 		}
-		
-		public HashMap<String, List<AjavtSona>> getPath(){
-			return pathOfMatches;
+
+		/**
+		 *   J2rgmised olekud muutuvad jooksvateks; vanade jooksvate olekute puhver 
+		 *   j22b j2rgmiste olekute jaoks.
+		 */
+		void vaheta(){
+			Arrays.fill(this.rajad, 0, this.arv, null);
+			int [] olekud = this.olekud;
+			List<AjavtSona> [][] rajad = this.rajad;
+			this.olekud          = this.jargmisedOlekud;
+			this.rajad           = this.jargmisedRajad;
+			this.arv             = this.jargmisi;
+			this.jargmisedOlekud = olekud;
+			this.jargmisedRajad  = rajad;
+			this.jargmisi        = 0;
 		}
-		
 	}
 	
 	//==============================================================================
@@ -324,56 +339,50 @@ public class FraasiMusterFSM implements FraasiMuster {
 	 * j&auml;rjestikku on olnud piisavalt palju positiivseid kontrollimistulemusi
 	 * rahuldamaks kogu mustrit, konstrueeritakse uus ajavaljendikandidaat ning seotakse
 	 * sonadega. 
+	 * <p>
+	 * Automaadi jooksvad olekud hoitakse kontekstis <code>kontekst</code>, automaat ise
+	 * p&auml;rast ehitamist ei muutu.
 	 */
 	public void kontrolliMustrileVastavust(
 			AjavtSona sona, 
-			HashMap<String, MallileVastavus> kontrollitudSonaKlassid) throws Exception {
+			MustriSobitamiseKontekst kontekst) throws Exception {
 		
-		// olekud, millesse saab jooksvatest olekutest mingite siirete kaudu
-		ArrayList<StateAndPath> nextStates = new ArrayList<StateAndPath>();
+		// automaadi jooksvad olekud antud dokumendis
+		Olekud olekud = (Olekud) kontekst.getMustriOlek(this);
+		int jooksvaid = (olekud != null) ? (olekud.arv) : (0);
 		boolean endStateReached = false;
 		
-		// initsialiseerime vajadusel jooksvad olekud
-		if (currentStates == null){
-			currentStates = new ArrayList<StateAndPath>();
-		}
-		
-		// lubame alati alustada k6igist algolekutest
-		for (Integer startState : startStates) {
-			StateAndPath initialState = new StateAndPath(startState);
-			currentStates.add( initialState );
-		}
-
-		List<StateAndPath> reachedStates = new LinkedList<StateAndPath>();
-
-		// Sooritame mitte-null siirded
-		for (StateAndPath stateAndPath : currentStates) {
-			int state = stateAndPath.getState();
-			for (Transition trans : transitions) {
+		// Sooritame mitte-null siirded: esmalt jooksvatest olekutest, seej2rel (lubame alati 
+		// alustada) k6igist algolekutest; igast olekust v2ljub t2pselt yks mitte-null siire
+		for (int i = 0; i < jooksvaid + startStates.size(); i++) {
+			int state = (i < jooksvaid) ? (olekud.olekud[i]) : ((startStates.get(i - jooksvaid)).intValue());
+			if (state < endState){
 				// yritame siiret sooritada
-				int resultState = trans.attemptTransition(state, sona, kontrollitudSonaKlassid);
+				int resultState = (transitions.get(state)).attemptTransition(state, sona, kontekst);
 				if (resultState > -1){
 					if (resultState == endState){
 						endStateReached = true;
 					}
-					StateAndPath newSP = new StateAndPath(resultState, stateAndPath, state, sona); 
-					nextStates.add( newSP );
-					reachedStates.add( newSP );
+					if (olekud == null){
+						olekud = new Olekud( startStates.size() + 4 );
+					}
+					List<AjavtSona> [] rada = (i < jooksvaid) ? (olekud.rajad[i]) : (null);
+					olekud.lisaJargmine( resultState, lisaRajale(rada, state, sona) );
 				}
 			}
 		}
 
-		// Sooritame null-siirded
-		while (!reachedStates.isEmpty()){
-			StateAndPath stateAndPath = reachedStates.remove(0);
-			Integer state = stateAndPath.getState();
-			for (Transition trans : emptyTransitions) {
+		// Sooritame null-siirded (k6igist seni saavutatud olekutest, laiuti)
+		int saavutatud = (olekud != null) ? (olekud.jargmisi) : (0);
+		for (int i = 0; i < saavutatud; i++) {
+			int state = olekud.jargmisedOlekud[i];
+			for (int t = 0; t < emptyTransitions.size(); t++) {
 				// yritame siiret sooritada
-				int resultState = trans.attemptTransition(state, sona, kontrollitudSonaKlassid);
-				if (resultState > -1 && resultState != state.intValue()){
-					StateAndPath newSP = new StateAndPath(resultState, stateAndPath, -1, null); 
-					nextStates.add( newSP );					
-					reachedStates.add( newSP );
+				int resultState = (emptyTransitions.get(t)).attemptTransition(state, sona, kontekst);
+				if (resultState > -1 && resultState != state){
+					// rada ei muutu, seega jagame seda
+					olekud.lisaJargmine( resultState, olekud.jargmisedRajad[i] );
+					saavutatud++;
 					if (resultState == endState){
 						endStateReached = true;
 					}
@@ -382,18 +391,33 @@ public class FraasiMusterFSM implements FraasiMuster {
 		}
 		if (endStateReached){
 			// loome kandidaadid
-			konstrueeriJaKinnitaEraldatudAjavaljendiKandidaadid(nextStates);
+			konstrueeriJaKinnitaEraldatudAjavaljendiKandidaadid(olekud, kontekst);
 			// Eemaldame l6pp-oleku jooksvate olekute hulgast
-			Iterator<StateAndPath> iterator = nextStates.iterator();
-			while (iterator.hasNext()) {
-				StateAndPath state = (StateAndPath) iterator.next();
-				if (state.getState() == endState){
-					iterator.remove();
-				}
-			}
+			olekud.eemaldaJargmine( endState );
+		}
+		// uued jooksvad olekud (tyhja olekuhulga asemel eemaldame mustri kontekstist)
+		if (olekud != null){
+			olekud.vaheta();
+			kontekst.setMustriOlek(this, (olekud.arv == 0) ? (null) : (olekud));
 		}
-		// uued jooksvad olekud
-		currentStates = nextStates;
+	}
+	
+	/**
+	 *   Tagastab raja, kus on lisaks rajale <code>rada</code> s&otilde;na <code>sona</code>
+	 *  sobitumine s&otilde;namalliga <code>malliIndeks</code>. Kui rajas juba on selle malli
+	 *  list, lisatakse s&otilde;na sinna ning tagastatakse sama rada; vastasel juhul luuakse
+	 *  uus rada (vt {@link Olekud}).
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private List<AjavtSona> [] lisaRajale(List<AjavtSona> [] rada, int malliIndeks, AjavtSona sona){
+		if (rada != null && rada[malliIndeks] != null){
+			(rada[malliIndeks]).add(sona);
+			return rada;
+		}
+		List<AjavtSona> [] uusRada = (rada != null) ? (rada.clone()) : (new List [endState]);
+		uusRada[malliIndeks] = new ArrayList<AjavtSona>();
+		(uusRada[malliIndeks]).add(sona);
+		return uusRada;
 	}
 	
 	
@@ -404,38 +428,57 @@ public class FraasiMusterFSM implements FraasiMuster {
 	//==============================================================================
 	
 	/**
-	 *   Loob ja tagastab eraldatud sonu katva ajavaljendikandidaadi. Juhul kui eraldamine
-	 *   peaks mingil p&otilde;hjusel eba&otilde;nnestuma, tagastab vaartuse <tt>null</tt>.
+	 *   Loob l6ppolekuni j6udnud j2rgmiste olekute (<code>olekud</code>) radade p6hjal 
+	 *   ajavaljendikandidaadid ning seob need s6nadega. Rada teisendatakse paisktabeliks
+	 *   (v6tmeks s6namalli indeks s6nena) alles siin.
 	 */
-	private AjavaljendiKandidaat konstrueeriJaKinnitaEraldatudAjavaljendiKandidaadid(ArrayList<StateAndPath> nextStates){
-		for (StateAndPath stateAndPath : nextStates) {
-			if (stateAndPath.getState() == endState){
-				AjavaljendiKandidaat ajavaljendiKandidaat = null;
-				HashMap<String, List<AjavtSona>> malleRahuldavadAlamkandidaadid = stateAndPath.getPath();
-				// 1) Kogume kokku eraldatud sonad, paigutame teksti kulgemise jarjekorda				
-				List<AjavtSona> eraldatudSonad = new ArrayList<AjavtSona>();
-				for (int i = 0; i < endState; i++) {
-					String strKey = String.valueOf(i);
-					if (malleRahuldavadAlamkandidaadid.containsKey(strKey) && !(onArajaetav.get(i))){
-						eraldatudSonad.addAll(malleRahuldavadAlamkandidaadid.get(strKey));
+	private void konstrueeriJaKinnitaEraldatudAjavaljendiKandidaadid(Olekud olekud,
+																	 MustriSobitamiseKontekst kontekst){
+		for (int i = 0; i < olekud.jargmisi; i++) {
+			if (olekud.jargmisedOlekud[i] == endState){
+				List<AjavtSona> [] rada = olekud.jargmisedRajad[i];
+				HashMap<String, List<AjavtSona>> malleRahuldavadAlamkandidaadid = 
+					new HashMap<String, List<AjavtSona>>();
+				for (int j = 0; j < rada.length; j++) {
+					if (rada[j] != null){
+						malleRahuldavadAlamkandidaadid.put(String.valueOf(j), rada[j]);
 					}
 				}
-				if (!eraldatudSonad.isEmpty()){
-					// 2) Loome eraldatud sonade kohta uue kandidaadi, lisame talle eraldatud semantilise 
-					//    osa arvutusk2igu juhised
-					ajavaljendiKandidaat = new AjavaljendiKandidaat();
-					if (lisaKandidaadileSemantikaDefinitsioonid(ajavaljendiKandidaat, malleRahuldavadAlamkandidaadid)){
-						// 3) Seome sonad ja kandidaadi
-						AjaTuvastaja.seoSonadKandidaadiKylge(ajavaljendiKandidaat, eraldatudSonad);
-					
-						// 4) Seome ajavaljendiKandidaadiga tuvastamisreegli
-						ajavaljendiKandidaat.lisaTuvastamisReegel(this.tuvastamisReegel);		
-					}
-					ajavaljendiKandidaat.setMustriID( this.mustriID );
-				}
+				looJaKinnitaKandidaat(malleRahuldavadAlamkandidaadid, kontekst);
 			}
 		}
-		return null;
+	}
+
+	/**
+	 *   Loob mustri l6ppolekuni j6udnud sobitamise (<code>malleRahuldavadAlamkandidaadid</code>) 
+	 *   p6hjal ajavaljendikandidaadi ning seob selle eraldatud s6nadega. Kasutusel ka 
+	 *   {@link MustriteAutomaat}-is.
+	 */
+	void looJaKinnitaKandidaat(HashMap<String, List<AjavtSona>> malleRahuldavadAlamkandidaadid,
+							   MustriSobitamiseKontekst kontekst){
+		AjavaljendiKandidaat ajavaljendiKandidaat = null;
+		// 1) Kogume kokku eraldatud sonad, paigutame teksti kulgemise jarjekorda				
+		List<AjavtSona> eraldatudSonad = new ArrayList<AjavtSona>();
+		for (int i = 0; i < endState; i++) {
+			String strKey = String.valueOf(i);
+			if (malleRahuldavadAlamkandidaadid.containsKey(strKey) && !(onArajaetav.get(i))){
+				eraldatudSonad.addAll(malleRahuldavadAlamkandidaadid.get(strKey));
+			}
+		}
+		if (!eraldatudSonad.isEmpty()){
+			// 2) Loome eraldatud sonade kohta uue kandidaadi, lisame talle eraldatud semantilise 
+			//    osa arvutusk2igu juhised
+			ajavaljendiKandidaat = new AjavaljendiKandidaat();
+			if (lisaKandidaadileSemantikaDefinitsioonid(ajavaljendiKandidaat, malleRahuldavadAlamkandidaadid, kontekst)){
+				// 3) Seome sonad ja kandidaadi
+				AjaTuvastaja.seoSonadKandidaadiKylge(ajavaljendiKandidaat, eraldatudSonad);
+			
+				// 4) Seome ajavaljendiKandidaadiga tuvastamisreegli
+				ajavaljendiKandidaat.lisaTuvastamisReegel(this.tuvastamisReegel);		
+				kontekst.lisaReegliTabamus(this.mustriID);
+			}
+			ajavaljendiKandidaat.setMustriID( this.mustriID );
+		}
 	}
 	
 	/**
@@ -452,26 +495,37 @@ public class FraasiMusterFSM implements FraasiMuster {
 	 *   Tagastab <tt>true</tt>, kui vahemalt yks semantikadefinitsioon kinnitati ajavaljendi kylge. (Filtreerimine
 	 *  voib kaasa tuua selle, et reaalselt ei jaa kinnitamiseks alles yhtki semantikadefinitsiooni).
 	 */
-	private boolean lisaKandidaadileSemantikaDefinitsioonid(AjavaljendiKandidaat ajav, HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid){
+	private boolean lisaKandidaadileSemantikaDefinitsioonid(AjavaljendiKandidaat ajav, 
+															HashMap<String, List<AjavtSona>> malliRahuldavadAlamFraasid,
+															MustriSobitamiseKontekst kontekst){
 		boolean eraldatiVahemaltYksSemDef = false;
 		// 1) Eraldame semantilise osa rahuldatud s6namallidest, yhtlasi leiame, millised
 		//    mallid said rahuldatud ja millised mitte
 		List<SemantikaDefinitsioon>           semDefidSonaMallidest = new ArrayList<SemantikaDefinitsioon>();
 		HashMap<Integer, String> semDefidSonaMallidestIndeksMustris = new HashMap<Integer, String>();
-		HashMap<String, String>                rahuldatudMustriosad = new HashMap<String, String>();
+		//    Rahuldatud mustriosad (s6namallide indeksid ja s6naklassid) hoiame bitihulgana
+		MustriOsadeIndeks mustriOsad = 
+			(this.tuvastamisReegel != null) ? ((this.tuvastamisReegel).getMustriOsadeIndeks()) : (null);
+		long []                                rahuldatudMustriosad = 
+			(mustriOsad != null) ? (mustriOsad.looHulk()) : (null);
 		for (int i = 0; i < sonaMallid.size(); i++) {
 			String voti = String.valueOf(i);
 			if (malliRahuldavadAlamFraasid.containsKey(voti)){
+				if (rahuldatudMustriosad != null){
+					MustriOsadeIndeks.lisa(rahuldatudMustriosad, i);
+				}
 				List<AjavtSona> malliRahuldavAlamFraas = malliRahuldavadAlamFraasid.get(voti);
 				AjavtSona viimaneSobitunudSona = malliRahuldavAlamFraas.get(malliRahuldavAlamFraas.size()-1);
 				List<SemantikaDefinitsioon> semDefs =  
 					(sonaMallid.get(i)).tagastaMalliSemantilineOsa(viimaneSobitunudSona);
 				if (semDefs != null && !semDefs.isEmpty()){
 					if ((semDefs.get(0)).getSonaKlass() != null){
-						rahuldatudMustriosad.put( (semDefs.get(0)).getSonaKlass(), "1" );
-						// Juhuks, kui peaks olema mitu yhe s6naklassi liiget, lisame ka variandi,
-						// kus on nime l6ppu lisatud eristamise tarbeks indeks ...
-						rahuldatudMustriosad.put( (semDefs.get(0)).getSonaKlass() + "_" + voti, "1" );
+						if (rahuldatudMustriosad != null){
+							mustriOsad.lisa( rahuldatudMustriosad, (semDefs.get(0)).getSonaKlass() );
+							// Juhuks, kui peaks olema mitu yhe s6naklassi liiget, lisame ka variandi,
+							// kus on nime l6ppu lisatud eristamise tarbeks indeks ...
+							mustriOsad.lisa( rahuldatudMustriosad, (semDefs.get(0)).getSonaKlass() + "_" + voti );
+						}
 						// J2tame meelde, milline 'semDefidSonaMallidest' element on seotud millise
 						// 'voti'-elemendiga
 						for (int j = 0; j < semDefs.size(); j++) {
@@ -494,7 +548,8 @@ public class FraasiMusterFSM implements FraasiMuster {
 											rahuldatudMustriosad, 
 											semDefidSonaMallidest, 
 											semDefidSonaMallidestIndeksMustris,
-											this.sonaMallid);
+											this.sonaMallid,
+											kontekst);
 			semDefidSonaMallidest.addAll(semDefidUued);
 		}
 			
@@ -569,7 +624,8 @@ public class FraasiMusterFSM implements FraasiMuster {
 			List<MustriTahis> mustriTahised = 
 				(this.tuvastamisReegel).parsiRahuldatudMustriosaleVastavadMustriTahised(
 																		malliRahuldavadAlamFraasid, 
-																		rahuldatudMustriosad);
+																		rahuldatudMustriosad,
+																		kontekst);
 			ajav.lisaMustriTahised( mustriTahised );
 		}
 		return eraldatiVahemaltYksSemDef;
@@ -591,6 +647,20 @@ public class FraasiMusterFSM implements FraasiMuster {
 		return sonaMallid;
 	}
 
+	List<Boolean> getValikulisused() {
+		return onValikuline;
+	}
+
+	public List<SonaMall> getAlgusMallid() {
+		List<SonaMall> algusMallid = new ArrayList<SonaMall>( startStates.size() );
+		for (Integer startState : startStates) {
+			if (startState.intValue() < endState){
+				algusMallid.add( sonaMallid.get(startState.intValue()) );
+			}
+		}
+		return algusMallid;
+	}
+
 	public void setTuvastamisReegel(TuvastamisReegel tuvastamisReegel) {
 		this.tuvastamisReegel = tuvastamisReegel;
 	}
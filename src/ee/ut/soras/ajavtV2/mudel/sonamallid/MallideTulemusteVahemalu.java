@@ -0,0 +1,232 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.sonamallid;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
+import ee.ut.soras.wrappers.mudel.MorfAnRida;
+
+/**
+ *   Dokumentide ja t&ouml;&ouml;l&otilde;imede vahel jagatud s&otilde;namallide kontrollimise
+ *  tulemuste vahem&auml;lu. V&otilde;tmeks on s&otilde;na tekst koos morfoloogilise analyysi
+ *  kokkuv&otilde;ttega (iga analyysi lemma ja s&otilde;naliik), v&auml;&auml;rtuseks tulemuste
+ *  massiiv, mille indeksiks on malli number (<code>SonaMall.getMalliID()</code>) - sama
+ *  esitus, mida kasutab {@link MustriSobitamiseKontekst} jooksva s&otilde;na kohta.
+ *  <p>
+ *  Vahem&auml;llu j&auml;etakse vaid nende mallide tulemused, mis s&otilde;ltuvad ainult
+ *  v&otilde;tmes olevatest tunnustest: tavateksti-, regulaaravaldise- ja algvormi-mallid ning
+ *  s&otilde;naklassid, mille k&otilde;ik elemendid on sellised. Arvs&otilde;nafraaside mallide
+ *  ({@link ArvuEriKujudSonaMall}) tulemus s&otilde;ltub s&otilde;na paiknemisest fraasis (ehk
+ *  naabers&otilde;nadest), neid vahem&auml;llu ei panda.
+ *  <p>
+ *  Vahem&auml;lu on seotud konkreetse (nummerdatud mallidega) reeglite hulgaga, uute reeglite
+ *  sisselugemisel tuleb luua uus vahem&auml;lu. Vahem&auml;lu on piiratud mahuga: kirjeid
+ *  hoitakse segmentides, millest igayks eemaldab t&auml;itumisel k&otilde;ige kauem kasutamata
+ *  kirje (LRU).
+ *  <p>
+ *  Tulemuste massiive t&auml;idetakse j&auml;rk-j&auml;rgult, erinevatest l&otilde;imedest
+ *  ilma lukustamata: iga element on kas 0 (kontrollimata) v&otilde;i malli ja v&otilde;tme poolt
+ *  yheselt m&auml;&auml;ratud tulemus, seega v&otilde;ib halvimal juhul l&otilde;im teise
+ *  l&otilde;ime kirjutatud tulemust mitte n&auml;ha ning malli uuesti kontrollida.
+ *
+ *  @author Siim Orasmaa
+ */
+public class MallideTulemusteVahemalu {
+
+	/**
+	 *   Reeglid, mille mallide tulemusi vahem&auml;lu hoiab.
+	 */
+	private final List<TuvastamisReegel> reeglid;
+
+	/**
+	 *   Kas malli (numbri j&auml;rgi) tulemus s&otilde;ltub ainult v&otilde;tmes olevatest tunnustest?
+	 */
+	private final boolean [] vahemallu;
+
+	private final Segment [] segmendid;
+
+	private final int mahutavus;
+
+	private static final int SEGMENTE = 16;
+
+	/**
+	 *   Yks vahem&auml;lu segment: j&auml;rjestatud kasutamise aja j&auml;rgi, t&auml;itumisel
+	 *  eemaldatakse k&otilde;ige kauem kasutamata kirje.
+	 */
+	@SuppressWarnings("serial")
+	private static class Segment extends LinkedHashMap<String, byte []> {
+		private final int segmendiMahutavus;
+
+		Segment(int segmendiMahutavus){
+			super(16, 0.75f, true);
+			this.segmendiMahutavus = segmendiMahutavus;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, byte []> vanim){
+			return size() > this.segmendiMahutavus;
+		}
+	}
+
+	//==============================================================================
+	//   	V a h e m 2 l u    l o o m i n e
+	//==============================================================================
+
+	/**
+	 *   Loob vahem&auml;lu reeglite <code>reeglid</code> s&otilde;namallide jaoks. Mallid peavad
+	 *  olema eelnevalt nummerdatud; vahem&auml;lu hoiab kuni <code>mahutavus</code> s&otilde;na
+	 *  tulemusi.
+	 */
+	public MallideTulemusteVahemalu(List<TuvastamisReegel> reeglid, int mahutavus){
+		this.reeglid   = reeglid;
+		this.mahutavus = mahutavus;
+		int mallideArv = 0;
+		for (TuvastamisReegel reegel : reeglid) {
+			for (SonaMall mall : (reegel.getFraasiMuster()).getSonaMallid()) {
+				mallideArv = Math.max(mallideArv, mall.getMalliID() + 1);
+				if (mall.getTyyp() == SonaMall.TYYP.SONAKLASS){
+					for (SonaMall element : ((SonaKlass)mall).getElemendid()) {
+						mallideArv = Math.max(mallideArv, element.getMalliID() + 1);
+					}
+				}
+			}
+		}
+		this.vahemallu = new boolean [mallideArv];
+		for (TuvastamisReegel reegel : reeglid) {
+			for (SonaMall mall : (reegel.getFraasiMuster()).getSonaMallid()) {
+				if (mall.getMalliID() > -1){
+					this.vahemallu[mall.getMalliID()] = kasSoltubAinultSonast(mall);
+				}
+				if (mall.getTyyp() == SonaMall.TYYP.SONAKLASS){
+					for (SonaMall element : ((SonaKlass)mall).getElemendid()) {
+						if (element.getMalliID() > -1){
+							this.vahemallu[element.getMalliID()] = kasSoltubAinultSonast(element);
+						}
+					}
+				}
+			}
+		}
+		this.segmendid = new Segment [SEGMENTE];
+		int segmendiMahutavus = Math.max(1, (mahutavus + SEGMENTE - 1) / SEGMENTE);
+		for (int i = 0; i < SEGMENTE; i++) {
+			this.segmendid[i] = new Segment( segmendiMahutavus );
+		}
+	}
+
+	/**
+	 *   Kas malli tulemus s&otilde;ltub ainult s&otilde;na tekstist ja analyyside lemmadest
+	 *  ning s&otilde;naliikidest?
+	 */
+	private static boolean kasSoltubAinultSonast(SonaMall mall){
+		if (mall.getTyyp() == SonaMall.TYYP.SONAKLASS){
+			for (SonaMall element : ((SonaKlass)mall).getElemendid()) {
+				if (!kasSoltubAinultSonast(element)){
+					return false;
+				}
+			}
+			return true;
+		}
+		return (mall.getTyyp() == SonaMall.TYYP.TAVATEKST ||
+				mall.getTyyp() == SonaMall.TYYP.REGEXP ||
+				mall.getTyyp() == SonaMall.TYYP.ALGVORM);
+	}
+
+	//==============================================================================
+	//   	P a r i n g u d
+	//==============================================================================
+
+	/**
+	 *   Tagastab s&otilde;na <code>sona</code> v&otilde;tmele vastava tulemuste massiivi (vt
+	 *  <code>MustriSobitamiseKontekst.mallideTulemused</code>); kui v&otilde;tit vahem&auml;lus
+	 *  pole, lisatakse uus (t&auml;itmata) massiiv. Massiivi tohib kirjutada vaid nende mallide
+	 *  tulemusi, mille puhul <code>kasMallOnVahemalus()</code> on t&otilde;ene.
+	 */
+	public byte [] annaTulemused(AjavtSona sona){
+		String voti = looVoti(sona);
+		Segment segment = this.segmendid[ (voti.hashCode() & 0x7fffffff) % SEGMENTE ];
+		synchronized (segment) {
+			byte [] tulemused = segment.get(voti);
+			if (tulemused == null){
+				tulemused = new byte [ (this.vahemallu).length ];
+				segment.put(voti, tulemused);
+			}
+			return tulemused;
+		}
+	}
+
+	/**
+	 *   Kas malli numbriga <code>malliID</code> tulemus j&auml;etakse vahem&auml;llu?
+	 */
+	public boolean kasMallOnVahemalus(int malliID){
+		return (malliID < (this.vahemallu).length && this.vahemallu[malliID]);
+	}
+
+	/**
+	 *   Loob s&otilde;na v&otilde;tme: s&otilde;na tekst (ymbritsevate m&auml;rkideta) ning
+	 *  analyysi leidumise korral iga analyysi lemma ja s&otilde;naliik.
+	 */
+	private static String looVoti(AjavtSona sona){
+		StringBuilder voti = new StringBuilder();
+		voti.append( sona.getAlgSonaYmbritsevateMarkideta() );
+		if (sona.kasLeidusAnalyys() && sona.getAnalyysiTulemused() != null){
+			for (MorfAnRida rida : sona.getAnalyysiTulemused()) {
+				voti.append('\u0000');
+				voti.append( rida.getLemmaIlmaVahemarkideta() );
+				voti.append('\u0001');
+				voti.append( rida.getSonaliik() );
+			}
+		} else {
+			voti.append('\u0002');
+		}
+		return voti.toString();
+	}
+
+	//==============================================================================
+	//   	G e t t e r s
+	//==============================================================================
+
+	/**
+	 *   Reeglid, mille mallide jaoks vahem&auml;lu loodi.
+	 */
+	public List<TuvastamisReegel> getReeglid() {
+		return reeglid;
+	}
+
+	public int getMahutavus() {
+		return mahutavus;
+	}
+
+	/**
+	 *   Kirjete arv vahem&auml;lus.
+	 */
+	public int getSuurus() {
+		int suurus = 0;
+		for (Segment segment : this.segmendid) {
+			synchronized (segment) {
+				suurus += segment.size();
+			}
+		}
+		return suurus;
+	}
+
+}
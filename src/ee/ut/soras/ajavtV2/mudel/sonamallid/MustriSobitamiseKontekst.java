@@ -0,0 +1,419 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.sonamallid;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.util.LogiPidaja;
+
+/**
+ *   Yhe dokumendi t&ouml;&ouml;tlemisega seotud sobitamise olek. Kompileeritud tuvastamisreeglid
+ *  (fraasimustrid, s6naklassid, liitumisreeglid) on p&auml;rast sisselugemist muutumatud ning
+ *  jagatud k6igi t&ouml;&ouml;l6imede vahel; k6ik, mis muutub dokumendi t&ouml;&ouml;tlemise k2igus
+ *  (fraasimustrite automaatide jooksvad olekud, kasutatav semantika leidmise mudel, debug-logi,
+ *  s6namallide kontrollimise tulemused jooksva s6na kohta), hoitakse siin.
+ *  <p>
+ *  Iga <code>AjaTuvastaja.tuvastaAjavaljendid*</code> v2ljakutse loob endale uue konteksti,
+ *  seega ei tohi yht konteksti kasutada mitmes l6imes korraga.
+ *
+ *  @author Siim Orasmaa
+ */
+public class MustriSobitamiseKontekst {
+
+	/**
+	 *   Kasutatav semantika leidmise mudel (vt <code>SemLeidmiseMudel.getMudeliTahised()</code>).
+	 */
+	private final String [] semLeidmiseMudel;
+
+	/**
+	 *   Debug-logi; <code>null</code>, kui debug-v2ljund pole n6utud.
+	 */
+	private final LogiPidaja logi;
+
+	/**
+	 *   Fraasimustrite jooksvad olekud antud dokumendis. V6tmeks on fraasimuster ise,
+	 *  v22rtuse sisu m22rab fraasimustri realisatsioon.
+	 */
+	private final IdentityHashMap<FraasiMuster, Object> mustriteOlekud;
+
+	/**
+	 *   K&otilde;igi fraasimustrite yhise automaadi (vt {@link MustriteAutomaat}) jooksvad
+	 *  olekud antud dokumendis; <code>null</code>, kui automaati pole veel kasutatud.
+	 */
+	private Object automaadiOlek = null;
+
+	//==============================================================================
+	//   	S 6 n a m a l l i d e   k o n t r o l l i m i s e   t u l e m u s e d
+	//==============================================================================
+
+	/**
+	 *   S6nad, mille kohta on s6namallide kontrollimise tulemused massiivides <code>mallideTulemused</code>.
+	 *  Pesasid on kaks, et lause l6pus vahelduvad p2ringud tegeliku s6na ja teksti l6pu t2histava 
+	 *  dummy-s6na kohta teineteise tulemusi ei kustutaks.
+	 */
+	private final AjavtSona [] kontrollitudSonad = new AjavtSona [2];
+
+	/**
+	 *   S6namallide kontrollimise tulemused s6nade <code>kontrollitudSonad</code> kohta: indeksiks on
+	 *  malli number (<code>SonaMall.getMalliID()</code>), v22rtuseks 0 (kontrollimata) v6i 
+	 *  <code>MallileVastavus.ordinal() + 1</code>.
+	 */
+	private final byte [][] mallideTulemused = new byte [2][];
+
+	/**
+	 *   Viimati kasutatud pesa; uue s6na jaoks v6etakse teine pesa.
+	 */
+	private int viimatiKasutatudPesa = 0;
+
+	/**
+	 *   Dokumentide vahel jagatud tulemuste vahem&auml;lu (vt {@link MallideTulemusteVahemalu})
+	 *  ning selles olevad tulemuste massiivid s6nade <code>kontrollitudSonad</code> kohta
+	 *  (leitakse alles esimese vahem&auml;llu sobiva malli kontrollimisel); vahem&auml;lu 
+	 *  puudumisel <code>null</code>.
+	 */
+	private MallideTulemusteVahemalu vahemalu = null;
+	private final byte [][] vahemaluTulemused = new byte [2][];
+
+	/**
+	 *   Mitu korda leiti malli kontrollimise tulemus meelde j2etud tulemuste seast / 
+	 *  mitu korda tuli mall s6naga tegelikult sobitada.
+	 */
+	private long tulemusteTabamusi       = 0;
+	private long tulemusteMoodalaskmisi  = 0;
+	
+	/**
+	 *   Mitu korda leiti malli kontrollimise tulemus dokumentide vahel jagatud vahem&auml;lust.
+	 */
+	private long vahemaluTabamusi        = 0;
+
+	/**
+	 *   Tuvastamisreeglite tabamused (eraldatud kandidaatide arv) fraasimustri ID
+	 *  (<code>mustriID</code>) kaupa; <code>null</code>, kui tabamusi ei koguta (vaikimisi).
+	 */
+	private HashMap<String, long []> reegliTabamused = null;
+
+	/**
+	 *   Reeglite profiil (vt {@link #lisaProfiili(Object, long, boolean)}): v&otilde;tmeks on
+	 *  profileeritud reegli osa (tuvastamisreegel, s&otilde;namall, negatiivne muster v&otilde;i
+	 *  fraasimustri filter), v&auml;&auml;rtuseks massiiv {kutseid, kestus nanosekundites, 
+	 *  tabamusi}; <code>null</code>, kui profiili ei koguta (vaikimisi).
+	 */
+	private IdentityHashMap<Object, long []> profiil = null;
+
+	private static final MallileVastavus [] VASTAVUSED = MallileVastavus.values();
+
+	public MustriSobitamiseKontekst(String [] semLeidmiseMudel, LogiPidaja logi){
+		this.semLeidmiseMudel = semLeidmiseMudel;
+		this.logi             = logi;
+		this.mustriteOlekud   = new IdentityHashMap<FraasiMuster, Object>(512);
+	}
+
+	//==============================================================================
+	//   	G e t t e r s   &   S e t t e r s
+	//==============================================================================
+
+	/**
+	 *   Tagastab fraasimustri jooksva oleku antud dokumendis v6i <code>null</code>, kui muster
+	 *  pole selles dokumendis veel yhtki s6na n2inud.
+	 */
+	public Object getMustriOlek(FraasiMuster muster){
+		return (this.mustriteOlekud).get(muster);
+	}
+
+	/**
+	 *   Salvestab fraasimustri jooksva oleku; <code>null</code> t&auml;hendab, et mustril
+	 *  pole pooleliolevat sobitamist.
+	 */
+	public void setMustriOlek(FraasiMuster muster, Object olek){
+		if (olek == null){
+			(this.mustriteOlekud).remove(muster);
+		} else {
+			(this.mustriteOlekud).put(muster, olek);
+		}
+	}
+
+	/**
+	 *   Kas fraasimustril on antud dokumendis pooleliolev sobitamine?
+	 */
+	public boolean kasMustrilLeidubOlek(FraasiMuster muster){
+		return (this.mustriteOlekud).containsKey(muster);
+	}
+
+	/**
+	 *   Tagastab fraasimustrite yhise automaadi jooksvad olekud antud dokumendis v6i 
+	 *  <code>null</code>, kui automaat pole selles dokumendis veel yhtki s6na n2inud.
+	 */
+	public Object getAutomaadiOlek(){
+		return this.automaadiOlek;
+	}
+
+	public void setAutomaadiOlek(Object olek){
+		this.automaadiOlek = olek;
+	}
+
+	//==============================================================================
+	//   	M a l l i d e   k o n t r o l l i m i n e
+	//==============================================================================
+
+	/**
+	 *   Kontrollib s6na <code>sona</code> vastavust s6namallile <code>mall</code>, j2ttes
+	 *  tulemuse meelde: sama s6na korral korratakse sama malli kontrolli vaid siis, kui mallil
+	 *  puudub number (<code>getMalliID() == -1</code>). S6naklassi korral kontrollitakse
+	 *  (ja j2etakse meelde) klassi elementide vastavused, nii et klassides ja mustrites 
+	 *  korduvad elemendid saavad kontrollitud yhekordselt. Tulemus on sama, mis 
+	 *  <code>mall.vastabMallile(sona)</code> korral.
+	 *  <p>
+	 *  Kui kontekstile on antud dokumentide vahel jagatud vahem&auml;lu, otsitakse sealt 
+	 *  nende mallide tulemusi, mis s6ltuvad ainult s6nast endast (ning lisatakse sinna 
+	 *  leitud tulemused).
+	 */
+	public MallileVastavus kontrolliMallileVastavust(SonaMall mall, AjavtSona sona){
+		int malliID = mall.getMalliID();
+		if (malliID < 0){
+			this.tulemusteMoodalaskmisi++;
+			return (this.profiil == null) ? (mall.vastabMallile(sona)) : (profileeriMalli(mall, sona));
+		}
+		byte [] tulemused = annaSonaTulemused(sona, malliID);
+		if (tulemused[malliID] != 0){
+			this.tulemusteTabamusi++;
+			return VASTAVUSED[ tulemused[malliID] - 1 ];
+		}
+		byte [] jagatudTulemused = null;
+		if (this.vahemalu != null && (this.vahemalu).kasMallOnVahemalus(malliID)){
+			jagatudTulemused = annaVahemaluTulemused(sona);
+			byte tulemus = jagatudTulemused[malliID];
+			if (tulemus != 0){
+				this.vahemaluTabamusi++;
+				tulemused[malliID] = tulemus;
+				return VASTAVUSED[ tulemus - 1 ];
+			}
+		}
+		MallileVastavus vastavus = MallileVastavus.EI_VASTA;
+		long algus = (this.profiil != null) ? (System.nanoTime()) : (0L);
+		if (mall.getTyyp() == SonaMall.TYYP.SONAKLASS){
+			// Sama loogika, mis SonaKlass.vastabMallile: esimene mitte-EI_VASTA tulemus
+			List<SonaMall> elemendid = ((SonaKlass) mall).getElemendid();
+			for (int i = 0; i < elemendid.size(); i++) {
+				vastavus = kontrolliMallileVastavust(elemendid.get(i), sona);
+				if (vastavus != MallileVastavus.EI_VASTA){
+					break;
+				}
+			}
+			// NB! elementide p2ringud v6isid massiivi suurendada, seega v6tame selle uuesti
+			tulemused = annaSonaTulemused(sona, malliID);
+		} else {
+			this.tulemusteMoodalaskmisi++;
+			vastavus = mall.vastabMallile(sona);
+		}
+		if (this.profiil != null){
+			lisaProfiili(mall, System.nanoTime() - algus, vastavus != MallileVastavus.EI_VASTA);
+		}
+		tulemused[malliID] = (byte) (vastavus.ordinal() + 1);
+		if (jagatudTulemused != null){
+			jagatudTulemused[malliID] = tulemused[malliID];
+		}
+		return vastavus;
+	}
+
+	/**
+	 *   Numbrita malli kontrollimine profiili kogumise korral.
+	 */
+	private MallileVastavus profileeriMalli(SonaMall mall, AjavtSona sona){
+		long algus = System.nanoTime();
+		MallileVastavus vastavus = mall.vastabMallile(sona);
+		lisaProfiili(mall, System.nanoTime() - algus, vastavus != MallileVastavus.EI_VASTA);
+		return vastavus;
+	}
+
+	/**
+	 *   Tagastab jooksva s6na (mis on pesas <code>viimatiKasutatudPesa</code>) tulemuste
+	 *  massiivi dokumentide vahel jagatud vahem&auml;lus.
+	 */
+	private byte [] annaVahemaluTulemused(AjavtSona sona){
+		int pesa = this.viimatiKasutatudPesa;
+		if (this.vahemaluTulemused[pesa] == null){
+			this.vahemaluTulemused[pesa] = (this.vahemalu).annaTulemused(sona);
+		}
+		return this.vahemaluTulemused[pesa];
+	}
+
+	/**
+	 *   Tagastab s6na <code>sona</code> tulemuste massiivi, mis mahutab malli numbriga
+	 *  <code>malliID</code>. Kui s6na pole kummaski pesas, v6etakse selle jaoks kasutuselt
+	 *  kauem seisnud pesa ning t2hjendatakse see.
+	 */
+	private byte [] annaSonaTulemused(AjavtSona sona, int malliID){
+		int pesa = -1;
+		if (this.kontrollitudSonad[this.viimatiKasutatudPesa] == sona){
+			pesa = this.viimatiKasutatudPesa;
+		} else if (this.kontrollitudSonad[1 - this.viimatiKasutatudPesa] == sona){
+			pesa = 1 - this.viimatiKasutatudPesa;
+		} else {
+			pesa = 1 - this.viimatiKasutatudPesa;
+			this.kontrollitudSonad[pesa] = sona;
+			this.vahemaluTulemused[pesa] = null;
+			if (this.mallideTulemused[pesa] != null){
+				Arrays.fill(this.mallideTulemused[pesa], (byte) 0);
+			}
+		}
+		this.viimatiKasutatudPesa = pesa;
+		byte [] tulemused = this.mallideTulemused[pesa];
+		if (tulemused == null || tulemused.length <= malliID){
+			byte [] suuremad = new byte [ Math.max(malliID + 1, (tulemused != null) ? (2 * tulemused.length) : (256)) ];
+			if (tulemused != null){
+				System.arraycopy(tulemused, 0, suuremad, 0, tulemused.length);
+			}
+			tulemused = suuremad;
+			this.mallideTulemused[pesa] = tulemused;
+		}
+		return tulemused;
+	}
+
+	/**
+	 *   Mitu korda leiti <code>kontrolliMallileVastavust</code> p2ringu tulemus meelde j2etud
+	 *  tulemuste seast.
+	 */
+	public long getTulemusteTabamusi() {
+		return tulemusteTabamusi;
+	}
+
+	/**
+	 *   Mitu korda tuli <code>kontrolliMallileVastavust</code> p2ringul mall s6naga tegelikult
+	 *  sobitada.
+	 */
+	public long getTulemusteMoodalaskmisi() {
+		return tulemusteMoodalaskmisi;
+	}
+
+	/**
+	 *   Mitu korda leiti <code>kontrolliMallileVastavust</code> p2ringu tulemus dokumentide 
+	 *  vahel jagatud vahem&auml;lust.
+	 */
+	public long getVahemaluTabamusi() {
+		return vahemaluTabamusi;
+	}
+
+	/**
+	 *   L&uuml;litab sisse tuvastamisreeglite tabamuste kogumise (vt
+	 *  {@link #lisaReegliTabamus(String)}).
+	 */
+	public void kogeReegliTabamusi() {
+		if (this.reegliTabamused == null){
+			this.reegliTabamused = new HashMap<String, long []>();
+		}
+	}
+
+	/**
+	 *   J&auml;tab meelde, et fraasimuster <code>mustriID</code> eraldas kandidaadi (kui
+	 *  tabamuste kogumine on sisse l&uuml;litatud).
+	 */
+	public void lisaReegliTabamus(String mustriID) {
+		if (this.reegliTabamused != null){
+			String voti = (mustriID != null) ? (mustriID) : ("-");
+			long [] loendur = (this.reegliTabamused).get(voti);
+			if (loendur == null){
+				loendur = new long [1];
+				(this.reegliTabamused).put(voti, loendur);
+			}
+			loendur[0]++;
+		}
+	}
+
+	/**
+	 *   Tuvastamisreeglite tabamused <code>mustriID</code> kaupa v&otilde;i <code>null</code>,
+	 *  kui neid ei koguta.
+	 */
+	public HashMap<String, long []> getReegliTabamused() {
+		return reegliTabamused;
+	}
+
+	/**
+	 *   L&uuml;litab sisse reeglite profiili kogumise (koos tabamuste kogumisega, vt 
+	 *  {@link #kogeReegliTabamusi()}): iga profileeritud reegli osa kohta loetakse kokku
+	 *  v&auml;ljakutsed, neile kulunud aeg ja tabamused.
+	 */
+	public void kogeProfiili() {
+		kogeReegliTabamusi();
+		if (this.profiil == null){
+			this.profiil = new IdentityHashMap<Object, long []>(1024);
+		}
+	}
+
+	/**
+	 *   Kas kogutakse reeglite profiili?
+	 */
+	public boolean kasKogubProfiili() {
+		return (this.profiil != null);
+	}
+
+	/**
+	 *   Lisab profiili reegli osa <code>osa</code> yhe v&auml;ljakutse, mis kestis 
+	 *  <code>kestusNs</code> nanosekundit ning (<code>tabamus == true</code> korral) 
+	 *  andis positiivse tulemuse; profiili mittekogumisel ei tee midagi.
+	 */
+	public void lisaProfiili(Object osa, long kestusNs, boolean tabamus) {
+		if (this.profiil != null){
+			long [] kirje = (this.profiil).get(osa);
+			if (kirje == null){
+				kirje = new long [3];
+				(this.profiil).put(osa, kirje);
+			}
+			kirje[0]++;
+			kirje[1] += kestusNs;
+			if (tabamus){
+				kirje[2]++;
+			}
+		}
+	}
+
+	/**
+	 *   Kogutud reeglite profiil (vt {@link #lisaProfiili(Object, long, boolean)}) v&otilde;i <code>null</code>, kui
+	 *  seda ei koguta.
+	 */
+	public IdentityHashMap<Object, long []> getProfiil() {
+		return profiil;
+	}
+
+	public MallideTulemusteVahemalu getVahemalu() {
+		return vahemalu;
+	}
+
+	/**
+	 *   M&auml;&auml;rab dokumentide vahel jagatud tulemuste vahem&auml;lu. Vahem&auml;lu peab
+	 *  olema loodud samade (nummerdatud mallidega) reeglite jaoks, mida kontekstiga sobitatakse.
+	 */
+	public void setVahemalu(MallideTulemusteVahemalu vahemalu) {
+		this.vahemalu = vahemalu;
+		(this.vahemaluTulemused)[0] = null;
+		(this.vahemaluTulemused)[1] = null;
+	}
+
+	public String [] getSemLeidmiseMudel() {
+		return semLeidmiseMudel;
+	}
+
+	public LogiPidaja getLogi() {
+		return logi;
+	}
+
+}
@@ -0,0 +1,542 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.mudel.sonamallid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import ee.ut.soras.ajavtV2.mudel.AjavtSona;
+import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
+
+/**
+ *   K&otilde;igi tuvastamisreeglite fraasimustritest koostatud yhine automaat. Mustrid
+ *  liidetakse prefiksipuuks: kahe mustri esimesed <code>k</code> s&otilde;namalli jagavad
+ *  automaadis olekuid, kui mallid on sisult samad (s&otilde;naklass, sama regulaaravaldis,
+ *  algvorm v&otilde;i tekst) ning sama valikulisusega. Iga oleku v&auml;ljuvad siirded on
+ *  oleku kaupa indekseeritud; algolekutest (juur ning olekud, kuhu juurest saab
+ *  tyhisiiretega) v&auml;ljuvaid siirdeid proovitakse vaid siis, kui m&otilde;ni selle siirde
+ *  alla j&auml;&auml;v reegel v&otilde;ib antud s&otilde;nast alata (vt <code>ReegliteIndeks</code>).
+ *  Nii kontrollitakse iga s&otilde;na puhul yhist algust jagavate reeglite yhist osa vaid yks
+ *  kord.
+ *  <p>
+ *  Sobitamise loogika on sama, mis {@link FraasiMusterFSM}-is: valikulise malli korral
+ *  v&otilde;ib malli vahele j&auml;tta (tyhisiire), osalise vastavuse korral j&auml;&auml;dakse
+ *  sama malli juurde (jooksev olek on siis seotud konkreetse siirdega, et teised sama
+ *  prefiksiga mustrid seda ei n&auml;eks), s&otilde;nad kogutakse iga malli kohta radadesse
+ *  ning rajad jagavad s&otilde;nalistide objekte samamoodi. Iga reegli jaoks eraldatakse
+ *  samad kandidaadid samas j&auml;rjekorras, mis reeglip&otilde;histe automaatidega; kandidaadid
+ *  konstrueerib reegli enda {@link FraasiMusterFSM}.
+ *  <p>
+ *  Automaat on p&auml;rast loomist muutumatu ning l&otilde;imekindel; jooksvad olekud hoitakse
+ *  sobitamise kontekstis (vt {@link MustriSobitamiseKontekst#getAutomaadiOlek()}).
+ *
+ *  @author Siim Orasmaa
+ */
+public class MustriteAutomaat {
+
+	/**
+	 *   Reeglid, mille fraasimustritest automaat koostati (reeglitele viidatakse nende
+	 *  j&auml;rjekorranumbri kaudu).
+	 */
+	private final List<TuvastamisReegel> reeglid;
+
+	private final FraasiMusterFSM [] mustrid;
+
+	//==============================================================================
+	//   	O l e k u d   j a   s i i r d e d
+	//==============================================================================
+
+	/**
+	 *   Oleku <code>s</code> v&auml;ljuvad siirded on vahemikus
+	 *  <code>esimeneServ[s] ... esimeneServ[s+1]-1</code>.
+	 */
+	private final int [] esimeneServ;
+
+	/**
+	 *   Mitu s&otilde;namalli on olekusse j&otilde;udmiseks sobitatud (ehk mitmenda malliga
+	 *  olekust v&auml;ljuvad siirded sobitavad).
+	 */
+	private final int [] sygavus;
+
+	/**
+	 *   Reeglid, mille fraasimuster olekus l&otilde;peb; <code>null</code>, kui selliseid pole.
+	 */
+	private final int [][] lopetatudReeglid;
+
+	/**
+	 *   Siirde l&auml;hteolek, sihtolek, s&otilde;namall ja valikulisus.
+	 */
+	private final int []      servaAllikas;
+	private final int []      servaSiht;
+	private final SonaMall [] servaMall;
+	private final boolean []  servaValikuline;
+
+	/**
+	 *   Algolekutest v&auml;ljuvate siirete alla j&auml;&auml;vad reeglid (teiste siirete
+	 *  korral <code>null</code>).
+	 */
+	private final BitSet []   servaReeglid;
+
+	/**
+	 *   Algolekud: juur ning olekud, kuhu juurest saab tyhisiiretega (laiuti j&auml;rjekorras).
+	 */
+	private final int [] algOlekud;
+
+	/**
+	 *   Pikima mustri s&otilde;namallide arv (radade pikkus).
+	 */
+	private final int maxSygavus;
+
+	//==============================================================================
+	//   	A u t o m a a d i   l o o m i n e
+	//==============================================================================
+
+	/**
+	 *   Prefiksipuu tipp automaadi loomise ajal.
+	 */
+	private static class Tipp {
+		private final int sygavus;
+		private final LinkedHashMap<String, Tipp> lapsed = new LinkedHashMap<String, Tipp>();
+		private final List<SonaMall> lasteMallid  = new ArrayList<SonaMall>();
+		private final List<Boolean>  lasteValikulisus = new ArrayList<Boolean>();
+		private final List<Integer>  lopetatud    = new ArrayList<Integer>();
+		private final BitSet         alamReeglid  = new BitSet();
+		private int nr = -1;
+
+		Tipp(int sygavus){
+			this.sygavus = sygavus;
+		}
+	}
+
+	private MustriteAutomaat(List<TuvastamisReegel> reeglid){
+		this.reeglid = reeglid;
+		this.mustrid = new FraasiMusterFSM [ reeglid.size() ];
+		// 1) Koostame mustritest prefiksipuu
+		IdentityHashMap<SonaMall, String> mallideVotmed = new IdentityHashMap<SonaMall, String>();
+		Tipp juur = new Tipp(0);
+		int maxPikkus = 0;
+		for (int r = 0; r < reeglid.size(); r++) {
+			FraasiMusterFSM muster = (FraasiMusterFSM) (reeglid.get(r)).getFraasiMuster();
+			this.mustrid[r] = muster;
+			List<SonaMall> sonaMallid  = muster.getSonaMallid();
+			List<Boolean>  valikulised = muster.getValikulisused();
+			Tipp tipp = juur;
+			(tipp.alamReeglid).set(r);
+			for (int i = 0; i < sonaMallid.size(); i++) {
+				SonaMall mall   = sonaMallid.get(i);
+				Boolean valikuline = valikulised.get(i);
+				String voti     = leiaMalliVoti(mall, mallideVotmed) + ((valikuline.booleanValue()) ? ("?") : (""));
+				Tipp laps       = (tipp.lapsed).get(voti);
+				if (laps == null){
+					laps = new Tipp(i + 1);
+					(tipp.lapsed).put(voti, laps);
+					(tipp.lasteMallid).add(mall);
+					(tipp.lasteValikulisus).add(valikuline);
+				}
+				tipp = laps;
+				(tipp.alamReeglid).set(r);
+			}
+			(tipp.lopetatud).add(Integer.valueOf(r));
+			maxPikkus = Math.max(maxPikkus, sonaMallid.size());
+		}
+		this.maxSygavus = maxPikkus;
+		// 2) Nummerdame tipud laiuti (juur on olek 0)
+		List<Tipp> tipud = new ArrayList<Tipp>();
+		tipud.add(juur);
+		juur.nr = 0;
+		int servi = 0;
+		for (int i = 0; i < tipud.size(); i++) {
+			for (Tipp laps : ((tipud.get(i)).lapsed).values()) {
+				laps.nr = tipud.size();
+				tipud.add(laps);
+				servi++;
+			}
+		}
+		// 3) Leiame algolekud: juur ning olekud, kuhu juurest saab valikuliste mallide kaudu
+		boolean [] onAlgOlek = new boolean [ tipud.size() ];
+		List<Integer> algOlekudList = new ArrayList<Integer>();
+		algOlekudList.add(Integer.valueOf(0));
+		onAlgOlek[0] = true;
+		for (int i = 0; i < algOlekudList.size(); i++) {
+			Tipp tipp = tipud.get( (algOlekudList.get(i)).intValue() );
+			int j = 0;
+			for (Tipp laps : (tipp.lapsed).values()) {
+				if (((tipp.lasteValikulisus).get(j)).booleanValue() && !onAlgOlek[laps.nr]){
+					onAlgOlek[laps.nr] = true;
+					algOlekudList.add(Integer.valueOf(laps.nr));
+				}
+				j++;
+			}
+		}
+		this.algOlekud = new int [ algOlekudList.size() ];
+		for (int i = 0; i < algOlekudList.size(); i++) {
+			this.algOlekud[i] = (algOlekudList.get(i)).intValue();
+		}
+		// 4) Kirjutame olekud ja siirded massiividesse
+		this.esimeneServ      = new int [ tipud.size() + 1 ];
+		this.sygavus          = new int [ tipud.size() ];
+		this.lopetatudReeglid = new int [ tipud.size() ][];
+		this.servaAllikas     = new int [ servi ];
+		this.servaSiht        = new int [ servi ];
+		this.servaMall        = new SonaMall [ servi ];
+		this.servaValikuline  = new boolean [ servi ];
+		this.servaReeglid     = new BitSet [ servi ];
+		int serv = 0;
+		for (int s = 0; s < tipud.size(); s++) {
+			Tipp tipp = tipud.get(s);
+			this.esimeneServ[s] = serv;
+			this.sygavus[s]     = tipp.sygavus;
+			if (!(tipp.lopetatud).isEmpty()){
+				this.lopetatudReeglid[s] = new int [ (tipp.lopetatud).size() ];
+				for (int i = 0; i < (tipp.lopetatud).size(); i++) {
+					this.lopetatudReeglid[s][i] = ((tipp.lopetatud).get(i)).intValue();
+				}
+			}
+			int j = 0;
+			for (Tipp laps : (tipp.lapsed).values()) {
+				this.servaAllikas[serv]    = s;
+				this.servaSiht[serv]       = laps.nr;
+				this.servaMall[serv]       = (tipp.lasteMallid).get(j);
+				this.servaValikuline[serv] = ((tipp.lasteValikulisus).get(j)).booleanValue();
+				this.servaReeglid[serv]    = (onAlgOlek[s]) ? (laps.alamReeglid) : (null);
+				serv++;
+				j++;
+			}
+		}
+		this.esimeneServ[ tipud.size() ] = serv;
+	}
+
+	/**
+	 *   Leiab s&otilde;namalli v&otilde;tme: sisult samadel mallidel (mis annavad iga s&otilde;na
+	 *  puhul sama tulemuse) on sama v&otilde;ti. S&otilde;naklassid ja muud mallid v&otilde;rreldakse
+	 *  identsuse (malli numbri) j&auml;rgi.
+	 */
+	private static String leiaMalliVoti(SonaMall mall, IdentityHashMap<SonaMall, String> mallideVotmed){
+		String voti = mallideVotmed.get(mall);
+		if (voti == null){
+			if (mall.getTyyp() == SonaMall.TYYP.REGEXP && ((RegExpSonaMall) mall).getRegulaaravaldis() != null){
+				voti = "/" + ((RegExpSonaMall) mall).getRegulaaravaldis() + "/";
+			} else if (mall.getTyyp() == SonaMall.TYYP.ALGVORM || mall.getTyyp() == SonaMall.TYYP.TAVATEKST){
+				voti = mall.toString();
+			} else {
+				voti = "#" + mallideVotmed.size();
+			}
+			mallideVotmed.put(mall, voti);
+		}
+		return voti;
+	}
+
+	/**
+	 *   Koostab etteantud tuvastamisreeglite fraasimustritest yhise automaadi. Kui m&otilde;ne
+	 *  reegli fraasimuster pole {@link FraasiMusterFSM}, tagastatakse <code>null</code>
+	 *  (reegleid sobitatakse siis yksikult).
+	 */
+	public static MustriteAutomaat kompileeri(List<TuvastamisReegel> reeglid){
+		for (TuvastamisReegel reegel : reeglid) {
+			if (!(reegel.getFraasiMuster() instanceof FraasiMusterFSM)){
+				return null;
+			}
+		}
+		return new MustriteAutomaat(reeglid);
+	}
+
+	//==============================================================================
+	//   	J o o k s v a d    o l e k u d
+	//==============================================================================
+
+	/**
+	 *   Automaadi jooksvad olekud antud dokumendis. Iga jooksev olek koosneb automaadi
+	 *  olekust, siirdest (osalise vastavuse korral; muidu -1) ja sobitamisrajast (massiiv,
+	 *  mille <code>i</code>-s element on <code>i</code>-ndat s&otilde;namalli rahuldanud
+	 *  s&otilde;nade list v&otilde;i <code>null</code>). Nagu {@link FraasiMusterFSM}-is,
+	 *  on kaks puhvrit: jooksvad ja j&auml;rgmised olekud.
+	 */
+	private static class Olekud {
+		private int [] olekud;
+		private int [] servad;
+		private List<AjavtSona> [][] rajad;
+		private int arv = 0;
+		private int [] jargmisedOlekud;
+		private int [] jargmisedServad;
+		private List<AjavtSona> [][] jargmisedRajad;
+		private int jargmisi = 0;
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Olekud(int mahutavus){
+			this.olekud          = new int [mahutavus];
+			this.servad          = new int [mahutavus];
+			this.rajad           = new List [mahutavus][];
+			this.jargmisedOlekud = new int [mahutavus];
+			this.jargmisedServad = new int [mahutavus];
+			this.jargmisedRajad  = new List [mahutavus][];
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		void lisaJargmine(int olek, int serv, List<AjavtSona> [] rada){
+			if (this.jargmisi == (this.jargmisedOlekud).length){
+				int uusMahutavus = 2 * this.jargmisi;
+				int [] uuedOlekud = new int [uusMahutavus];
+				int [] uuedServad = new int [uusMahutavus];
+				List<AjavtSona> [][] uuedRajad = new List [uusMahutavus][];
+				System.arraycopy(this.jargmisedOlekud, 0, uuedOlekud, 0, this.jargmisi);
+				System.arraycopy(this.jargmisedServad, 0, uuedServad, 0, this.jargmisi);
+				System.arraycopy(this.jargmisedRajad,  0, uuedRajad,  0, this.jargmisi);
+				this.jargmisedOlekud = uuedOlekud;
+				this.jargmisedServad = uuedServad;
+				this.jargmisedRajad  = uuedRajad;
+			}
+			this.jargmisedOlekud[this.jargmisi] = olek;
+			this.jargmisedServad[this.jargmisi] = serv;
+			this.jargmisedRajad[this.jargmisi]  = rada;
+			this.jargmisi++;
+		}
+
+		/**
+		 *   J2rgmised olekud muutuvad jooksvateks, v2ljuvate siireteta olekud j2etakse v2lja.
+		 */
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		void vaheta(MustriteAutomaat automaat){
+			if ((this.olekud).length < this.jargmisi){
+				this.olekud = new int [ (this.jargmisedOlekud).length ];
+				this.servad = new int [ (this.jargmisedOlekud).length ];
+				this.rajad  = new List [ (this.jargmisedOlekud).length ][];
+			}
+			Arrays.fill(this.rajad, 0, this.arv, null);
+			int j = 0;
+			for (int i = 0; i < this.jargmisi; i++) {
+				int olek = this.jargmisedOlekud[i];
+				if (this.jargmisedServad[i] > -1 || automaat.esimeneServ[olek] < automaat.esimeneServ[olek + 1]){
+					this.olekud[j] = olek;
+					this.servad[j] = this.jargmisedServad[i];
+					this.rajad[j]  = this.jargmisedRajad[i];
+					j++;
+				}
+			}
+			this.arv = j;
+			Arrays.fill(this.jargmisedRajad, 0, this.jargmisi, null);
+			this.jargmisi = 0;
+		}
+	}
+
+	/**
+	 *   L&otilde;ppolekuni j&otilde;udnud sobitamine: reegel ja tema s&otilde;namallide
+	 *  rahuldajad (v&otilde;tmeks malli indeks s&otilde;nena).
+	 */
+	private static class Tabamus {
+		private final int reegel;
+		private final HashMap<String, List<AjavtSona>> malleRahuldavadAlamkandidaadid;
+
+		Tabamus(int reegel, HashMap<String, List<AjavtSona>> malleRahuldavadAlamkandidaadid){
+			this.reegel = reegel;
+			this.malleRahuldavadAlamkandidaadid = malleRahuldavadAlamkandidaadid;
+		}
+	}
+
+	/**
+	 *   Tabamuste j&auml;rjestus reeglite j&auml;rjekorras (sama reegli tabamused j&auml;&auml;vad
+	 *  leidmise j&auml;rjekorda).
+	 */
+	private static final Comparator<Tabamus> REEGLI_JARGI = new Comparator<Tabamus>() {
+		public int compare(Tabamus t1, Tabamus t2) {
+			return (t1.reegel < t2.reegel) ? (-1) : ((t1.reegel == t2.reegel) ? (0) : (1));
+		}
+	};
+
+	//==============================================================================
+	//   	R a k e n d u s  :
+	//               m u s t r i t e g a    s o b i t a m i n e
+	//==============================================================================
+
+	/**
+	 *   Kontrollib s&otilde;na <code>sona</code> vastavust k&otilde;igile fraasimustritele ning
+	 *  eraldab l&otilde;ppolekuni j&otilde;udnud mustrite kandidaadid (reeglite j&auml;rjekorras).
+	 *  Kui <code>suleSobitamised == true</code> (s&otilde;na on teksti v6i lause viimane),
+	 *  antakse seej&auml;rel automaadile teksti l&otilde;ppu t&auml;histav dummy-s&otilde;na, nagu
+	 *  reeglip&otilde;histe automaatide korral.
+	 *  <p>
+	 *  <code>algavadReeglid</code> ja <code>dummySonastAlgavadReeglid</code> on reeglid, mis
+	 *  v&otilde;ivad alata vastavalt s&otilde;nast ja dummy-s&otilde;nast (vt
+	 *  <code>ReegliteIndeks.leiaVoimalikultAlgavadReeglid</code>); <code>null</code> korral
+	 *  proovitakse k&otilde;iki algolekutest v&auml;ljuvaid siirdeid.
+	 */
+	public void kontrolliSonaVastavust(AjavtSona sona, BitSet algavadReeglid, boolean suleSobitamised,
+									   BitSet dummySonastAlgavadReeglid, MustriSobitamiseKontekst kontekst){
+		Olekud olekud = (Olekud) kontekst.getAutomaadiOlek();
+		if (olekud == null){
+			olekud = new Olekud( (this.algOlekud).length + 16 );
+		}
+		List<Tabamus> tabamused = new ArrayList<Tabamus>(0);
+		sooritaSiirded(sona, algavadReeglid, olekud, kontekst, tabamused, suleSobitamised);
+		if (suleSobitamised){
+			// Lause l6pus: dummy-s6na tabamused tulevad iga reegli puhul p2rast tavas6na omi
+			sooritaSiirded(new AjavtSona("*"), dummySonastAlgavadReeglid, olekud, kontekst, tabamused, false);
+		}
+		if (!tabamused.isEmpty()){
+			if (tabamused.size() > 1){
+				Collections.sort(tabamused, REEGLI_JARGI);
+			}
+			for (Tabamus tabamus : tabamused) {
+				(this.mustrid[tabamus.reegel]).looJaKinnitaKandidaat(tabamus.malleRahuldavadAlamkandidaadid, kontekst);
+			}
+		}
+		kontekst.setAutomaadiOlek( olekud );
+	}
+
+	/**
+	 *   Sooritab s&otilde;na <code>sona</code> korral k&otilde;ik siirded: esmalt jooksvatest
+	 *  olekutest, seej&auml;rel algolekutest, l&otilde;puks tyhisiirded (laiuti). L&otilde;ppolekuni
+	 *  j&otilde;udnud radadest lisatakse tabamused listi <code>tabamused</code>; kui
+	 *  <code>kopeeriRajad == true</code>, kopeeritakse tabamuste s&otilde;nalistid (kuna
+	 *  j&auml;rgnevad siirded v&otilde;ivad jagatud liste muuta enne, kui kandidaadid luuakse).
+	 */
+	private void sooritaSiirded(AjavtSona sona, BitSet algavadReeglid, Olekud olekud,
+								MustriSobitamiseKontekst kontekst, List<Tabamus> tabamused,
+								boolean kopeeriRajad){
+		// Sooritame mitte-null siirded jooksvatest olekutest ...
+		for (int i = 0; i < olekud.arv; i++) {
+			int serv = olekud.servad[i];
+			if (serv > -1){
+				sooritaSiire(serv, olekud.rajad[i], sona, olekud, kontekst);
+			} else {
+				int olek = olekud.olekud[i];
+				for (int e = this.esimeneServ[olek]; e < this.esimeneServ[olek + 1]; e++) {
+					sooritaSiire(e, olekud.rajad[i], sona, olekud, kontekst);
+				}
+			}
+		}
+		// ... seej2rel (lubame alati alustada) algolekutest
+		for (int i = 0; i < (this.algOlekud).length; i++) {
+			int olek = this.algOlekud[i];
+			for (int e = this.esimeneServ[olek]; e < this.esimeneServ[olek + 1]; e++) {
+				if (algavadReeglid == null || (this.servaReeglid[e]).intersects(algavadReeglid)){
+					sooritaSiire(e, null, sona, olekud, kontekst);
+				}
+			}
+		}
+		// Sooritame null-siirded (k6igist seni saavutatud olekutest, laiuti); rada ei muutu,
+		// seega jagame seda
+		for (int i = 0; i < olekud.jargmisi; i++) {
+			int serv = olekud.jargmisedServad[i];
+			if (serv > -1){
+				if (this.servaValikuline[serv]){
+					olekud.lisaJargmine( this.servaSiht[serv], -1, olekud.jargmisedRajad[i] );
+				}
+			} else {
+				int olek = olekud.jargmisedOlekud[i];
+				for (int e = this.esimeneServ[olek]; e < this.esimeneServ[olek + 1]; e++) {
+					if (this.servaValikuline[e]){
+						olekud.lisaJargmine( this.servaSiht[e], -1, olekud.jargmisedRajad[i] );
+					}
+				}
+			}
+		}
+		// Kogume l6ppolekuni j6udnud rajad
+		for (int i = 0; i < olekud.jargmisi; i++) {
+			int [] reeglid = this.lopetatudReeglid[ olekud.jargmisedOlekud[i] ];
+			if (reeglid != null && olekud.jargmisedServad[i] == -1){
+				for (int r : reeglid) {
+					tabamused.add( new Tabamus(r, looRajaPaisktabel(olekud.jargmisedRajad[i],
+							(this.mustrid[r]).getSonaMallid().size(), kopeeriRajad)) );
+				}
+			}
+		}
+		olekud.vaheta(this);
+	}
+
+	/**
+	 *   Kontrollib s&otilde;na vastavust siirde <code>serv</code> s&otilde;namallile ning lisab
+	 *  vastavuse korral j&auml;rgmise oleku: t&auml;ieliku vastavuse korral siirde sihtoleku,
+	 *  osalise korral j&auml;&auml;dakse sama siirde juurde.
+	 */
+	private void sooritaSiire(int serv, List<AjavtSona> [] rada, AjavtSona sona,
+							  Olekud olekud, MustriSobitamiseKontekst kontekst){
+		MallileVastavus vastavus = kontekst.kontrolliMallileVastavust(this.servaMall[serv], sona);
+		if (vastavus != MallileVastavus.EI_VASTA){
+			List<AjavtSona> [] uusRada = lisaRajale(rada, this.sygavus[ this.servaAllikas[serv] ], sona);
+			if (vastavus == MallileVastavus.VASTAB_LOPLIKULT){
+				olekud.lisaJargmine( this.servaSiht[serv], -1, uusRada );
+			} else {
+				olekud.lisaJargmine( this.servaAllikas[serv], serv, uusRada );
+			}
+		}
+	}
+
+	/**
+	 *   Tagastab raja, kus on lisaks rajale <code>rada</code> s&otilde;na <code>sona</code>
+	 *  sobitumine s&otilde;namalliga <code>malliIndeks</code>; sama, mis
+	 *  <code>FraasiMusterFSM.lisaRajale</code>.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private List<AjavtSona> [] lisaRajale(List<AjavtSona> [] rada, int malliIndeks, AjavtSona sona){
+		if (rada != null && rada[malliIndeks] != null){
+			(rada[malliIndeks]).add(sona);
+			return rada;
+		}
+		List<AjavtSona> [] uusRada = (rada != null) ? (rada.clone()) : (new List [this.maxSygavus]);
+		uusRada[malliIndeks] = new ArrayList<AjavtSona>();
+		(uusRada[malliIndeks]).add(sona);
+		return uusRada;
+	}
+
+	private static HashMap<String, List<AjavtSona>> looRajaPaisktabel(List<AjavtSona> [] rada, int pikkus,
+																	  boolean kopeeri){
+		HashMap<String, List<AjavtSona>> malleRahuldavadAlamkandidaadid = new HashMap<String, List<AjavtSona>>();
+		for (int j = 0; j < pikkus; j++) {
+			if (rada[j] != null){
+				malleRahuldavadAlamkandidaadid.put(String.valueOf(j),
+						(kopeeri) ? (new ArrayList<AjavtSona>(rada[j])) : (rada[j]));
+			}
+		}
+		return malleRahuldavadAlamkandidaadid;
+	}
+
+	//==============================================================================
+	//   	G e t t e r s
+	//==============================================================================
+
+	/**
+	 *   Reeglid, mille fraasimustritest automaat koostati.
+	 */
+	public List<TuvastamisReegel> getReeglid() {
+		return reeglid;
+	}
+
+	/**
+	 *   Olekute arv automaadis.
+	 */
+	public int getOlekuteArv(){
+		return (this.sygavus).length;
+	}
+
+	/**
+	 *   Siirete arv automaadis (ehk mitu s&otilde;namalli j&auml;&auml;b mustritesse p&auml;rast
+	 *  yhiste algusosade liitmist).
+	 */
+	public int getSiireteArv(){
+		return (this.servaMall).length;
+	}
+
+}
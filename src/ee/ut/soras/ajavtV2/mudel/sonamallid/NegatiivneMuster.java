@@ -18,6 +18,7 @@
 
 package ee.ut.soras.ajavtV2.mudel.sonamallid;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -30,7 +31,8 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat;
  *  
  *  @author Siim Orasmaa
  */
-public class NegatiivneMuster {
+public class NegatiivneMuster implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 *   Mustri alguspositsioon, suhtestatuna eraldatud ajavaljendi s6napositsioonidega.
@@ -59,7 +61,8 @@ public class NegatiivneMuster {
 	
 	/**
 	 *   Kompileerib regulaaravaldised <tt>musterRegExpidena</tt> vastavalt mustritele
-	 *  <tt>musterSonena</tt>.
+	 *  <tt>musterSonena</tt>. Kutsutakse v2lja mustri seadmisel, et sobitamise ajal
+	 *  (mis v6ib toimuda mitmes l6imes korraga) poleks negatiivne muster enam muudetav.
 	 */
 	private void kompileeriRegulaarAvaldised(){
 		if (this.musterSonena != null && (this.musterSonena).length > 0){
@@ -85,9 +88,6 @@ public class NegatiivneMuster {
 	 */
 	public boolean sobitaMustriga(List<AjavtSona> sonad, int ajavAlgusPos){
 		if (this.algusPositsioon != Integer.MIN_VALUE){
-			if (this.musterRegExpidena == null){
-				kompileeriRegulaarAvaldised();
-			}
 			if (this.musterRegExpidena != null){
 				int startPos = ajavAlgusPos + this.algusPositsioon;
 				if (0 <= startPos){
@@ -126,15 +126,17 @@ public class NegatiivneMuster {
 	
 	/**
 	 *    Sobitab eraldatud ajavaljendikandidaai all olevaid s6nu negatiivse mustriga ning kui 
-	 *   leiab sobitumise, eemaldab ajavaljendikandidaadi s6nade kyljest.
+	 *   leiab sobitumise, eemaldab ajavaljendikandidaadi s6nade kyljest. Tagastab <tt>true</tt>,
+	 *   kui muster sobitus (ja kandidaat eemaldati).
 	 */
-	public void kontrolliNegatiivsetMustritJaVajaduselEemaldaAjav(List<AjavtSona> sonad, 
+	public boolean kontrolliNegatiivsetMustritJaVajaduselEemaldaAjav(List<AjavtSona> sonad, 
 																 int ajavAlgusPos,
 																 AjavaljendiKandidaat kandidaat){
 		boolean sobitusMustriga = sobitaMustriga(sonad, ajavAlgusPos);
 		if (sobitusMustriga){
 			kandidaat.eemaldaEnnastSonadeKyljest();
 		}
+		return sobitusMustriga;
 	}
 	
 	//==============================================================================
@@ -186,6 +188,7 @@ public class NegatiivneMuster {
 						this.musterSonena[j++] = potentsiaalsedAvaldised[i];
 					}
 				}
+				kompileeriRegulaarAvaldised();
 			}
 		}
 	}
@@ -32,6 +32,7 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
  * @author Siim Orasmaa
  */
 public class RegExpSonaMall extends SonaMalliSemOsa implements SonaMall {
+	private static final long serialVersionUID = 1L;
 	
 	private Pattern regexp;
 	
@@ -69,6 +70,13 @@ public class RegExpSonaMall extends SonaMalliSemOsa implements SonaMall {
 		return SonaMall.TYYP.REGEXP;
 	}
 
+	/**
+	 *   Malli regulaaravaldis; <code>null</code>, kui regulaaravaldis polnud korrektne.
+	 */
+	public String getRegulaaravaldis() {
+		return (this.regexp != null) ? ((this.regexp).pattern()) : (null);
+	}
+
 	@Override
 	public List<SemantikaDefinitsioon> tagastaMalliSemantilineOsa(AjavtSona viimaneSobitunudSona){
 		// Teeme kindlaks, kas semValue tuleb v6tta mustriga sobitunud s6nast
@@ -36,6 +36,7 @@ import ee.ut.soras.wrappers.mudel.MorfAnSona;
  * @author Siim Orasmaa
  */
 public class SonaKlass extends SonaMalliSemOsa implements SonaMall {
+	private static final long serialVersionUID = 1L;
 
 	private List<SonaMall> elemendid = null;
 	
@@ -55,6 +55,17 @@ public interface SonaMall {
 	 */
 	TYYP getTyyp();
 	
+	/**
+	 *  Malli number reeglistikus. Numbrid omistatakse reeglite sisselugemisel 
+	 * (vt <code>MustridXMLFailist</code>) ning nende abil j&auml;etakse dokumendi 
+	 * t&ouml;&ouml;tlemisel meelde mallide kontrollimise tulemused 
+	 * (vt {@link MustriSobitamiseKontekst#kontrolliMallileVastavust(SonaMall, AjavtSona)}).
+	 * Numbrita mallil on v&auml;&auml;rtuseks -1.
+	 */
+	int getMalliID();
+	
+	void setMalliID(int malliID);
+	
 	//============================================================
 	//   S e m a n t i k a   l i i d e s   j a
 	//     e r a l d a m i n e
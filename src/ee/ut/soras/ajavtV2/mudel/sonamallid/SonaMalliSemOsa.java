@@ -18,6 +18,7 @@
 
 package ee.ut.soras.ajavtV2.mudel.sonamallid;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -33,7 +34,8 @@ import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
  *   
  *   @author Siim
  */
-public class SonaMalliSemOsa {
+public class SonaMalliSemOsa implements Serializable {
+	private static final long serialVersionUID = 1L;
 	
 	private String granulaarsus        = null;
 	private boolean semValueOnEbatapne = false;
@@ -50,6 +52,19 @@ public class SonaMalliSemOsa {
 	 */
 	private boolean hasAnyValuesFilled    = false;
 
+	/**
+	 *  Malli number reeglistikus (vt <code>SonaMall.getMalliID()</code>).
+	 */
+	private int malliID                   = -1;
+
+	public int getMalliID() {
+		return malliID;
+	}
+
+	public void setMalliID(int malliID) {
+		this.malliID = malliID;
+	}
+
 	public void lisaOp(String op){
 		this.op = op;
 		this.hasAnyValuesFilled = true;
@@ -28,6 +28,7 @@ import ee.ut.soras.ajavtV2.mudel.AjavtSona;
  *  @author Siim Orasmaa
  */
 public class TavaTekstSonaMall extends SonaMalliSemOsa implements SonaMall {
+	private static final long serialVersionUID = 1L;
 
 	private String tekst;
 	
@@ -47,6 +48,10 @@ public class TavaTekstSonaMall extends SonaMalliSemOsa implements SonaMall {
 		return MallileVastavus.EI_VASTA;
 	}
 	
+	public String getTekst() {
+		return tekst;
+	}
+
 	@Override
 	public String toString() {
 		return "'"+this.tekst+"'";
@@ -18,10 +18,12 @@
 
 package ee.ut.soras.ajavtV2.util;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -31,15 +33,20 @@ import java.util.regex.Pattern;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import ee.ut.soras.ajavtV2.AjaTuvastaja;
 import ee.ut.soras.ajavtV2.mudel.FraasiMustriFilter;
 import ee.ut.soras.ajavtV2.mudel.MustriTahis;
+import ee.ut.soras.ajavtV2.mudel.ReegliteIndeks;
 import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.AjavaljendiKandidaat.ASTE;
 import ee.ut.soras.ajavtV2.mudel.ajavaljend.Granulaarsus;
@@ -49,6 +56,7 @@ import ee.ut.soras.ajavtV2.mudel.sonamallid.AlgVormSonaMall;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.ArvuEriKujudSonaMall;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.FraasiMuster;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.FraasiMusterFSM;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.MustriteAutomaat;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.NegatiivneMuster;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.RegExpSonaMall;
 import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaKlass;
@@ -124,6 +132,12 @@ public class MustridXMLFailist {
 	 *  XML-dokumendist parsitud s&otilde;naklassid. Leiavad rakendust meetodis ...   
 	 */
 	private HashMap<String, SonaKlass> sonaKlassid;
+
+	/**
+	 *  Kas fraasimustrid tuleks kompileerida yhiseks automaadiks (vt {@link MustriteAutomaat})?
+	 *  Vaikimisi kasutatakse iga mustri jaoks eraldi automaati ({@link FraasiMusterFSM}).
+	 */
+	private boolean kasutaMustriteAutomaati = false;
 	
 	//==============================================================================
 	//    M u s t e r - t a g ' i   a l a m o s i   kirjeldavad regulaaravaldised
@@ -155,15 +169,56 @@ public class MustridXMLFailist {
 		// parsime faili builder-i abil, et saada 
 		// XML-failist DOM esitust 
 		dom = db.parse(failiNimi);
-		// 1) Parsime dokumendist s6naklassid, riputame kylge endale ja tuvastajale
-		this.sonaKlassid = parsiDokumendistSonaKlassid();
+		rakendaReegliKomplekt( parsiDokumendistReegliKomplekt(), tuvastaja );
+	}
+	
+	/**
+	 *  Parsib etteantud nimega XML failist s&otilde;naklassid, tuvastamisreeglid ja 
+	 * liitumisreeglid ning tagastab need reeglikomplektina (mida saab salvestada 
+	 * eelkompileeritud kujul, vt {@link ReegliKomplekt}). Erinevalt meetodist
+	 * <code>votaMustridXMLFailist</code> reegleid tuvastajale ei rakendata.
+	 */
+	public ReegliKomplekt parsiReegliKomplekt(String failiNimi) throws ParserConfigurationException, SAXException, IOException{
+		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+		DocumentBuilder db = dbf.newDocumentBuilder();
+		dom = db.parse(failiNimi);
+		return parsiDokumendistReegliKomplekt();
+	}
+	
+	/**
+	 *  Kinnitab reeglikomplekti (XML failist parsitud v&otilde;i eelkompileeritud kujult 
+	 * taastatud) etteantud ajav2ljendite tuvastaja kylge: vajadusel kompileeritakse 
+	 * fraasimustrid yhiseks automaadiks ning luuakse reeglite indeks.
+	 */
+	public void rakendaReegliKomplekt(ReegliKomplekt komplekt, AjaTuvastaja tuvastaja){
+		// 1) S6naklassid riputame kylge endale ja tuvastajale
+		this.sonaKlassid = komplekt.getSonaKlassid();
 		tuvastaja.setSonaKlassid( this.sonaKlassid );
 		
-		// 2) Parsime dokumendist reeglid ja riputame tuvastajale
-		tuvastaja.setReeglid( parsiDokumendistTuvastamisReeglid() );
+		// 2) Reeglid (juba nummerdatud mallidega) indekseerime ja riputame tuvastajale
+		List <TuvastamisReegel> reeglid = komplekt.getReeglid();
+		MustriteAutomaat automaat = 
+			(this.kasutaMustriteAutomaati) ? (MustriteAutomaat.kompileeri( reeglid )) : (null);
+		tuvastaja.setReeglid( reeglid, new ReegliteIndeks(reeglid), automaat );
 		
-		// 3) Parsime dokumendist liitumisreeglid, lisame tuvastajale
-		tuvastaja.setLiitumisReeglid( parsiDokumendistLiitumisReeglid() );
+		// 3) Liitumisreeglid lisame tuvastajale
+		tuvastaja.setLiitumisReeglid( komplekt.getLiitumisReeglid() );
+	}
+	
+	/**
+	 *  Parsib XML-faili DOM esitusest (klassimuutujas <code>dom</code>) s&otilde;naklassid, 
+	 * tuvastamisreeglid (nummerdatud s&otilde;namallidega) ja liitumisreeglid.
+	 */
+	private ReegliKomplekt parsiDokumendistReegliKomplekt(){
+		// 1) Parsime dokumendist s6naklassid (reeglite parsimisel viidatakse neile)
+		this.sonaKlassid = parsiDokumendistSonaKlassid();
+		
+		// 2) Parsime dokumendist reeglid ja nummerdame nende s6namallid
+		List <TuvastamisReegel> reeglid = parsiDokumendistTuvastamisReeglid();
+		nummerdaSonaMallid( reeglid );
+		
+		// 3) Parsime dokumendist liitumisreeglid
+		return new ReegliKomplekt( this.sonaKlassid, reeglid, parsiDokumendistLiitumisReeglid() );
 	}
 	
 	
@@ -178,16 +233,82 @@ public class MustridXMLFailist {
 		// parsime faili builder-i abil, et saada 
 		// XML-failist DOM esitust 
 		dom = db.parse(in);
+		rakendaReegliKomplekt( parsiDokumendistReegliKomplekt(), tuvastaja );
+	}
+	
+	//==============================================================================
+	//    R e e g l i t e    r e a n u m b r i d 
+	//==============================================================================
+	
+	/**
+	 *  Leiab XML-failist reeglite ja s&otilde;naklasside reanumbrid (nt profiili aruande jaoks,
+	 * vt {@link ReegliProfiilija}). Tagastatavas paisktabelis on v&otilde;tmeteks:
+	 * <ul>
+	 *   <li> tuvastamisreegli fraasimustri ID (<code>mustriID</code>, nummerdatakse samamoodi,
+	 *        nagu reeglite parsimisel) - elemendi <tt>Reegel</tt> rida;
+	 *   <li> <code>mustriID + "/NegMuster/" + j</code> - reegli <code>j</code>-nda elemendi 
+	 *        <tt>NegMuster</tt> rida;
+	 *   <li> <code>mustriID + "/Filter/" + j</code> - reegli <code>j</code>-nda elemendi 
+	 *        <tt>Filter</tt> rida;
+	 *   <li> <code>"SonaKlass/" + nimi</code> - s&otilde;naklassi elemendi rida;
+	 * </ul>
+	 * Reanumbriks on rida, millel l&otilde;ppeb elemendi algussilt.
+	 */
+	public static HashMap<String, Integer> leiaReanumbrid(String failiNimi) throws ParserConfigurationException, SAXException, IOException{
+		final HashMap<String, Integer> reanumbrid = new HashMap<String, Integer>();
+		SAXParserFactory spf = SAXParserFactory.newInstance();
+		(spf.newSAXParser()).parse(new File(failiNimi), new DefaultHandler(){
+			private Locator asukoht     = null;
+			private int mustriLoendur   = 1;
+			private int reegliRida      = -1;
+			private String mustriID     = null;
+			private boolean reeglis     = false;
+			private List<Integer> negMustriRead = new ArrayList<Integer>();
+			private List<Integer> filtriRead    = new ArrayList<Integer>();
 			
-		// 1) Parsime dokumendist s6naklassid, riputame kylge endale ja tuvastajale
-		this.sonaKlassid = parsiDokumendistSonaKlassid();
-		tuvastaja.setSonaKlassid( this.sonaKlassid );
-
-		// 2) Parsime dokumendist reeglid ja riputame tuvastajale
-		tuvastaja.setReeglid( parsiDokumendistTuvastamisReeglid() );
-		
-		// 3) Parsime dokumendist liitumisreeglid, lisame tuvastajale
-		tuvastaja.setLiitumisReeglid( parsiDokumendistLiitumisReeglid() );		
+			public void setDocumentLocator(Locator locator) {
+				this.asukoht = locator;
+			}
+			
+			public void startElement(String uri, String localName, String qName, Attributes attributes) {
+				int rida = (this.asukoht != null) ? ((this.asukoht).getLineNumber()) : (-1);
+				if (qName.equals(TAG_REEGEL)){
+					this.reeglis    = true;
+					this.reegliRida = rida;
+					this.mustriID   = null;
+					(this.negMustriRead).clear();
+					(this.filtriRead).clear();
+				} else if (this.reeglis && qName.equals(TAG_MUSTER) && this.mustriID == null){
+					// Sama loendamine, mis parsiDokumendistTuvastamisReeglid-is
+					this.mustriID = "m"+String.valueOf( (this.mustriLoendur)++ );
+				} else if (this.reeglis && qName.equals(TAG_NEGMUSTER)){
+					(this.negMustriRead).add( rida );
+				} else if (this.reeglis && qName.equals(TAG_FILTER)){
+					(this.filtriRead).add( rida );
+				} else if (qName.equals(TAG_SONAKLASS)){
+					String nimi = attributes.getValue(TAG_SONAKLASS_NIMI);
+					if (nimi != null){
+						reanumbrid.put(TAG_SONAKLASS+"/"+nimi, rida);
+					}
+				}
+			}
+			
+			public void endElement(String uri, String localName, String qName) {
+				if (qName.equals(TAG_REEGEL) && this.reeglis){
+					if (this.mustriID != null){
+						reanumbrid.put(this.mustriID, this.reegliRida);
+						for (int j = 0; j < (this.negMustriRead).size(); j++) {
+							reanumbrid.put(this.mustriID+"/"+TAG_NEGMUSTER+"/"+j, (this.negMustriRead).get(j));
+						}
+						for (int j = 0; j < (this.filtriRead).size(); j++) {
+							reanumbrid.put(this.mustriID+"/"+TAG_FILTER+"/"+j, (this.filtriRead).get(j));
+						}
+					}
+					this.reeglis = false;
+				}
+			}
+		});
+		return reanumbrid;
 	}
 	
 	//==============================================================================
@@ -791,6 +912,45 @@ public class MustridXMLFailist {
 		}
 		return reeglid;
 	}	
+	
+	/**
+	 *   Omistab k&otilde;igile reeglite fraasimustrites kasutatud s&otilde;namallidele (ka 
+	 *  s&otilde;naklasside elementidele) unikaalse numbri (vt <code>SonaMall.getMalliID()</code>).
+	 *  Sama malliobjekt (nt mitmes mustris kasutatud s&otilde;naklass) saab yhe numbri. 
+	 *  Tagastab nummerdatud mallide arvu.
+	 */
+	private int nummerdaSonaMallid(List <TuvastamisReegel> reeglid){
+		IdentityHashMap<SonaMall, Boolean> nummerdatud = new IdentityHashMap<SonaMall, Boolean>();
+		for (TuvastamisReegel reegel : reeglid) {
+			for (SonaMall mall : (reegel.getFraasiMuster()).getSonaMallid()) {
+				if (!nummerdatud.containsKey(mall)){
+					mall.setMalliID( nummerdatud.size() );
+					nummerdatud.put(mall, Boolean.TRUE);
+					if (mall.getTyyp() == SonaMall.TYYP.SONAKLASS){
+						for (SonaMall element : ((SonaKlass)mall).getElemendid()) {
+							if (!nummerdatud.containsKey(element)){
+								element.setMalliID( nummerdatud.size() );
+								nummerdatud.put(element, Boolean.TRUE);
+							}
+						}
+					}
+				}
+			}
+		}
+		return nummerdatud.size();
+	}
+	
+	//==============================================================================
+	//   G e t t e r s   &   S e t t e r s
+	//==============================================================================
+
+	public boolean isKasutaMustriteAutomaati() {
+		return kasutaMustriteAutomaati;
+	}
+
+	public void setKasutaMustriteAutomaati(boolean kasutaMustriteAutomaati) {
+		this.kasutaMustriteAutomaati = kasutaMustriteAutomaati;
+	}
 					
 	//==============================================================================
 	//   A b i m e e t o d i d
@@ -0,0 +1,321 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+import ee.ut.soras.ajavtV2.AjaTuvastaja;
+import ee.ut.soras.ajavtV2.mudel.FraasiMustriFilter;
+import ee.ut.soras.ajavtV2.mudel.MustriTahis;
+import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.LiitumisReegel;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustriOsaKitsendus;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustriOsadeIndeks;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.MustristSoltuv;
+import ee.ut.soras.ajavtV2.mudel.ajavaljend.SemantikaDefinitsioon;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.AlgVormSonaMall;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.ArvuEriKujudSonaMall;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.FraasiMusterFSM;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.NegatiivneMuster;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.RegExpSonaMall;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaKlass;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaMalliSemOsa;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.TavaTekstSonaMall;
+
+/**
+ *   XML reeglifailist parsitud reeglistik (s&otilde;naklassid, tuvastamisreeglid koos
+ *  negatiivsete mustritega ning liitumisreeglid), mida saab salvestada eelkompileeritud
+ *  binaarsel kujul (<i>reeglikomplekt</i>) ning sealt XML-i uuesti parsimata taastada.
+ *  <p>
+ *  Reeglikomplekti fail koosneb p&auml;isest ja Java serialiseeritud reeglistikust. P&auml;is
+ *  sisaldab faili formaadi versiooni, Ajavt versiooni, mudeliklasside struktuuri
+ *  kontrollsummat (vt {@link #arvutaMudeliKontrollsumma()}) ning l&auml;hte-XML faili SHA-256
+ *  kontrollsummat; kui m&otilde;ni neist ei vasta oodatule (nt XML faili on p&auml;rast
+ *  komplekti loomist muudetud), loetakse komplekt aegunuks ning see tuleb uuesti luua.
+ *  Mudeliklassides on serialiseerimise versioon (<code>serialVersionUID</code>) fikseeritud;
+ *  mudeliklasside serialiseeritavate v&auml;ljade muutmisel muutub aga struktuuri
+ *  kontrollsumma ning vanad komplektid j&auml;etakse kasutamata.
+ *  <p>
+ *  Komplekti loomine k&auml;sureal (vt ka ant-i eesm&auml;rk <tt>compile-rules</tt>):
+ *  <pre>
+ *     java ee.ut.soras.ajavtV2.util.ReegliKomplekt reeglid.xml [reeglid.xml.bundle]
+ *  </pre>
+ *
+ *  @author Siim Orasmaa
+ */
+public class ReegliKomplekt implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 *   Reeglikomplekti faili laiend; XML faili <tt>reeglid.xml</tt> komplekti otsitakse
+	 *  vaikimisi failist <tt>reeglid.xml.bundle</tt>.
+	 */
+	public static final String FAILI_LAIEND = ".bundle";
+
+	private static final String FAILI_TUNNUS = "AJAVT-REEGLIKOMPLEKT";
+
+	private static final int FORMAADI_VERSIOON = 2;
+
+	/**
+	 *   Reeglikomplekti serialiseeritavad mudeliklassid (koos nende sisemiste klassidega), mille
+	 *  struktuurist arvutatakse p&auml;ises olev kontrollsumma. Uue mudeliklassi lisamisel
+	 *  reeglistikku tuleb see siia lisada.
+	 */
+	private static final Class<?> [] MUDELI_KLASSID = {
+		ReegliKomplekt.class,
+		SonaMalliSemOsa.class,
+		SonaKlass.class,
+		AlgVormSonaMall.class,
+		ArvuEriKujudSonaMall.class,
+		RegExpSonaMall.class,
+		TavaTekstSonaMall.class,
+		TuvastamisReegel.class,
+		FraasiMusterFSM.class,
+		NegatiivneMuster.class,
+		FraasiMustriFilter.class,
+		MustristSoltuv.class,
+		MustriTahis.class,
+		SemantikaDefinitsioon.class,
+		LiitumisReegel.class,
+		MustriOsadeIndeks.class,
+		MustriOsaKitsendus.class
+	};
+
+	private static volatile byte [] mudeliKontrollsumma = null;
+
+	private final HashMap<String, SonaKlass> sonaKlassid;
+
+	/**
+	 *   Tuvastamisreeglid nummerdatud s&otilde;namallidega (vt <code>SonaMall.getMalliID()</code>).
+	 */
+	private final List<TuvastamisReegel> reeglid;
+
+	private final List<LiitumisReegel> liitumisReeglid;
+
+	public ReegliKomplekt(HashMap<String, SonaKlass> sonaKlassid,
+						  List<TuvastamisReegel> reeglid,
+						  List<LiitumisReegel> liitumisReeglid){
+		this.sonaKlassid     = sonaKlassid;
+		this.reeglid         = reeglid;
+		this.liitumisReeglid = liitumisReeglid;
+	}
+
+	//==============================================================================
+	//   	K i r j u t a m i n e   j a   l u g e m i n e
+	//==============================================================================
+
+	/**
+	 *   Kirjutab reeglikomplekti faili <code>failiNimi</code>; <code>xmlKontrollsumma</code>
+	 *  on l&auml;hte-XML faili kontrollsumma (vt {@link #arvutaKontrollsumma(String)}).
+	 */
+	public void kirjuta(String failiNimi, byte [] xmlKontrollsumma) throws Exception {
+		DataOutputStream valjund = new DataOutputStream(
+				new BufferedOutputStream( new FileOutputStream(failiNimi), 1 << 16 ) );
+		try {
+			valjund.writeUTF( FAILI_TUNNUS );
+			valjund.writeInt( FORMAADI_VERSIOON );
+			valjund.writeUTF( AjaTuvastaja.getVersioon() );
+			byte [] mudeliSumma = arvutaMudeliKontrollsumma();
+			valjund.writeInt( mudeliSumma.length );
+			valjund.write( mudeliSumma );
+			valjund.writeInt( xmlKontrollsumma.length );
+			valjund.write( xmlKontrollsumma );
+			ObjectOutputStream objektid = new ObjectOutputStream( valjund );
+			objektid.writeObject( this );
+			objektid.flush();
+		} finally {
+			valjund.close();
+		}
+	}
+
+	/**
+	 *   Loeb reeglikomplekti failist <code>failiNimi</code>. Kui <code>oodatavKontrollsumma</code>
+	 *  on antud, kontrollitakse, et komplekt on loodud just sellise kontrollsummaga XML
+	 *  failist. Aegunud v&otilde;i vigase komplekti korral visatakse erind.
+	 */
+	public static ReegliKomplekt loe(String failiNimi, byte [] oodatavKontrollsumma) throws Exception {
+		DataInputStream sisend = new DataInputStream(
+				new BufferedInputStream( new FileInputStream(failiNimi), 1 << 16 ) );
+		try {
+			if (!FAILI_TUNNUS.equals( sisend.readUTF() )){
+				throw new Exception("Fail "+failiNimi+" pole Ajavt reeglikomplekt.");
+			}
+			int formaadiVersioon = sisend.readInt();
+			String ajavtVersioon = sisend.readUTF();
+			if (formaadiVersioon != FORMAADI_VERSIOON || !ajavtVersioon.equals(AjaTuvastaja.getVersioon())){
+				throw new Exception("Reeglikomplekt "+failiNimi+" on loodud teise Ajavt versiooniga ("+
+									ajavtVersioon+", formaat "+formaadiVersioon+").");
+			}
+			byte [] mudeliSumma = new byte [ sisend.readInt() ];
+			sisend.readFully( mudeliSumma );
+			if (!Arrays.equals(mudeliSumma, arvutaMudeliKontrollsumma())){
+				throw new Exception("Reeglikomplekt "+failiNimi+" on loodud teistsuguste mudeliklassidega.");
+			}
+			byte [] kontrollsumma = new byte [ sisend.readInt() ];
+			sisend.readFully( kontrollsumma );
+			if (oodatavKontrollsumma != null && !Arrays.equals(kontrollsumma, oodatavKontrollsumma)){
+				throw new Exception("Reeglikomplekt "+failiNimi+" on aegunud (XML reeglifaili on muudetud).");
+			}
+			ObjectInputStream objektid = new ObjectInputStream( sisend );
+			return (ReegliKomplekt) objektid.readObject();
+		} finally {
+			sisend.close();
+		}
+	}
+
+	/**
+	 *   Leiab XML reeglifaili <code>xmlFailiNimi</code> k&otilde;rval olevast failist
+	 *  (<tt>xmlFailiNimi + FAILI_LAIEND</tt>) reeglikomplekti, kui see on olemas ning vastab
+	 *  XML faili praegusele sisule; vastasel juhul tagastab <code>null</code>. Kui komplekt
+	 *  on olemas, kuid aegunud v&otilde;i vigane, kirjutatakse selle kohta hoiatus
+	 *  standardveav&auml;ljundisse.
+	 */
+	public static ReegliKomplekt leiaXMLFailiKomplekt(String xmlFailiNimi){
+		File komplektiFail = new File(xmlFailiNimi + FAILI_LAIEND);
+		if (!komplektiFail.isFile()){
+			return null;
+		}
+		try {
+			return loe( komplektiFail.getPath(), arvutaKontrollsumma(xmlFailiNimi) );
+		} catch (Exception e) {
+			System.err.println("Hoiatus: reeglikomplekt "+komplektiFail.getPath()+" j2eti kasutamata ("+
+							   e.getMessage()+"); reeglid loetakse failist "+xmlFailiNimi+".");
+			return null;
+		}
+	}
+
+	/**
+	 *   Arvutab faili <code>failiNimi</code> sisu SHA-256 kontrollsumma.
+	 */
+	public static byte [] arvutaKontrollsumma(String failiNimi) throws Exception {
+		MessageDigest summa = MessageDigest.getInstance("SHA-256");
+		InputStream sisend = new FileInputStream(failiNimi);
+		try {
+			byte [] puhver = new byte [1 << 16];
+			int loetud = 0;
+			while ((loetud = sisend.read(puhver)) != -1) {
+				summa.update(puhver, 0, loetud);
+			}
+		} finally {
+			sisend.close();
+		}
+		return summa.digest();
+	}
+
+	/**
+	 *   Arvutab mudeliklasside (<tt>MUDELI_KLASSID</tt> ja nende sisemised klassid) struktuuri
+	 *  SHA-256 kontrollsumma: klasside nimed, serialiseerimise versioonid ning serialiseeritavate
+	 *  v&auml;ljade nimed ja tyybid.
+	 */
+	static byte [] arvutaMudeliKontrollsumma() throws Exception {
+		byte [] summa = mudeliKontrollsumma;
+		if (summa == null){
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (Class<?> klass : MUDELI_KLASSID) {
+				lisaKlassiStruktuur(digest, klass);
+			}
+			summa = digest.digest();
+			mudeliKontrollsumma = summa;
+		}
+		return summa;
+	}
+
+	private static void lisaKlassiStruktuur(MessageDigest digest, Class<?> klass) throws Exception {
+		ObjectStreamClass kirjeldus = ObjectStreamClass.lookup(klass);
+		if (kirjeldus != null){
+			StringBuilder struktuur = new StringBuilder();
+			struktuur.append( kirjeldus.getName() ).append(':').append( kirjeldus.getSerialVersionUID() );
+			for (ObjectStreamField vali : kirjeldus.getFields()) {
+				struktuur.append(';').append( vali.getName() ).append(' ').append( vali.getTypeCode() );
+				if (vali.getTypeString() != null){
+					struktuur.append( vali.getTypeString() );
+				}
+			}
+			struktuur.append('\n');
+			digest.update( (struktuur.toString()).getBytes("UTF-8") );
+		}
+		// Sisemised klassid nimede j2rjekorras (getDeclaredClasses() j2rjekord pole m22ratud)
+		TreeMap<String, Class<?>> sisemised = new TreeMap<String, Class<?>>();
+		for (Class<?> sisemine : klass.getDeclaredClasses()) {
+			sisemised.put(sisemine.getName(), sisemine);
+		}
+		for (Class<?> sisemine : sisemised.values()) {
+			lisaKlassiStruktuur(digest, sisemine);
+		}
+	}
+
+	//==============================================================================
+	//   	K o m p l e k t i    l o o m i n e    k 2 s u r e a l
+	//==============================================================================
+
+	/**
+	 *   Loob XML reeglifailist (esimene argument) reeglikomplekti faili (teine argument,
+	 *  vaikimisi XML faili nimi + <tt>.bundle</tt>).
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1){
+			System.err.println("Kasutus: ReegliKomplekt <reeglid.xml> [<reeglid.xml"+FAILI_LAIEND+">]");
+			System.exit(1);
+		}
+		String xmlFailiNimi = args[0];
+		String komplektiFailiNimi = (args.length > 1) ? (args[1]) : (xmlFailiNimi + FAILI_LAIEND);
+		long algus = System.currentTimeMillis();
+		ReegliKomplekt komplekt = (new MustridXMLFailist()).parsiReegliKomplekt( xmlFailiNimi );
+		komplekt.kirjuta( komplektiFailiNimi, arvutaKontrollsumma(xmlFailiNimi) );
+		System.out.println(" Reeglikomplekt "+komplektiFailiNimi+" loodud ("+
+						   (komplekt.getReeglid()).size()+" reeglit, "+
+						   (new File(komplektiFailiNimi)).length()+" baiti, "+
+						   (System.currentTimeMillis() - algus)+" ms).");
+	}
+
+	//==============================================================================
+	//   	G e t t e r s
+	//==============================================================================
+
+	public HashMap<String, SonaKlass> getSonaKlassid() {
+		return sonaKlassid;
+	}
+
+	public List<TuvastamisReegel> getReeglid() {
+		return reeglid;
+	}
+
+	public List<LiitumisReegel> getLiitumisReeglid() {
+		return liitumisReeglid;
+	}
+
+}
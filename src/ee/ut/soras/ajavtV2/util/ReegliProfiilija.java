@@ -0,0 +1,370 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ee.ut.soras.ajavtV2.AjaTuvastaja;
+import ee.ut.soras.ajavtV2.mudel.FraasiMustriFilter;
+import ee.ut.soras.ajavtV2.mudel.TuvastamisReegel;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.FraasiMuster;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.NegatiivneMuster;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaKlass;
+import ee.ut.soras.ajavtV2.mudel.sonamallid.SonaMall;
+
+/**
+ *   Tuvastamisreeglite profiilija: liidab kokku dokumentide kaupa kogutud reeglite profiilid
+ *  (vt <code>MustriSobitamiseKontekst.kogeProfiili()</code>) ning koostab nende p&otilde;hjal
+ *  aruande, kus reegli osad on j&auml;rjestatud kulunud aja j&auml;rgi. Profileeritakse:
+ *  <ul>
+ *    <li> tuvastamisreeglite fraasimustrid (<code>FraasiMuster.kontrolliMustrileVastavust</code>);
+ *    <li> s&otilde;namallid ja s&otilde;naklassid (<code>SonaMall.vastabMallile</code>, v&auml;ljakutsed
+ *         kontrollimise tulemuste vahem&auml;lust m&ouml;&ouml;da);
+ *    <li> negatiivsed mustrid (<code>NegatiivneMuster.sobitaMustriga</code>);
+ *    <li> fraasimustrifiltrid (<code>FraasiMustriFilter</code> rakendamine);
+ *  </ul>
+ *  NB! Ajad on kaasavad: fraasimustri aeg sisaldab tema s&otilde;namallide ja filtrite aega
+ *  ning s&otilde;naklassi aeg tema elementide aega. Mustrite yhiseks automaadiks kompileerimisel
+ *  (<code>AjaTuvastaja.setKasutaMustriteAutomaati</code>) sobitatakse k&otilde;iki mustreid korraga
+ *  ning fraasimustrite aega reeglite kaupa ei m&otilde;&otilde;deta (s&otilde;namallide ja filtrite
+ *  aeg m&otilde;&otilde;detakse ikka).
+ *  <p>
+ *  Profiilija m&auml;&auml;ratakse tuvastajale meetodiga <code>AjaTuvastaja.setProfiilija()</code>;
+ *  k&otilde;ik meetodid on l&otilde;imekindlad.
+ *
+ *  @author Siim Orasmaa
+ */
+public class ReegliProfiilija {
+
+	/**
+	 *   Profileeritava reegli osa tyyp.
+	 */
+	public static enum TYYP { FRAASIMUSTER, SONAMALL, NEGMUSTER, FILTER };
+
+	/**
+	 *   Kokku liidetud profiil: v&otilde;tmeks on reegli osa, v&auml;&auml;rtuseks massiiv
+	 *  {kutseid, kestus nanosekundites, tabamusi}.
+	 */
+	private final IdentityHashMap<Object, long []> osad = new IdentityHashMap<Object, long []>();
+
+	/**
+	 *   Tuvastamisreeglite tabamused (eraldatud kandidaatide arv) <code>mustriID</code> kaupa.
+	 */
+	private final HashMap<String, long []> tabamused = new HashMap<String, long []>();
+
+	/**
+	 *   Mitu profiili (dokumenti v&otilde;i dokumendi kildu) on kokku liidetud.
+	 */
+	private long profiile = 0;
+
+	//==============================================================================
+	//   	P r o f i i l i d e   k o g u m i n e
+	//==============================================================================
+
+	/**
+	 *   Liidab kokku yhe dokumendi (v&otilde;i dokumendi killu) profiili <code>profiil</code>
+	 *  ning reeglite tabamused <code>reegliTabamused</code>.
+	 */
+	public synchronized void lisaProfiil(Map<Object, long []> profiil, Map<String, long []> reegliTabamused) {
+		if (profiil != null){
+			for (Map.Entry<Object, long []> kirje : profiil.entrySet()) {
+				liida( (this.osad), kirje.getKey(), kirje.getValue() );
+			}
+		}
+		if (reegliTabamused != null){
+			for (Map.Entry<String, long []> kirje : reegliTabamused.entrySet()) {
+				liida( (this.tabamused), kirje.getKey(), kirje.getValue() );
+			}
+		}
+		(this.profiile)++;
+	}
+
+	private static <T> void liida(Map<T, long []> summad, T voti, long [] vaartus){
+		long [] summa = summad.get(voti);
+		if (summa == null){
+			summa = new long [vaartus.length];
+			summad.put(voti, summa);
+		}
+		for (int i = 0; i < vaartus.length; i++) {
+			summa[i] += vaartus[i];
+		}
+	}
+
+	/**
+	 *   Nullib kogutud profiili.
+	 */
+	public synchronized void nulli() {
+		(this.osad).clear();
+		(this.tabamused).clear();
+		this.profiile = 0;
+	}
+
+	public synchronized long getProfiile() {
+		return profiile;
+	}
+
+	//==============================================================================
+	//   	A r u a n n e
+	//==============================================================================
+
+	/**
+	 *   Aruande rida: yhe reegli osa kokkuv&otilde;te.
+	 */
+	public static class Rida {
+		public final TYYP   tyyp;
+		/** Reegli osa tunnus: <code>mustriID</code>, <code>mustriID/NegMuster/j</code>,
+		 *  <code>mustriID/Filter/j</code>, s&otilde;naklassi nimi v&otilde;i s&otilde;namalli omaniku
+		 *  tunnus (reegel v&otilde;i s&otilde;naklass). */
+		public final String id;
+		/** Rida reeglifailis (-1, kui pole teada). */
+		public final int    rida;
+		public final String kirjeldus;
+		public final long   kutseid;
+		public final long   kestusNs;
+		public final long   tabamusi;
+
+		Rida(TYYP tyyp, String id, int rida, String kirjeldus, long [] kirje) {
+			this.tyyp      = tyyp;
+			this.id        = id;
+			this.rida      = rida;
+			this.kirjeldus = kirjeldus;
+			this.kutseid   = (kirje != null) ? (kirje[0]) : (0);
+			this.kestusNs  = (kirje != null) ? (kirje[1]) : (0);
+			this.tabamusi  = (kirje != null && kirje.length > 2) ? (kirje[2]) : (0);
+		}
+	}
+
+	/**
+	 *   Koostab tuvastaja <code>tuvastaja</code> reeglite profiili aruande: iga tyybi read on
+	 *  j&auml;rjestatud kulunud aja j&auml;rgi (kahanevalt). Fraasimustrite seas on k&otilde;ik
+	 *  reeglid (ka need, mida ei kontrollitud), teiste tyypide seas vaid v&auml;lja kutsutud osad.
+	 *  Reanumbrid leitakse tuvastaja reeglifailist (vt <code>MustridXMLFailist.leiaReanumbrid</code>),
+	 *  kui see on XML-fail v&otilde;i sellest loodud reeglikomplekt.
+	 */
+	public Map<TYYP, List<Rida>> koostaAruanne(AjaTuvastaja tuvastaja) {
+		IdentityHashMap<Object, long []> osad = null;
+		HashMap<String, long []> tabamused    = null;
+		synchronized (this) {
+			osad      = new IdentityHashMap<Object, long []>(this.osad);
+			tabamused = new HashMap<String, long []>(this.tabamused);
+		}
+		HashMap<String, Integer> reanumbrid = leiaReanumbrid( tuvastaja.getReegliFail() );
+		Map<TYYP, List<Rida>> aruanne = new HashMap<TYYP, List<Rida>>();
+		for (TYYP tyyp : TYYP.values()) {
+			aruanne.put(tyyp, new ArrayList<Rida>());
+		}
+		// 1) Reeglid ning nende negatiivsed mustrid ja filtrid; j2tame meelde s6namallide omanikud
+		IdentityHashMap<Object, String> omanikud = new IdentityHashMap<Object, String>();
+		List<TuvastamisReegel> reeglid = tuvastaja.getReeglid();
+		if (reeglid != null){
+			for (TuvastamisReegel reegel : reeglid) {
+				FraasiMuster muster = reegel.getFraasiMuster();
+				String mustriID = muster.getMustriID();
+				long [] kirje = osad.remove(reegel);
+				long [] tabamusi = tabamused.get(mustriID);
+				long [] kokku = new long [] { (kirje != null) ? (kirje[0]) : (0),
+											  (kirje != null) ? (kirje[1]) : (0),
+											  (tabamusi != null) ? (tabamusi[0]) : (0) };
+				(aruanne.get(TYYP.FRAASIMUSTER)).add(
+						new Rida(TYYP.FRAASIMUSTER, mustriID, annaRida(reanumbrid, mustriID), muster.toString(), kokku) );
+				if (reegel.getNegMustrid() != null){
+					int j = 0;
+					for (NegatiivneMuster negMuster : reegel.getNegMustrid()) {
+						String id = mustriID+"/"+MustridXMLFailist.TAG_NEGMUSTER+"/"+(j++);
+						lisaRida(aruanne, osad, negMuster, TYYP.NEGMUSTER, id,
+								 annaRida(reanumbrid, id, mustriID), negMuster.toString());
+					}
+				}
+				if (reegel.getFraasiMustriFiltrid() != null){
+					int j = 0;
+					for (FraasiMustriFilter filter : reegel.getFraasiMustriFiltrid()) {
+						String id = mustriID+"/"+MustridXMLFailist.TAG_FILTER+"/"+(j++);
+						lisaRida(aruanne, osad, filter, TYYP.FILTER, id,
+								 annaRida(reanumbrid, id, mustriID), "");
+					}
+				}
+				if (muster.getSonaMallid() != null){
+					for (SonaMall mall : muster.getSonaMallid()) {
+						if (!omanikud.containsKey(mall)){
+							omanikud.put(mall, mustriID);
+						}
+					}
+				}
+			}
+		}
+		// 2) S6naklassid ja nende elemendid
+		Map<String, SonaKlass> sonaKlassid = tuvastaja.getSonaKlassid();
+		if (sonaKlassid != null){
+			for (SonaKlass klass : sonaKlassid.values()) {
+				String reaVoti = MustridXMLFailist.TAG_SONAKLASS+"/"+klass.getNimi();
+				lisaRida(aruanne, osad, klass, TYYP.SONAMALL, klass.getNimi(), annaRida(reanumbrid, reaVoti),
+						 MustridXMLFailist.TAG_SONAKLASS);
+				for (SonaMall element : klass.getElemendid()) {
+					lisaRida(aruanne, osad, element, TYYP.SONAMALL, klass.getNimi(), annaRida(reanumbrid, reaVoti),
+							 element.getTyyp()+" "+element);
+				}
+			}
+		}
+		// 3) Ylej22nud s6namallid (fraasimustrite elemendid); omanikuta osad kirjeldame vaid tyybi j2rgi
+		for (Map.Entry<Object, long []> kirje : osad.entrySet()) {
+			Object osa = kirje.getKey();
+			String omanik = omanikud.get(osa);
+			if (osa instanceof SonaMall){
+				SonaMall mall = (SonaMall) osa;
+				(aruanne.get(TYYP.SONAMALL)).add( new Rida(TYYP.SONAMALL, (omanik != null) ? (omanik) : ("-"),
+						annaRida(reanumbrid, omanik), mall.getTyyp()+" "+mall, kirje.getValue()) );
+			} else {
+				TYYP tyyp = (osa instanceof NegatiivneMuster) ? (TYYP.NEGMUSTER) : (TYYP.FILTER);
+				(aruanne.get(tyyp)).add( new Rida(tyyp, "-", -1, osa.toString(), kirje.getValue()) );
+			}
+		}
+		// 4) J2rjestame kulunud aja j2rgi
+		Comparator<Rida> ajaJargi = new Comparator<Rida>() {
+			public int compare(Rida r1, Rida r2) {
+				if (r1.kestusNs != r2.kestusNs){
+					return (r1.kestusNs > r2.kestusNs) ? (-1) : (1);
+				}
+				if (r1.kutseid != r2.kutseid){
+					return (r1.kutseid > r2.kutseid) ? (-1) : (1);
+				}
+				return (r1.id).compareTo(r2.id);
+			}
+		};
+		for (List<Rida> read : aruanne.values()) {
+			Collections.sort(read, ajaJargi);
+		}
+		return aruanne;
+	}
+
+	/**
+	 *   Kirjutab tuvastaja <code>tuvastaja</code> reeglite profiili aruande (vt
+	 *  {@link #koostaAruanne(AjaTuvastaja)}) tekstina: iga tyybi kohta tabel, mille l&otilde;pus
+	 *  on reeglid, mis ei eraldanud yhtki kandidaati.
+	 */
+	public void kirjutaAruanne(Writer valjund, AjaTuvastaja tuvastaja) throws IOException {
+		Map<TYYP, List<Rida>> aruanne = koostaAruanne(tuvastaja);
+		String reavahetus = System.getProperty("line.separator");
+		valjund.write("Reeglite profiil: "+getProfiile()+" dokumenti (v6i dokumendi kildu), reeglifail "+
+					  tuvastaja.getReegliFail()+reavahetus);
+		valjund.write("NB! Ajad on kaasavad: fraasimustri aeg sisaldab tema s6namallide ja filtrite aega, "+
+					  "s6naklassi aeg tema elementide aega."+reavahetus);
+		kirjutaTabel(valjund, "Fraasimustrid (kontrolliMustrileVastavust; tabamusi = eraldatud kandidaate)",
+					 aruanne.get(TYYP.FRAASIMUSTER), reavahetus);
+		kirjutaTabel(valjund, "S6namallid ja s6naklassid (vastabMallile, vahem2lust m66da; tabamusi = vastas mallile)",
+					 aruanne.get(TYYP.SONAMALL), reavahetus);
+		kirjutaTabel(valjund, "Negatiivsed mustrid (sobitaMustriga; tabamusi = eemaldatud kandidaate)",
+					 aruanne.get(TYYP.NEGMUSTER), reavahetus);
+		kirjutaTabel(valjund, "Fraasimustrifiltrid (tabamusi = filter l2bitud)",
+					 aruanne.get(TYYP.FILTER), reavahetus);
+		// Reeglid, mis ei rakendunud
+		List<Rida> rakendumata = new ArrayList<Rida>();
+		for (Rida rida : aruanne.get(TYYP.FRAASIMUSTER)) {
+			if (rida.tabamusi == 0){
+				rakendumata.add(rida);
+			}
+		}
+		valjund.write(reavahetus+"== Reeglid, mis ei eraldanud yhtki kandidaati ("+rakendumata.size()+") =="+reavahetus);
+		for (Rida rida : rakendumata) {
+			valjund.write( String.format("%-8s %6s  %s%s", rida.id, annaReaTekst(rida.rida),
+							lyhenda(rida.kirjeldus), reavahetus) );
+		}
+		valjund.flush();
+	}
+
+	private static void kirjutaTabel(Writer valjund, String pealkiri, List<Rida> read, String reavahetus) throws IOException {
+		long kokku = 0;
+		for (Rida rida : read) {
+			kokku += rida.kestusNs;
+		}
+		valjund.write(reavahetus+"== "+pealkiri+" =="+reavahetus);
+		valjund.write( String.format("%5s %-16s %6s %12s %11s %10s %10s %7s  %s%s", "jrk", "id", "rida", "kutseid",
+						"kokku_ms", "keskm_ns", "tabamusi", "osakaal", "kirjeldus", reavahetus) );
+		int jrk = 1;
+		for (Rida rida : read) {
+			if (rida.kutseid == 0){
+				continue;
+			}
+			valjund.write( String.format("%5d %-16s %6s %12d %11.3f %10d %10d %6.2f%%  %s%s", jrk++, rida.id,
+							annaReaTekst(rida.rida), rida.kutseid, rida.kestusNs / 1000000.0,
+							rida.kestusNs / rida.kutseid, rida.tabamusi,
+							(kokku > 0) ? (100.0 * rida.kestusNs / kokku) : (0.0),
+							lyhenda(rida.kirjeldus), reavahetus) );
+		}
+	}
+
+	private static void lisaRida(Map<TYYP, List<Rida>> aruanne, IdentityHashMap<Object, long []> osad,
+								 Object osa, TYYP tyyp, String id, int rida, String kirjeldus){
+		long [] kirje = osad.remove(osa);
+		if (kirje != null){
+			(aruanne.get(tyyp)).add( new Rida(tyyp, id, rida, kirjeldus, kirje) );
+		}
+	}
+
+	private static String lyhenda(String kirjeldus){
+		kirjeldus = kirjeldus.replaceAll("\\s+", " ").trim();
+		return (kirjeldus.length() > 80) ? (kirjeldus.substring(0, 77)+"...") : (kirjeldus);
+	}
+
+	private static String annaReaTekst(int rida){
+		return (rida > -1) ? (String.valueOf(rida)) : ("-");
+	}
+
+	/**
+	 *   Reanumber esimese leiduva v&otilde;tme j&auml;rgi; -1, kui yhtki pole.
+	 */
+	private static int annaRida(HashMap<String, Integer> reanumbrid, String ... votmed){
+		for (String voti : votmed) {
+			if (voti != null && reanumbrid.containsKey(voti)){
+				return (reanumbrid.get(voti)).intValue();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 *   Leiab reeglifaili reanumbrid; reeglikomplekti korral (vt {@link ReegliKomplekt})
+	 *  kasutatakse XML-faili, millest see loodi. Kui faili pole v&otilde;i selle lugemine
+	 *  eba&otilde;nnestub, tagastatakse tyhi paisktabel.
+	 */
+	private static HashMap<String, Integer> leiaReanumbrid(String reegliFail){
+		if (reegliFail != null){
+			if (reegliFail.endsWith( ReegliKomplekt.FAILI_LAIEND )){
+				reegliFail = reegliFail.substring(0, reegliFail.length() - (ReegliKomplekt.FAILI_LAIEND).length());
+			}
+			if ((new File(reegliFail)).isFile()){
+				try {
+					return MustridXMLFailist.leiaReanumbrid(reegliFail);
+				} catch (Exception e) {
+					// Reanumbrid j22vad teadmata
+				}
+			}
+		}
+		return new HashMap<String, Integer>();
+	}
+
+}
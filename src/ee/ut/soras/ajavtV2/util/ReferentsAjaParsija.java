@@ -0,0 +1,144 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//  
+//  This program is released under dual license: either GNU General 
+//  Public License v2.0 or Apache 2.0 License. 
+//
+//  Full copy of GNU General Public License v2.0 can be found at 
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at 
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+
+package ee.ut.soras.ajavtV2.util;
+
+import java.util.StringTokenizer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.joda.time.LocalDateTime;
+
+/**
+ *  Abimeetodid referentsaja (k&otilde;nehetke) s&otilde;nede parsimiseks kalendriv&auml;ljade
+ *  j&auml;rjendiks <i>aasta, kuu, kuupaev, tund, minut</i> (vt ka 
+ *  <code>ReferentsAeg.anna()</code>) ning referentsaja leidmiseks vabamorfi JSON sisendist.
+ * 
+ *  @author Siim Orasmaa
+ */
+public class ReferentsAjaParsija {
+
+	/**
+	 *    Loob etteantud sisends6ne p6hjal referentsaja: granulaarsuste <i>aasta, kuu, kuupaev,
+	 *    tund, minut</i> vaartuste j2rjendi. Kui sisends6ne ei rahulda regulaaravaldisi 
+	 *    <code>/[0-9X]{4}-[0-9X]{2}-[0-9X]{2}T[0-9X]{2}:[0-9X]{2}/</code> või
+	 *    <code>/[0-9X]{4}-[0-9X]{2}-[0-9X]{2}/</code> , tagastatakse null.
+	 *    Kui sisends6ne on null, luuakse referentsaja j2rjend minuti-t2psusega hetkeaja p6hjal.
+	 *    <br><br> 
+	 *    Tagastatud j2rjendis on granulaarsuste vaartused j2rjekorras 
+	 *    <i>aasta, kuu, kuupaev, tund, minut</i>. 
+	 */
+	public static String[] looSonePohjalReferentsAeg(String sone){
+		if ( sone != null ){
+			if ( sone.matches("[0-9X]{4}-[0-9X]{2}-[0-9X]{2}T[0-9X]{2}:[0-9X]{2}") ){
+				// 1) Kui sisends6ne vastab etteantud mustrile
+				String[] kalendriValjadeVaartused = new String [5];
+				int j = 0;
+				boolean seenXXXvalues   = false;
+				StringTokenizer tokens1 = new StringTokenizer(sone, "-:T");
+				while (tokens1.hasMoreTokens()) {
+					String s = (String) tokens1.nextToken();
+					if (j < kalendriValjadeVaartused.length){
+						kalendriValjadeVaartused[j] = s;
+					}
+					if (s.matches("X+")){
+						seenXXXvalues = true;
+					} else {
+						if (seenXXXvalues){
+							// Kui on l2bisegi numbrid ja XX-v22rtused, on tegemist mitte-
+							// koosk6lalise  sisendajaga:   parandame   numbrid   XX-ideks
+							kalendriValjadeVaartused[j] = "XX";
+						}
+					}
+					if (j < kalendriValjadeVaartused.length){
+						j++;
+					}
+				}
+				return kalendriValjadeVaartused;				
+			} else if ( sone.matches("^[0-9X]{4}-[0-9X]{2}-[0-9X]{2}$") ){
+				// 2) Kui sisends6ne vastab etteantud mustrile
+				String[] kalendriValjadeVaartused = new String [5];
+				int j = 0;
+				boolean seenXXXvalues   = false;
+				StringTokenizer tokens2 = new StringTokenizer(sone, "-");
+				while (tokens2.hasMoreTokens()) {
+					String s = (String) tokens2.nextToken();
+					if (j < kalendriValjadeVaartused.length){
+						kalendriValjadeVaartused[j] = s;
+					}
+					if (s.matches("X+")){
+						seenXXXvalues = true;
+					} else {
+						if (seenXXXvalues){
+							// Kui on l2bisegi numbrid ja XX-v22rtused, on tegemist mitte-
+							// koosk6lalise  sisendajaga:   parandame   numbrid   XX-ideks
+							kalendriValjadeVaartused[j] = "XX";
+						}
+					}
+					if (j < kalendriValjadeVaartused.length){
+						j++;
+					}
+				}
+				// Viimased (kellaaja osa) ongi selle mustri puhul teadmata
+				kalendriValjadeVaartused[3] = "XX";
+				kalendriValjadeVaartused[4] = "XX";
+				return kalendriValjadeVaartused;	
+			}
+			return null;
+		} else {
+			// 2) Kui sisends6ne puudub v6i ei vasta etteantud mustrile, loome uue
+			// referentsaja, milleks saab hetkeaeg
+			LocalDateTime hetkeAeg = new LocalDateTime();
+			String[] kalendriValjadeVaartused = new String [5];
+			kalendriValjadeVaartused[0] = String.valueOf( hetkeAeg.getYear() );
+			kalendriValjadeVaartused[1] = String.valueOf( hetkeAeg.getMonthOfYear() );
+			kalendriValjadeVaartused[2] = String.valueOf( hetkeAeg.getDayOfMonth() );
+			kalendriValjadeVaartused[3] = String.valueOf( hetkeAeg.getHourOfDay() );
+			kalendriValjadeVaartused[4] = String.valueOf( hetkeAeg.getMinuteOfHour() );
+			for (int i = 1; i < kalendriValjadeVaartused.length; i++) {
+				if (kalendriValjadeVaartused[i].length() == 1){
+					kalendriValjadeVaartused[i] = "0"+kalendriValjadeVaartused[i];
+				}
+			}
+			return kalendriValjadeVaartused;
+		}
+	}
+	
+	
+	private static final Pattern jsonDCT = Pattern.compile("(?i)\"(dct)\"\\s*:\\s*\"([^\"]+)\"");
+	
+	/**
+	 *    Otsib etteantud vabamorfi JSON kujul sisends6nest referentsaega: v6tit "dct",
+	 *    millega on seotud v22rtus-s6ne;
+	 *    <br><br>
+	 *    Kui leiab otsitava, tagastab s6nede massiivi, kus esimene element on v6tme string
+	 *    ja teine element v22rtuse string; vastasel juhul tagastab <tt>null</tt>;
+	 */
+	public static String[] leiaJSONSonestReferentsAeg(String sone){
+		if ( sone != null  ){
+			Matcher dctMatch = jsonDCT.matcher(sone);
+			if (dctMatch.find()){
+				String key = dctMatch.group(1);
+				String val = dctMatch.group(2);
+				return new String[] {key, val};
+			}
+		}
+		return null;
+	}
+
+}
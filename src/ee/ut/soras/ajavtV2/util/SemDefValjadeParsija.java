@@ -61,49 +61,64 @@ public class SemDefValjadeParsija {
 		UNSET
 	};
 	
+	/**
+	 *  <tt>semValue</tt> formaatide regulaaravaldised (kompileeritakse yks kord), samas 
+	 *  j&auml;rjekorras, milles <code>detectFormatOfValue()</code> neid kontrollib.
+	 */
+	private static final Pattern FORMAAT_INTEGER = Pattern.compile("^(-|\\+)?[0-9]+$");
+	private static final Pattern FORMAAT_DATE_OR_TIME = Pattern.compile("^([0-9][0-9])(:|\\.)([0-9][0-9])$");
+	private static final Pattern FORMAAT_DATE_OR_TIME_INTERVAL = Pattern.compile("^([0-9][0-9])(:|\\.)([0-9][0-9])-([0-9][0-9])(:|\\.)([0-9][0-9])$");
+	private static final Pattern FORMAAT_CONSTANT = Pattern.compile("^([A-Z_]+)$");
+	private static final Pattern FORMAAT_CONSTANTS_INTERVAL = Pattern.compile("^([A-Z_]+)-([A-Z_]+)$");
+	private static final Pattern FORMAAT_PARSE_FROM_SELF = Pattern.compile("^PARSE_FROM_SELF:([0-9.]+)$");
+	private static final Pattern FORMAAT_PARSE_FROM_NUMERAL = Pattern.compile("^PARSE_FROM_NUMERAL:([0-9.]+)$");
+	private static final Pattern FORMAAT_REF_TO_VAL = Pattern.compile("^REF_VAL:([A-Z_][A-Z0-9_]+)$");
+	private static final Pattern FORMAAT_REF_TO_LAB = Pattern.compile("^REF_LAB:([A-Z_][A-Z0-9_]+)$");
+	private static final Pattern FORMAAT_FRACTION = Pattern.compile("^(-|\\+)?[0-9]+,[0-9]+$");
+
 	public static FORMAT_OF_VALUE detectFormatOfValue(String value){
 		if (value != null){
 			// 1) Tegemist on tavalise, t2isarvulise v22rtusega
-			if (value.matches("^(-|\\+)?[0-9]+$")){
+			if ((FORMAAT_INTEGER.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.INTEGER;
 			}
 			// 2) Tegemist on otsese kellaaja v6i kuup2evaga
-			if (value.matches("^([0-9][0-9])(:|\\.)([0-9][0-9])$")){
+			if ((FORMAAT_DATE_OR_TIME.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.DATE_OR_TIME;
 			}
 			// 3) Tegemist on kellaaja v6i kuup2eva vahemikuga
-			if (value.matches("^([0-9][0-9])(:|\\.)([0-9][0-9])-([0-9][0-9])(:|\\.)([0-9][0-9])$")){
+			if ((FORMAAT_DATE_OR_TIME_INTERVAL.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.DATE_OR_TIME_INTERVAL;
 			}			
 			// 4) Tegemist on mingi konstant-s6nega (nagu nt MONDAY) v6i lipikuga (nt )
-			if (value.matches("^([A-Z_]+)$")){
+			if ((FORMAAT_CONSTANT.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.CONSTANT;
 			}
 			// 5) Tegemist on mingi konstant-s6nede vahemikuga (nagu nt MONDAY-FRIDAY)
-			if (value.matches("^([A-Z_]+)-([A-Z_]+)$")){
+			if ((FORMAAT_CONSTANTS_INTERVAL.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.CONSTANTS_INTERVAL;
 			}
 			// -------------------- viited k2esolevale sonamallile -----------------------
 			// 6) V22rtuse tuleb parsida selle sonamalli poolt leitud alams6nest			
-			if (value.matches("^PARSE_FROM_SELF:([0-9.]+)$")){
+			if ((FORMAAT_PARSE_FROM_SELF.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.PARSE_FROM_SELF;
 			}
 			// ------------- viited k2esolevale sonamallile: numbri parsimine ------------
 			// 7) V22rtuse tuleb parsida selle sonamalli poolt leitud arvs6na-alams6nest			
-			if (value.matches("^PARSE_FROM_NUMERAL:([0-9.]+)$")){
+			if ((FORMAAT_PARSE_FROM_NUMERAL.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.PARSE_FROM_NUMERAL;
 			}			
 			// --------------------- viited teistele sonamallidele -----------------------
 			// 8) Tegemist viitega teise semantikadefinitsiooni "semValue" osale
-			if (value.matches("^REF_VAL:([A-Z_][A-Z0-9_]+)$")){
+			if ((FORMAAT_REF_TO_VAL.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.REF_TO_VAL;
 			}
 			// 9) Tegemist viitega teis semantikadefinitsiooni "semLabel" osale
-			if (value.matches("^REF_LAB:([A-Z_][A-Z0-9_]+)$")){
+			if ((FORMAAT_REF_TO_LAB.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.REF_TO_LAB;
 			}
 			// 10) Tegemist on murdarvulise v22rtusega
-			if (value.matches("^(-|\\+)?[0-9]+,[0-9]+$")){
+			if ((FORMAAT_FRACTION.matcher(value)).matches()){
 				return FORMAT_OF_VALUE.FRACTION;
 			}			
 		}
@@ -361,17 +376,7 @@ public class SemDefValjadeParsija {
 	public static int parseSeekDirection(String direction, AjavtSona lahimVerb){
 		int dirAsInteger = Integer.MIN_VALUE;
 		if (direction.equals(LABEL_VERBI_AEG)){
-			if (lahimVerb != null){
-				if (lahimVerb.getGrammatilineAeg() != GRAMMATILINE_AEG.MAARAMATA){
-					if (lahimVerb.getGrammatilineAeg() == GRAMMATILINE_AEG.OLEVIK ||
-							lahimVerb.getGrammatilineAeg() == GRAMMATILINE_AEG.KS_OLEVIK){
-						// katsetada ka lahimVerb.getVerbiAeg() == VERBI_AEG.TAISMINEVIK
-						return 1;
-					} else {
-						return -1;
-					}
-				}
-			}
+			return parseSeekDirectionFromVerb(lahimVerb);
 		} else {
 			String withOutPlus = (direction).replace("+", "");
 			try {
@@ -382,6 +387,32 @@ public class SemDefValjadeParsija {
 		return dirAsInteger;
 	}
 
+	/**
+	 *   Kas otsimissuund <tt>direction</tt> tuleb leida l2hima verbi grammatilisest ajast?
+	 */
+	public static boolean onVerbiAjaSuund(String direction){
+		return direction.equals(LABEL_VERBI_AEG);
+	}
+	
+	/**
+	 *   Leiab SEEK-operatsiooni suuna l2hima verbi grammatilisest ajast: -1 == minevik, +1 
+	 *  tulevik. Tagastab <tt>Integer.MIN_VALUE</tt>, kui verb puudub v6i selle aeg on m22ramata. 
+	 */
+	public static int parseSeekDirectionFromVerb(AjavtSona lahimVerb){
+		if (lahimVerb != null){
+			if (lahimVerb.getGrammatilineAeg() != GRAMMATILINE_AEG.MAARAMATA){
+				if (lahimVerb.getGrammatilineAeg() == GRAMMATILINE_AEG.OLEVIK ||
+						lahimVerb.getGrammatilineAeg() == GRAMMATILINE_AEG.KS_OLEVIK){
+					// katsetada ka lahimVerb.getVerbiAeg() == VERBI_AEG.TAISMINEVIK
+					return 1;
+				} else {
+					return -1;
+				}
+			}
+		}
+		return Integer.MIN_VALUE;
+	}
+
 	//==============================================================================
 	//   	F o o k u s a j a    g r a n u l a a r s u s e   k o n t r o l l
 	//==============================================================================
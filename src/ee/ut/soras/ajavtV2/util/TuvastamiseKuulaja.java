@@ -0,0 +1,115 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.util;
+
+/**
+ *   Tuvastamise m&otilde;&otilde;dikute kuulaja (vt <code>AjaTuvastaja.setKuulaja()</code>):
+ *  tuvastaja teatab kuulajale iga etapi kestuse ja selle k&auml;igus eraldatud m&auml;lu,
+ *  t&ouml;&ouml;deldud s&otilde;nade ja kandidaatide arvud ning tuvastamisreeglite tabamused.
+ *  <p>
+ *  Tuvastaja v&otilde;ib teenindada mitut samaaegset v&auml;ljakutset (ning jagada suure dokumendi
+ *  kildudeks, vt <code>AjaTuvastaja.setKildudeTaitja()</code>), seega kutsutakse kuulaja
+ *  meetodeid erinevatest l&otilde;imedest korraga; realisatsioon peab olema l&otilde;imekindel.
+ *  Kui kuulajat pole m&auml;&auml;ratud, m&otilde;&otilde;tmisi ei tehta.
+ *
+ *  @author Siim Orasmaa
+ */
+public interface TuvastamiseKuulaja {
+
+	/**
+	 *   Tuvastamise etapid (vt <code>AjaTuvastaja</code> klassi kirjeldust).
+	 */
+	public static enum ETAPP {
+		/**
+		 *   Sisendi teisendamine s&otilde;nadeks (<code>EelTootlus</code>), sh morf analyys.
+		 */
+		EELTOOTLUS,
+		/**
+		 *   Kandidaatide eraldamine fraasimustrite j&auml;rgi.
+		 */
+		KANDIDAATIDE_ERALDAMINE,
+		/**
+		 *   Ylekatete lahendamine ja negatiivsete mustrite rakendamine.
+		 */
+		YLEKATETE_LAHENDAMINE,
+		/**
+		 *   K&otilde;rvutiseisvate kandidaatide liitmine fraasideks.
+		 */
+		FRAASIDE_LIITMINE,
+		/**
+		 *   Ajavahemike eraldamine.
+		 */
+		VAHEMIKE_ERALDAMINE,
+		/**
+		 *   Ankurdamine ja semantika leidmine (normaliseerimine).
+		 */
+		SEMANTIKA_LEIDMINE
+	};
+
+	/**
+	 *   Loendurid, mida tuvastaja suurendab.
+	 */
+	public static enum LOENDUR {
+		/**
+		 *   Tuvastatud dokumendid (<code>tuvastaAjavaljendid*</code> v&auml;ljakutsed).
+		 */
+		DOKUMENTE,
+		/**
+		 *   Tuvastamisele antud s&otilde;nad.
+		 */
+		SONU,
+		/**
+		 *   Loodud (s&otilde;nadega seotud) ajav&auml;ljendikandidaadid.
+		 */
+		KANDIDAATE_LOODUD,
+		/**
+		 *   S&otilde;nade kyljest eemaldatud ajav&auml;ljendikandidaadid.
+		 */
+		KANDIDAATE_EEMALDATUD,
+		/**
+		 *   Fraaside liitmisel genereeritud potentsiaalselt liidetavate kandidaatide jadad
+		 *  (<code>PotentsLiidetavateKandidaatideJada</code>).
+		 */
+		LIIDETAVATE_JADASID,
+		/**
+		 *   Lahendatud kandidaatide semantikadefinitsioonid (rakendatud semantilised
+		 *  operatsioonid).
+		 */
+		SEM_OPERATSIOONE
+	};
+
+	/**
+	 *   Etapp <code>etapp</code> l&otilde;ppes: see kestis <code>kestusNs</code> nanosekundit ning
+	 *  selle k&auml;igus eraldati l&otilde;imes <code>eraldatudBaite</code> baiti m&auml;lu
+	 *  (-1, kui JVM l&otilde;imep&otilde;hist m&auml;lukasutust ei m&otilde;&otilde;da).
+	 */
+	void etappLabitud(ETAPP etapp, long kestusNs, long eraldatudBaite);
+
+	/**
+	 *   Loendur <code>loendur</code> suurenes <code>kogus</code> v&otilde;rra.
+	 */
+	void loendurSuurenes(LOENDUR loendur, long kogus);
+
+	/**
+	 *   Tuvastamisreegel (fraasimuster) <code>mustriID</code> eraldas <code>tabamusi</code>
+	 *  kandidaati.
+	 */
+	void reegelRakendus(String mustriID, long tabamusi);
+
+}
@@ -0,0 +1,325 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.util;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ *   Tuvastamise m&otilde;&otilde;dikute koguja (vt {@link TuvastamiseKuulaja}): liidab kokku
+ *  k&otilde;igi t&ouml;&ouml;deldud dokumentide loendurid, etappide kestused ja eraldatud
+ *  m&auml;lu ning reeglite tabamused. Iga etapi kestuste kohta peetakse t&auml;pset summat
+ *  ja maksimumi ning logaritmilist histogrammi (kahe astmete kaupa nanosekundites);
+ *  histogrammist leitud protsentiilid on seega vaid pesa ylemise piiri t&auml;psusega.
+ *  <p>
+ *  Statistikat saab v&auml;ljastada JSON kujul ({@link #kirjutaJSON(Writer)}) ning teha
+ *  k&auml;ttesaadavaks JMX kaudu ({@link #registreeriJMX(String)}). K&otilde;ik meetodid on
+ *  l&otilde;imekindlad.
+ *
+ *  @author Siim Orasmaa
+ */
+public class TuvastamiseStatistika implements TuvastamiseKuulaja, TuvastamiseStatistikaMBean {
+
+	private static final ETAPP []   ETAPID    = ETAPP.values();
+	private static final LOENDUR [] LOENDURID = LOENDUR.values();
+
+	/**
+	 *   Histogrammi pesade arv: pesas <code>i</code> on kestused vahemikus
+	 *  [2<sup>i</sup>, 2<sup>i+1</sup>) ns.
+	 */
+	private static final int HISTOGRAMMI_PESI = 64;
+
+	private final AtomicLongArray loendurid       = new AtomicLongArray( LOENDURID.length );
+	private final AtomicLongArray labimisi        = new AtomicLongArray( ETAPID.length );
+	private final AtomicLongArray kestusNs        = new AtomicLongArray( ETAPID.length );
+	private final AtomicLongArray maksKestusNs    = new AtomicLongArray( ETAPID.length );
+	private final AtomicLongArray eraldatudBaite  = new AtomicLongArray( ETAPID.length );
+	private final AtomicLongArray histogrammid    = new AtomicLongArray( ETAPID.length * HISTOGRAMMI_PESI );
+
+	private final ConcurrentHashMap<String, AtomicLong> reegliTabamused = new ConcurrentHashMap<String, AtomicLong>();
+
+	//==============================================================================
+	//   	K u u l a j a
+	//==============================================================================
+
+	public void etappLabitud(ETAPP etapp, long kestus, long baite) {
+		int i = etapp.ordinal();
+		(this.labimisi).incrementAndGet(i);
+		(this.kestusNs).addAndGet(i, kestus);
+		long maks = (this.maksKestusNs).get(i);
+		while (kestus > maks && !(this.maksKestusNs).compareAndSet(i, maks, kestus)){
+			maks = (this.maksKestusNs).get(i);
+		}
+		if (baite > 0){
+			(this.eraldatudBaite).addAndGet(i, baite);
+		}
+		(this.histogrammid).incrementAndGet( i * HISTOGRAMMI_PESI + leiaPesa(kestus) );
+	}
+
+	public void loendurSuurenes(LOENDUR loendur, long kogus) {
+		(this.loendurid).addAndGet(loendur.ordinal(), kogus);
+	}
+
+	public void reegelRakendus(String mustriID, long tabamusi) {
+		AtomicLong loendur = (this.reegliTabamused).get(mustriID);
+		if (loendur == null){
+			AtomicLong uus = new AtomicLong();
+			loendur = (this.reegliTabamused).putIfAbsent(mustriID, uus);
+			if (loendur == null){
+				loendur = uus;
+			}
+		}
+		loendur.addAndGet(tabamusi);
+	}
+
+	private static int leiaPesa(long kestus){
+		return (kestus < 1) ? (0) : (63 - Long.numberOfLeadingZeros(kestus));
+	}
+
+	//==============================================================================
+	//   	P a r i n g u d   ( J M X )
+	//==============================================================================
+
+	public long getLoendur(LOENDUR loendur) {
+		return (this.loendurid).get(loendur.ordinal());
+	}
+
+	public long getDokumente() {
+		return getLoendur(LOENDUR.DOKUMENTE);
+	}
+
+	public long getSonu() {
+		return getLoendur(LOENDUR.SONU);
+	}
+
+	public long getKandidaateLoodud() {
+		return getLoendur(LOENDUR.KANDIDAATE_LOODUD);
+	}
+
+	public long getKandidaateEemaldatud() {
+		return getLoendur(LOENDUR.KANDIDAATE_EEMALDATUD);
+	}
+
+	public long getLiidetavateJadasid() {
+		return getLoendur(LOENDUR.LIIDETAVATE_JADASID);
+	}
+
+	public long getSemOperatsioone() {
+		return getLoendur(LOENDUR.SEM_OPERATSIOONE);
+	}
+
+	public String [] getEtapid() {
+		String [] nimed = new String [ETAPID.length];
+		for (int i = 0; i < ETAPID.length; i++) {
+			nimed[i] = ETAPID[i].name();
+		}
+		return nimed;
+	}
+
+	public long [] getEtappideLabimisi() {
+		return kopeeri(this.labimisi);
+	}
+
+	public long [] getEtappideKestusNs() {
+		return kopeeri(this.kestusNs);
+	}
+
+	public long [] getEtappideMaksKestusNs() {
+		return kopeeri(this.maksKestusNs);
+	}
+
+	public long [] getEtappideEraldatudBaite() {
+		return kopeeri(this.eraldatudBaite);
+	}
+
+	public long [] etapiHistogramm(String etapp) {
+		return etapiHistogramm( ETAPP.valueOf(etapp) );
+	}
+
+	public long [] etapiHistogramm(ETAPP etapp) {
+		long [] histogramm = new long [HISTOGRAMMI_PESI];
+		for (int i = 0; i < HISTOGRAMMI_PESI; i++) {
+			histogramm[i] = (this.histogrammid).get( etapp.ordinal() * HISTOGRAMMI_PESI + i );
+		}
+		return histogramm;
+	}
+
+	/**
+	 *   Reeglite tabamused, v&otilde;tmeks <code>mustriID</code>.
+	 */
+	public Map<String, Long> getReegliTabamused() {
+		Map<String, Long> tabamused = new HashMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> kirje : (this.reegliTabamused).entrySet()) {
+			tabamused.put(kirje.getKey(), (kirje.getValue()).get());
+		}
+		return tabamused;
+	}
+
+	public String statistikaJSON() {
+		StringWriter valjund = new StringWriter();
+		kirjutaJSON( valjund );
+		return valjund.toString();
+	}
+
+	public void nulli() {
+		nulli( this.loendurid );
+		nulli( this.labimisi );
+		nulli( this.kestusNs );
+		nulli( this.maksKestusNs );
+		nulli( this.eraldatudBaite );
+		nulli( this.histogrammid );
+		(this.reegliTabamused).clear();
+	}
+
+	/**
+	 *   Registreerib statistika platvormi JMX serveris nime
+	 *  <tt>ee.ut.soras.ajavtV2:type=TuvastamiseStatistika,name=</tt><code>nimi</code> alla
+	 *  ning tagastab selle nime.
+	 */
+	public ObjectName registreeriJMX(String nimi) throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objektiNimi = new ObjectName("ee.ut.soras.ajavtV2:type=TuvastamiseStatistika,name="+
+		                                        ObjectName.quote(nimi));
+		if (server.isRegistered(objektiNimi)){
+			server.unregisterMBean(objektiNimi);
+		}
+		server.registerMBean(this, objektiNimi);
+		return objektiNimi;
+	}
+
+	//==============================================================================
+	//   	J S O N
+	//==============================================================================
+
+	/**
+	 *   Kirjutab statistika JSON kujul v&auml;ljundisse <code>valjund</code>: loendurid,
+	 *  etappide kaupa l&auml;bimiste arv, kogukestus, keskmine ja pikim kestus, eraldatud
+	 *  m&auml;lu, kestuste protsentiilid (histogrammi pesa ylemise piiri t&auml;psusega,
+	 *  v&otilde;tmed <tt>p*_bucket_upper_ns</tt>) ja histogramm ning reeglite tabamused
+	 *  kahanevas j&auml;rjekorras.
+	 */
+	public void kirjutaJSON(Writer valjund) {
+		Map<String, Object> seaded = new HashMap<String, Object>();
+		seaded.put(JsonGenerator.PRETTY_PRINTING, true);
+		JsonGenerator gen = (Json.createGeneratorFactory(seaded)).createGenerator(valjund);
+		gen.writeStartObject();
+		gen.write("documents",           getDokumente());
+		gen.write("words",               getSonu());
+		gen.write("candidates_created",  getKandidaateLoodud());
+		gen.write("candidates_removed",  getKandidaateEemaldatud());
+		gen.write("join_sequences",      getLiidetavateJadasid());
+		gen.write("semantic_operations", getSemOperatsioone());
+		gen.writeStartObject("stages");
+		for (ETAPP etapp : ETAPID) {
+			int i = etapp.ordinal();
+			long n = (this.labimisi).get(i);
+			long [] histogramm = etapiHistogramm(etapp);
+			gen.writeStartObject(etapp.name());
+			gen.write("count",               n);
+			gen.write("total_ns",            (this.kestusNs).get(i));
+			gen.write("mean_ns",             (n > 0) ? ((this.kestusNs).get(i) / n) : (0));
+			gen.write("max_ns",              (this.maksKestusNs).get(i));
+			gen.write("allocated_bytes",     (this.eraldatudBaite).get(i));
+			gen.write("p50_bucket_upper_ns", protsentiil(histogramm, n, 0.50));
+			gen.write("p90_bucket_upper_ns", protsentiil(histogramm, n, 0.90));
+			gen.write("p99_bucket_upper_ns", protsentiil(histogramm, n, 0.99));
+			gen.writeStartArray("histogram");
+			for (int j = 0; j < HISTOGRAMMI_PESI; j++) {
+				if (histogramm[j] > 0){
+					gen.writeStartObject();
+					gen.write("from_ns", 1L << j);
+					gen.write("to_ns",   (j < 62) ? (1L << (j + 1)) : (Long.MAX_VALUE));
+					gen.write("count",   histogramm[j]);
+					gen.writeEnd();
+				}
+			}
+			gen.writeEnd();
+			gen.writeEnd();
+		}
+		gen.writeEnd();
+		// Reeglite tabamused: k6ige sagedasemad eespool
+		final Map<String, Long> tabamused = getReegliTabamused();
+		List<String> reeglid = new ArrayList<String>( tabamused.keySet() );
+		Collections.sort(reeglid, new Comparator<String>() {
+			public int compare(String r1, String r2) {
+				int vordlus = (tabamused.get(r2)).compareTo(tabamused.get(r1));
+				return (vordlus != 0) ? (vordlus) : (r1.compareTo(r2));
+			}
+		});
+		gen.writeStartObject("rule_hits");
+		for (String reegel : reeglid) {
+			gen.write(reegel, tabamused.get(reegel));
+		}
+		gen.writeEnd();
+		gen.writeEnd();
+		gen.flush();
+	}
+
+	/**
+	 *   Leiab histogrammist p-nda protsentiili ylemise hinnangu (pesa ylemise piiri).
+	 */
+	private static long protsentiil(long [] histogramm, long n, double p){
+		if (n == 0){
+			return 0;
+		}
+		long jarjekohaNr = Math.max(1L, (long) Math.ceil(p * n));
+		long kokku = 0;
+		for (int j = 0; j < histogramm.length; j++) {
+			kokku += histogramm[j];
+			if (kokku >= jarjekohaNr){
+				return (j < 62) ? (1L << (j + 1)) : (Long.MAX_VALUE);
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	//==============================================================================
+	//   	A b i m e e t o d i d
+	//==============================================================================
+
+	private static long [] kopeeri(AtomicLongArray massiiv){
+		long [] koopia = new long [massiiv.length()];
+		for (int i = 0; i < koopia.length; i++) {
+			koopia[i] = massiiv.get(i);
+		}
+		return koopia;
+	}
+
+	private static void nulli(AtomicLongArray massiiv){
+		for (int i = 0; i < massiiv.length(); i++) {
+			massiiv.set(i, 0L);
+		}
+	}
+
+}
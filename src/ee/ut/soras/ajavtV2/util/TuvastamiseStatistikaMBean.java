@@ -0,0 +1,82 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.ajavtV2.util;
+
+/**
+ *   {@link TuvastamiseStatistika} JMX liides (<i>standard MBean</i>).
+ *
+ *  @author Siim Orasmaa
+ */
+public interface TuvastamiseStatistikaMBean {
+
+	long getDokumente();
+
+	long getSonu();
+
+	long getKandidaateLoodud();
+
+	long getKandidaateEemaldatud();
+
+	long getLiidetavateJadasid();
+
+	long getSemOperatsioone();
+
+	/**
+	 *   Etappide nimed (<code>TuvastamiseKuulaja.ETAPP</code>) j&auml;rjekorras, milles
+	 *  on j&auml;rgmiste massiivide elemendid.
+	 */
+	String [] getEtapid();
+
+	/**
+	 *   Iga etapi l&auml;bimiste arv.
+	 */
+	long [] getEtappideLabimisi();
+
+	/**
+	 *   Iga etapi kogukestus nanosekundites.
+	 */
+	long [] getEtappideKestusNs();
+
+	/**
+	 *   Iga etapi pikim &uuml;ksik kestus nanosekundites.
+	 */
+	long [] getEtappideMaksKestusNs();
+
+	/**
+	 *   Iga etapi k&auml;igus eraldatud m&auml;lu baitides.
+	 */
+	long [] getEtappideEraldatudBaite();
+
+	/**
+	 *   Etapi <code>etapp</code> kestuste histogramm: element <code>i</code> on nende
+	 *  l&auml;bimiste arv, mille kestus oli vahemikus [2<sup>i</sup>, 2<sup>i+1</sup>) ns.
+	 */
+	long [] etapiHistogramm(String etapp);
+
+	/**
+	 *   Kogu statistika JSON kujul.
+	 */
+	String statistikaJSON();
+
+	/**
+	 *   Nullib k&otilde;ik loendurid ja histogrammid.
+	 */
+	void nulli();
+
+}
@@ -0,0 +1,424 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.wrappers.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import ee.ut.soras.wrappers.EstyhmmWrapper;
+import ee.ut.soras.wrappers.erind.EstYhmmErind;
+
+/**
+ *   Morf analysaatori m&auml;hise implementatsioon, mis hoiab k&auml;igus kogumit
+ *  p&uuml;sivatest analysaatori protsessidest. Erinevalt {@link EstyhmmWrapperImpl}-ist
+ *  ei k&auml;ivitata iga dokumendi jaoks uut protsessi: dokument kirjutatakse m6ne vaba
+ *  protsessi standardsisendisse, millele j2rgneb eraldi real eraldaja-token
+ *  (<code>eraldaja</code>), ning vastust loetakse protsessi standardv&auml;ljundist
+ *  seni, kuni j6utakse eraldaja-tokeni analyysini.
+ *  <p>
+ *  Eeldused analysaatori kohta:
+ *  <ul>
+ *    <li> v&auml;ljundis on iga token eraldi real ning rida algab tokeniga (nagu <code>t3mesta</code>
+ *         v&auml;ljundis, vt {@link T3MestaReader});
+ *    <li> analysaator v&auml;ljastab sisendrea analyysi ilma j&auml;rgmist sisendit ootamata (nt
+ *         reap&otilde;hine puhverdamine), kuigi tema standardsisend j&auml;&auml;b avatuks. Seda
+ *         kontrollitakse iga protsessi k&auml;ivitamisel soojendusp&auml;ringuga (tyhi dokument):
+ *         kui protsess on elus, kuid ei vasta aja <code>kaivitusAegumine</code> jooksul, 
+ *         loetakse, et analysaator puhverdab v&auml;ljundit, ning k&otilde;ik j&auml;rgnevad 
+ *         p&auml;ringud l&otilde;petatakse kohe selgitava erindiga (<code>vastuseAegumine</code>
+ *         kaupa ootamata);
+ *    <li> analyysitav tekst ise ei sisalda eraldaja-tokenit eraldi s6nana.
+ *  </ul>
+ *  Protsessid k&auml;ivitatakse laisalt esimesel vajadusel (v6i {@link #kontrolliTervist()}
+ *  v&auml;ljakutsel). Kui protsess on vahepeal surnud,
+ *  vastus aegub v6i lugemisel/kirjutamisel ilmneb t&otilde;rge, protsess h&auml;vitatakse ja
+ *  k&auml;ivitatakse uus; p&auml;ringut proovitakse uue protsessiga veel yhe korra.
+ *  <p>
+ *  Klass on l6imekindel: samaaegsed <code>process</code> v&auml;ljakutsed jaotatakse vabade
+ *  protsesside vahel, vaba protsessi puudumisel j&auml;&auml;b v&auml;ljakutse ootama.
+ *
+ * @author Siim Orasmaa
+ */
+public class EstyhmmWrapperPoolImpl implements EstyhmmWrapper, Closeable {
+
+	/**
+	 *  Morf analysaatorit k&auml;ivitav k&auml;sklus.
+	 */
+	private String[] cmds = { "t3mesta", "-Y", "-cio", "utf8" };
+
+	/**
+	 *  Morf analysaatori sisendi ja v&auml;ljundi kodeering.
+	 */
+	private String charset = "UTF8";
+
+	/**
+	 *  Token, mis kirjutatakse iga dokumendi j&auml;rel eraldi reale ning mille j&auml;rgi
+	 *  tuvastatakse analysaatori v&auml;ljundis dokumendi analyysi l6pp.
+	 */
+	private String eraldaja = "AJAVT_DOKUMENDI_LOPP";
+
+	/**
+	 *  Aeg (millisekundites), mille jooksul peab analysaator v&auml;ljastama j&auml;rgmise
+	 *  v&auml;ljundirea; kui seda ei juhtu, loetakse protsess rivist v&auml;ljas olevaks.
+	 */
+	private long vastuseAegumine = 30000L;
+
+	/**
+	 *  Aeg (millisekundites), mille jooksul peab &auml;sja k&auml;ivitatud protsess vastama 
+	 *  soojendusp&auml;ringule (sh leksikoni laadimise aeg).
+	 */
+	private long kaivitusAegumine = 10000L;
+
+	/**
+	 *  Kui soojendusp&auml;ring on n&auml;idanud, et analysaator puhverdab v&auml;ljundit, siis 
+	 *  vastav veateade; sel juhul uusi protsesse enam ei k&auml;ivitata.
+	 */
+	private volatile String kaivitusViga = null;
+
+	/**
+	 *  Vabad (parasjagu mitte kasutuses olevad) protsessid; <code>null</code> element
+	 *  t&auml;histab veel k&auml;ivitamata protsessi.
+	 */
+	private final BlockingQueue<AnalyysiProtsess> vabadProtsessid;
+
+	/**
+	 *  K&otilde;ik k&auml;ivitatud protsessid (sulgemise tarbeks).
+	 */
+	private final List<AnalyysiProtsess> koikProtsessid = new LinkedList<AnalyysiProtsess>();
+
+	private volatile boolean suletud = false;
+
+	/**
+	 *  Initsialiseerib uue protsessikogumiga morf analsaatori m&auml;hisklassi.
+	 *
+	 * @param cmd (k&auml;surea-)k&auml;sk morf analysaatori k&auml;ivitamiseks
+	 * @param encoding v&auml;ljund- ja sisendteksti kodeering
+	 * @param protsessideArv mitu analysaatori protsessi maksimaalselt korraga k&auml;igus hoitakse
+	 */
+	public EstyhmmWrapperPoolImpl(String cmd, String encoding, int protsessideArv) {
+		if (cmd != null && cmd.length() > 0){
+			this.cmds = cmd.split("(\\s+)");
+		}
+		this.charset = encoding;
+		if (protsessideArv < 1){
+			throw new IllegalArgumentException("Number of analyser processes must be positive: "+protsessideArv);
+		}
+		this.vabadProtsessid = new ArrayBlockingQueue<AnalyysiProtsess>(protsessideArv);
+		for (int i = 0; i < protsessideArv; i++) {
+			(this.vabadProtsessid).add( AnalyysiProtsess.KAIVITAMATA );
+		}
+	}
+
+	//==============================================================================
+	//   	A n a l y y s
+	//==============================================================================
+
+	public String process(String text) throws Exception {
+		if (this.suletud){
+			throw new EstYhmmErind("Analyser pool has been closed.");
+		}
+		AnalyysiProtsess protsess = (this.vabadProtsessid).take();
+		try {
+			for (int katse = 0; ; katse++) {
+				if (protsess == AnalyysiProtsess.KAIVITAMATA || !protsess.onElus()){
+					protsess = taaskaivita( protsess );
+				}
+				try {
+					return protsess.analyysi(text, this.eraldaja, this.vastuseAegumine);
+				} catch (IOException e) {
+					// Protsess on rivist v2ljas: k2ivitame uue ja proovime veel korra
+					protsess = taaskaivita( protsess );
+					if (katse > 0){
+						throw new EstYhmmErind("Analyser process failed: "+e.getMessage());
+					}
+				}
+			}
+		} finally {
+			(this.vabadProtsessid).add( protsess );
+		}
+	}
+
+	//==============================================================================
+	//   	P r o t s e s s i d e   h a l d u s
+	//==============================================================================
+
+	/**
+	 *   Kontrollib k&otilde;igi parasjagu vabade protsesside tervist: igale protsessile
+	 *  saadetakse tyhi dokument ning kui vastust ei saabu etteantud aja jooksul v6i
+	 *  protsess on surnud, k&auml;ivitatakse see uuesti. Veel k&auml;ivitamata protsessid
+	 *  k&auml;ivitatakse (soojendusp&auml;ringuga), seega programmi alguses v&auml;lja kutsudes 
+	 *  ilmneb analysaatori puudumine v6i v&auml;ljundi puhverdamine kohe. Tagastab 
+	 *  taask&auml;ivitatud protsesside arvu (esmakordseid k&auml;ivitamisi ei loeta).
+	 * 
+	 * @throws EstYhmmErind kui analysaator ei vasta soojendusp&auml;ringule (puhverdab v&auml;ljundit)
+	 * @throws IOException kui analysaatori protsessi k&auml;ivitamine eba6nnestub
+	 */
+	public int kontrolliTervist() throws IOException, EstYhmmErind {
+		int taaskaivitatud = 0;
+		List<AnalyysiProtsess> kontrollitavad = new ArrayList<AnalyysiProtsess>();
+		(this.vabadProtsessid).drainTo( kontrollitavad );
+		try {
+			for (int i = 0; i < kontrollitavad.size(); i++) {
+				AnalyysiProtsess protsess = kontrollitavad.get(i);
+				if (protsess == AnalyysiProtsess.KAIVITAMATA){
+					kontrollitavad.set(i, taaskaivita(protsess));
+					continue;
+				}
+				boolean terve = protsess.onElus();
+				if (terve){
+					try {
+						protsess.analyysi("", this.eraldaja, this.vastuseAegumine);
+					} catch (IOException e) {
+						terve = false;
+					}
+				}
+				if (!terve){
+					kontrollitavad.set(i, taaskaivita(protsess));
+					taaskaivitatud++;
+				}
+			}
+		} finally {
+			(this.vabadProtsessid).addAll( kontrollitavad );
+		}
+		return taaskaivitatud;
+	}
+
+	/**
+	 *   H&auml;vitab vana protsessi (kui see on olemas) ning k&auml;ivitab uue. Uuele protsessile 
+	 *  saadetakse soojendusp&auml;ring (tyhi dokument): kui protsess sureb enne vastamist, 
+	 *  visatakse <code>IOException</code>; kui protsess on elus, kuid ei vasta aja 
+	 *  <code>kaivitusAegumine</code> jooksul, j&auml;tab kogum puhverdamise veateate meelde ning 
+	 *  viskab (ka k&otilde;igil j&auml;rgmistel k&auml;ivitamiskatsetel) <code>EstYhmmErind</code>-i.
+	 */
+	private AnalyysiProtsess taaskaivita(AnalyysiProtsess vana) throws IOException, EstYhmmErind {
+		if (vana != null && vana != AnalyysiProtsess.KAIVITAMATA){
+			havita( vana );
+		}
+		if (this.kaivitusViga != null){
+			throw new EstYhmmErind( this.kaivitusViga );
+		}
+		AnalyysiProtsess uus = new AnalyysiProtsess( this.cmds, this.charset );
+		synchronized (this.koikProtsessid) {
+			(this.koikProtsessid).add( uus );
+		}
+		try {
+			uus.analyysi("", this.eraldaja, this.kaivitusAegumine);
+		} catch (IOException e) {
+			boolean elus = uus.onElus();
+			havita( uus );
+			if (elus){
+				this.kaivitusViga = "Analyser '"+kask()+"' did not answer an empty document within "+
+						this.kaivitusAegumine+" ms after start while its input was kept open: it "+
+						"probably buffers its output instead of flushing it after every line. "+
+						"Use an analyser that flushes its output per line, raise the start timeout, "+
+						"or use "+EstyhmmWrapperImpl.class.getSimpleName()+" instead.";
+				throw new EstYhmmErind( this.kaivitusViga );
+			}
+			throw new IOException("Analyser '"+kask()+"' terminated at startup: "+e.getMessage(), e);
+		}
+		return uus;
+	}
+
+	private void havita(AnalyysiProtsess protsess){
+		protsess.havita();
+		synchronized (this.koikProtsessid) {
+			(this.koikProtsessid).remove( protsess );
+		}
+	}
+
+	private String kask(){
+		StringBuilder sb = new StringBuilder();
+		for (String cmdName : this.cmds) {
+			if (sb.length() > 0){
+				sb.append(' ');
+			}
+			sb.append(cmdName);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 *   H&auml;vitab k&otilde;ik k&auml;ivitatud analysaatori protsessid. P&auml;rast
+	 *  sulgemist ei saa m&auml;hist enam kasutada.
+	 */
+	public void close() {
+		this.suletud = true;
+		synchronized (this.koikProtsessid) {
+			for (AnalyysiProtsess protsess : this.koikProtsessid) {
+				protsess.havita();
+			}
+			(this.koikProtsessid).clear();
+		}
+	}
+
+	//==============================================================================
+	//   	A n a l y s a a t o r i   p r o t s e s s
+	//==============================================================================
+
+	/**
+	 *   Yks p&uuml;siv analysaatori protsess koos tema v&auml;ljundvoogusid lugevate
+	 *  l6imedega. Standardv&auml;ljundi read paigutatakse j&auml;rjekorda <code>read</code>,
+	 *  kust neid saab aegumisega lugeda; standardveavoog loetakse lihtsalt tyhjaks.
+	 */
+	private static class AnalyysiProtsess {
+
+		/** T&auml;histab kogumis veel k&auml;ivitamata protsessi. */
+		static final AnalyysiProtsess KAIVITAMATA = new AnalyysiProtsess();
+
+		/** T&auml;histab j&auml;rjekorras standardv&auml;ljundi l6ppu. */
+		private static final String VOO_LOPP = new String("<EOF>");
+
+		private final Process protsess;
+		private final BufferedWriter sisend;
+		private final BlockingQueue<String> read = new LinkedBlockingQueue<String>();
+
+		private AnalyysiProtsess(){
+			this.protsess = null;
+			this.sisend   = null;
+		}
+
+		AnalyysiProtsess(String [] cmds, String charset) throws IOException {
+		    List<String> command = new ArrayList<String>( cmds.length );
+		    for (String cmdName : cmds) { command.add( cmdName ); }
+		    ProcessBuilder pb = new ProcessBuilder(command);
+		    this.protsess = pb.start();
+		    this.sisend = new BufferedWriter(
+		    		new OutputStreamWriter( (this.protsess).getOutputStream(), charset ) );
+		    kaivitaLugeja( (this.protsess).getInputStream(), charset, this.read );
+		    kaivitaLugeja( (this.protsess).getErrorStream(), charset, null );
+		}
+
+		/**
+		 *   K&auml;ivitab l6ime, mis loeb voost ridu ning paigutab need j&auml;rjekorda
+		 *  <code>sihtkoht</code> (kui see on <code>null</code>, siis read lihtsalt visatakse &auml;ra).
+		 */
+		private static void kaivitaLugeja(final InputStream voog, final String charset,
+										  final BlockingQueue<String> sihtkoht) throws IOException {
+			final BufferedReader br = new BufferedReader( new InputStreamReader(voog, charset) );
+			Thread loim = new Thread("estyhmm-pool-reader"){
+				public void run() {
+					try {
+						String line = null;
+						while ( (line = br.readLine()) != null ){
+							if (sihtkoht != null){
+								sihtkoht.add(line);
+							}
+						}
+					} catch (IOException ioe){
+						// Voog suleti (protsess h2vitati)
+					} finally {
+						if (sihtkoht != null){
+							sihtkoht.add(VOO_LOPP);
+						}
+					}
+				}
+			};
+			loim.setDaemon(true);
+			loim.start();
+		}
+
+		boolean onElus(){
+			return (this.protsess).isAlive();
+		}
+
+		/**
+		 *   Saadab teksti analyysimiseks ja tagastab analysaatori v&auml;ljundi kuni eraldaja-tokeni
+		 *  analyysini (eraldaja rida v&auml;ljundisse ei kuulu). Viskab <code>IOException</code>'i,
+		 *  kui protsess suri, vastus aegus v6i kirjutamine eba6nnestus.
+		 */
+		String analyysi(String text, String eraldaja, long vastuseAegumine) throws IOException {
+			(this.read).clear();
+			(this.sisend).append( text );
+			if (text.length() > 0 && !text.endsWith("\n")){
+				(this.sisend).append( "\n" );
+			}
+			(this.sisend).append( "\n" );
+			(this.sisend).append( eraldaja );
+			(this.sisend).append( "\n" );
+			(this.sisend).flush();
+			StringBuilder valjund = new StringBuilder( text.length() * 4 );
+			while (true){
+				String rida = null;
+				try {
+					rida = (this.read).poll( vastuseAegumine, TimeUnit.MILLISECONDS );
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while waiting for the analyser.");
+				}
+				if (rida == null){
+					throw new IOException("Analyser did not respond within "+vastuseAegumine+" ms.");
+				}
+				if (rida == VOO_LOPP){
+					throw new IOException("Analyser process terminated unexpectedly.");
+				}
+				if (rida.equals(eraldaja) || rida.startsWith(eraldaja+" ") || rida.startsWith(eraldaja+"\t")){
+					return valjund.toString();
+				}
+				(valjund.append(rida)).append("\n");
+			}
+		}
+
+		void havita(){
+			if (this.protsess != null){
+				(this.protsess).destroy();
+			}
+		}
+	}
+
+	//==============================================================================
+	//   	G e t t e r s   &   S e t t e r s
+	//==============================================================================
+
+	public String getEraldaja() {
+		return eraldaja;
+	}
+
+	public void setEraldaja(String eraldaja) {
+		this.eraldaja = eraldaja;
+	}
+
+	public long getVastuseAegumine() {
+		return vastuseAegumine;
+	}
+
+	public void setVastuseAegumine(long vastuseAegumine) {
+		this.vastuseAegumine = vastuseAegumine;
+	}
+
+	public long getKaivitusAegumine() {
+		return kaivitusAegumine;
+	}
+
+	public void setKaivitusAegumine(long kaivitusAegumine) {
+		this.kaivitusAegumine = kaivitusAegumine;
+	}
+
+}
@@ -0,0 +1,210 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.wrappers.impl;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+
+/**
+ *    Vabamorfi JSON sisendi syndmuste lint: sisend parsitakse yhe korra ning k&otilde;ik
+ *   parseri syndmused (koos v&otilde;tmete ja v&auml;&auml;rtustega) j&auml;etakse kompaktselt
+ *   meelde. Lindi p&otilde;hjal saab hiljem sisendi uuesti l&auml;bi k&auml;ia ilma seda
+ *   parsimata: nii morfoloogiliste analyyside v&auml;ljalugemisel (vt
+ *   {@link VabaMorfJSONReader#parseJSONtext(VabaMorfJSONLint)}) kui ka tulemuse
+ *   v&auml;ljakirjutamisel (vt <code>JarelTootlus.eraldamiseTulemusVabaMorfiJSON</code>).
+ *   <p>
+ *   Lisaks j&auml;etakse meelde sisendi referentsaeg: esimese v&otilde;tme "dct" (suurt&auml;hti
+ *   arvestamata) mittetyhi s&otilde;ne-v&auml;&auml;rtus.
+ *   <p>
+ *   Lint on p&auml;rast loomist muutumatu.
+ *
+ *   @author Siim Orasmaa
+ */
+public class VabaMorfJSONLint {
+
+	private static final JsonParser.Event [] SYNDMUSED = JsonParser.Event.values();
+
+	/**
+	 *   Syndmuste j&auml;rjekorranumbrid (<code>JsonParser.Event.ordinal()</code>).
+	 */
+	private byte [] syndmused;
+
+	/**
+	 *   Syndmustega seotud s&otilde;ned: v&otilde;tme nimi (KEY_NAME), s&otilde;ne-v&auml;&auml;rtus
+	 *   (VALUE_STRING) v&otilde;i arvu tekstikuju (VALUE_NUMBER); teiste syndmuste korral
+	 *   <code>null</code>.
+	 */
+	private String [] vaartused;
+
+	/**
+	 *   Millised arvud (syndmuse j&auml;rjekorranumbri j&auml;rgi) on t&auml;isarvud (vt
+	 *   <code>JsonParser.isIntegralNumber()</code>)?
+	 */
+	private final BitSet taisarvud = new BitSet();
+
+	private int pikkus = 0;
+
+	private String dct = null;
+
+	/**
+	 *   Kas lint sisaldab yhte lauset (v&otilde;tit "words" koos selle v&auml;&auml;rtusega)? Vt 
+	 *   {@link VabaMorfJSONVoog}.
+	 */
+	private boolean onLause = false;
+
+	VabaMorfJSONLint(int mahutavus){
+		this.syndmused = new byte [mahutavus];
+		this.vaartused = new String [mahutavus];
+	}
+
+	//==============================================================================
+	//   	L i n d i    l o o m i n e
+	//==============================================================================
+
+	/**
+	 *   Parsib JSON s&otilde;ne <code>json</code> ning tagastab selle syndmuste lindi.
+	 */
+	public static VabaMorfJSONLint loe(String json){
+		// Hinnang: vabamorfi JSON-is on keskmiselt yks syndmus iga ~8 m2rgi kohta
+		VabaMorfJSONLint lint = new VabaMorfJSONLint( Math.max(16, json.length() >> 3) );
+		lint.lisaSyndmused( Json.createParser( new StringReader(json) ) );
+		return lint;
+	}
+
+	/**
+	 *   Parsib sisendist <code>sisend</code> tuleva JSON-i ning tagastab selle syndmuste lindi.
+	 */
+	public static VabaMorfJSONLint loe(Reader sisend){
+		VabaMorfJSONLint lint = new VabaMorfJSONLint( 1024 );
+		lint.lisaSyndmused( Json.createParser( sisend ) );
+		return lint;
+	}
+
+	private void lisaSyndmused(JsonParser parser){
+		// Korduvad v6tmed ("text", "analysis", "root" jne) hoiame m2lus yhe objektina
+		HashMap<String, String> votmed = new HashMap<String, String>();
+		JsonParser.Event eelmine = null;
+		String eelmineVoti = null;
+		while (parser.hasNext()) {
+			JsonParser.Event syndmus = parser.next();
+			String vaartus = null;
+			switch (syndmus) {
+				case KEY_NAME:
+					vaartus = parser.getString();
+					String olemasolev = votmed.get(vaartus);
+					if (olemasolev == null){
+						votmed.put(vaartus, vaartus);
+					} else {
+						vaartus = olemasolev;
+					}
+					eelmineVoti = vaartus;
+					break;
+				case VALUE_STRING:
+					vaartus = parser.getString();
+					if (this.dct == null && eelmine == JsonParser.Event.KEY_NAME &&
+							eelmineVoti.equalsIgnoreCase("dct") && vaartus.length() > 0){
+						this.dct = vaartus;
+					}
+					break;
+				case VALUE_NUMBER:
+					vaartus = parser.getString();
+					if (parser.isIntegralNumber()){
+						(this.taisarvud).set( this.pikkus );
+					}
+					break;
+				default:
+					break;
+			}
+			lisa(syndmus, vaartus);
+			eelmine = syndmus;
+		}
+		parser.close();
+	}
+
+	void lisa(JsonParser.Event syndmus, String vaartus){
+		if (this.pikkus == (this.syndmused).length){
+			int uusMahutavus = (this.pikkus) + (this.pikkus >> 1) + 16;
+			this.syndmused = Arrays.copyOf(this.syndmused, uusMahutavus);
+			this.vaartused = Arrays.copyOf(this.vaartused, uusMahutavus);
+		}
+		this.syndmused[this.pikkus] = (byte) syndmus.ordinal();
+		this.vaartused[this.pikkus] = vaartus;
+		this.pikkus++;
+	}
+
+	void margiTaisarvuks(int i){
+		(this.taisarvud).set( i );
+	}
+
+	//==============================================================================
+	//   	P a r i n g u d
+	//==============================================================================
+
+	/**
+	 *   Syndmuste arv lindil.
+	 */
+	public int getPikkus() {
+		return pikkus;
+	}
+
+	public JsonParser.Event getSyndmus(int i){
+		return SYNDMUSED[ this.syndmused[i] ];
+	}
+
+	/**
+	 *   Syndmusega <code>i</code> seotud v&otilde;tme nimi, s&otilde;ne-v&auml;&auml;rtus v&otilde;i
+	 *   arvu tekstikuju (vt <code>JsonParser.getString()</code>).
+	 */
+	public String getVaartus(int i){
+		return this.vaartused[i];
+	}
+
+	/**
+	 *   Kas syndmus <code>i</code> on t&auml;isarv (vt <code>JsonParser.isIntegralNumber()</code>)?
+	 */
+	public boolean kasOnTaisarv(int i){
+		return (this.taisarvud).get(i);
+	}
+
+	/**
+	 *   Sisendis antud referentsaeg (v&otilde;tme "dct" v&auml;&auml;rtus) v&otilde;i <code>null</code>,
+	 *   kui seda polnud.
+	 */
+	public String getDCT() {
+		return dct;
+	}
+
+	/**
+	 *   Kas lint sisaldab (voost loetud) yhte lauset? Vt {@link VabaMorfJSONVoog#jargmineLoik()}.
+	 */
+	public boolean onLause() {
+		return onLause;
+	}
+
+	void setOnLause(boolean onLause) {
+		this.onLause = onLause;
+	}
+
+}
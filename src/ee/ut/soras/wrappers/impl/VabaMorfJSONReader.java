@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
 
-import javax.json.Json;
 import javax.json.stream.JsonParser;
 
 import ee.ut.soras.wrappers.mudel.MorfAnRida;
@@ -66,6 +65,15 @@ public class VabaMorfJSONReader {
 	 * @throws Exception kui JSONi parsimisel midagi viltu l2heb
 	 */
 	public static List<MorfAnSona> parseJSONtext(BufferedReader input) throws Exception {
+		return parseJSONtext( VabaMorfJSONLint.loe(input) );
+	}
+	
+	/**
+	 *   JSONi formaadis vabamorfi v2ljundist morfoloogiliste analyyside v2ljalugemine juba
+	 *  parsitud sisendi syndmuste lindilt (vt {@link VabaMorfJSONLint}); sama, mis 
+	 *  <code>parseJSONtext(BufferedReader)</code>, kuid sisendit uuesti ei parsita.
+	 */
+	public static List<MorfAnSona> parseJSONtext(VabaMorfJSONLint lint) throws Exception {
 		List<MorfAnSona> tulemused = new ArrayList<MorfAnSona>();
 		
 		// JSON-i v6tmete rada ( k6ige pealmine on vaadeldav v6ti... )
@@ -81,9 +89,8 @@ public class VabaMorfJSONReader {
 		// jooksva s6na tekstikuju
 		String tokenText = null;
 		
-		JsonParser parser = Json.createParser( input );
-		while (parser.hasNext()) {
-			   JsonParser.Event event = parser.next();
+		for (int k = 0; k < lint.getPikkus(); k++) {
+			   JsonParser.Event event = lint.getSyndmus(k);
 			   switch(event) {
 			      case START_ARRAY:
 			    	  if (lastEvent != null && lastEvent == javax.json.stream.JsonParser.Event.KEY_NAME){
@@ -168,27 +175,27 @@ public class VabaMorfJSONReader {
 			      case KEY_NAME:
 			    	 //
 			         //System.out.println(printPath(jsonKeyPath)+" || "+event.toString() + " " +
-			         //                 parser.getString() + " - ");
+			         //                 lint.getVaartus(k) + " - ");
 			         lastEvent  = event;
-			         lastString = parser.getString();
+			         lastString = lint.getVaartus(k);
 			         break;
 			      case VALUE_STRING:
 			      case VALUE_NUMBER:
 			    	 //
 			         //System.out.println(printPath(jsonKeyPath)+" || "+event.toString() + " " +
-			         //                   parser.getString());
+			         //                   lint.getVaartus(k));
 			         keyValuePairs.add(lastString);
-			         keyValuePairs.add(parser.getString());
+			         keyValuePairs.add(lint.getVaartus(k));
 			         // ---------------------------------------------------
 			         //   Jätame meelde sõna tekstilise kuju ...
 			         // ---------------------------------------------------
 			         if (!jsonKeyPath.empty() && (jsonKeyPath.peek()).equals( "words")){
 				         if (lastString != null && lastString.equals("text")){
-				        	tokenText = parser.getString();
+				        	tokenText = lint.getVaartus(k);
 				         }			        	 
 			         }
 			         lastEvent  = event;
-			         lastString = parser.getString();
+			         lastString = lint.getVaartus(k);
 			         break;
 			   }
 		}
@@ -0,0 +1,174 @@
+//  Ajavt: Temporal Expression Tagger for Estonian
+//  Copyright (C) 2009-2015  University of Tartu
+//  Author:   Siim Orasmaa
+//  Contact:  siim . orasmaa {at} ut . ee
+//
+//  This program is released under dual license: either GNU General
+//  Public License v2.0 or Apache 2.0 License.
+//
+//  Full copy of GNU General Public License v2.0 can be found at
+//  http://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html .
+//
+//  Full copy of Apache 2.0 License can be found at
+//  http://www.apache.org/licenses/LICENSE-2.0 .
+//
+//  This program is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+
+package ee.ut.soras.wrappers.impl;
+
+import java.io.Reader;
+import java.util.HashMap;
+
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+
+/**
+ *    Vabamorfi JSON sisendi j&auml;rkj&auml;rguline lugemine: sisendit ei loeta korraga m&auml;llu,
+ *   vaid see jagatakse j&auml;rjestikusteks l&otilde;ikudeks (syndmuste lintideks, vt
+ *   {@link VabaMorfJSONLint}), mida saab ykshaaval t&ouml;&ouml;delda ja seej&auml;rel unustada.
+ *   <p>
+ *   L&otilde;ike on kahte liiki:
+ *   <ul>
+ *     <li> <i>lause</i> - v&otilde;ti "words" koos selle v&auml;&auml;rtusega (s&otilde;nade
+ *          j&auml;rjendiga); sellise lindi saab anda otse
+ *          {@link VabaMorfJSONReader#parseJSONtext(VabaMorfJSONLint)}-le;</li>
+ *     <li> <i>vahel&otilde;ik</i> - k&otilde;ik syndmused kahe lause vahel (l&otilde;igu ja lause
+ *          objektide algused/l&otilde;pud, muud v&otilde;tmed jms);</li>
+ *   </ul>
+ *   K&otilde;igi l&otilde;ikude syndmused j&auml;rjest kokku annavad t&auml;pselt kogu sisendi
+ *   syndmuste jada.
+ *   <p>
+ *   Sisendi referentsaeg (vt {@link VabaMorfJSONLint#getDCT()}) on teada alles siis, kui
+ *   voost on loetud v&otilde;ti "dct"; seni tagastab {@link #getDCT()} <code>null</code>.
+ *
+ *   @author Siim Orasmaa
+ */
+public class VabaMorfJSONVoog {
+
+	private final JsonParser parser;
+
+	/**
+	 *   Korduvad v&otilde;tmed ("text", "analysis", "root" jne) hoiame m&auml;lus yhe objektina
+	 *   (yle k&otilde;igi l&otilde;ikude).
+	 */
+	private final HashMap<String, String> votmed = new HashMap<String, String>();
+
+	/**
+	 *   Kas eelmise vahel&otilde;igu l&otilde;pus loeti juba j&auml;rgmise lause v&otilde;ti "words"?
+	 */
+	private boolean lauseOotel = false;
+
+	/**
+	 *   Kas sisend on l&otilde;puni loetud (ja parser suletud)?
+	 */
+	private boolean loppenud = false;
+
+	private JsonParser.Event eelmine = null;
+
+	private String eelmineVoti = null;
+
+	private String dct = null;
+
+	public VabaMorfJSONVoog(Reader sisend){
+		this.parser = Json.createParser( sisend );
+	}
+
+	/**
+	 *   Loeb voost j&auml;rgmise l&otilde;igu (lause v&otilde;i vahel&otilde;igu, vt
+	 *   {@link VabaMorfJSONLint#onLause()}); kui sisend on l&otilde;ppenud, tagastab
+	 *   <code>null</code>.
+	 */
+	public VabaMorfJSONLint jargmineLoik(){
+		if (this.loppenud){
+			return null;
+		}
+		if (this.lauseOotel){
+			this.lauseOotel = false;
+			VabaMorfJSONLint lause = new VabaMorfJSONLint( 256 );
+			lause.setOnLause( true );
+			lause.lisa( JsonParser.Event.KEY_NAME, "words" );
+			// Loeme v6tme v22rtuse (tavaliselt s6nade massiivi) l6puni
+			int sygavus = 0;
+			do {
+				if (!(this.parser).hasNext()){
+					break;
+				}
+				JsonParser.Event syndmus = this.loeSyndmus( lause );
+				if (syndmus == JsonParser.Event.START_ARRAY || syndmus == JsonParser.Event.START_OBJECT){
+					sygavus++;
+				} else if (syndmus == JsonParser.Event.END_ARRAY || syndmus == JsonParser.Event.END_OBJECT){
+					sygavus--;
+				}
+			} while (sygavus > 0);
+			return lause;
+		}
+		VabaMorfJSONLint vahel6ik = new VabaMorfJSONLint( 16 );
+		while ((this.parser).hasNext()) {
+			JsonParser.Event syndmus = (this.parser).next();
+			if (syndmus == JsonParser.Event.KEY_NAME && ((this.parser).getString()).equals("words")){
+				// J2rgmine lause algab: vahel6ik saab l2bi
+				this.eelmine     = syndmus;
+				this.eelmineVoti = "words";
+				this.lauseOotel  = true;
+				if (vahel6ik.getPikkus() == 0){
+					return this.jargmineLoik();
+				}
+				return vahel6ik;
+			}
+			this.lisaSyndmus( vahel6ik, syndmus );
+		}
+		(this.parser).close();
+		this.loppenud = true;
+		return (vahel6ik.getPikkus() > 0) ? (vahel6ik) : (null);
+	}
+
+	private JsonParser.Event loeSyndmus(VabaMorfJSONLint lint){
+		JsonParser.Event syndmus = (this.parser).next();
+		this.lisaSyndmus( lint, syndmus );
+		return syndmus;
+	}
+
+	private void lisaSyndmus(VabaMorfJSONLint lint, JsonParser.Event syndmus){
+		String vaartus = null;
+		switch (syndmus) {
+			case KEY_NAME:
+				vaartus = (this.parser).getString();
+				String olemasolev = (this.votmed).get(vaartus);
+				if (olemasolev == null){
+					(this.votmed).put(vaartus, vaartus);
+				} else {
+					vaartus = olemasolev;
+				}
+				this.eelmineVoti = vaartus;
+				break;
+			case VALUE_STRING:
+				vaartus = (this.parser).getString();
+				if (this.dct == null && this.eelmine == JsonParser.Event.KEY_NAME &&
+						(this.eelmineVoti).equalsIgnoreCase("dct") && vaartus.length() > 0){
+					this.dct = vaartus;
+				}
+				break;
+			case VALUE_NUMBER:
+				vaartus = (this.parser).getString();
+				if ((this.parser).isIntegralNumber()){
+					lint.margiTaisarvuks( lint.getPikkus() );
+				}
+				break;
+			default:
+				break;
+		}
+		lint.lisa(syndmus, vaartus);
+		this.eelmine = syndmus;
+	}
+
+	/**
+	 *   Seni loetud sisendis antud referentsaeg (v&otilde;tme "dct" v&auml;&auml;rtus) v&otilde;i
+	 *   <code>null</code>, kui seda pole (veel) olnud.
+	 */
+	public String getDCT() {
+		return dct;
+	}
+
+}